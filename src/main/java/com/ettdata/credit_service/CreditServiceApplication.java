@@ -2,8 +2,10 @@ package com.ettdata.credit_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CreditServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,15 @@
+package com.ettdata.credit_service.application.port.in;
+
+import com.ettdata.credit_service.domain.model.CreditHoldResponse;
+import com.ettdata.credit_service.infrastructure.model.CreditHoldRequest;
+import reactor.core.publisher.Mono;
+
+public interface CreditHoldInputPort {
+  Mono<CreditHoldResponse> authorize(CreditHoldRequest request);
+
+  Mono<CreditHoldResponse> capture(String holdId);
+
+  Mono<CreditHoldResponse> release(String holdId);
+
+  Mono<CreditHoldResponse> getHold(String holdId);
+}
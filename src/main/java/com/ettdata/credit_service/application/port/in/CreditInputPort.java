@@ -1,9 +1,13 @@
 package com.ettdata.credit_service.application.port.in;
 
+import com.ettdata.credit_service.domain.model.Credit;
 import com.ettdata.credit_service.domain.model.CreditListResponse;
 import com.ettdata.credit_service.domain.model.CreditResponse;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
 import com.ettdata.credit_service.infrastructure.model.CreditRequest;
 import com.ettdata.credit_service.infrastructure.model.DisbursementRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.math.BigDecimal;
 
@@ -11,11 +15,18 @@ public interface CreditInputPort {
   Mono<CreditListResponse> getAllCredits();
   Mono<CreditResponse> getCreditById(String creditId);
   Mono<CreditListResponse> getCreditsByDocumentNumber(String documentNumber);
+  Mono<CreditListResponse> getArchivedCreditById(String creditId);
+  Mono<CreditListResponse> getArchivedCreditsByDocumentNumber(String documentNumber);
   Mono<CreditResponse> createCredit(CreditRequest creditRequest);
   Mono<CreditResponse> updateCredit(String id, CreditRequest creditRequest);
   Mono<CreditResponse> cancelCredit(String creditId);
   Mono<CreditResponse> markAsOverdue(String creditId);
   Mono<CreditResponse> deleteCredit(String creditId);
   Mono<CreditResponse> disburseCredit(DisbursementRequest request);
+  Mono<String> getCreditVersionTag(String creditId);
+  Mono<String> getCreditsVersionTag(String documentNumber);
+  Flux<Credit> exportCredits(CreditStatus status, CreditType type);
+  Flux<Credit> streamCreditsByDocumentNumber(String documentNumber);
+  Flux<Credit> watchCreditChanges();
 
 }
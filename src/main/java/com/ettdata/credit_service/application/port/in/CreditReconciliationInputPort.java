@@ -0,0 +1,13 @@
+package com.ettdata.credit_service.application.port.in;
+
+import com.ettdata.credit_service.domain.model.ReconciliationReportResponse;
+import reactor.core.publisher.Mono;
+
+public interface CreditReconciliationInputPort {
+  /**
+   * Lanza una pasada en segundo plano; error si ya hay una en curso.
+   */
+  Mono<ReconciliationReportResponse> startReconciliation(boolean repair);
+
+  Mono<ReconciliationReportResponse> getLatestReconciliation();
+}
@@ -0,0 +1,9 @@
+package com.ettdata.credit_service.application.port.in;
+
+import com.ettdata.credit_service.domain.model.CreditTransitionResponse;
+import com.ettdata.credit_service.infrastructure.model.CreditTransitionRequest;
+import reactor.core.publisher.Mono;
+
+public interface CreditTransitionInputPort {
+  Mono<CreditTransitionResponse> applyTransition(CreditTransitionRequest request);
+}
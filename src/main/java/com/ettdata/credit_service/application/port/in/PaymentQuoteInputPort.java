@@ -0,0 +1,9 @@
+package com.ettdata.credit_service.application.port.in;
+
+import com.ettdata.credit_service.domain.model.PaymentQuoteResponse;
+import com.ettdata.credit_service.infrastructure.model.PaymentQuoteRequest;
+import reactor.core.publisher.Mono;
+
+public interface PaymentQuoteInputPort {
+  Mono<PaymentQuoteResponse> quote(PaymentQuoteRequest request);
+}
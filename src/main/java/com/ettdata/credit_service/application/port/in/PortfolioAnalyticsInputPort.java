@@ -0,0 +1,8 @@
+package com.ettdata.credit_service.application.port.in;
+
+import com.ettdata.credit_service.domain.model.PortfolioAnalyticsResponse;
+import reactor.core.publisher.Mono;
+
+public interface PortfolioAnalyticsInputPort {
+  Mono<PortfolioAnalyticsResponse> getPortfolioAnalytics();
+}
@@ -0,0 +1,12 @@
+package com.ettdata.credit_service.application.port.in;
+
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementReportResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface SettlementInputPort {
+  Mono<SettlementReportResponse> ingestSettlement(String fileId, SettlementFormat format, Flux<String> lines);
+
+  Mono<SettlementReportResponse> getSettlementReport(String fileId);
+}
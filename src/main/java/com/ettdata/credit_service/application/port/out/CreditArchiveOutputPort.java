@@ -0,0 +1,14 @@
+package com.ettdata.credit_service.application.port.out;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditArchiveBatch;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+
+public interface CreditArchiveOutputPort {
+  /** Mueve al archivo un lote de créditos cerrados antes de la fecha; devuelve los leídos y los que salieron de la colección viva. */
+  Mono<CreditArchiveBatch> archiveClosedBefore(LocalDateTime cutoff, int batchSize);
+  Mono<Credit> findArchivedById(String idCredit);
+  Flux<Credit> findArchivedByDocumentNumber(String documentNumber);
+}
@@ -0,0 +1,32 @@
+package com.ettdata.credit_service.application.port.out;
+
+import com.ettdata.credit_service.domain.model.CreditHold;
+import com.ettdata.credit_service.domain.model.CreditHoldStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface CreditHoldOutputPort {
+  Mono<CreditHold> insert(CreditHold hold);
+
+  Mono<CreditHold> findById(String holdId);
+
+  Flux<CreditHold> findAuthorized();
+
+  /**
+   * Retenciones capturadas cuyo cargo no se ha confirmado.
+   */
+  Flux<CreditHold> findCapturing();
+
+  /**
+   * Cambia el estado solo si la retención sigue en el estado esperado.
+   * @return true si se aplicó
+   */
+  Mono<Boolean> updateStatus(String holdId, CreditHoldStatus expected, CreditHoldStatus status, LocalDateTime at);
+
+  /**
+   * Marca como vencidas, en una sola escritura, las retenciones que sigan autorizadas.
+   */
+  Mono<Long> expire(Collection<String> holdIds, LocalDateTime at);
+}
@@ -0,0 +1,19 @@
+package com.ettdata.credit_service.application.port.out;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditIdRange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+public interface CreditReconciliationOutputPort {
+  /**
+   * Reparte la colección en unos count tramos de tamaño parecido; entre todos cubren todos los ids.
+   */
+  Mono<List<CreditIdRange>> splitIdRanges(int count);
+
+  /**
+   * Recorre un tramo leyendo solo los campos de las invariantes (id, importes, estado, marca de mora y versión).
+   */
+  Flux<Credit> scanIdRange(CreditIdRange range, int batchSize);
+}
@@ -1,6 +1,9 @@
 package com.ettdata.credit_service.application.port.out;
 
 import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.CreditVersion;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,5 +12,11 @@ public interface CreditRepositoryOutputPort {
   Mono<Credit> saveCredit(Credit credit);
   Mono<Void> deleteByIdCredit(String idCredit);
   Flux<Credit> findByDocumentNumber(String documentNumber);
+  /** Créditos del cliente con saldo vivo (ACTIVE, OVERDUE o con deuda vencida): los que deciden la elegibilidad. */
+  Flux<Credit> findOpenByDocumentNumber(String documentNumber);
   Mono<Credit> findById(String idCredit);
+  Flux<CreditVersion> findVersionsByDocumentNumber(String documentNumber);
+  Mono<CreditVersion> findVersionById(String idCredit);
+  Flux<Credit> streamCredits(CreditStatus status, CreditType type);
+  Flux<Credit> watchCredits();
 }
@@ -0,0 +1,17 @@
+package com.ettdata.credit_service.application.port.out;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.Collection;
+import java.util.List;
+
+public interface CreditTransitionOutputPort {
+  Flux<Credit> findByIds(Collection<String> creditIds);
+
+  /**
+   * Guarda los créditos en una sola escritura por lotes, condicionada a la versión leída.
+   * @return créditos guardados; los que cambiaron entre la lectura y la escritura no se incluyen
+   */
+  Mono<List<Credit>> saveAll(List<Credit> credits);
+}
@@ -2,7 +2,15 @@ package com.ettdata.credit_service.application.port.out;
 
 import com.ettdata.credit_service.domain.model.CustomerResponse;
 import reactor.core.publisher.Mono;
+import java.util.Collection;
+import java.util.Map;
 
 public interface CustomerOutputPort {
   Mono<CustomerResponse> getCustomerByDocument(String customerDocument);
+
+  /**
+   * Consulta varios clientes en una sola llamada.
+   * @return clientes encontrados indexados por número de documento (los inexistentes no aparecen)
+   */
+  Mono<Map<String, CustomerResponse>> getCustomersByDocuments(Collection<String> customerDocuments);
 }
@@ -0,0 +1,10 @@
+package com.ettdata.credit_service.application.port.out;
+
+import reactor.core.publisher.Flux;
+
+public interface OverdueCustomerOutputPort {
+  /**
+   * Documento del cliente de cada crédito con deuda vencida; un cliente sale una vez por crédito.
+   */
+  Flux<String> streamOverdueCustomerDocuments();
+}
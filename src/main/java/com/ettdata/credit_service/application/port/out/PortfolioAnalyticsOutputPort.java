@@ -0,0 +1,15 @@
+package com.ettdata.credit_service.application.port.out;
+
+import com.ettdata.credit_service.domain.model.ExposureCell;
+import com.ettdata.credit_service.domain.model.PortfolioAnalytics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+
+public interface PortfolioAnalyticsOutputPort {
+  Mono<PortfolioAnalytics> aggregatePortfolio();
+  Mono<Long> countCredits();
+  Mono<Boolean> hasChangesSince(LocalDateTime updatedAt);
+  /** Exposición por tipo y estado, con las escrituras pendientes ya persistidas. */
+  Flux<ExposureCell> aggregateExposure();
+}
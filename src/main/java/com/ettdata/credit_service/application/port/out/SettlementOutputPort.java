@@ -0,0 +1,46 @@
+package com.ettdata.credit_service.application.port.out;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementReport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SettlementOutputPort {
+  Mono<SettlementReport> findReport(String fileId);
+
+  /**
+   * Reserva el fichero para una ingesta de forma atómica: lo crea si no existe o lo pasa a RUNNING con claimId
+   * si no está completado ni en curso. Una ingesta en curso sin actividad desde staleBefore se da por caída.
+   * @return el informe reservado, o vacío si el fichero está completado o lo tiene otra ingesta
+   */
+  Mono<SettlementReport> claimReport(String fileId, SettlementFormat format, String claimId, LocalDateTime staleBefore);
+
+  /**
+   * Toma el turno de ingesta: solo un fichero a la vez puede tener pagos aplicados sin completar.
+   * Lo conserva quien lo tiene hasta que su fichero se completa, aunque la ingesta falle o caiga.
+   * @return el fichero que tiene el turno tras el intento; si no es fileId, lo tiene otro
+   */
+  Mono<String> acquireIngestionTurn(String fileId);
+
+  /**
+   * Libera el turno si lo tiene fileId.
+   */
+  Mono<Void> releaseIngestionTurn(String fileId);
+
+  /**
+   * Guarda el informe solo si el fichero sigue reservado con su claimId; si no, falla.
+   */
+  Mono<SettlementReport> saveReport(SettlementReport report);
+
+  Flux<Credit> findByCreditNumbers(Collection<String> creditNumbers);
+
+  /**
+   * Guarda los saldos de los créditos en una sola escritura por lotes, condicionada a la versión leída.
+   * @return créditos guardados, con su nueva versión; los que cambiaron entre la lectura y la escritura no están
+   */
+  Mono<List<Credit>> applyPayments(List<Credit> credits);
+}
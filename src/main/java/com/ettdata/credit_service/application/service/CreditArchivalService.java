@@ -0,0 +1,83 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.out.CreditArchiveOutputPort;
+import com.ettdata.credit_service.domain.model.CreditArchiveBatch;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archivado periódico de créditos cerrados (INACTIVE, CANCELLED) sin cambios en el periodo de retención.
+ * Trabaja por lotes con una pausa entre ellos para no competir con el tráfico, y se puede interrumpir y
+ * relanzar: cada lote es repetible. Nunca hay dos pasadas a la vez.
+ */
+@Service
+@Slf4j
+public class CreditArchivalService {
+
+  private final CreditArchiveOutputPort archiveOutputPort;
+  private final ExposureCounters exposure;
+  private final boolean enabled;
+  private final Duration retention;
+  private final int batchSize;
+  private final Duration batchPause;
+  private final Counter archived;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  public CreditArchivalService(CreditArchiveOutputPort archiveOutputPort,
+                               ExposureCounters exposure,
+                               @Value("${credit.archive.enabled:true}") boolean enabled,
+                               @Value("${credit.archive.retention:180d}") Duration retention,
+                               @Value("${credit.archive.batch-size:500}") int batchSize,
+                               @Value("${credit.archive.batch-pause:200ms}") Duration batchPause,
+                               MeterRegistry meterRegistry) {
+    this.archiveOutputPort = archiveOutputPort;
+    this.exposure = exposure;
+    this.enabled = enabled;
+    this.retention = retention;
+    this.batchSize = batchSize;
+    this.batchPause = batchPause;
+    this.archived = meterRegistry.counter("credit.archive.moved");
+  }
+
+  @Scheduled(fixedDelayString = "${credit.archive.interval-ms:3600000}",
+        initialDelayString = "${credit.archive.initial-delay-ms:60000}")
+  public void scheduledArchival() {
+    if (!enabled || !running.compareAndSet(false, true)) {
+      return;
+    }
+    archiveClosedCredits()
+          .doFinally(signal -> running.set(false))
+          .subscribe(
+                moved -> log.info("Archived {} closed credits", moved),
+                error -> log.warn("Credit archival stopped: {}", error.getMessage()));
+  }
+
+  /**
+   * Archiva por lotes hasta que la lectura de candidatos sale incompleta. Se decide por lo leído, no por lo
+   * movido: un lote lleno en el que algún crédito cambió y se quedó vivo no significa que no queden más.
+   */
+  Mono<Long> archiveClosedCredits() {
+    return Mono.defer(() -> {
+      LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+      return archiveBatch(cutoff)
+            .expand(batch -> batch.getRead() == batchSize
+                  ? Mono.delay(batchPause).then(archiveBatch(cutoff))
+                  : Mono.empty())
+            .reduce(0L, (total, batch) -> total + batch.getMoved().size());
+    });
+  }
+
+  private Mono<CreditArchiveBatch> archiveBatch(LocalDateTime cutoff) {
+    return exposure.trackRemoval(archiveOutputPort.archiveClosedBefore(cutoff, batchSize))
+          .doOnNext(batch -> archived.increment(batch.getMoved().size()));
+  }
+}
@@ -0,0 +1,426 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.in.CreditHoldInputPort;
+import com.ettdata.credit_service.application.port.out.CreditHoldOutputPort;
+import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.error.BusinessRuleException;
+import com.ettdata.credit_service.domain.error.CreditNotFoundException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditHold;
+import com.ettdata.credit_service.domain.model.CreditHoldResponse;
+import com.ettdata.credit_service.domain.model.CreditHoldStatus;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.infrastructure.model.CreditHoldRequest;
+import com.ettdata.credit_service.infrastructure.utils.CreditHoldLedger;
+import com.ettdata.credit_service.infrastructure.utils.CreditValidator;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.OptimisticWriteRetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Retenciones sobre el disponible para autorizaciones de tarjeta.
+ * Autorizar lee el crédito, reserva el importe en CreditHoldLedger y registra la retención: una lectura
+ * y una inserción, sin reescribir el crédito. Capturar convierte la retención en un desembolso; liberar
+ * o vencer devuelve el importe. Un barrido programado vence por lotes las retenciones caducadas.
+ * <p>
+ * La captura se registra (CAPTURING) antes de cargar el crédito y se confirma (CAPTURED) después. El cargo
+ * anota la retención en el crédito, como la última línea de liquidación: si ya está anotada no se repite.
+ * Antes de anotar otra se confirma la anterior, así una retención CAPTURING que el crédito no tiene
+ * anotada nunca se cargó. Si el cargo se rechaza, la captura se deshace; si falla o el servicio cae entre
+ * medias, una recuperación programada carga las capturas pendientes y las confirma. Como el ledger, supone
+ * una sola instancia que escribe cargos.
+ */
+@Service
+@Slf4j
+public class CreditHoldService implements CreditHoldInputPort {
+
+  private final CreditHoldOutputPort holdOutputPort;
+  private final CreditRepositoryOutputPort repositoryOutputPort;
+  private final CreditHoldLedger ledger;
+  private final CreditValidator validator;
+  private final OptimisticWriteRetry writeRetry;
+  private final ExposureCounters exposure;
+  private final MeterRegistry meterRegistry;
+  private final Duration defaultTtl;
+  private final Duration maxTtl;
+  private final int sweepBatchSize;
+  private final AtomicBoolean sweeping = new AtomicBoolean();
+  private final AtomicBoolean recovering = new AtomicBoolean();
+  /** Retenciones cuya captura está en curso en esta instancia; la recuperación no las toca. */
+  private final Set<String> capturing = ConcurrentHashMap.newKeySet();
+
+  public CreditHoldService(CreditHoldOutputPort holdOutputPort,
+                           CreditRepositoryOutputPort repositoryOutputPort,
+                           CreditHoldLedger ledger,
+                           CreditValidator validator,
+                           OptimisticWriteRetry writeRetry,
+                           ExposureCounters exposure,
+                           MeterRegistry meterRegistry,
+                           @Value("${credit.hold.ttl:15m}") Duration defaultTtl,
+                           @Value("${credit.hold.max-ttl:7d}") Duration maxTtl,
+                           @Value("${credit.hold.sweep-batch-size:500}") int sweepBatchSize) {
+    this.holdOutputPort = holdOutputPort;
+    this.repositoryOutputPort = repositoryOutputPort;
+    this.ledger = ledger;
+    this.validator = validator;
+    this.writeRetry = writeRetry;
+    this.exposure = exposure;
+    this.meterRegistry = meterRegistry;
+    this.defaultTtl = defaultTtl;
+    this.maxTtl = maxTtl;
+    this.sweepBatchSize = sweepBatchSize;
+  }
+
+  @PostConstruct
+  void restoreHolds() {
+    ledger.restoreFrom(holdOutputPort.findAuthorized());
+  }
+
+  @Override
+  public Mono<CreditHoldResponse> authorize(CreditHoldRequest request) {
+    Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+    if (ttl.compareTo(maxTtl) > 0) {
+      return Mono.just(rejected(new BusinessRuleException("Hold duration cannot exceed " + maxTtl.toSeconds() + " seconds")));
+    }
+
+    return detached(ledger.whenRestored()
+          .then(writeRetry.withRetry("authorize-hold", repositoryOutputPort.findById(request.getCreditId())
+                .switchIfEmpty(Mono.error(() -> new CreditNotFoundException("Credit not found with ID: " + request.getCreditId())))
+                .flatMap(credit -> validator.validateDisbursement(credit, request.getAmount()))
+                .map(credit -> {
+                  ledger.reserve(credit, request.getAmount());
+                  LocalDateTime now = LocalDateTime.now();
+                  return CreditHold.builder()
+                        .holdId(UUID.randomUUID().toString())
+                        .creditId(credit.getId())
+                        .amount(request.getAmount())
+                        .status(CreditHoldStatus.AUTHORIZED)
+                        .createdAt(now)
+                        .expiresAt(now.plus(ttl))
+                        .updatedAt(now)
+                        .build();
+                })))
+          .flatMap(hold -> holdOutputPort.insert(hold)
+                .doOnNext(ledger::add)
+                .doOnError(ex -> ledger.release(hold.getCreditId(), hold.getAmount()))))
+          .map(hold -> {
+            counter("authorized").increment();
+            return response(200, "Hold authorized", hold);
+          })
+          .onErrorResume(BusinessRuleException.class, ex -> {
+            counter("declined").increment();
+            log.debug("Hold on credit {} declined: {}", request.getCreditId(), ex.getMessage());
+            return Mono.just(rejected(ex));
+          })
+          .onErrorResume(ex -> {
+            log.error("Error authorizing hold on credit {}", request.getCreditId(), ex);
+            return Mono.just(response(500, "Error authorizing hold: " + ex.getMessage(), null));
+          });
+  }
+
+  /**
+   * Convierte la retención en un desembolso de su importe, que ya estaba reservado.
+   */
+  @Override
+  public Mono<CreditHoldResponse> capture(String holdId) {
+    return detached(ledger.whenRestored().then(Mono.defer(() -> {
+      CreditHold hold = ledger.claim(holdId);
+      if (hold == null) {
+        return notActive(holdId);
+      }
+      LocalDateTime now = LocalDateTime.now();
+      if (hold.getExpiresAt().isBefore(now)) {
+        // La vence el barrido
+        ledger.unclaim(hold);
+        return Mono.just(response(409, "Hold has expired", hold));
+      }
+      capturing.add(holdId);
+      return holdOutputPort.updateStatus(holdId, CreditHoldStatus.AUTHORIZED, CreditHoldStatus.CAPTURING, now)
+            .onErrorResume(ex -> {
+              ledger.unclaim(hold);
+              return Mono.error(ex);
+            })
+            .flatMap(captured -> {
+              if (!captured) {
+                ledger.release(hold.getCreditId(), hold.getAmount());
+                return notActive(holdId);
+              }
+              return writeRetry.withRetry("capture-hold", book(hold))
+                    .doOnNext(saved -> ledger.booked(saved, hold.getAmount()))
+                    .flatMap(saved -> confirm(holdId))
+                    .map(confirmed -> {
+                      counter("captured").increment();
+                      return response(200, "Hold captured", withStatus(hold, CreditHoldStatus.CAPTURED, now));
+                    })
+                    .onErrorResume(ex -> {
+                      if (ex instanceof BusinessRuleException) {
+                        // El cargo no se hizo: la retención vuelve a estar vigente
+                        return holdOutputPort.updateStatus(holdId, CreditHoldStatus.CAPTURING,
+                                    CreditHoldStatus.AUTHORIZED, LocalDateTime.now())
+                              .doOnNext(reverted -> {
+                                if (reverted) {
+                                  ledger.unclaim(hold);
+                                } else {
+                                  ledger.release(hold.getCreditId(), hold.getAmount());
+                                }
+                              })
+                              .then(Mono.error(ex));
+                      }
+                      // El cargo pudo guardarse: queda CAPTURING para la recuperación
+                      ledger.release(hold.getCreditId(), hold.getAmount());
+                      return Mono.error(ex);
+                    });
+            })
+            .doFinally(signal -> capturing.remove(holdId));
+    })))
+          .onErrorResume(BusinessRuleException.class, ex -> Mono.just(rejected(ex)))
+          .onErrorResume(ex -> {
+            log.error("Error capturing hold {}", holdId, ex);
+            return Mono.just(response(500, "Error capturing hold: " + ex.getMessage(), null));
+          });
+  }
+
+  @Override
+  public Mono<CreditHoldResponse> release(String holdId) {
+    return detached(ledger.whenRestored().then(Mono.defer(() -> {
+      CreditHold hold = ledger.claim(holdId);
+      if (hold == null) {
+        return notActive(holdId);
+      }
+      LocalDateTime now = LocalDateTime.now();
+      return holdOutputPort.updateStatus(holdId, CreditHoldStatus.AUTHORIZED, CreditHoldStatus.RELEASED, now)
+            .onErrorResume(ex -> {
+              ledger.unclaim(hold);
+              return Mono.error(ex);
+            })
+            .flatMap(released -> {
+              ledger.release(hold.getCreditId(), hold.getAmount());
+              if (!released) {
+                return notActive(holdId);
+              }
+              counter("released").increment();
+              return Mono.just(response(200, "Hold released", withStatus(hold, CreditHoldStatus.RELEASED, now)));
+            });
+    })))
+          .onErrorResume(ex -> {
+            log.error("Error releasing hold {}", holdId, ex);
+            return Mono.just(response(500, "Error releasing hold: " + ex.getMessage(), null));
+          });
+  }
+
+  @Override
+  public Mono<CreditHoldResponse> getHold(String holdId) {
+    return holdOutputPort.findById(holdId)
+          .map(hold -> response(200, "Hold found", hold))
+          .defaultIfEmpty(response(404, "Hold not found with ID: " + holdId, null))
+          .onErrorResume(ex -> {
+            log.error("Error getting hold {}", holdId, ex);
+            return Mono.just(response(500, "Error getting hold: " + ex.getMessage(), null));
+          });
+  }
+
+  @Scheduled(fixedDelayString = "${credit.hold.sweep-interval-ms:1000}",
+        initialDelayString = "${credit.hold.sweep-interval-ms:1000}")
+  public void scheduledSweep() {
+    if (!sweeping.compareAndSet(false, true)) {
+      return;
+    }
+    sweepExpired()
+          .doFinally(signal -> sweeping.set(false))
+          .subscribe(
+                expired -> {
+                  if (expired > 0) {
+                    log.info("Expired {} credit holds", expired);
+                  }
+                },
+                error -> log.warn("Credit hold sweep stopped: {}", error.getMessage()));
+  }
+
+  /**
+   * Vence las retenciones caducadas por lotes, mientras los lotes salgan llenos.
+   */
+  Mono<Long> sweepExpired() {
+    return sweepBatch()
+          .expand(expired -> expired == sweepBatchSize ? sweepBatch() : Mono.empty())
+          .reduce(0L, Long::sum);
+  }
+
+  private Mono<Long> sweepBatch() {
+    return Mono.defer(() -> {
+      LocalDateTime now = LocalDateTime.now();
+      List<CreditHold> expired = ledger.claimExpired(now, sweepBatchSize);
+      if (expired.isEmpty()) {
+        return Mono.just(0L);
+      }
+      List<String> holdIds = expired.stream().map(CreditHold::getHoldId).collect(Collectors.toList());
+      return holdOutputPort.expire(holdIds, now)
+            .map(modified -> {
+              // Las que no seguían autorizadas en Mongo tampoco están vigentes: se liberan igual
+              expired.forEach(hold -> ledger.release(hold.getCreditId(), hold.getAmount()));
+              counter("expired").increment(expired.size());
+              return (long) expired.size();
+            })
+            .onErrorResume(ex -> {
+              expired.forEach(ledger::unclaim);
+              return Mono.error(ex);
+            });
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${credit.hold.recovery-interval-ms:60000}",
+        initialDelayString = "${credit.hold.recovery-initial-delay-ms:5000}")
+  public void scheduledRecovery() {
+    if (!recovering.compareAndSet(false, true)) {
+      return;
+    }
+    recoverCaptures()
+          .doFinally(signal -> recovering.set(false))
+          .subscribe(
+                recovered -> {
+                  if (recovered > 0) {
+                    log.info("Recovered {} captured credit holds", recovered);
+                  }
+                },
+                error -> log.warn("Captured credit hold recovery stopped: {}", error.getMessage()));
+  }
+
+  /**
+   * Carga y confirma las capturas pendientes que no están en curso en esta instancia.
+   */
+  Mono<Long> recoverCaptures() {
+    return ledger.whenRestored()
+          .thenMany(holdOutputPort.findCapturing())
+          .filter(hold -> capturing.add(hold.getHoldId()))
+          .concatMap(hold -> recover(hold).doFinally(signal -> capturing.remove(hold.getHoldId())))
+          .filter(Boolean::booleanValue)
+          .count();
+  }
+
+  /**
+   * Si el crédito ya no admite el cargo, la retención se libera; ante otros errores se reintenta en la
+   * siguiente pasada.
+   */
+  private Mono<Boolean> recover(CreditHold hold) {
+    return writeRetry.withRetry("recover-capture", book(hold))
+          .flatMap(saved -> {
+            // Su importe ya no estaba reservado: solo se anota el cargo
+            ledger.booked(saved, BigDecimal.ZERO);
+            counter("recovered").increment();
+            return confirm(hold.getHoldId());
+          })
+          .onErrorResume(BusinessRuleException.class, ex -> {
+            log.warn("Captured hold {} cannot be charged and is released: {}", hold.getHoldId(), ex.getMessage());
+            counter("released").increment();
+            return holdOutputPort.updateStatus(hold.getHoldId(), CreditHoldStatus.CAPTURING,
+                        CreditHoldStatus.RELEASED, LocalDateTime.now())
+                  .thenReturn(false);
+          })
+          .onErrorResume(ex -> {
+            log.warn("Captured hold {} not recovered yet: {}", hold.getHoldId(), ex.getMessage());
+            return Mono.just(false);
+          });
+  }
+
+  /**
+   * Carga el crédito con el importe de la retención, como un desembolso, y anota la retención en el crédito.
+   * Si ya estaba anotada, el cargo está hecho y se devuelve el crédito sin escribir. Antes de anotarla se
+   * confirma la anterior, que el crédito ya tiene cargada; si eso falla, no se escribe.
+   */
+  private Mono<Credit> book(CreditHold hold) {
+    return repositoryOutputPort.findById(hold.getCreditId())
+          .switchIfEmpty(Mono.error(() -> new CreditNotFoundException("Credit not found with ID: " + hold.getCreditId())))
+          .flatMap(credit -> {
+            if (hold.getHoldId().equals(credit.getLastCapturedHold())) {
+              return Mono.just(credit);
+            }
+            if (credit.getStatus() != CreditStatus.ACTIVE && credit.getStatus() != CreditStatus.OVERDUE) {
+              return Mono.error(new BusinessRuleException("Credit is not chargeable in status " + credit.getStatus()));
+            }
+            String previous = credit.getLastCapturedHold();
+            ExposureCounters.Position before = ExposureCounters.Position.of(credit);
+            credit.setAvailableCredit(credit.getAvailableCredit().subtract(hold.getAmount()));
+            credit.setCurrentDebt(credit.getCurrentDebt().add(hold.getAmount()));
+            credit.setLastCapturedHold(hold.getHoldId());
+            credit.setUpdatedAt(LocalDateTime.now());
+            Mono<Boolean> confirmPrevious = previous == null
+                  ? Mono.just(true)
+                  : holdOutputPort.updateStatus(previous, CreditHoldStatus.CAPTURING, CreditHoldStatus.CAPTURED,
+                        LocalDateTime.now());
+            return confirmPrevious.then(exposure.track(before, repositoryOutputPort.saveCredit(credit)));
+          });
+  }
+
+  /**
+   * Marca como confirmada una captura ya cargada. Si falla, la confirma la recuperación o el siguiente cargo
+   * sobre el crédito.
+   */
+  private Mono<Boolean> confirm(String holdId) {
+    return holdOutputPort.updateStatus(holdId, CreditHoldStatus.CAPTURING, CreditHoldStatus.CAPTURED,
+                LocalDateTime.now())
+          .onErrorResume(ex -> {
+            log.warn("Capture of hold {} not confirmed yet: {}", holdId, ex.getMessage());
+            return Mono.just(false);
+          });
+  }
+
+  /**
+   * Respuesta para una retención que no está vigente: 404 si no existe, 409 con su estado si ya terminó.
+   */
+  private Mono<CreditHoldResponse> notActive(String holdId) {
+    return holdOutputPort.findById(holdId)
+          .map(hold -> response(409, "Hold is " + hold.getStatus(), hold))
+          .defaultIfEmpty(response(404, "Hold not found with ID: " + holdId, null));
+  }
+
+  /**
+   * Las operaciones que reclaman o reservan terminan aunque el cliente cancele: cortadas a medias dejarían
+   * importes reservados sin retención vigente.
+   */
+  private static <T> Mono<T> detached(Mono<T> operation) {
+    return Mono.defer(() -> {
+      Sinks.One<T> result = Sinks.one();
+      operation.subscribe(result::tryEmitValue, result::tryEmitError, result::tryEmitEmpty);
+      return result.asMono();
+    });
+  }
+
+  private static CreditHold withStatus(CreditHold hold, CreditHoldStatus status, LocalDateTime at) {
+    return hold.toBuilder().status(status).updatedAt(at).build();
+  }
+
+  private static CreditHoldResponse rejected(BusinessRuleException ex) {
+    return response(ex.getCode(), ex.getMessage(), null);
+  }
+
+  private static CreditHoldResponse response(int code, String message, CreditHold hold) {
+    return CreditHoldResponse.builder()
+          .codResponse(code)
+          .messageResponse(message)
+          .data(hold)
+          .build();
+  }
+
+  private Counter counter(String result) {
+    return Counter.builder("credit.holds")
+          .description("Retenciones autorizadas, rechazadas, capturadas, recuperadas, liberadas o vencidas")
+          .tag("result", result)
+          .register(meterRegistry);
+  }
+}
@@ -0,0 +1,284 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.in.CreditReconciliationInputPort;
+import com.ettdata.credit_service.application.port.out.CreditReconciliationOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditIdRange;
+import com.ettdata.credit_service.domain.model.CreditInvariant;
+import com.ettdata.credit_service.domain.model.InvariantViolation;
+import com.ettdata.credit_service.domain.model.ReconciliationReport;
+import com.ettdata.credit_service.domain.model.ReconciliationReportResponse;
+import com.ettdata.credit_service.domain.model.ReconciliationStatus;
+import com.ettdata.credit_service.infrastructure.utils.CreditInvariants;
+import com.ettdata.credit_service.infrastructure.utils.CreditWriteLanes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conciliación de invariantes (ver {@link CreditInvariant}) sobre toda la colección de créditos.
+ * <p>
+ * La colección se reparte en tramos de _id que se recorren en paralelo (credit.reconcile.concurrency a la vez)
+ * con una proyección de los campos necesarios. Cada tramo hace una pausa tras cada lote para que entre todos
+ * no pasen de credit.reconcile.max-docs-per-second: el recorrido no compite con el tráfico.
+ * <p>
+ * Con repair, cada crédito con violaciones se corrige por {@link CreditWriteLanes}: se relee, se vuelve a
+ * comprobar y se guarda condicionado a la versión, en orden con el resto de escrituras del crédito.
+ * Nunca hay dos pasadas a la vez.
+ */
+@Service
+@Slf4j
+public class CreditReconciliationService implements CreditReconciliationInputPort {
+
+  private final CreditReconciliationOutputPort reconciliationOutputPort;
+  private final CreditWriteLanes writeLanes;
+  private final CreditInvariants invariants;
+  private final MeterRegistry meterRegistry;
+  private final boolean scheduledEnabled;
+  private final boolean scheduledRepair;
+  private final int ranges;
+  private final int concurrency;
+  private final int batchSize;
+  private final int maxDocsPerSecond;
+  private final int repairConcurrency;
+  private final int maxSamples;
+  private final Counter scanned;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final AtomicReference<Run> latest = new AtomicReference<>();
+
+  public CreditReconciliationService(CreditReconciliationOutputPort reconciliationOutputPort,
+                                     CreditWriteLanes writeLanes,
+                                     CreditInvariants invariants,
+                                     @Value("${credit.reconcile.enabled:true}") boolean scheduledEnabled,
+                                     @Value("${credit.reconcile.repair:false}") boolean scheduledRepair,
+                                     @Value("${credit.reconcile.ranges:32}") int ranges,
+                                     @Value("${credit.reconcile.concurrency:4}") int concurrency,
+                                     @Value("${credit.reconcile.batch-size:1000}") int batchSize,
+                                     @Value("${credit.reconcile.max-docs-per-second:20000}") int maxDocsPerSecond,
+                                     @Value("${credit.reconcile.repair-concurrency:4}") int repairConcurrency,
+                                     @Value("${credit.reconcile.max-samples:100}") int maxSamples,
+                                     MeterRegistry meterRegistry) {
+    this.reconciliationOutputPort = reconciliationOutputPort;
+    this.writeLanes = writeLanes;
+    this.invariants = invariants;
+    this.meterRegistry = meterRegistry;
+    this.scheduledEnabled = scheduledEnabled;
+    this.scheduledRepair = scheduledRepair;
+    this.ranges = ranges;
+    this.concurrency = concurrency;
+    this.batchSize = batchSize;
+    this.maxDocsPerSecond = maxDocsPerSecond;
+    this.repairConcurrency = repairConcurrency;
+    this.maxSamples = maxSamples;
+    this.scanned = meterRegistry.counter("credit.reconcile.scanned");
+  }
+
+  @Override
+  public Mono<ReconciliationReportResponse> startReconciliation(boolean repair) {
+    return Mono.fromSupplier(() -> {
+      Run run = start(repair);
+      if (run == null) {
+        return new ReconciliationReportResponse(latest.get().report(), "Reconciliation already running");
+      }
+      execute(run).subscribe();
+      return new ReconciliationReportResponse(run.report(), null);
+    });
+  }
+
+  @Override
+  public Mono<ReconciliationReportResponse> getLatestReconciliation() {
+    return Mono.fromSupplier(() -> {
+      Run run = latest.get();
+      return run != null
+            ? new ReconciliationReportResponse(run.report(), null)
+            : new ReconciliationReportResponse(null, "No reconciliation has run yet");
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${credit.reconcile.interval-ms:86400000}",
+        initialDelayString = "${credit.reconcile.initial-delay-ms:3600000}")
+  public void scheduledReconciliation() {
+    if (!scheduledEnabled) {
+      return;
+    }
+    Run run = start(scheduledRepair);
+    if (run != null) {
+      execute(run).subscribe();
+    }
+  }
+
+  private Run start(boolean repair) {
+    if (!running.compareAndSet(false, true)) {
+      return null;
+    }
+    Run run = new Run(repair, maxSamples);
+    latest.set(run);
+    return run;
+  }
+
+  Mono<ReconciliationReport> execute(Run run) {
+    return reconciliationOutputPort.splitIdRanges(ranges)
+          .flatMapMany(split -> {
+            run.ranges = split.size();
+            return Flux.fromIterable(split);
+          })
+          .flatMap(range -> scan(range, run), concurrency)
+          .then(Mono.fromRunnable(() -> run.finish(ReconciliationStatus.COMPLETED, null)))
+          .onErrorResume(ex -> {
+            log.warn("Credit reconciliation stopped: {}", ex.getMessage());
+            run.finish(ReconciliationStatus.FAILED, ex.getMessage());
+            return Mono.empty();
+          })
+          .doFinally(signal -> running.set(false))
+          .then(Mono.fromSupplier(() -> {
+            ReconciliationReport report = run.report();
+            log.info("Credit reconciliation {}: {} scanned, {} violations, {} repaired in {} ms", report.getStatus(),
+                  report.getScanned(), report.getViolations(), report.getRepaired(), report.getDurationMs());
+            return report;
+          }));
+  }
+
+  /**
+   * Tras cada lote, la pausa que deja el tramo en su parte del límite global de documentos por segundo.
+   */
+  private Mono<Void> scan(CreditIdRange range, Run run) {
+    Duration pause = Duration.ofNanos(1_000_000_000L * batchSize * concurrency / Math.max(maxDocsPerSecond, 1));
+    return reconciliationOutputPort.scanIdRange(range, batchSize)
+          .buffer(batchSize)
+          .concatMap(batch -> check(batch, run).then(Mono.delay(pause)))
+          .then();
+  }
+
+  private Mono<Void> check(List<Credit> batch, Run run) {
+    List<Credit> violating = new ArrayList<>();
+    for (Credit credit : batch) {
+      List<InvariantViolation> violations = invariants.check(credit);
+      if (!violations.isEmpty()) {
+        violations.forEach(violation -> run.record(violation, meterRegistry));
+        violating.add(credit);
+      }
+    }
+    run.scanned.add(batch.size());
+    scanned.increment(batch.size());
+    if (!run.repair || violating.isEmpty()) {
+      return Mono.empty();
+    }
+    return Flux.fromIterable(violating)
+          .flatMap(credit -> repair(credit.getId(), run), repairConcurrency)
+          .then();
+  }
+
+  /**
+   * Las violaciones vistas en el recorrido pueden estar ya corregidas: se comprueba sobre el crédito releído.
+   */
+  private Mono<Void> repair(String creditId, Run run) {
+    AtomicBoolean changed = new AtomicBoolean();
+    return writeLanes.write(creditId, "reconcile-credit", credit -> {
+          changed.set(invariants.repair(credit));
+          if (!changed.get()) {
+            return Mono.empty();
+          }
+          credit.setUpdatedAt(LocalDateTime.now());
+          return Mono.just(credit);
+        })
+        .doOnNext(saved -> {
+          (changed.get() ? run.repaired : run.resolved).increment();
+          meterRegistry.counter("credit.reconcile.repairs", "result", changed.get() ? "repaired" : "resolved").increment();
+        })
+        .onErrorResume(ex -> {
+          log.warn("Credit {} could not be repaired: {}", creditId, ex.getMessage());
+          run.repairFailures.increment();
+          meterRegistry.counter("credit.reconcile.repairs", "result", "failed").increment();
+          return Mono.empty();
+        })
+        .then();
+  }
+
+  /**
+   * Estado de una pasada; el informe se construye al pedirlo, también mientras sigue en curso.
+   */
+  static final class Run {
+    private final boolean repair;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final LongAdder scanned = new LongAdder();
+    private final Map<CreditInvariant, LongAdder> violations = new EnumMap<>(CreditInvariant.class);
+    private final LongAdder repaired = new LongAdder();
+    private final LongAdder resolved = new LongAdder();
+    private final LongAdder repairFailures = new LongAdder();
+    private final Queue<InvariantViolation> samples = new ConcurrentLinkedQueue<>();
+    private final int maxSamples;
+    private final AtomicInteger sampled = new AtomicInteger();
+    private volatile int ranges;
+    private volatile ReconciliationStatus status = ReconciliationStatus.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile long durationNanos = -1;
+    private volatile String error;
+
+    Run(boolean repair, int maxSamples) {
+      this.repair = repair;
+      this.maxSamples = maxSamples;
+      for (CreditInvariant invariant : CreditInvariant.values()) {
+        violations.put(invariant, new LongAdder());
+      }
+    }
+
+    private void record(InvariantViolation violation, MeterRegistry meterRegistry) {
+      violations.get(violation.getInvariant()).increment();
+      meterRegistry.counter("credit.reconcile.violations", "invariant", violation.getInvariant().name()).increment();
+      if (sampled.getAndIncrement() < maxSamples) {
+        samples.add(violation);
+      }
+    }
+
+    private void finish(ReconciliationStatus status, String error) {
+      this.durationNanos = System.nanoTime() - startNanos;
+      this.finishedAt = LocalDateTime.now();
+      this.error = error;
+      this.status = status;
+    }
+
+    ReconciliationReport report() {
+      long nanos = durationNanos >= 0 ? durationNanos : System.nanoTime() - startNanos;
+      Map<CreditInvariant, Long> byInvariant = new EnumMap<>(CreditInvariant.class);
+      violations.forEach((invariant, count) -> byInvariant.put(invariant, count.sum()));
+      long total = byInvariant.values().stream().mapToLong(Long::longValue).sum();
+      long docs = scanned.sum();
+      return ReconciliationReport.builder()
+            .status(status)
+            .repair(repair)
+            .ranges(ranges)
+            .scanned(docs)
+            .violations(total)
+            .violationsByInvariant(byInvariant)
+            .repaired(repaired.sum())
+            .resolved(resolved.sum())
+            .repairFailures(repairFailures.sum())
+            .samples(new ArrayList<>(samples))
+            .startedAt(startedAt)
+            .finishedAt(finishedAt)
+            .durationMs(TimeUnit.NANOSECONDS.toMillis(nanos))
+            .documentsPerSecond(nanos > 0 ? docs * 1e9 / nanos : 0)
+            .error(error)
+            .build();
+    }
+  }
+}
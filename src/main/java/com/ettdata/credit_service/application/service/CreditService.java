@@ -1,23 +1,37 @@
 package com.ettdata.credit_service.application.service;
 
 import com.ettdata.credit_service.application.port.in.CreditInputPort;
+import com.ettdata.credit_service.application.port.out.CreditArchiveOutputPort;
 import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
 import com.ettdata.credit_service.domain.error.*;
+import com.ettdata.credit_service.domain.model.Credit;
 import com.ettdata.credit_service.domain.model.CreditListResponse;
 import com.ettdata.credit_service.domain.model.CreditResponse;
 import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.CreditVersion;
 import com.ettdata.credit_service.infrastructure.model.CreditRequest;
 import com.ettdata.credit_service.infrastructure.model.DisbursementRequest;
+import com.ettdata.credit_service.infrastructure.utils.CreditHoldLedger;
 import com.ettdata.credit_service.infrastructure.utils.CreditMapper;
 import com.ettdata.credit_service.infrastructure.utils.CreditMapperResponse;
 import com.ettdata.credit_service.infrastructure.utils.CreditValidator;
+import com.ettdata.credit_service.infrastructure.utils.CreditWriteLanes;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.InFlightRequestCoalescer;
+import com.ettdata.credit_service.infrastructure.utils.TraceSpans;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
 
 @Service
 @Slf4j
@@ -28,6 +42,12 @@ public class CreditService implements CreditInputPort {
   private final CreditMapper mapper;
   private final CreditValidator validator;
   private final CreditMapperResponse mapperResponse;
+  private final InFlightRequestCoalescer readCoalescer;
+  private final TraceSpans traceSpans;
+  private final ExposureCounters exposure;
+  private final CreditArchiveOutputPort archiveOutputPort;
+  private final CreditHoldLedger holdLedger;
+  private final CreditWriteLanes writeLanes;
 
   /**
    * Obtener todos los créditos
@@ -50,10 +70,27 @@ public class CreditService implements CreditInputPort {
           });
   }
 
-    @Override
-    public Mono<CreditResponse> getCreditById(String creditId) {
-        return null;
-    }
+  /**
+   * Obtener un crédito por su ID
+   * Las lecturas concurrentes del mismo ID comparten una única consulta en vuelo.
+   * Si no está en la colección viva se busca en el archivo de créditos cerrados.
+   */
+  @Override
+  public Mono<CreditResponse> getCreditById(String creditId) {
+    log.info("Getting credit: {}", creditId);
+
+    return readCoalescer.execute("credit-by-id", creditId, () ->
+          repositoryOutputPort.findById(creditId)
+                .map(credit -> mapperResponse.success(200, "Credit found", credit.getId()))
+                .switchIfEmpty(Mono.defer(() -> archiveOutputPort.findArchivedById(creditId))
+                      .map(credit -> mapperResponse.success(200, "Credit found in archive", credit.getId())))
+                .switchIfEmpty(Mono.fromSupplier(() ->
+                      mapperResponse.notFound("Credit not found with ID: " + creditId)))
+                .onErrorResume(error -> {
+                  log.error("Error getting credit: {}", creditId, error);
+                  return Mono.just(mapperResponse.internalError("Error getting credit: " + error.getMessage()));
+                }));
+  }
 
     /**
    * Crear un nuevo crédito
@@ -64,22 +101,12 @@ public class CreditService implements CreditInputPort {
 
     return validator.validateCreditCreation(creditRequest)
           .map(mapper::requestToDomain)
-          .flatMap(repositoryOutputPort::saveCredit)
+          .flatMap(credit -> traceSpans.mono("credit.save",
+                () -> exposure.track(null, repositoryOutputPort.saveCredit(credit))))
           .map(credit -> mapperResponse.success(201, "Credit created successfully", credit.getId()))
           .doOnSuccess(response ->
                 log.info("Credit created with ID: {}", response.getCodEntity()))
-          .onErrorResume(CustomerNotFoundException.class, ex -> {
-            log.error("Customer not found", ex);
-            return Mono.just(mapperResponse.notFound(ex.getMessage()));
-          })
-          .onErrorResume(OverdueDebtException.class, ex -> {
-            log.error("Customer has overdue debt", ex);
-            return Mono.just(mapperResponse.badRequest(ex.getMessage()));
-          })
-          .onErrorResume(DuplicateCreditException.class, ex -> {
-            log.error("Duplicate credit", ex);
-            return Mono.just(mapperResponse.conflict(ex.getMessage()));
-          })
+          .onErrorResume(BusinessRuleException.class, ex -> rejected("Credit creation", ex))
           .onErrorResume(error -> {
             log.error("Error creating credit", error);
             return Mono.just(mapperResponse.internalError("Error creating credit: " + error.getMessage()));
@@ -88,49 +115,55 @@ public class CreditService implements CreditInputPort {
 
     @Override
     public Mono<CreditResponse> updateCredit(String id, CreditRequest creditRequest) {
-        return repositoryOutputPort.findById(id)
-                .switchIfEmpty(Mono.error(new CreditNotFoundException("Credit not found with ID: " + id)))
-                .flatMap(existing -> {
-                    if (existing.getStatus() == CreditStatus.CANCELLED) {
-                        return Mono.error(new BusinessRuleException("Cannot update cancelled credit"));
-                    }
-                    existing.setInterestRate(creditRequest.getInterestRate());
-                    existing.setTermMonths(creditRequest.getTermMonths());
-                    existing.setUpdatedAt(LocalDateTime.now());
-                    return repositoryOutputPort.saveCredit(existing);
-                })
+        return writeLanes.write(id, "update-credit", existing -> {
+                            if (existing.getStatus() == CreditStatus.CANCELLED) {
+                                return Mono.error(new BusinessRuleException("Cannot update cancelled credit"));
+                            }
+                            existing.setInterestRate(creditRequest.getInterestRate());
+                            existing.setTermMonths(creditRequest.getTermMonths());
+                            existing.setUpdatedAt(LocalDateTime.now());
+                            return Mono.just(existing);
+                        })
                 .map(updated -> mapperResponse.success(200, "Credit updated successfully", updated.getId()))
-                .onErrorResume(error -> Mono.just(mapperResponse.internalError(error.getMessage())));
+                .onErrorResume(BusinessRuleException.class, ex -> rejected("Credit update", ex))
+                .onErrorResume(error -> {
+                    log.error("Error updating credit", error);
+                    return Mono.just(mapperResponse.internalError(error.getMessage()));
+                });
     }
 
     @Override
     public Mono<CreditResponse> cancelCredit(String creditId) {
-        return repositoryOutputPort.findById(creditId)
-                .switchIfEmpty(Mono.error(new CreditNotFoundException("Credit not found with ID: " + creditId)))
-                .flatMap(credit -> {
-                    if (credit.getCurrentDebt().compareTo(BigDecimal.ZERO) > 0) {
-                        return Mono.error(new BusinessRuleException("Cannot cancel credit with pending debt"));
-                    }
-                    credit.setStatus(CreditStatus.CANCELLED);
-                    credit.setUpdatedAt(LocalDateTime.now());
-                    return repositoryOutputPort.saveCredit(credit);
-                })
+        return writeLanes.write(creditId, "cancel-credit", credit -> {
+                            if (credit.getCurrentDebt().compareTo(BigDecimal.ZERO) > 0) {
+                                return Mono.error(new BusinessRuleException("Cannot cancel credit with pending debt"));
+                            }
+                            credit.setStatus(CreditStatus.CANCELLED);
+                            credit.setUpdatedAt(LocalDateTime.now());
+                            return Mono.just(credit);
+                        })
                 .map(credit -> mapperResponse.success(200, "Credit cancelled successfully", credit.getId()))
-                .onErrorResume(error -> Mono.just(mapperResponse.internalError(error.getMessage())));
+                .onErrorResume(BusinessRuleException.class, ex -> rejected("Credit cancellation", ex))
+                .onErrorResume(error -> {
+                    log.error("Error cancelling credit", error);
+                    return Mono.just(mapperResponse.internalError(error.getMessage()));
+                });
     }
 
     @Override
     public Mono<CreditResponse> markAsOverdue(String creditId) {
-        return repositoryOutputPort.findById(creditId)
-                .switchIfEmpty(Mono.error(new CreditNotFoundException("Credit not found with ID: " + creditId)))
-                .flatMap(credit -> {
-                    credit.setHasOverdueDebt(true);
-                    credit.setStatus(CreditStatus.OVERDUE);
-                    credit.setUpdatedAt(LocalDateTime.now());
-                    return repositoryOutputPort.saveCredit(credit);
-                })
+        return writeLanes.write(creditId, "mark-overdue", credit -> {
+                            credit.setHasOverdueDebt(true);
+                            credit.setStatus(CreditStatus.OVERDUE);
+                            credit.setUpdatedAt(LocalDateTime.now());
+                            return Mono.just(credit);
+                        })
                 .map(updated -> mapperResponse.success(200, "Credit marked as overdue", updated.getId()))
-                .onErrorResume(error -> Mono.just(mapperResponse.internalError(error.getMessage())));
+                .onErrorResume(BusinessRuleException.class, ex -> rejected("Overdue marking", ex))
+                .onErrorResume(error -> {
+                    log.error("Error marking credit as overdue", error);
+                    return Mono.just(mapperResponse.internalError(error.getMessage()));
+                });
 
     }
 
@@ -141,25 +174,16 @@ public class CreditService implements CreditInputPort {
   public Mono<CreditResponse> deleteCredit(String creditId) {
     log.info("Deleting credit: {}", creditId);
 
-    return validator.validateCreditExistsForDeletion(creditId)
-          .flatMap(repositoryOutputPort::findById)
-          .flatMap(validator::validateCreditCanBeDeleted)
-          .flatMap(credit -> {
-            credit.setStatus(CreditStatus.INACTIVE);
-            credit.setUpdatedAt(LocalDateTime.now());
-            return repositoryOutputPort.saveCredit(credit);
-          })
+    return writeLanes.write(creditId, "delete-credit", credit -> validator.validateCreditCanBeDeleted(credit)
+                .map(valid -> {
+                  valid.setStatus(CreditStatus.INACTIVE);
+                  valid.setUpdatedAt(LocalDateTime.now());
+                  return valid;
+                }))
           .map(credit -> mapperResponse.success(200, "Credit deleted successfully", credit.getId()))
           .doOnSuccess(response ->
                 log.info("Credit deleted: {}", response.getCodEntity()))
-          .onErrorResume(CreditNotFoundException.class, ex -> {
-            log.error("Credit not found", ex);
-            return Mono.just(mapperResponse.notFound(ex.getMessage()));
-          })
-          .onErrorResume(CreditHasDebtException.class, ex -> {
-            log.error("Credit has pending debt", ex);
-            return Mono.just(mapperResponse.badRequest(ex.getMessage()));
-          })
+          .onErrorResume(BusinessRuleException.class, ex -> rejected("Credit deletion", ex))
           .onErrorResume(error -> {
             log.error("Error deleting credit", error);
             return Mono.just(mapperResponse.internalError("Error deleting credit: " + error.getMessage()));
@@ -170,25 +194,24 @@ public class CreditService implements CreditInputPort {
   public Mono<CreditResponse> disburseCredit(DisbursementRequest request) {
     log.info("Starting disbursement for credit: {}, amount: {}", request.getCreditId(), request.getAmount());
 
-    return repositoryOutputPort.findById(request.getCreditId())
-          .switchIfEmpty(Mono.error(new CreditNotFoundException("Credit not found with ID: " + request.getCreditId())))
-          // Validar condiciones de negocio
-          .flatMap(credit -> validator.validateDisbursement(credit, request.getAmount()))
-          // Actualizar montos
-          .flatMap(validCredit -> {
-            BigDecimal newAvailable = validCredit.getAvailableCredit().subtract(request.getAmount());
-            BigDecimal newDebt = validCredit.getCurrentDebt().add(request.getAmount());
-
-            if (newAvailable.compareTo(BigDecimal.ZERO) < 0) {
-              return Mono.error(new IllegalArgumentException("Insufficient available credit"));
-            }
+    return writeLanes.write(request.getCreditId(), "disburse-credit", credit ->
+                // Validar condiciones de negocio
+                validator.validateDisbursement(credit, request.getAmount())
+                // Actualizar montos
+                .flatMap(validCredit -> {
+                  BigDecimal newAvailable = validCredit.getAvailableCredit().subtract(request.getAmount());
+                  BigDecimal newDebt = validCredit.getCurrentDebt().add(request.getAmount());
 
-            validCredit.setAvailableCredit(newAvailable);
-            validCredit.setCurrentDebt(newDebt);
-            validCredit.setUpdatedAt(java.time.LocalDateTime.now());
+                  // El disponible que queda libre descuenta las retenciones vigentes del crédito
+                  if (newAvailable.subtract(holdLedger.held(validCredit.getId())).compareTo(BigDecimal.ZERO) < 0) {
+                    return Mono.error(new InsufficientCreditException("Insufficient available credit"));
+                  }
 
-            return repositoryOutputPort.saveCredit(validCredit);
-          })
+                  validCredit.setAvailableCredit(newAvailable);
+                  validCredit.setCurrentDebt(newDebt);
+                  validCredit.setUpdatedAt(java.time.LocalDateTime.now());
+                  return Mono.just(validCredit);
+                }))
           // Respuesta exitosa
           .map(savedCredit -> CreditResponse.builder()
                 .codResponse(200)
@@ -196,20 +219,7 @@ public class CreditService implements CreditInputPort {
                 .codEntity(savedCredit.getId())
                 .build())
           // Manejo de errores
-          .onErrorResume(CreditNotFoundException.class, ex -> {
-            log.error("Credit not found", ex);
-            return Mono.just(CreditResponse.builder()
-                  .codResponse(404)
-                  .messageResponse(ex.getMessage())
-                  .build());
-          })
-          .onErrorResume(IllegalArgumentException.class, ex -> {
-            log.error("Invalid disbursement request", ex);
-            return Mono.just(CreditResponse.builder()
-                  .codResponse(400)
-                  .messageResponse(ex.getMessage())
-                  .build());
-          })
+          .onErrorResume(BusinessRuleException.class, ex -> rejected("Disbursement", ex))
           .onErrorResume(Exception.class, ex -> {
             log.error("Unexpected error during disbursement", ex);
             return Mono.just(CreditResponse.builder()
@@ -221,13 +231,129 @@ public class CreditService implements CreditInputPort {
 
 
 
+  /**
+   * Exportar la cartera como flujo, filtrando opcionalmente por estado y tipo.
+   * No acumula resultados: cada crédito se emite según lo pide el consumidor.
+   */
+  @Override
+  public Flux<Credit> exportCredits(CreditStatus status, CreditType type) {
+    log.info("Exporting credits (status: {}, type: {})", status, type);
+
+    return repositoryOutputPort.streamCredits(status, type)
+          .doOnError(error -> log.error("Error exporting credits", error));
+  }
+
+  /**
+   * Créditos de un cliente uno a uno, al ritmo que pide el consumidor.
+   */
+  @Override
+  public Flux<Credit> streamCreditsByDocumentNumber(String documentNumber) {
+    log.info("Streaming credits for customer: {}", documentNumber);
+
+    return repositoryOutputPort.findByDocumentNumber(documentNumber)
+          .doOnError(error -> log.error("Error streaming credits for customer {}", documentNumber, error));
+  }
+
+  /**
+   * Notificaciones de cambios de créditos mientras el consumidor siga suscrito.
+   */
+  @Override
+  public Flux<Credit> watchCreditChanges() {
+    return repositoryOutputPort.watchCredits()
+          .doOnSubscribe(subscription -> log.info("Credit change subscriber connected"))
+          .doOnError(error -> log.error("Error watching credit changes", error));
+  }
+
+  /**
+   * Etiqueta de versión (ETag) de un crédito.
+   * Se calcula con la proyección id + updatedAt, sin cargar ni serializar el documento.
+   * Mono vacío si el crédito no existe o la consulta falla: el llamador sigue por la lectura completa.
+   */
+  @Override
+  public Mono<String> getCreditVersionTag(String creditId) {
+    return readCoalescer.execute("credit-version-by-id", creditId, () ->
+          repositoryOutputPort.findVersionById(creditId)
+                .map(version -> versionTag(List.of(version)))
+                .onErrorResume(error -> {
+                  log.warn("Could not compute version tag for credit {}: {}", creditId, error.getMessage());
+                  return Mono.empty();
+                }));
+  }
+
+  /**
+   * Etiqueta de versión (ETag) de los créditos de un cliente, a partir de la proyección id + updatedAt.
+   */
+  @Override
+  public Mono<String> getCreditsVersionTag(String documentNumber) {
+    return readCoalescer.execute("credits-version-by-document", documentNumber, () ->
+          repositoryOutputPort.findVersionsByDocumentNumber(documentNumber)
+                .collectSortedList(Comparator.comparing(CreditVersion::getId))
+                .map(this::versionTag)
+                .onErrorResume(error -> {
+                  log.warn("Could not compute version tag for customer {}: {}", documentNumber, error.getMessage());
+                  return Mono.empty();
+                }));
+  }
+
+  private String versionTag(List<CreditVersion> versions) {
+    StringBuilder source = new StringBuilder();
+    for (CreditVersion version : versions) {
+      source.append(version.getId()).append('@').append(version.getUpdatedAt()).append(';');
+    }
+    return DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Traduce un rechazo de negocio a su código de respuesta.
+   * Es un resultado esperado: se registra sin stack trace y fuera del nivel error.
+   */
+  private Mono<CreditResponse> rejected(String operation, BusinessRuleException ex) {
+    log.warn("{} rejected ({}): {}", operation, ex.getCode(), ex.getMessage());
+    return Mono.just(mapperResponse.rejected(ex));
+  }
+
   /**
    * Obtener créditos por número de documento
+   * Las lecturas concurrentes del mismo documento comparten una única consulta en vuelo.
    */
   @Override
   public Mono<CreditListResponse> getCreditsByDocumentNumber(String documentNumber) {
     log.info("Getting credits for customer: {}", documentNumber);
 
+    return readCoalescer.execute("credits-by-document", documentNumber, () ->
+          findCreditsByDocumentNumber(documentNumber));
+  }
+
+  /**
+   * Crédito archivado por ID; se consulta solo bajo demanda, fuera de la colección viva.
+   */
+  @Override
+  public Mono<CreditListResponse> getArchivedCreditById(String creditId) {
+    return archiveOutputPort.findArchivedById(creditId)
+          .map(credit -> new CreditListResponse(List.of(credit), null))
+          .defaultIfEmpty(new CreditListResponse(List.of(), "No archived credit with ID: " + creditId))
+          .onErrorResume(error -> {
+            log.error("Error getting archived credit: {}", creditId, error);
+            return Mono.just(new CreditListResponse(null, "Error getting archived credit: " + error.getMessage()));
+          });
+  }
+
+  /**
+   * Créditos archivados de un cliente.
+   */
+  @Override
+  public Mono<CreditListResponse> getArchivedCreditsByDocumentNumber(String documentNumber) {
+    return archiveOutputPort.findArchivedByDocumentNumber(documentNumber)
+          .collectList()
+          .map(credits -> new CreditListResponse(credits,
+                credits.isEmpty() ? "No archived credits for customer: " + documentNumber : null))
+          .onErrorResume(error -> {
+            log.error("Error getting archived credits for customer: {}", documentNumber, error);
+            return Mono.just(new CreditListResponse(null, "Error getting archived credits: " + error.getMessage()));
+          });
+  }
+
+  private Mono<CreditListResponse> findCreditsByDocumentNumber(String documentNumber) {
     return repositoryOutputPort.findByDocumentNumber(documentNumber)
           .collectList()
           .flatMap(credits -> {
@@ -0,0 +1,217 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.in.CreditTransitionInputPort;
+import com.ettdata.credit_service.application.port.out.CreditTransitionOutputPort;
+import com.ettdata.credit_service.domain.error.BusinessRuleException;
+import com.ettdata.credit_service.domain.error.CreditHasDebtException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditResponse;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditTransition;
+import com.ettdata.credit_service.domain.model.CreditTransitionResponse;
+import com.ettdata.credit_service.infrastructure.model.CreditTransitionRequest;
+import com.ettdata.credit_service.infrastructure.utils.CreditMapperResponse;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.OverdueCustomerFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Cancelación, marca de mora y baja de muchos créditos en una petición.
+ * Los ids se procesan por bloques: cada bloque lee sus créditos con una consulta, comprueba las reglas
+ * de la operación individual y cambia el estado en memoria, y guarda los que pasan con una escritura
+ * por lotes condicionada a la versión. Los que cambiaron entre la lectura y el guardado se vuelven a
+ * leer y se reintentan; agotados los reintentos se devuelven como conflicto (409).
+ */
+@Service
+@Slf4j
+public class CreditTransitionService implements CreditTransitionInputPort {
+
+  private final CreditTransitionOutputPort transitionOutputPort;
+  private final CreditMapperResponse mapperResponse;
+  private final ExposureCounters exposure;
+  private final OverdueCustomerFilter overdueCustomerFilter;
+  private final MeterRegistry meterRegistry;
+  private final int chunkSize;
+  private final int maxConflictRetries;
+
+  public CreditTransitionService(CreditTransitionOutputPort transitionOutputPort,
+                                 CreditMapperResponse mapperResponse,
+                                 ExposureCounters exposure,
+                                 OverdueCustomerFilter overdueCustomerFilter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${credit.transition.chunk-size:1000}") int chunkSize,
+                                 @Value("${credit.transition.conflict-retries:3}") int maxConflictRetries) {
+    this.transitionOutputPort = transitionOutputPort;
+    this.mapperResponse = mapperResponse;
+    this.exposure = exposure;
+    this.overdueCustomerFilter = overdueCustomerFilter;
+    this.meterRegistry = meterRegistry;
+    this.chunkSize = chunkSize;
+    this.maxConflictRetries = maxConflictRetries;
+  }
+
+  @Override
+  public Mono<CreditTransitionResponse> applyTransition(CreditTransitionRequest request) {
+    CreditTransition transition = request.getTransition();
+    List<String> creditIds = new ArrayList<>(new LinkedHashSet<>(request.getCreditIds()));
+    log.info("Applying {} to {} credits", transition, creditIds.size());
+
+    return Mono.defer(() -> {
+      Map<String, CreditResponse> outcomes = new HashMap<>();
+      return Flux.fromIterable(creditIds)
+            .buffer(chunkSize)
+            .concatMap(chunk -> applyChunk(transition, chunk, outcomes, 0))
+            .then(Mono.fromSupplier(() -> summarize(transition, creditIds, outcomes, null)))
+            .onErrorResume(ex -> {
+              log.error("Error applying {} to credits after {} of {} results", transition, outcomes.size(),
+                    creditIds.size(), ex);
+              return Mono.just(summarize(transition, creditIds, outcomes,
+                    "Error applying credit transition: " + ex.getMessage()));
+            });
+    });
+  }
+
+  /**
+   * Arma la respuesta en el orden de la petición. Si el proceso se cortó, los ids que ya tienen resultado lo
+   * conservan y los que no llegaron a procesarse salen con un 500.
+   */
+  private CreditTransitionResponse summarize(CreditTransition transition, List<String> creditIds,
+                                             Map<String, CreditResponse> outcomes, String error) {
+    List<CreditResponse> results = creditIds.stream()
+          .map(creditId -> outcomes.containsKey(creditId)
+                ? outcomes.get(creditId)
+                : mapperResponse.internalError("Credit " + creditId + " was not processed: " + error))
+          .collect(Collectors.toList());
+    long applied = results.stream().filter(result -> result.getCodResponse() == 200).count();
+    counter(transition, "applied").increment(applied);
+    counter(transition, "rejected").increment(results.size() - applied);
+    log.info("{} applied to {} of {} credits", transition, applied, results.size());
+    return CreditTransitionResponse.builder()
+          .transition(transition)
+          .requested(results.size())
+          .applied(applied)
+          .rejected(results.size() - applied)
+          .results(results)
+          .error(error)
+          .build();
+  }
+
+  /**
+   * Deja en outcomes el resultado de cada id del bloque según se conoce, para que un fallo posterior
+   * no pierda los ya guardados.
+   */
+  private Mono<Void> applyChunk(CreditTransition transition, List<String> creditIds,
+                                Map<String, CreditResponse> outcomes, int attempt) {
+    return transitionOutputPort.findByIds(creditIds)
+          .collectMap(Credit::getId)
+          .flatMap(credits -> {
+            Map<String, ExposureCounters.Position> before = new HashMap<>();
+            List<Credit> modified = new ArrayList<>();
+            for (String creditId : creditIds) {
+              Credit credit = credits.get(creditId);
+              if (credit == null) {
+                outcomes.put(creditId, mapperResponse.notFound("Credit not found with ID: " + creditId));
+                continue;
+              }
+              try {
+                ExposureCounters.Position position = ExposureCounters.Position.of(credit);
+                apply(transition, credit);
+                before.put(creditId, position);
+                modified.add(credit);
+              } catch (BusinessRuleException ex) {
+                outcomes.put(creditId, mapperResponse.rejected(ex));
+              }
+            }
+            if (modified.isEmpty()) {
+              return Mono.empty();
+            }
+            modified.forEach(overdueCustomerFilter::record);
+
+            return exposure.trackAll(before, transitionOutputPort.saveAll(modified))
+                  .flatMap(saved -> {
+                    saved.forEach(credit -> outcomes.put(credit.getId(),
+                          mapperResponse.success(200, successMessage(transition), credit.getId())));
+                    List<String> conflicts = modified.stream()
+                          .map(Credit::getId)
+                          .filter(creditId -> !outcomes.containsKey(creditId))
+                          .collect(Collectors.toList());
+                    if (conflicts.isEmpty()) {
+                      return Mono.empty();
+                    }
+                    counter(transition, "conflicts").increment(conflicts.size());
+                    if (attempt >= maxConflictRetries) {
+                      conflicts.forEach(creditId -> outcomes.put(creditId,
+                            mapperResponse.conflict("Credit " + creditId + " was modified concurrently")));
+                      return Mono.empty();
+                    }
+                    log.debug("Retrying {} of {} credits after version conflict", transition, conflicts.size());
+                    return applyChunk(transition, conflicts, outcomes, attempt + 1);
+                  });
+          })
+          .then();
+  }
+
+  /**
+   * Las reglas de cada operación individual; además, un crédito cancelado no se puede marcar en mora.
+   */
+  private static void apply(CreditTransition transition, Credit credit) {
+    boolean hasDebt = credit.getCurrentDebt() != null && credit.getCurrentDebt().compareTo(BigDecimal.ZERO) > 0;
+    switch (transition) {
+      case CANCEL:
+        if (hasDebt) {
+          throw new BusinessRuleException("Cannot cancel credit with pending debt");
+        }
+        credit.setStatus(CreditStatus.CANCELLED);
+        break;
+      case OVERDUE:
+        if (credit.getStatus() == CreditStatus.CANCELLED) {
+          throw new BusinessRuleException("Cannot update cancelled credit");
+        }
+        credit.setHasOverdueDebt(true);
+        credit.setStatus(CreditStatus.OVERDUE);
+        break;
+      case DELETE:
+        if (hasDebt) {
+          throw new CreditHasDebtException("Cannot delete credit with pending debt: " + credit.getCurrentDebt());
+        }
+        credit.setStatus(CreditStatus.INACTIVE);
+        break;
+      default:
+        throw new BusinessRuleException("Unsupported credit transition: " + transition);
+    }
+    credit.setUpdatedAt(LocalDateTime.now());
+  }
+
+  private static String successMessage(CreditTransition transition) {
+    switch (transition) {
+      case CANCEL:
+        return "Credit cancelled successfully";
+      case OVERDUE:
+        return "Credit marked as overdue";
+      default:
+        return "Credit deleted successfully";
+    }
+  }
+
+  private Counter counter(CreditTransition transition, String result) {
+    return Counter.builder("credit.transitions")
+          .description("Cambios de estado en lote aplicados, rechazados o en conflicto de versión")
+          .tag("transition", transition.name())
+          .tag("result", result)
+          .register(meterRegistry);
+  }
+}
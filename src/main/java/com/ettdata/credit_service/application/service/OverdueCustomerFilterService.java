@@ -0,0 +1,59 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.out.OverdueCustomerOutputPort;
+import com.ettdata.credit_service.infrastructure.utils.OverdueCustomerFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Carga el filtro de clientes con deuda vencida al arrancar y lo reconstruye periódicamente, para que
+ * salgan los clientes que ya saldaron su deuda. Con el filtro desactivado, o sin una sola instancia
+ * escritora, no hace nada.
+ */
+@Service
+@Slf4j
+public class OverdueCustomerFilterService {
+
+  private final OverdueCustomerOutputPort overdueCustomerOutputPort;
+  private final OverdueCustomerFilter filter;
+
+  public OverdueCustomerFilterService(OverdueCustomerOutputPort overdueCustomerOutputPort,
+                                      OverdueCustomerFilter filter) {
+    this.overdueCustomerOutputPort = overdueCustomerOutputPort;
+    this.filter = filter;
+  }
+
+  @Scheduled(fixedDelayString = "${credit.overdue-filter.rebuild-interval-ms:60000}",
+        initialDelayString = "${credit.overdue-filter.initial-delay-ms:0}")
+  public void scheduledRebuild() {
+    if (!filter.isEnabled()) {
+      return;
+    }
+    rebuild().subscribe(
+          added -> log.info("Overdue customer filter rebuilt: {} overdue credits, {} KB, {} hashes, "
+                      + "estimated false-positive rate {}", added, filter.sizeInBytes() / 1024,
+                filter.hashFunctions(), String.format("%.5f", filter.estimatedFalsePositiveRate())),
+          error -> log.warn("Overdue customer filter rebuild failed: {}", error.getMessage()));
+  }
+
+  /**
+   * @return créditos con deuda vencida cargados; vacío si ya había una reconstrucción en curso
+   */
+  Mono<Long> rebuild() {
+    return Mono.defer(() -> {
+      OverdueCustomerFilter.Rebuild rebuild = filter.startRebuild();
+      if (rebuild == null) {
+        return Mono.empty();
+      }
+      return overdueCustomerOutputPort.streamOverdueCustomerDocuments()
+            .doOnNext(rebuild::add)
+            .then(Mono.fromSupplier(() -> {
+              filter.finishRebuild(rebuild);
+              return rebuild.added();
+            }))
+            .doOnError(error -> filter.abortRebuild(rebuild));
+    });
+  }
+}
@@ -0,0 +1,51 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.in.PaymentQuoteInputPort;
+import com.ettdata.credit_service.domain.model.PaymentQuoteGrid;
+import com.ettdata.credit_service.domain.model.PaymentQuoteResponse;
+import com.ettdata.credit_service.infrastructure.model.PaymentQuoteRequest;
+import com.ettdata.credit_service.infrastructure.utils.PaymentCalculator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import java.util.Arrays;
+
+/**
+ * Simulación de cuotas para preaprobaciones: toda la rejilla de tasas, plazos e importes en una llamada,
+ * con la misma fórmula con la que se fija la cuota al crear el crédito. No consulta Mongo.
+ */
+@Service
+@Slf4j
+public class PaymentQuoteService implements PaymentQuoteInputPort {
+
+  private final PaymentCalculator paymentCalculator;
+  private final DistributionSummary cells;
+
+  public PaymentQuoteService(PaymentCalculator paymentCalculator, MeterRegistry meterRegistry) {
+    this.paymentCalculator = paymentCalculator;
+    this.cells = DistributionSummary.builder("credit.quote.cells")
+          .description("Cuotas calculadas por simulación")
+          .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<PaymentQuoteResponse> quote(PaymentQuoteRequest request) {
+    return Mono.fromSupplier(() -> {
+          PaymentQuoteGrid grid = PaymentQuoteGrid.builder()
+                .interestRates(request.getInterestRates())
+                .termsMonths(request.getTermsMonths())
+                .amounts(request.getAmounts())
+                .monthlyPayments(Arrays.asList(paymentCalculator.grid(
+                      request.getInterestRates(), request.getTermsMonths(), request.getAmounts())))
+                .build();
+          cells.record(grid.getMonthlyPayments().size());
+          return new PaymentQuoteResponse(grid, null);
+        })
+        .onErrorResume(ex -> {
+          log.error("Error computing payment quote", ex);
+          return Mono.just(new PaymentQuoteResponse(null, "Error computing payment quote: " + ex.getMessage()));
+        });
+  }
+}
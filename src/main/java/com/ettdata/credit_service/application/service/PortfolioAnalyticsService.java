@@ -0,0 +1,91 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.in.PortfolioAnalyticsInputPort;
+import com.ettdata.credit_service.application.port.out.PortfolioAnalyticsOutputPort;
+import com.ettdata.credit_service.domain.model.PortfolioAnalytics;
+import com.ettdata.credit_service.domain.model.PortfolioAnalyticsResponse;
+import com.ettdata.credit_service.infrastructure.utils.InFlightRequestCoalescer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Analítica de cartera servida desde una foto en memoria.
+ * La foto se recalcula en Mongo de forma periódica, solo si la colección cambió
+ * (nuevo updatedAt o distinto número de documentos) o si supera la antigüedad máxima.
+ */
+@Service
+@Slf4j
+public class PortfolioAnalyticsService implements PortfolioAnalyticsInputPort {
+
+  private final PortfolioAnalyticsOutputPort analyticsOutputPort;
+  private final InFlightRequestCoalescer coalescer;
+  private final Duration maxAge;
+  private final AtomicReference<PortfolioAnalytics> snapshot = new AtomicReference<>();
+
+  public PortfolioAnalyticsService(PortfolioAnalyticsOutputPort analyticsOutputPort,
+                                   InFlightRequestCoalescer coalescer,
+                                   @Value("${credit.analytics.max-age:1h}") Duration maxAge) {
+    this.analyticsOutputPort = analyticsOutputPort;
+    this.coalescer = coalescer;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Obtener la analítica de cartera (desde la foto en memoria)
+   */
+  @Override
+  public Mono<PortfolioAnalyticsResponse> getPortfolioAnalytics() {
+    PortfolioAnalytics current = snapshot.get();
+    Mono<PortfolioAnalytics> analytics = current != null ? Mono.just(current) : recompute();
+
+    return analytics
+          .map(data -> new PortfolioAnalyticsResponse(data, null))
+          .onErrorResume(error -> {
+            log.error("Error computing portfolio analytics", error);
+            return Mono.just(new PortfolioAnalyticsResponse(null,
+                  "Error computing portfolio analytics: " + error.getMessage()));
+          });
+  }
+
+  /**
+   * Refresco periódico de la foto. Solo vuelve a agregar si hubo cambios.
+   */
+  @Scheduled(fixedDelayString = "${credit.analytics.refresh-interval-ms:60000}",
+        initialDelayString = "${credit.analytics.initial-delay-ms:10000}")
+  public void scheduledRefresh() {
+    refreshIfChanged()
+          .subscribe(
+                analytics -> log.debug("Portfolio analytics up to date ({} credits)", analytics.getTotalCredits()),
+                error -> log.warn("Portfolio analytics refresh failed: {}", error.getMessage()));
+  }
+
+  Mono<PortfolioAnalytics> refreshIfChanged() {
+    PortfolioAnalytics current = snapshot.get();
+    if (current == null
+          || current.getSourceUpdatedAt() == null
+          || current.getGeneratedAt().plus(maxAge).isBefore(LocalDateTime.now())) {
+      return recompute();
+    }
+
+    return Mono.zip(analyticsOutputPort.countCredits(),
+                analyticsOutputPort.hasChangesSince(current.getSourceUpdatedAt()))
+          .flatMap(state -> state.getT1() != current.getTotalCredits() || state.getT2()
+                ? recompute()
+                : Mono.just(current));
+  }
+
+  private Mono<PortfolioAnalytics> recompute() {
+    return coalescer.execute("portfolio-analytics", "all", () ->
+          analyticsOutputPort.aggregatePortfolio()
+                .doOnNext(analytics -> {
+                  snapshot.set(analytics);
+                  log.info("Portfolio analytics recomputed: {} credits", analytics.getTotalCredits());
+                }));
+  }
+}
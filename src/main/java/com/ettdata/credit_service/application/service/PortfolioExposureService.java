@@ -0,0 +1,133 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.in.PortfolioExposureInputPort;
+import com.ettdata.credit_service.application.port.out.PortfolioAnalyticsOutputPort;
+import com.ettdata.credit_service.domain.model.PortfolioExposureResponse;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exposición en vivo servida desde los contadores en memoria, sin consultar Mongo.
+ * La primera pasada programada los inicializa con una agregación; las siguientes los concilian con
+ * Mongo y corrigen lo que no llegó por CreditService.
+ * La inicialización y la conciliación solo se aplican si ninguna escritura se cruzó con la agregación.
+ * Si se cruzó, la inicialización se reintenta enseguida y la conciliación espera a la siguiente pasada;
+ * las conciliaciones saltadas seguidas se publican para ver si el tráfico las deja sin aplicar.
+ */
+@Service
+@Slf4j
+public class PortfolioExposureService implements PortfolioExposureInputPort {
+
+  private final PortfolioAnalyticsOutputPort analyticsOutputPort;
+  private final ExposureCounters counters;
+  private final Counter reconciled;
+  private final Counter skipped;
+  private final Counter drifted;
+  private final AtomicInteger consecutiveSkips = new AtomicInteger();
+  private final int initAttempts;
+  private final Duration initRetryDelay;
+
+  public PortfolioExposureService(PortfolioAnalyticsOutputPort analyticsOutputPort,
+                                  ExposureCounters counters,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${credit.exposure.init-attempts:5}") int initAttempts,
+                                  @Value("${credit.exposure.init-retry-delay:500ms}") Duration initRetryDelay) {
+    this.analyticsOutputPort = analyticsOutputPort;
+    this.counters = counters;
+    this.initAttempts = Math.max(1, initAttempts);
+    this.initRetryDelay = initRetryDelay;
+    this.reconciled = meterRegistry.counter("credit.exposure.reconciliations", "outcome", "applied");
+    this.skipped = meterRegistry.counter("credit.exposure.reconciliations", "outcome", "skipped");
+    this.drifted = meterRegistry.counter("credit.exposure.drifted.cells");
+    meterRegistry.gauge("credit.exposure.reconciliations.skipped.consecutive", Tags.empty(), consecutiveSkips);
+  }
+
+  /**
+   * Obtener la exposición de la cartera por tipo y estado
+   */
+  @Override
+  public Mono<PortfolioExposureResponse> getPortfolioExposure() {
+    if (!counters.isInitialized()) {
+      return Mono.just(new PortfolioExposureResponse(null, "Exposure counters are not initialized yet"));
+    }
+    return Mono.fromSupplier(() -> new PortfolioExposureResponse(counters.snapshot(), null));
+  }
+
+  @Scheduled(fixedDelayString = "${credit.exposure.reconcile-interval-ms:60000}",
+        initialDelayString = "${credit.exposure.initial-delay-ms:5000}")
+  public void scheduledReconcile() {
+    reconcile().subscribe(
+          applied -> log.debug("Exposure counters reconciliation applied: {}", applied),
+          error -> log.warn("Exposure counters reconciliation failed: {}", error.getMessage()));
+  }
+
+  Mono<Boolean> reconcile() {
+    return counters.isInitialized() ? reconcileCounters() : initialize(1);
+  }
+
+  private Mono<Boolean> initialize(int attempt) {
+    return Mono.defer(() -> {
+      long appliedBefore = counters.appliedWrites();
+      return analyticsOutputPort.aggregateExposure()
+            .collectList()
+            .flatMap(aggregate -> {
+              if (!overlapped(appliedBefore)) {
+                counters.initialize(aggregate);
+                log.info("Exposure counters initialized from {} type/status groups", aggregate.size());
+                return Mono.just(true);
+              }
+              if (attempt >= initAttempts) {
+                log.warn("Exposure counters not initialized: writes overlapped {} aggregations", attempt);
+                return Mono.just(false);
+              }
+              return Mono.delay(initRetryDelay).then(initialize(attempt + 1));
+            });
+    });
+  }
+
+  private Mono<Boolean> reconcileCounters() {
+    return Mono.defer(() -> {
+      long appliedBefore = counters.appliedWrites();
+      return analyticsOutputPort.aggregateExposure()
+            .collectList()
+            .map(aggregate -> {
+              if (overlapped(appliedBefore)) {
+                skipped.increment();
+                int skips = consecutiveSkips.incrementAndGet();
+                if (skips % 10 == 0) {
+                  log.warn("Exposure counters reconciliation skipped {} times in a row", skips);
+                }
+                return false;
+              }
+              int drift = counters.reconcile(aggregate);
+              consecutiveSkips.set(0);
+              reconciled.increment();
+              if (drift > 0) {
+                drifted.increment(drift);
+                log.warn("Exposure counters corrected in {} type/status groups", drift);
+              }
+              return true;
+            });
+    });
+  }
+
+  /**
+   * Alguna escritura registrada empezó o terminó mientras corría la agregación
+   */
+  private boolean overlapped(long appliedBefore) {
+    return counters.writesInFlight() > 0 || counters.appliedWrites() != appliedBefore;
+  }
+
+  int consecutiveSkips() {
+    return consecutiveSkips.get();
+  }
+}
@@ -0,0 +1,376 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.in.SettlementInputPort;
+import com.ettdata.credit_service.application.port.out.SettlementOutputPort;
+import com.ettdata.credit_service.domain.error.BusinessRuleException;
+import com.ettdata.credit_service.domain.error.CreditNotFoundException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementPayment;
+import com.ettdata.credit_service.domain.model.SettlementReject;
+import com.ettdata.credit_service.domain.model.SettlementReport;
+import com.ettdata.credit_service.domain.model.SettlementReportResponse;
+import com.ettdata.credit_service.domain.model.SettlementStatus;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.SettlementLineParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Ingesta de pagos desde ficheros de liquidación.
+ * El fichero se lee línea a línea y se procesa en bloques: cada bloque carga sus créditos con una consulta,
+ * valida y aplica los pagos en memoria y los guarda con una escritura por lotes. Tras cada bloque se
+ * guarda el punto de control del fichero, así una ingesta interrumpida se reanuda en el bloque siguiente.
+ * <p>
+ * Cada crédito guarda la última línea aplicada del fichero: si la caída ocurre entre la escritura del
+ * bloque y su punto de control, al reanudar esos pagos se reconocen y no se aplican otra vez.
+ * Eso solo vale si ningún otro fichero paga el crédito entre medias, así que los ficheros se ingieren de uno
+ * en uno: el que empieza toma el turno de ingesta y no lo suelta hasta completarse, aunque falle o caiga.
+ * Mientras tanto se rechaza cualquier otro fichero; el interrumpido debe reanudarse primero.
+ * <p>
+ * Cada ingesta reserva el fichero antes de leerlo: una segunda petición con el mismo fileId mientras la
+ * primera sigue en curso se rechaza. Si la que lo tenía cae, la reserva caduca tras credit.settlement.claim-timeout
+ * sin puntos de control y el fichero puede reanudarse.
+ */
+@Service
+@Slf4j
+public class SettlementService implements SettlementInputPort {
+
+  private final SettlementOutputPort settlementOutputPort;
+  private final SettlementLineParser parser;
+  private final ExposureCounters exposure;
+  private final MeterRegistry meterRegistry;
+  private final int chunkSize;
+  private final int maxConflictRetries;
+  private final int maxReportedRejects;
+  private final Duration claimTimeout;
+
+  public SettlementService(SettlementOutputPort settlementOutputPort,
+                           SettlementLineParser parser,
+                           ExposureCounters exposure,
+                           MeterRegistry meterRegistry,
+                           @Value("${credit.settlement.chunk-size:500}") int chunkSize,
+                           @Value("${credit.settlement.conflict-retries:3}") int maxConflictRetries,
+                           @Value("${credit.settlement.max-reported-rejects:1000}") int maxReportedRejects,
+                           @Value("${credit.settlement.claim-timeout:10m}") Duration claimTimeout) {
+    this.settlementOutputPort = settlementOutputPort;
+    this.parser = parser;
+    this.exposure = exposure;
+    this.meterRegistry = meterRegistry;
+    this.chunkSize = chunkSize;
+    this.maxConflictRetries = maxConflictRetries;
+    this.maxReportedRejects = maxReportedRejects;
+    this.claimTimeout = claimTimeout;
+  }
+
+  /**
+   * Ingiere un fichero. Un fichero ya completado no se vuelve a aplicar: se devuelve su informe.
+   * Si otra ingesta lo tiene reservado, se devuelve su informe en curso (RUNNING) sin leer las líneas.
+   * Si el turno lo tiene otro fichero sin completar, se devuelve el informe de ese otro fichero.
+   */
+  @Override
+  public Mono<SettlementReportResponse> ingestSettlement(String fileId, SettlementFormat format, Flux<String> lines) {
+    String claimId = UUID.randomUUID().toString();
+    return settlementOutputPort.acquireIngestionTurn(fileId)
+          .flatMap(holder -> !holder.equals(fileId) ? turnTaken(fileId, holder)
+                : settlementOutputPort.claimReport(fileId, format, claimId, LocalDateTime.now().minus(claimTimeout))
+                .flatMap(report -> run(report, lines))
+                .flatMap(report -> report.getStatus() == SettlementStatus.COMPLETED
+                      ? settlementOutputPort.releaseIngestionTurn(fileId).thenReturn(report)
+                      : Mono.just(report))
+                .map(report -> new SettlementReportResponse(report, report.getError()))
+                .switchIfEmpty(Mono.defer(() -> notClaimed(fileId))))
+          .onErrorResume(ex -> {
+            log.error("Error ingesting settlement file {}", fileId, ex);
+            return Mono.just(new SettlementReportResponse(null, "Error ingesting settlement file: " + ex.getMessage()));
+          });
+  }
+
+  @Override
+  public Mono<SettlementReportResponse> getSettlementReport(String fileId) {
+    return settlementOutputPort.findReport(fileId)
+          .map(report -> new SettlementReportResponse(report, null))
+          .defaultIfEmpty(new SettlementReportResponse(null, "Settlement file not found"));
+  }
+
+  /**
+   * Un fichero completado ya no necesita el turno: si la liberación tras completarlo falló, se libera aquí.
+   */
+  private Mono<SettlementReportResponse> notClaimed(String fileId) {
+    return settlementOutputPort.findReport(fileId)
+          .flatMap(report -> {
+            if (report.getStatus() == SettlementStatus.COMPLETED) {
+              log.info("Settlement file {} already completed, skipping", fileId);
+              return settlementOutputPort.releaseIngestionTurn(fileId)
+                    .thenReturn(new SettlementReportResponse(report, null));
+            }
+            log.warn("Settlement file {} is already being ingested", fileId);
+            return Mono.just(new SettlementReportResponse(report, "Settlement file is already being ingested"));
+          })
+          .defaultIfEmpty(new SettlementReportResponse(null, "Settlement file is already being ingested"));
+  }
+
+  private Mono<SettlementReportResponse> turnTaken(String fileId, String holder) {
+    log.warn("Settlement file {} rejected: file {} must be completed first", fileId, holder);
+    return settlementOutputPort.findReport(holder)
+          .defaultIfEmpty(SettlementReport.builder().fileId(holder).build())
+          .map(report -> new SettlementReportResponse(report,
+                "Settlement file " + holder + " must be completed before ingesting another"));
+  }
+
+  private Mono<SettlementReport> run(SettlementReport report, Flux<String> lines) {
+    long resumeFrom = report.getCommittedLine();
+    long started = System.nanoTime();
+    long recordsBefore = report.getRecords();
+    AtomicReference<Throwable> readError = new AtomicReference<>();
+    if (resumeFrom > 0) {
+      log.info("Resuming settlement file {} after line {}", report.getFileId(), resumeFrom);
+    }
+    report.setStatus(SettlementStatus.RUNNING);
+    report.setResumedFromLine(resumeFrom);
+    report.setFinishedAt(null);
+    report.setError(null);
+    if (report.getRejects() == null) {
+      report.setRejects(new ArrayList<>());
+    }
+    if (report.getAppliedAmount() == null) {
+      report.setAppliedAmount(BigDecimal.ZERO);
+    }
+
+    return settlementOutputPort.saveReport(report)
+          .thenMany(lines.index()
+                .filter(indexed -> indexed.getT1() + 1 > resumeFrom)
+                .<Entry>handle((indexed, sink) -> {
+                  long line = indexed.getT1() + 1;
+                  try {
+                    SettlementPayment payment = parser.parse(line, indexed.getT2(), report.getFormat());
+                    if (payment != null) {
+                      sink.next(new Entry(line, payment, null));
+                    }
+                  } catch (IllegalArgumentException ex) {
+                    sink.next(new Entry(line, null, new SettlementReject(line, null, ex.getMessage())));
+                  }
+                })
+                .buffer(chunkSize)
+                // Si la subida se corta, los bloques completos ya leídos se aplican; el bloque parcial se descarta
+                .onErrorResume(ex -> {
+                  readError.set(ex);
+                  return Mono.empty();
+                })
+                .concatMap(chunk -> processChunk(report, chunk)))
+          .then(Mono.defer(() -> {
+            if (readError.get() != null) {
+              return Mono.error(readError.get());
+            }
+            report.setStatus(SettlementStatus.COMPLETED);
+            report.setFinishedAt(LocalDateTime.now());
+            return settlementOutputPort.saveReport(withThroughput(report, started, recordsBefore));
+          }))
+          .doOnSuccess(done -> log.info("Settlement file {} completed: {} records, {} applied, {} rejected, {} records/s",
+                done.getFileId(), done.getRecords(), done.getApplied(), done.getRejected(),
+                Math.round(done.getRecordsPerSecond())))
+          .onErrorResume(ex -> {
+            log.error("Settlement file {} failed after line {}", report.getFileId(), report.getCommittedLine(), ex);
+            report.setStatus(SettlementStatus.FAILED);
+            report.setError("Ingestion stopped after line " + report.getCommittedLine() + ": " + ex.getMessage());
+            return settlementOutputPort.saveReport(withThroughput(report, started, recordsBefore));
+          });
+  }
+
+  /**
+   * Aplica un bloque y guarda el punto de control en la última línea del bloque.
+   */
+  private Mono<SettlementReport> processChunk(SettlementReport report, List<Entry> chunk) {
+    List<SettlementPayment> payments = new ArrayList<>();
+    ChunkOutcome parsed = new ChunkOutcome();
+    for (Entry entry : chunk) {
+      if (entry.payment != null) {
+        payments.add(entry.payment);
+      } else {
+        parsed.rejects.add(entry.reject);
+      }
+    }
+
+    return applyPayments(report.getFileId(), payments, 0)
+          .map(outcome -> {
+            outcome.merge(parsed);
+            report.setRecords(report.getRecords() + chunk.size());
+            report.setApplied(report.getApplied() + outcome.applied);
+            report.setAppliedAmount(report.getAppliedAmount().add(outcome.amount));
+            report.setRejected(report.getRejected() + outcome.rejects.size());
+            int room = maxReportedRejects - report.getRejects().size();
+            if (room > 0) {
+              report.getRejects().addAll(outcome.rejects.subList(0, Math.min(room, outcome.rejects.size())));
+            }
+            report.setCommittedLine(chunk.get(chunk.size() - 1).line);
+            counter("applied").increment(outcome.applied);
+            counter("rejected").increment(outcome.rejects.size());
+            return report;
+          })
+          .flatMap(settlementOutputPort::saveReport);
+  }
+
+  /**
+   * Valida y aplica los pagos sobre los créditos leídos y los guarda de una vez.
+   * Los créditos modificados por otra escritura entre la lectura y el guardado se vuelven a leer
+   * y sus pagos se reintentan; agotados los reintentos, esos pagos se rechazan.
+   * Los guardados se anotan en los contadores de exposición, como las transiciones por lotes.
+   */
+  private Mono<ChunkOutcome> applyPayments(String fileId, List<SettlementPayment> payments, int attempt) {
+    if (payments.isEmpty()) {
+      return Mono.just(new ChunkOutcome());
+    }
+    Set<String> creditNumbers = payments.stream()
+          .map(SettlementPayment::getCreditNumber)
+          .collect(Collectors.toSet());
+
+    return settlementOutputPort.findByCreditNumbers(creditNumbers)
+          .collectMap(Credit::getCreditNumber)
+          .flatMap(credits -> {
+            ChunkOutcome outcome = new ChunkOutcome();
+            Map<String, ExposureCounters.Position> before = new HashMap<>();
+            Map<String, List<SettlementPayment>> pending = new LinkedHashMap<>();
+            for (SettlementPayment payment : payments) {
+              Credit credit = credits.get(payment.getCreditNumber());
+              try {
+                if (alreadyApplied(credit, fileId, payment.getLine())) {
+                  outcome.applied(payment);
+                  continue;
+                }
+                if (credit != null) {
+                  before.putIfAbsent(credit.getId(), ExposureCounters.Position.of(credit));
+                }
+                applyPayment(credit, payment, fileId);
+                pending.computeIfAbsent(credit.getCreditNumber(), number -> new ArrayList<>()).add(payment);
+              } catch (BusinessRuleException ex) {
+                outcome.rejects.add(new SettlementReject(payment.getLine(), payment.getReference(), ex.getMessage()));
+              }
+            }
+            if (pending.isEmpty()) {
+              return Mono.just(outcome);
+            }
+
+            List<Credit> modified = pending.keySet().stream().map(credits::get).collect(Collectors.toList());
+            return exposure.trackAll(before, settlementOutputPort.applyPayments(modified))
+                  .flatMap(saved -> {
+                    saved.forEach(credit -> pending.remove(credit.getCreditNumber()).forEach(outcome::applied));
+                    if (pending.isEmpty()) {
+                      return Mono.just(outcome);
+                    }
+                    List<SettlementPayment> retry = new ArrayList<>();
+                    pending.values().forEach(retry::addAll);
+                    counter("conflicts").increment(retry.size());
+                    if (attempt >= maxConflictRetries) {
+                      retry.forEach(payment -> outcome.rejects.add(new SettlementReject(payment.getLine(),
+                            payment.getReference(), "Credit was modified concurrently")));
+                      return Mono.just(outcome);
+                    }
+                    log.debug("Retrying {} settlement payments after version conflict", retry.size());
+                    return applyPayments(fileId, retry, attempt + 1).map(outcome::merge);
+                  });
+          });
+  }
+
+  private static boolean alreadyApplied(Credit credit, String fileId, long line) {
+    return credit != null
+          && fileId.equals(credit.getLastSettlementFile())
+          && credit.getLastSettlementLine() != null
+          && credit.getLastSettlementLine() >= line;
+  }
+
+  /**
+   * Descuenta el pago de la deuda y lo devuelve al disponible.
+   * Saldada la deuda, se levanta la marca de mora y un crédito OVERDUE vuelve a ACTIVE.
+   */
+  private void applyPayment(Credit credit, SettlementPayment payment, String fileId) {
+    if (credit == null) {
+      throw new CreditNotFoundException("Credit not found: " + payment.getCreditNumber());
+    }
+    if (credit.getStatus() != CreditStatus.ACTIVE && credit.getStatus() != CreditStatus.OVERDUE) {
+      throw new BusinessRuleException("Credit is not payable in status " + credit.getStatus());
+    }
+    if (payment.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+      throw new BusinessRuleException("Payment amount must be greater than zero");
+    }
+    if (payment.getAmount().compareTo(credit.getCurrentDebt()) > 0) {
+      throw new BusinessRuleException("Payment exceeds current debt of " + credit.getCurrentDebt());
+    }
+
+    credit.setCurrentDebt(credit.getCurrentDebt().subtract(payment.getAmount()));
+    credit.setAvailableCredit(credit.getAvailableCredit().add(payment.getAmount()));
+    if (credit.getCurrentDebt().signum() == 0) {
+      credit.setHasOverdueDebt(false);
+      if (credit.getStatus() == CreditStatus.OVERDUE) {
+        credit.setStatus(CreditStatus.ACTIVE);
+      }
+    }
+    credit.setUpdatedAt(LocalDateTime.now());
+    credit.setLastSettlementFile(fileId);
+    credit.setLastSettlementLine(payment.getLine());
+  }
+
+  private static SettlementReport withThroughput(SettlementReport report, long startedNanos, long recordsBefore) {
+    long elapsedMs = Math.max(1, (System.nanoTime() - startedNanos) / 1_000_000);
+    report.setDurationMs(elapsedMs);
+    report.setRecordsPerSecond((report.getRecords() - recordsBefore) * 1000.0 / elapsedMs);
+    return report;
+  }
+
+  private Counter counter(String result) {
+    return Counter.builder("credit.settlement.payments")
+          .description("Pagos de liquidación aplicados, rechazados o en conflicto de versión")
+          .tag("result", result)
+          .register(meterRegistry);
+  }
+
+  /**
+   * Línea con pago o rechazo de formato.
+   */
+  private static final class Entry {
+    private final long line;
+    private final SettlementPayment payment;
+    private final SettlementReject reject;
+
+    private Entry(long line, SettlementPayment payment, SettlementReject reject) {
+      this.line = line;
+      this.payment = payment;
+      this.reject = reject;
+    }
+  }
+
+  private static final class ChunkOutcome {
+    private long applied;
+    private BigDecimal amount = BigDecimal.ZERO;
+    private final List<SettlementReject> rejects = new ArrayList<>();
+
+    private void applied(SettlementPayment payment) {
+      applied++;
+      amount = amount.add(payment.getAmount());
+    }
+
+    private ChunkOutcome merge(ChunkOutcome other) {
+      applied += other.applied;
+      amount = amount.add(other.amount);
+      rejects.addAll(other.rejects);
+      return this;
+    }
+  }
+}
@@ -1,7 +1,25 @@
 package com.ettdata.credit_service.domain.error;
 
+/**
+ * Resultado de negocio esperado (regla incumplida, recurso inexistente...).
+ * No captura stack trace: se crea en cada rechazo y solo se traduce a un código de respuesta.
+ */
 public class BusinessRuleException extends RuntimeException {
+    private final int code;
+
     public BusinessRuleException(String message) {
-        super(message);
+        this(400, message);
+    }
+
+    protected BusinessRuleException(int code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    /**
+     * Código de respuesta (codResponse) asociado al rechazo.
+     */
+    public int getCode() {
+        return code;
     }
 }
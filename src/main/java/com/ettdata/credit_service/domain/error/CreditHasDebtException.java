@@ -1,7 +1,7 @@
 package com.ettdata.credit_service.domain.error;
 
-public class CreditHasDebtException extends RuntimeException {
+public class CreditHasDebtException extends BusinessRuleException {
   public CreditHasDebtException(String message) {
-    super(message);
+    super(400, message);
   }
 }
@@ -1,7 +1,7 @@
 package com.ettdata.credit_service.domain.error;
 
-public class CreditNotFoundException extends RuntimeException {
+public class CreditNotFoundException extends BusinessRuleException {
   public CreditNotFoundException(String message) {
-    super(message);
+    super(404, message);
   }
 }
@@ -0,0 +1,11 @@
+package com.ettdata.credit_service.domain.error;
+
+/**
+ * Otro proceso modificó el crédito entre la lectura y la escritura (versión distinta).
+ * Se reintenta releyendo el crédito; si se agotan los reintentos se responde 409.
+ */
+public class CreditVersionConflictException extends BusinessRuleException {
+  public CreditVersionConflictException(String message) {
+    super(409, message);
+  }
+}
@@ -1,7 +1,7 @@
 package com.ettdata.credit_service.domain.error;
 
-public class CustomerNotFoundException extends RuntimeException {
+public class CustomerNotFoundException extends BusinessRuleException {
   public CustomerNotFoundException(String message) {
-    super(message);
+    super(404, message);
   }
 }
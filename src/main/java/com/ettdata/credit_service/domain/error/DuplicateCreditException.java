@@ -1,7 +1,7 @@
 package com.ettdata.credit_service.domain.error;
 
-public class DuplicateCreditException extends RuntimeException {
+public class DuplicateCreditException extends BusinessRuleException {
   public DuplicateCreditException(String message) {
-    super(message);
+    super(409, message);
   }
 }
@@ -0,0 +1,7 @@
+package com.ettdata.credit_service.domain.error;
+
+public class InsufficientCreditException extends BusinessRuleException {
+  public InsufficientCreditException(String message) {
+    super(400, message);
+  }
+}
@@ -1,7 +1,7 @@
 package com.ettdata.credit_service.domain.error;
 
-public class OverdueDebtException extends RuntimeException {
+public class OverdueDebtException extends BusinessRuleException {
   public OverdueDebtException(String message) {
-    super(message);
+    super(400, message);
   }
 }
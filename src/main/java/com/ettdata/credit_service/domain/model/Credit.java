@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Credit {
   private String id;
   private String creditNumber;
@@ -28,4 +28,11 @@ public class Credit {
   private CreditStatus status;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
+  /** Versión del documento para escrituras condicionales; null en créditos aún no guardados. */
+  private Long version;
+  /** Última línea de liquidación aplicada (fichero y número de línea); evita aplicar dos veces un pago al reanudar. */
+  private String lastSettlementFile;
+  private Long lastSettlementLine;
+  /** Última retención cargada; evita cargar dos veces una captura al recuperarla. */
+  private String lastCapturedHold;
 }
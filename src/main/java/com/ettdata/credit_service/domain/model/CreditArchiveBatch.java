@@ -0,0 +1,18 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Resultado de un lote de archivado: cuántos candidatos se leyeron y cuáles salieron de la colección viva.
+ * Los que cambiaron entre la lectura y el borrado se leen pero no se mueven.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditArchiveBatch {
+  private int read;
+  private List<Credit> moved;
+}
@@ -0,0 +1,27 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Retención (autorización) de un importe sobre el disponible de un crédito.
+ * Mientras está AUTHORIZED y no vence, el importe no se puede disponer por otra vía;
+ * al capturarla se convierte en un desembolso, y al liberarla o vencer se devuelve.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class CreditHold {
+  private String holdId;
+  private String creditId;
+  private BigDecimal amount;
+  private CreditHoldStatus status;
+  private LocalDateTime createdAt;
+  private LocalDateTime expiresAt;
+  private LocalDateTime updatedAt;
+}
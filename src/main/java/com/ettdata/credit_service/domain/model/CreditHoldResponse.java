@@ -0,0 +1,16 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreditHoldResponse {
+  private Integer codResponse;
+  private String messageResponse;
+  private CreditHold data;
+}
@@ -0,0 +1,10 @@
+package com.ettdata.credit_service.domain.model;
+
+public enum CreditHoldStatus {
+  AUTHORIZED,
+  CAPTURED,
+  RELEASED,
+  EXPIRED,
+  /** Capturada, con el cargo en el crédito aún sin confirmar. */
+  CAPTURING
+}
@@ -0,0 +1,18 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tramo de ids de crédito para recorrer la colección por partes: [from, to), sin límite si es null.
+ * otherIds reúne los ids que no son texto (ObjectId de documentos antiguos), que no entran en ningún tramo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditIdRange {
+  private String from;
+  private String to;
+  private boolean otherIds;
+}
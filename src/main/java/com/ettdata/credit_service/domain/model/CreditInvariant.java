@@ -0,0 +1,11 @@
+package com.ettdata.credit_service.domain.model;
+
+/**
+ * Reglas que todo crédito debe cumplir y que comprueba la conciliación.
+ * BALANCE: disponible + deuda = límite.
+ * OVERDUE_FLAG: en un crédito ACTIVE u OVERDUE, la marca de deuda vencida coincide con el estado OVERDUE.
+ */
+public enum CreditInvariant {
+  BALANCE,
+  OVERDUE_FLAG
+}
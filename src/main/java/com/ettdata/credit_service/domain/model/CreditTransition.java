@@ -0,0 +1,10 @@
+package com.ettdata.credit_service.domain.model;
+
+/**
+ * Cambios de estado que se pueden aplicar en lote.
+ */
+public enum CreditTransition {
+  CANCEL,
+  OVERDUE,
+  DELETE
+}
@@ -0,0 +1,24 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Resultado de un cambio de estado en lote: un CreditResponse por id, en el orden de la petición
+ * y sin repetidos, con el mismo código y mensaje que daría la operación individual.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreditTransitionResponse {
+  private CreditTransition transition;
+  private long requested;
+  private long applied;
+  private long rejected;
+  private List<CreditResponse> results;
+  private String error;
+}
@@ -0,0 +1,17 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección mínima de un crédito (id + updatedAt) para validar versiones sin cargar el documento.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreditVersion {
+  private String id;
+  private LocalDateTime updatedAt;
+}
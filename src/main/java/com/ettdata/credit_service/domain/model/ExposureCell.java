@@ -0,0 +1,23 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * Exposición agregada de los créditos de un tipo y un estado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExposureCell {
+  private CreditType type;
+  private CreditStatus status;
+  private long count;
+  private BigDecimal totalLimit;
+  private BigDecimal totalDebt;
+  private BigDecimal totalAvailable;
+}
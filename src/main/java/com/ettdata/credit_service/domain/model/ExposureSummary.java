@@ -0,0 +1,22 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * Exposición agregada de un grupo de créditos (por tipo o por estado).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExposureSummary {
+  private String key;
+  private long count;
+  private BigDecimal totalLimit;
+  private BigDecimal totalDebt;
+  private BigDecimal totalAvailable;
+}
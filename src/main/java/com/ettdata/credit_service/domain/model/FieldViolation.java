@@ -0,0 +1,16 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Campo rechazado por la validación de la petición y motivo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FieldViolation {
+  private String field;
+  private String message;
+}
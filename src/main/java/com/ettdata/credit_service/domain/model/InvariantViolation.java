@@ -0,0 +1,14 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvariantViolation {
+  private String creditId;
+  private CreditInvariant invariant;
+  private String detail;
+}
@@ -0,0 +1,25 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cuotas mensuales de todas las combinaciones de tasa, plazo e importe.
+ * Los ejes van una sola vez y monthlyPayments es plano, recorrido por tasa, después plazo y después
+ * importe: la cuota de (interestRates[i], termsMonths[j], amounts[k]) está en
+ * [(i * termsMonths.size() + j) * amounts.size() + k].
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentQuoteGrid {
+  private List<BigDecimal> interestRates;
+  private List<Integer> termsMonths;
+  private List<BigDecimal> amounts;
+  private List<BigDecimal> monthlyPayments;
+}
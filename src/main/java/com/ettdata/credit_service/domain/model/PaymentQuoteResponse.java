@@ -0,0 +1,13 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentQuoteResponse {
+  private PaymentQuoteGrid data;
+  private String error;
+}
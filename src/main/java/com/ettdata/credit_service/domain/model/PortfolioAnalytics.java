@@ -0,0 +1,31 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Foto de la cartera calculada en Mongo con un pipeline de agregación.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortfolioAnalytics {
+  private List<ExposureSummary> exposureByType;
+  private List<ExposureSummary> exposureByStatus;
+  private List<UtilizationBucket> utilization;
+  private long totalCredits;
+  private long overdueCredits;
+  /** Créditos con deuda vencida / total de créditos */
+  private BigDecimal overdueRatio;
+  /** Deuda de créditos vencidos / deuda total */
+  private BigDecimal overdueDebtRatio;
+  /** Último updatedAt de la colección al calcular la foto */
+  private LocalDateTime sourceUpdatedAt;
+  private LocalDateTime generatedAt;
+}
@@ -0,0 +1,24 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Totales de exposición en vivo, mantenidos en memoria por cada escritura.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortfolioExposure {
+  private List<ExposureSummary> exposureByType;
+  private List<ExposureSummary> exposureByStatus;
+  private ExposureSummary total;
+  /** Última vez que los contadores se cuadraron con Mongo */
+  private LocalDateTime reconciledAt;
+  private LocalDateTime generatedAt;
+}
@@ -0,0 +1,37 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progreso y resultado de una pasada de conciliación de invariantes.
+ * violations cuenta lo encontrado en el recorrido; con repair, repaired son los créditos corregidos y
+ * resolved los que al releerlos ya cumplían (otra escritura los cambió entre medias).
+ * samples guarda las primeras violaciones encontradas, no todas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReport {
+  private ReconciliationStatus status;
+  private boolean repair;
+  private int ranges;
+  private long scanned;
+  private long violations;
+  private Map<CreditInvariant, Long> violationsByInvariant;
+  private long repaired;
+  private long resolved;
+  private long repairFailures;
+  private List<InvariantViolation> samples;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+  private long durationMs;
+  private double documentsPerSecond;
+  private String error;
+}
@@ -0,0 +1,13 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationReportResponse {
+  private ReconciliationReport data;
+  private String error;
+}
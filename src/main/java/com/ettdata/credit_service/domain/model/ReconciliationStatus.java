@@ -0,0 +1,7 @@
+package com.ettdata.credit_service.domain.model;
+
+public enum ReconciliationStatus {
+  RUNNING,
+  COMPLETED,
+  FAILED
+}
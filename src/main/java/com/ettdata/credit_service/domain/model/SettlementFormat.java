@@ -0,0 +1,6 @@
+package com.ettdata.credit_service.domain.model;
+
+public enum SettlementFormat {
+  CSV,
+  FIXED_WIDTH
+}
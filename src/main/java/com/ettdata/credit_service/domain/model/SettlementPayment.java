@@ -0,0 +1,21 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pago leído de una línea del fichero de liquidación.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementPayment {
+  private long line;
+  private String reference;
+  private String creditNumber;
+  private BigDecimal amount;
+  private LocalDate paymentDate;
+}
@@ -0,0 +1,39 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Estado y resultado de la ingesta de un fichero de liquidación.
+ * committedLine es la última línea cuyo bloque quedó aplicado: una ingesta interrumpida se reanuda desde ahí.
+ * Los contadores son acumulados del fichero; durationMs y recordsPerSecond corresponden a la última ejecución.
+ * claimId identifica la ingesta que tiene reservado el fichero y heartbeatAt su último punto de control.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SettlementReport {
+  private String fileId;
+  private SettlementFormat format;
+  private SettlementStatus status;
+  private long committedLine;
+  private long resumedFromLine;
+  private long records;
+  private long applied;
+  private long rejected;
+  private BigDecimal appliedAmount;
+  private List<SettlementReject> rejects;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+  private long durationMs;
+  private double recordsPerSecond;
+  private String error;
+  private String claimId;
+  private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,20 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * Tramo de utilización (currentDebt / creditLimit).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UtilizationBucket {
+  private String range;
+  private long count;
+  private BigDecimal totalDebt;
+}
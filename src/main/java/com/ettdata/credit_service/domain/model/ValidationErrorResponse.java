@@ -0,0 +1,18 @@
+package com.ettdata.credit_service.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Respuesta 400 para peticiones que no cumplen las restricciones declaradas, con un error por campo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValidationErrorResponse {
+  private Integer codResponse;
+  private String messageResponse;
+  private List<FieldViolation> errors;
+}
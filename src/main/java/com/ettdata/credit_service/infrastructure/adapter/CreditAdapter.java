@@ -1,34 +1,83 @@
 package com.ettdata.credit_service.infrastructure.adapter;
 
 import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
 import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.CreditVersion;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
 import com.ettdata.credit_service.infrastructure.repository.CreditRepository;
-import com.ettdata.credit_service.infrastructure.utils.CreditMapper;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Créditos en Mongo. Lee y escribe Document y los traduce con CreditDocumentCodec directamente al
+ * dominio, sin pasar por CreditEntity.
+ */
 @Component
 public class CreditAdapter implements CreditRepositoryOutputPort{
 
   private final CreditRepository repository;
-  private final CreditMapper mapper;
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final CreditDocumentCodec codec;
+  private final CreditSchemaUpgrader upgrader;
+  private final String collectionName;
+  private final int exportBatchSize;
 
-  public CreditAdapter(CreditRepository repository, CreditMapper mapper) {
+  public CreditAdapter(CreditRepository repository, ReactiveMongoTemplate mongoTemplate,
+                       CreditDocumentCodec codec, CreditSchemaUpgrader upgrader,
+                       @Value("${credit.export.cursor-batch-size:1000}") int exportBatchSize) {
     this.repository = repository;
-    this.mapper = mapper;
+    this.mongoTemplate = mongoTemplate;
+    this.codec = codec;
+    this.upgrader = upgrader;
+    this.collectionName = mongoTemplate.getCollectionName(CreditEntity.class);
+    this.exportBatchSize = exportBatchSize;
   }
 
   @Override
   public Flux<Credit> findAllCredit() {
-    return repository.findAll()
-          .map(mapper::toDomain);
+    return mongoTemplate.findAll(Document.class, collectionName)
+          .map(codec::decode);
   }
 
+  /**
+   * Guarda un crédito.
+   * Sin versión: crédito nuevo, se inserta. Con versión: reemplazo condicional,
+   * solo si el documento sigue en la versión leída; si no, CreditVersionConflictException.
+   */
   @Override
   public Mono<Credit> saveCredit(Credit credit) {
-    return repository.save(mapper.toEntity(credit))
-          .map(mapper::toDomain);
+    if (credit.getVersion() == null) {
+      return mongoTemplate.insert(codec.encode(credit), collectionName)
+            .map(codec::decode);
+    }
+
+    long expectedVersion = credit.getVersion();
+    Document replacement = codec.encode(credit);
+    replacement.put(CreditDocumentCodec.VERSION, expectedVersion + 1);
+    return mongoTemplate.findAndReplace(versionQuery(credit.getId(), expectedVersion), replacement,
+                FindAndReplaceOptions.options().returnNew(), Document.class, collectionName, Document.class)
+          .switchIfEmpty(Mono.error(() -> new CreditVersionConflictException(
+                "Credit " + credit.getId() + " was modified concurrently")))
+          .map(codec::decode);
+  }
+
+  private Query versionQuery(String id, long expectedVersion) {
+    return Query.query(Criteria.where("_id").is(id).andOperator(codec.versionIs(expectedVersion)));
   }
 
   @Override
@@ -38,15 +87,81 @@ public class CreditAdapter implements CreditRepositoryOutputPort{
 
   @Override
   public Flux<Credit> findByDocumentNumber(String documentNumber) {
-    return repository.findByCustomerDocument(documentNumber)
-          .map(mapper::toDomain);
+    return mongoTemplate.find(Query.query(codec.customerIs(documentNumber)), Document.class, collectionName)
+          .doOnNext(upgrader::upgradeOnRead)
+          .map(codec::decode);
+  }
+
+  @Override
+  public Flux<Credit> findOpenByDocumentNumber(String documentNumber) {
+    return mongoTemplate.find(Query.query(new Criteria().andOperator(codec.customerIs(documentNumber), codec.open())),
+                Document.class, collectionName)
+          .doOnNext(upgrader::upgradeOnRead)
+          .map(codec::decode);
   }
 
   @Override
   public Mono<Credit> findById(String idCredit) {
-    return repository.findById(idCredit)
-          .map(mapper::toDomain);
+    return mongoTemplate.findById(idCredit, Document.class, collectionName)
+          .doOnNext(upgrader::upgradeOnRead)
+          .map(codec::decode);
   }
 
+  @Override
+  public Flux<CreditVersion> findVersionsByDocumentNumber(String documentNumber) {
+    return mongoTemplate.find(versionProjection(Query.query(codec.customerIs(documentNumber))), Document.class,
+                collectionName)
+          .map(codec::decodeVersion);
+  }
+
+  @Override
+  public Mono<CreditVersion> findVersionById(String idCredit) {
+    return mongoTemplate.findOne(versionProjection(Query.query(Criteria.where("_id").is(idCredit))), Document.class,
+                collectionName)
+          .map(codec::decodeVersion);
+  }
+
+  /**
+   * Solo id y fecha de modificación, en los dos formatos; sv indica al codec cuál leer.
+   */
+  private Query versionProjection(Query query) {
+    query.fields().include(CreditDocumentCodec.SCHEMA, CreditDocumentCodec.UPDATED, CreditDocumentCodec.LEGACY_UPDATED);
+    return query;
+  }
+
+  /**
+   * Recorre la colección con un cursor (lotes de credit.export.cursor-batch-size), sin ordenar ni acumular.
+   * La demanda del suscriptor regula cuántos lotes se piden a Mongo.
+   */
+  @Override
+  public Flux<Credit> streamCredits(CreditStatus status, CreditType type) {
+    List<Criteria> filters = new ArrayList<>();
+    if (status != null) {
+      filters.add(codec.statusIn(status));
+    }
+    if (type != null) {
+      filters.add(codec.typeIs(type));
+    }
+    Query query = new Query().cursorBatchSize(exportBatchSize);
+    if (!filters.isEmpty()) {
+      query.addCriteria(new Criteria().andOperator(filters));
+    }
+    return mongoTemplate.find(query, Document.class, collectionName)
+          .map(codec::decode);
+  }
+
+  /**
+   * Cambios de la colección (altas y modificaciones) vía change stream; requiere Mongo en replica set.
+   * Los borrados no traen documento y no se emiten.
+   */
+  @Override
+  public Flux<Credit> watchCredits() {
+    return mongoTemplate.changeStream(Document.class)
+          .withOptions(options -> options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP))
+          .watchCollection(collectionName)
+          .listen()
+          .mapNotNull(ChangeStreamEvent::getBody)
+          .map(codec::decode);
+  }
 
 }
@@ -0,0 +1,145 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.CreditArchiveOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditArchiveBatch;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Archivo de créditos cerrados (INACTIVE, CANCELLED) fuera de la colección viva.
+ * Cada lote se copia al archivo en el esquema actual (reemplazo por _id, repetible) y después se borra de la colección
+ * viva solo si el documento sigue en la versión copiada. Si el proceso cae entre los dos pasos, la
+ * siguiente pasada vuelve a copiar y borrar el mismo lote; si el crédito cambió entretanto, se queda vivo
+ * y se retira su copia del archivo.
+ */
+@Component
+@Slf4j
+public class CreditArchiveAdapter implements CreditArchiveOutputPort {
+
+  static final String ARCHIVE_COLLECTION = "credits_archive";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ObjectProvider<HotTierCreditAdapter> hotTier;
+  private final CreditDocumentCodec codec;
+  private final AtomicBoolean archiveIndexed = new AtomicBoolean();
+
+  public CreditArchiveAdapter(ReactiveMongoTemplate mongoTemplate,
+                              ObjectProvider<HotTierCreditAdapter> hotTier, CreditDocumentCodec codec) {
+    this.mongoTemplate = mongoTemplate;
+    this.hotTier = hotTier;
+    this.codec = codec;
+  }
+
+  /**
+   * Con el hot tier activo se vacía antes su cola write-behind: el lote se lee de Mongo y debe estar al día.
+   */
+  @Override
+  public Mono<CreditArchiveBatch> archiveClosedBefore(LocalDateTime cutoff, int batchSize) {
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    Mono<Void> persisted = tier != null ? tier.flush() : Mono.empty();
+    Bson closed = new Criteria().andOperator(codec.statusIn(CreditStatus.INACTIVE, CreditStatus.CANCELLED),
+          codec.updatedBefore(cutoff)).getCriteriaObject();
+
+    return persisted
+          .then(ensureArchiveIndex())
+          .then(collection(mongoTemplate.getCollectionName(CreditEntity.class)))
+          .flatMap(live -> Flux.from(live.find(closed).sort(Sorts.ascending(CreditDocumentCodec.UPDATED)).limit(batchSize))
+                .collectList()
+                .flatMap(batch -> (batch.isEmpty() ? Mono.just(Collections.<Credit>emptyList()) : move(live, batch))
+                      .map(moved -> new CreditArchiveBatch(batch.size(), moved))));
+  }
+
+  @Override
+  public Mono<Credit> findArchivedById(String idCredit) {
+    return mongoTemplate.findById(idCredit, Document.class, ARCHIVE_COLLECTION)
+          .map(codec::decode);
+  }
+
+  @Override
+  public Flux<Credit> findArchivedByDocumentNumber(String documentNumber) {
+    return mongoTemplate.find(Query.query(codec.customerIs(documentNumber)), Document.class, ARCHIVE_COLLECTION)
+          .map(codec::decode);
+  }
+
+  /**
+   * Copia el lote leído al archivo y lo borra de la colección viva; devuelve los créditos movidos.
+   */
+  Mono<List<Credit>> move(MongoCollection<Document> live, List<Document> batch) {
+    List<WriteModel<Document>> copies = batch.stream()
+          .map(document -> new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")),
+                codec.encode(codec.decode(document)), new ReplaceOptions().upsert(true)))
+          .collect(Collectors.toList());
+    Bson unchanged = Filters.or(batch.stream().map(this::sameVersion).collect(Collectors.toList()));
+    List<Object> ids = batch.stream().map(document -> document.get("_id")).collect(Collectors.toList());
+
+    return collection(ARCHIVE_COLLECTION)
+          .flatMap(archive -> Mono.from(archive.bulkWrite(copies, new BulkWriteOptions().ordered(false)))
+                .then(Mono.from(live.deleteMany(unchanged)))
+                .then(Flux.from(live.find(Filters.in("_id", ids)).projection(Projections.include("_id")))
+                      .map(document -> document.get("_id"))
+                      .collect(Collectors.toSet()))
+                .flatMap(stillLive -> stillLive.isEmpty()
+                      ? Mono.just(stillLive)
+                      : Mono.from(archive.deleteMany(Filters.in("_id", stillLive))).thenReturn(stillLive)))
+          .map(stillLive -> moved(batch, stillLive));
+  }
+
+  private List<Credit> moved(List<Document> batch, Set<Object> stillLive) {
+    if (!stillLive.isEmpty()) {
+      log.info("{} credits changed while being archived, kept in the live collection", stillLive.size());
+    }
+    return batch.stream()
+          .filter(document -> !stillLive.contains(document.get("_id")))
+          .map(codec::decode)
+          .collect(Collectors.toList());
+  }
+
+  /**
+   * Mismo _id, formato y versión que la copia archivada.
+   */
+  private Bson sameVersion(Document document) {
+    return codec.unchangedSince(document).getCriteriaObject();
+  }
+
+  private Mono<Void> ensureArchiveIndex() {
+    if (archiveIndexed.get()) {
+      return Mono.empty();
+    }
+    return mongoTemplate.indexOps(ARCHIVE_COLLECTION)
+          .ensureIndex(new Index().on(CreditDocumentCodec.CUSTOMER, Sort.Direction.ASC))
+          .doOnNext(name -> archiveIndexed.set(true))
+          .then();
+  }
+
+  private Mono<MongoCollection<Document>> collection(String name) {
+    return mongoTemplate.getCollection(name);
+  }
+}
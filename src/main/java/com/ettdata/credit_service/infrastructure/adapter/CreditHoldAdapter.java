@@ -0,0 +1,99 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.CreditHoldOutputPort;
+import com.ettdata.credit_service.domain.model.CreditHold;
+import com.ettdata.credit_service.domain.model.CreditHoldStatus;
+import com.ettdata.credit_service.infrastructure.entity.CreditHoldEntity;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Registro durable de las retenciones. Los cambios de estado son condicionales al estado anterior,
+ * así una retención capturada no puede además liberarse o vencer.
+ */
+@Component
+public class CreditHoldAdapter implements CreditHoldOutputPort {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public CreditHoldAdapter(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<CreditHold> insert(CreditHold hold) {
+    return mongoTemplate.insert(toEntity(hold))
+          .map(this::toHold);
+  }
+
+  @Override
+  public Mono<CreditHold> findById(String holdId) {
+    return mongoTemplate.findById(holdId, CreditHoldEntity.class)
+          .map(this::toHold);
+  }
+
+  @Override
+  public Flux<CreditHold> findAuthorized() {
+    return findByStatus(CreditHoldStatus.AUTHORIZED);
+  }
+
+  @Override
+  public Flux<CreditHold> findCapturing() {
+    return findByStatus(CreditHoldStatus.CAPTURING);
+  }
+
+  private Flux<CreditHold> findByStatus(CreditHoldStatus status) {
+    return mongoTemplate.find(Query.query(Criteria.where("status").is(status)), CreditHoldEntity.class)
+          .map(this::toHold);
+  }
+
+  @Override
+  public Mono<Boolean> updateStatus(String holdId, CreditHoldStatus expected, CreditHoldStatus status,
+                                    LocalDateTime at) {
+    Query query = Query.query(Criteria.where("_id").is(holdId).and("status").is(expected));
+    return mongoTemplate.updateFirst(query, transition(status, at), CreditHoldEntity.class)
+          .map(result -> result.getModifiedCount() == 1);
+  }
+
+  @Override
+  public Mono<Long> expire(Collection<String> holdIds, LocalDateTime at) {
+    Query query = Query.query(Criteria.where("_id").in(holdIds).and("status").is(CreditHoldStatus.AUTHORIZED));
+    return mongoTemplate.updateMulti(query, transition(CreditHoldStatus.EXPIRED, at), CreditHoldEntity.class)
+          .map(result -> result.getModifiedCount());
+  }
+
+  private static Update transition(CreditHoldStatus status, LocalDateTime at) {
+    return new Update().set("status", status).set("updatedAt", at);
+  }
+
+  private CreditHold toHold(CreditHoldEntity entity) {
+    return CreditHold.builder()
+          .holdId(entity.getHoldId())
+          .creditId(entity.getCreditId())
+          .amount(entity.getAmount())
+          .status(entity.getStatus())
+          .createdAt(entity.getCreatedAt())
+          .expiresAt(entity.getExpiresAt())
+          .updatedAt(entity.getUpdatedAt())
+          .build();
+  }
+
+  private CreditHoldEntity toEntity(CreditHold hold) {
+    return CreditHoldEntity.builder()
+          .holdId(hold.getHoldId())
+          .creditId(hold.getCreditId())
+          .amount(hold.getAmount())
+          .status(hold.getStatus())
+          .createdAt(hold.getCreatedAt())
+          .expiresAt(hold.getExpiresAt())
+          .updatedAt(hold.getUpdatedAt())
+          .build();
+  }
+}
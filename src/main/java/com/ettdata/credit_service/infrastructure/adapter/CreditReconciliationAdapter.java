@@ -0,0 +1,125 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.CreditReconciliationOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditIdRange;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorrido por tramos de _id para la conciliación de invariantes.
+ * Los tramos salen de una muestra aleatoria de ids ($sample), sin recorrer la colección. Cada tramo es una
+ * consulta por rango sobre el índice de _id con proyección, leída de un secundario si lo hay para no cargar
+ * el primario que atiende el tráfico.
+ */
+@Component
+public class CreditReconciliationAdapter implements CreditReconciliationOutputPort {
+
+  /** Ids muestreados por tramo: más muestra, tramos más parejos. */
+  private static final int SAMPLES_PER_RANGE = 32;
+
+  private static final Bson FIELDS = Projections.include(
+        CreditDocumentCodec.SCHEMA, CreditDocumentCodec.LIMIT, CreditDocumentCodec.DEBT, CreditDocumentCodec.AVAILABLE,
+        CreditDocumentCodec.STATUS, CreditDocumentCodec.OVERDUE_DEBT, CreditDocumentCodec.VERSION,
+        CreditDocumentCodec.LEGACY_LIMIT, CreditDocumentCodec.LEGACY_DEBT, CreditDocumentCodec.LEGACY_AVAILABLE,
+        CreditDocumentCodec.LEGACY_STATUS, CreditDocumentCodec.LEGACY_OVERDUE_DEBT, CreditDocumentCodec.LEGACY_VERSION);
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ObjectProvider<HotTierCreditAdapter> hotTier;
+  private final CreditDocumentCodec codec;
+
+  public CreditReconciliationAdapter(ReactiveMongoTemplate mongoTemplate, ObjectProvider<HotTierCreditAdapter> hotTier,
+                                     CreditDocumentCodec codec) {
+    this.mongoTemplate = mongoTemplate;
+    this.hotTier = hotTier;
+    this.codec = codec;
+  }
+
+  /**
+   * Con el hot tier activo se vacía antes su cola write-behind: el recorrido lee de Mongo.
+   */
+  @Override
+  public Mono<List<CreditIdRange>> splitIdRanges(int count) {
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    Mono<Void> persisted = tier != null ? tier.flush() : Mono.empty();
+    List<Bson> sample = List.of(
+          Aggregates.match(Filters.type(CreditDocumentCodec.ID, BsonType.STRING)),
+          Aggregates.sample(Math.max(count, 1) * SAMPLES_PER_RANGE),
+          Aggregates.project(Projections.include(CreditDocumentCodec.ID)));
+    return persisted
+          .then(collection())
+          .flatMapMany(collection -> Flux.from(collection.aggregate(sample)))
+          .map(document -> document.getString(CreditDocumentCodec.ID))
+          .collectSortedList()
+          .map(ids -> ranges(ids, count));
+  }
+
+  /**
+   * Corta los ids muestreados (ordenados) en count partes; el primer y el último tramo quedan abiertos.
+   */
+  private static List<CreditIdRange> ranges(List<String> sampledIds, int count) {
+    List<String> bounds = new ArrayList<>();
+    for (int i = 1; i < count; i++) {
+      int index = (int) ((long) i * sampledIds.size() / count);
+      if (index < sampledIds.size() && (bounds.isEmpty() || !bounds.get(bounds.size() - 1).equals(sampledIds.get(index)))) {
+        bounds.add(sampledIds.get(index));
+      }
+    }
+    List<CreditIdRange> ranges = new ArrayList<>(bounds.size() + 2);
+    String from = null;
+    for (String bound : bounds) {
+      ranges.add(new CreditIdRange(from, bound, false));
+      from = bound;
+    }
+    ranges.add(new CreditIdRange(from, null, false));
+    ranges.add(new CreditIdRange(null, null, true));
+    return ranges;
+  }
+
+  @Override
+  public Flux<Credit> scanIdRange(CreditIdRange range, int batchSize) {
+    return collection()
+          .flatMapMany(collection -> Flux.from(collection.find(filter(range))
+                .projection(FIELDS)
+                .batchSize(batchSize)))
+          .map(codec::decode);
+  }
+
+  /**
+   * Una comparación de _id con un texto solo alcanza ids de texto; los demás van en su propio tramo.
+   */
+  private static Bson filter(CreditIdRange range) {
+    if (range.isOtherIds()) {
+      return Filters.not(Filters.type(CreditDocumentCodec.ID, BsonType.STRING));
+    }
+    List<Bson> bounds = new ArrayList<>(3);
+    bounds.add(Filters.type(CreditDocumentCodec.ID, BsonType.STRING));
+    if (range.getFrom() != null) {
+      bounds.add(Filters.gte(CreditDocumentCodec.ID, range.getFrom()));
+    }
+    if (range.getTo() != null) {
+      bounds.add(Filters.lt(CreditDocumentCodec.ID, range.getTo()));
+    }
+    return Filters.and(bounds);
+  }
+
+  private Mono<MongoCollection<Document>> collection() {
+    return mongoTemplate.getCollection(mongoTemplate.getCollectionName(CreditEntity.class))
+          .map(collection -> collection.withReadPreference(ReadPreference.secondaryPreferred()));
+  }
+}
@@ -0,0 +1,197 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Migra los documentos de crédito v1 al esquema compacto v2 (ver {@link CreditDocumentCodec}).
+ * <p>
+ * Al leer: las lecturas puntuales que devuelven un documento v1 lo reescriben en v2 sin esperar, con un
+ * máximo de reescrituras a la vez; si no hay hueco se deja para el lote.
+ * En lote: una pasada programada recorre la colección viva y el archivo por lotes con pausa entre ellos.
+ * Cuando ya no queda ningún v1, los filtros dejan de comprobar el formato anterior.
+ * <p>
+ * Cada reescritura conserva la versión y solo se aplica si el documento sigue en v1 y en esa versión:
+ * no pisa una escritura concurrente, que en todo caso ya lo habrá dejado en v2.
+ */
+@Component
+@Slf4j
+public class CreditSchemaUpgrader {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final CreditDocumentCodec codec;
+  private final boolean enabled;
+  private final int batchSize;
+  private final Duration batchPause;
+  private final Semaphore readUpgrades;
+  private final Counter upgradedOnRead;
+  private final Counter upgradedInBatch;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  public CreditSchemaUpgrader(ReactiveMongoTemplate mongoTemplate, CreditDocumentCodec codec,
+                              @Value("${credit.schema.upgrade.enabled:true}") boolean enabled,
+                              @Value("${credit.schema.upgrade.batch-size:500}") int batchSize,
+                              @Value("${credit.schema.upgrade.batch-pause:200ms}") Duration batchPause,
+                              @Value("${credit.schema.upgrade.read-concurrency:8}") int readConcurrency,
+                              MeterRegistry meterRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.codec = codec;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.batchPause = batchPause;
+    this.readUpgrades = new Semaphore(readConcurrency);
+    this.upgradedOnRead = meterRegistry.counter("credit.schema.upgraded", "mode", "read");
+    this.upgradedInBatch = meterRegistry.counter("credit.schema.upgraded", "mode", "batch");
+  }
+
+  /**
+   * Reescribe en v2 un crédito leído en v1. Solo para documentos leídos completos, nunca proyecciones.
+   */
+  public void upgradeOnRead(Document document) {
+    if (!enabled || CreditDocumentCodec.isCurrent(document) || !readUpgrades.tryAcquire()) {
+      return;
+    }
+    Document current = codec.encode(codec.decode(document));
+    mongoTemplate.getCollection(mongoTemplate.getCollectionName(CreditEntity.class))
+          .flatMap(collection -> Mono.from(collection.replaceOne(
+                codec.unchangedSince(document).getCriteriaObject(), current)))
+          .doFinally(signal -> readUpgrades.release())
+          .subscribe(
+                result -> upgradedOnRead.increment(result.getModifiedCount()),
+                error -> log.debug("Credit {} schema upgrade on read failed: {}", document.get(CreditDocumentCodec.ID),
+                      error.getMessage()));
+  }
+
+  @Scheduled(fixedDelayString = "${credit.schema.upgrade.interval-ms:600000}",
+        initialDelayString = "${credit.schema.upgrade.initial-delay-ms:30000}")
+  public void scheduledUpgrade() {
+    if (!enabled || !codec.hasLegacyDocuments() || !running.compareAndSet(false, true)) {
+      return;
+    }
+    upgradeAll()
+          .doFinally(signal -> running.set(false))
+          .subscribe(
+                upgraded -> log.info("Upgraded {} credit documents to schema v{}", upgraded,
+                      CreditDocumentCodec.CURRENT_SCHEMA),
+                error -> log.warn("Credit schema upgrade stopped: {}", error.getMessage()));
+  }
+
+  /**
+   * Migra por lotes la colección viva y el archivo. Si al terminar no queda ningún v1 lo anota en el codec.
+   */
+  Mono<Long> upgradeAll() {
+    List<String> collections = List.of(mongoTemplate.getCollectionName(CreditEntity.class),
+          CreditArchiveAdapter.ARCHIVE_COLLECTION);
+    return Flux.fromIterable(collections)
+          .concatMap(this::upgradeCollection)
+          .reduce(0L, Long::sum)
+          .flatMap(upgraded -> Flux.fromIterable(collections)
+                .concatMap(this::hasLegacy)
+                .any(Boolean::booleanValue)
+                .doOnNext(remaining -> {
+                  if (!remaining) {
+                    codec.legacyDocumentsUpgraded();
+                    log.info("No credit documents left in the previous schema");
+                  }
+                })
+                .thenReturn(upgraded));
+  }
+
+  /**
+   * Recorre la colección en orden de _id desde el último leído, así cada lote empieza donde acabó el anterior
+   * (sin volver a pasar por los ya migrados) y un documento que no se puede leer se salta una sola vez.
+   * Sigue mientras los lotes salen llenos.
+   */
+  private Mono<Long> upgradeCollection(String collectionName) {
+    return upgradeBatch(collectionName, null)
+          .expand(batch -> batch.read == batchSize
+                ? Mono.delay(batchPause).then(upgradeBatch(collectionName, batch.lastId))
+                : Mono.empty())
+          .map(batch -> batch.upgraded)
+          .reduce(0L, Long::sum);
+  }
+
+  private Mono<Batch> upgradeBatch(String collectionName, Object afterId) {
+    Document legacy = codec.legacy().getCriteriaObject();
+    Document filter = afterId == null ? legacy : new Document("$and", List.of(legacy, after(afterId)));
+    return mongoTemplate.getCollection(collectionName)
+          .flatMap(collection -> Flux.from(collection.find(filter)
+                      .sort(new Document(CreditDocumentCodec.ID, 1))
+                      .limit(batchSize))
+                .collectList()
+                .flatMap(batch -> {
+                  Object lastId = batch.isEmpty() ? afterId : batch.get(batch.size() - 1).get(CreditDocumentCodec.ID);
+                  List<WriteModel<Document>> upgrades = upgrades(batch);
+                  if (upgrades.isEmpty()) {
+                    return Mono.just(new Batch(batch.size(), 0L, lastId));
+                  }
+                  return Mono.from(collection.bulkWrite(upgrades, new BulkWriteOptions().ordered(false)))
+                        .map(result -> {
+                          upgradedInBatch.increment(result.getModifiedCount());
+                          return new Batch(batch.size(), result.getModifiedCount(), lastId);
+                        });
+                }));
+  }
+
+  /**
+   * _id posteriores a afterId en el orden del sort. Los ids son String u ObjectId y $gt solo compara dentro
+   * del mismo tipo: tras un String vienen también todos los ObjectId, que se ordenan después.
+   */
+  private static Document after(Object afterId) {
+    Document greater = new Document(CreditDocumentCodec.ID, new Document("$gt", afterId));
+    if (afterId instanceof ObjectId) {
+      return greater;
+    }
+    return new Document("$or", List.of(greater,
+          new Document(CreditDocumentCodec.ID, new Document("$type", "objectId"))));
+  }
+
+  private List<WriteModel<Document>> upgrades(List<Document> batch) {
+    List<WriteModel<Document>> upgrades = new ArrayList<>(batch.size());
+    for (Document document : batch) {
+      try {
+        upgrades.add(new ReplaceOneModel<>(codec.unchangedSince(document).getCriteriaObject(),
+              codec.encode(codec.decode(document))));
+      } catch (RuntimeException ex) {
+        log.warn("Credit document {} cannot be upgraded: {}", document.get(CreditDocumentCodec.ID), ex.getMessage());
+      }
+    }
+    return upgrades;
+  }
+
+  private static final class Batch {
+    private final int read;
+    private final long upgraded;
+    private final Object lastId;
+
+    private Batch(int read, long upgraded, Object lastId) {
+      this.read = read;
+      this.upgraded = upgraded;
+      this.lastId = lastId;
+    }
+  }
+
+  private Mono<Boolean> hasLegacy(String collectionName) {
+    return mongoTemplate.getCollection(collectionName)
+          .flatMap(collection -> Flux.from(collection.find(codec.legacy().getCriteriaObject()).limit(1)).hasElements());
+  }
+}
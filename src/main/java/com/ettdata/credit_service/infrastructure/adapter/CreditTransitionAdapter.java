@@ -0,0 +1,116 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.CreditTransitionOutputPort;
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Persistencia de los cambios de estado en lote.
+ * Los créditos de un bloque se leen con un único $in y se guardan con un único bulkWrite no ordenado de
+ * reemplazos condicionados a la versión leída, como el guardado individual.
+ * Si el bulkWrite casa menos documentos de los enviados, se releen para saber cuáles se aplicaron.
+ * Con la capa caliente activa, lecturas y escrituras pasan por ella para no saltarse su write-behind.
+ */
+@Component
+public class CreditTransitionAdapter implements CreditTransitionOutputPort {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ObjectProvider<HotTierCreditAdapter> hotTier;
+  private final CreditDocumentCodec codec;
+
+  public CreditTransitionAdapter(ReactiveMongoTemplate mongoTemplate,
+                                 ObjectProvider<HotTierCreditAdapter> hotTier, CreditDocumentCodec codec) {
+    this.mongoTemplate = mongoTemplate;
+    this.hotTier = hotTier;
+    this.codec = codec;
+  }
+
+  @Override
+  public Flux<Credit> findByIds(Collection<String> creditIds) {
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    if (tier != null) {
+      return Flux.fromIterable(creditIds).concatMap(tier::findById);
+    }
+    return mongoTemplate.find(idsIn(creditIds), Document.class, mongoTemplate.getCollectionName(CreditEntity.class))
+          .map(codec::decode);
+  }
+
+  @Override
+  public Mono<List<Credit>> saveAll(List<Credit> credits) {
+    if (credits.isEmpty()) {
+      return Mono.just(List.of());
+    }
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    if (tier != null) {
+      return Flux.fromIterable(credits)
+            .concatMap(credit -> tier.saveCredit(credit)
+                  .onErrorResume(CreditVersionConflictException.class, ex -> Mono.empty()))
+            .collectList();
+    }
+
+    List<Credit> written = new ArrayList<>(credits.size());
+    List<WriteModel<Document>> replaces = new ArrayList<>(credits.size());
+    for (Credit credit : credits) {
+      long expectedVersion = credit.getVersion() != null ? credit.getVersion() : 0L;
+      Credit next = credit.toBuilder().version(expectedVersion + 1).build();
+      Document replacement = codec.encode(next);
+
+      Document filter = new Document(CreditDocumentCodec.ID, replacement.get(CreditDocumentCodec.ID));
+      filter.putAll(codec.versionIs(expectedVersion).getCriteriaObject());
+      replaces.add(new ReplaceOneModel<>(filter, replacement));
+      written.add(next);
+    }
+
+    return mongoTemplate.getCollection(mongoTemplate.getCollectionName(CreditEntity.class))
+          .flatMap(collection -> Mono.from(collection.bulkWrite(replaces, new BulkWriteOptions().ordered(false))))
+          .flatMap(result -> result.getMatchedCount() == written.size()
+                ? Mono.just(written)
+                : applied(written));
+  }
+
+  /**
+   * Entre los enviados, los que están en Mongo con la versión y la fecha de modificación que se escribieron.
+   */
+  private Mono<List<Credit>> applied(List<Credit> written) {
+    Map<String, Credit> byId = written.stream().collect(Collectors.toMap(Credit::getId, credit -> credit));
+    return mongoTemplate.find(idsIn(byId.keySet()), Document.class, mongoTemplate.getCollectionName(CreditEntity.class))
+          .map(codec::decode)
+          .filter(current -> {
+            Credit credit = byId.get(current.getId());
+            return credit != null
+                  && Objects.equals(current.getVersion(), credit.getVersion())
+                  && Objects.equals(millis(current.getUpdatedAt()), millis(credit.getUpdatedAt()));
+          })
+          .map(current -> byId.get(current.getId()))
+          .collectList();
+  }
+
+  private static Query idsIn(Collection<String> creditIds) {
+    return Query.query(Criteria.where(CreditDocumentCodec.ID).in(creditIds));
+  }
+
+  private static LocalDateTime millis(LocalDateTime dateTime) {
+    return dateTime == null ? null : dateTime.truncatedTo(ChronoUnit.MILLIS);
+  }
+}
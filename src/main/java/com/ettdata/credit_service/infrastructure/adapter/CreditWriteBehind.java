@@ -0,0 +1,368 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Cola write-behind del hot tier.
+ * Cada escritura se añade a un diario local (una línea JSON por operación) antes de confirmarse, y un
+ * único hilo la lleva a Mongo por lotes y en orden. Dentro de un lote solo se persiste el último estado
+ * de cada crédito. Tras persistir un lote se guarda el último número de secuencia aplicado; al arrancar,
+ * las operaciones del diario posteriores a ese punto se vuelven a aplicar.
+ * <p>
+ * El diario se vuelca al sistema operativo en cada escritura (sobrevive a la caída del proceso) y se
+ * sincroniza a disco en cada lote: ante un corte de luz se pierde como mucho un intervalo de volcado.
+ * Con más de maxPending operaciones sin persistir, los escritores esperan: el retraso queda acotado.
+ * <p>
+ * El número de secuencia se reserva dentro de la actualización atómica del crédito ({@link #reserve}) y la
+ * línea se escribe después, fuera de ella ({@link #journal}): las líneas pueden quedar desordenadas y la
+ * recuperación las ordena. Cuando la cola se vacía con el diario por encima de compactThresholdBytes,
+ * el diario se trunca: todo lo que contenía ya está en Mongo y en el punto de control.
+ */
+@Slf4j
+class CreditWriteBehind {
+
+  enum OpType { SAVE, DELETE }
+
+  /**
+   * Operación del diario: estado completo del crédito (SAVE) o borrado por id (DELETE).
+   */
+  static final class Op {
+    public long seq;
+    public OpType type;
+    public String id;
+    public Credit credit;
+    public long enqueuedAt;
+
+    public Op() {
+    }
+
+    Op(OpType type, String id, Credit credit) {
+      this.type = type;
+      this.id = id;
+      this.credit = credit;
+    }
+  }
+
+  private final Path journal;
+  private final Path checkpoint;
+  private final ObjectMapper objectMapper = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+  private final Function<List<Op>, Mono<Void>> persister;
+  private final Consumer<List<Op>> onPersisted;
+  private final Duration flushInterval;
+  private final int batchSize;
+  private final int maxPending;
+  private final long compactThresholdBytes;
+  private final Scheduler scheduler = Schedulers.newSingle("credit-write-behind", true);
+
+  private final Object lock = new Object();
+  private final Deque<Op> pending = new ArrayDeque<>();
+  private FileOutputStream journalStream;
+  private BufferedWriter journalWriter;
+  private long journalBytes;
+  private long nextSeq = 1;
+  private Disposable drainLoop;
+
+  /**
+   * @param persister   lleva un lote (ya reducido al último estado por crédito) a Mongo
+   * @param onPersisted se avisa con el lote persistido, para liberar memoria
+   */
+  CreditWriteBehind(Path directory, Function<List<Op>, Mono<Void>> persister,
+                    Consumer<List<Op>> onPersisted, Duration flushInterval, int batchSize, int maxPending,
+                    long compactThresholdBytes, MeterRegistry meterRegistry) {
+    this.journal = directory.resolve("credits.journal");
+    this.checkpoint = directory.resolve("credits.checkpoint");
+    this.persister = persister;
+    this.onPersisted = onPersisted;
+    this.flushInterval = flushInterval;
+    this.batchSize = batchSize;
+    this.maxPending = maxPending;
+    this.compactThresholdBytes = compactThresholdBytes;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    meterRegistry.gauge("credit.hot-tier.write-behind.pending", Tags.empty(), this, CreditWriteBehind::pendingCount);
+    meterRegistry.gauge("credit.hot-tier.write-behind.lag.ms", Tags.empty(), this, CreditWriteBehind::lagMillis);
+  }
+
+  /**
+   * Vuelve a aplicar en Mongo las operaciones del diario que no llegaron a persistirse.
+   */
+  Mono<Long> recover() {
+    return Mono.fromCallable(this::readUnpersisted)
+          .subscribeOn(Schedulers.boundedElastic())
+          .flatMap(ops -> {
+            if (ops.isEmpty()) {
+              return Mono.just(0L);
+            }
+            log.info("Replaying {} write-behind operations from journal", ops.size());
+            return Flux.fromIterable(ops)
+                  .buffer(batchSize)
+                  .concatMap(batch -> persister.apply(coalesce(batch)))
+                  .then(Mono.fromCallable(() -> {
+                    nextSeq = ops.get(ops.size() - 1).seq + 1;
+                    writeCheckpoint(nextSeq - 1);
+                    return (long) ops.size();
+                  }));
+          })
+          .doOnNext(replayed -> openJournal(true));
+  }
+
+  void start() {
+    drainLoop = Flux.interval(flushInterval, scheduler)
+          .onBackpressureDrop()
+          .concatMap(tick -> drain()
+                .onErrorResume(ex -> {
+                  log.error("Write-behind flush failed, will retry: {}", ex.getMessage());
+                  return Mono.empty();
+                }), 1)
+          .subscribe();
+  }
+
+  /**
+   * Registra la operación en el diario y en la cola.
+   */
+  void append(Op op) {
+    reserve(op);
+    journal(op);
+  }
+
+  /**
+   * Asigna el número de secuencia y encola la operación, sin E/S. Debe llamarse en el orden en que se
+   * aplicaron los cambios en memoria (el llamador lo hace dentro de la actualización atómica del crédito).
+   */
+  long reserve(Op op) {
+    synchronized (lock) {
+      op.seq = nextSeq++;
+      op.enqueuedAt = System.currentTimeMillis();
+      pending.addLast(op);
+      return op.seq;
+    }
+  }
+
+  /**
+   * Escribe en el diario una operación ya reservada; la escritura no se confirma hasta que vuelve.
+   */
+  void journal(Op op) {
+    String line;
+    try {
+      line = objectMapper.writeValueAsString(op);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot serialize write-behind operation", ex);
+    }
+    synchronized (lock) {
+      try {
+        journalWriter.write(line);
+        journalWriter.newLine();
+        journalWriter.flush();
+        journalBytes += line.length() + 1;
+      } catch (IOException ex) {
+        throw new UncheckedIOException("Cannot append to write-behind journal", ex);
+      }
+    }
+  }
+
+  /**
+   * Completa cuando la cola está por debajo de maxPending; si no, espera a que el volcado avance.
+   */
+  Mono<Void> awaitCapacity() {
+    return Mono.defer(() -> pendingCount() < maxPending
+                ? Mono.<Void>empty()
+                : Mono.<Void>error(new IllegalStateException("write-behind queue full")))
+          .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, flushInterval)
+                .filter(IllegalStateException.class::isInstance));
+  }
+
+  /**
+   * Vuelca lo pendiente; completa cuando la cola queda vacía.
+   */
+  Mono<Void> flush() {
+    return Mono.defer(this::drain)
+          .repeat(() -> pendingCount() > 0)
+          .then()
+          .subscribeOn(scheduler);
+  }
+
+  void stop() {
+    if (drainLoop != null) {
+      drainLoop.dispose();
+    }
+    flush().block(Duration.ofSeconds(30));
+    scheduler.dispose();
+    synchronized (lock) {
+      closeJournal();
+    }
+  }
+
+  int pendingCount() {
+    synchronized (lock) {
+      return pending.size();
+    }
+  }
+
+  long lagMillis() {
+    synchronized (lock) {
+      Op oldest = pending.peekFirst();
+      return oldest == null ? 0 : System.currentTimeMillis() - oldest.enqueuedAt;
+    }
+  }
+
+  private Mono<Void> drain() {
+    List<Op> batch = new ArrayList<>();
+    synchronized (lock) {
+      for (Op op : pending) {
+        if (batch.size() == batchSize) {
+          break;
+        }
+        batch.add(op);
+      }
+      if (batch.isEmpty()) {
+        return Mono.empty();
+      }
+      sync();
+    }
+
+    List<Op> coalesced = coalesce(batch);
+    return persister.apply(coalesced)
+          .then(Mono.fromRunnable(() -> {
+            long lastSeq = batch.get(batch.size() - 1).seq;
+            synchronized (lock) {
+              for (int i = 0; i < batch.size(); i++) {
+                pending.pollFirst();
+              }
+              writeCheckpoint(lastSeq);
+              // Con la cola vacía, todo lo del diario está en el punto de control: se puede truncar.
+              // Una línea reservada antes y escrita después del truncado queda por debajo del punto de control
+              if (pending.isEmpty() && journalBytes > compactThresholdBytes) {
+                closeJournal();
+                openJournal(true);
+              }
+            }
+            onPersisted.accept(coalesced);
+          }));
+  }
+
+  /**
+   * Último estado de cada crédito en el lote, en orden de su última operación.
+   */
+  private static List<Op> coalesce(List<Op> batch) {
+    Map<String, Op> latest = new LinkedHashMap<>();
+    for (Op op : batch) {
+      latest.remove(op.id);
+      latest.put(op.id, op);
+    }
+    return new ArrayList<>(latest.values());
+  }
+
+  /**
+   * Lee el diario línea a línea y devuelve, en orden de secuencia, las operaciones posteriores al punto de control.
+   */
+  private List<Op> readUnpersisted() throws IOException {
+    long persisted = Files.exists(checkpoint)
+          ? Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim())
+          : 0L;
+    nextSeq = persisted + 1;
+    List<Op> ops = new ArrayList<>();
+    if (!Files.exists(journal)) {
+      return ops;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        Op op;
+        try {
+          op = objectMapper.readValue(line, Op.class);
+        } catch (IOException ex) {
+          // Línea a medio escribir al caer el proceso: es la última y nunca se confirmó
+          log.warn("Ignoring truncated write-behind journal entry");
+          break;
+        }
+        if (op.seq > persisted) {
+          ops.add(op);
+        }
+      }
+    }
+    ops.sort(Comparator.comparingLong(op -> op.seq));
+    return ops;
+  }
+
+  private void openJournal(boolean truncate) {
+    try {
+      journalStream = new FileOutputStream(journal.toFile(), !truncate);
+      journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream, StandardCharsets.UTF_8));
+      journalBytes = Files.size(journal);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot open write-behind journal " + journal, ex);
+    }
+  }
+
+  private void closeJournal() {
+    try {
+      if (journalWriter != null) {
+        journalWriter.close();
+      }
+    } catch (IOException ex) {
+      log.warn("Error closing write-behind journal: {}", ex.getMessage());
+    }
+  }
+
+  private void sync() {
+    try {
+      journalStream.getFD().sync();
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot sync write-behind journal", ex);
+    }
+  }
+
+  private void writeCheckpoint(long seq) {
+    try {
+      Path tmp = checkpoint.resolveSibling("credits.checkpoint.tmp");
+      Files.writeString(tmp, Long.toString(seq), StandardCharsets.UTF_8);
+      Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot write write-behind checkpoint", ex);
+    }
+  }
+}
@@ -3,63 +3,236 @@ package com.ettdata.credit_service.infrastructure.adapter;
 import com.ettdata.credit_service.application.port.out.CustomerOutputPort;
 import com.ettdata.credit_service.domain.model.CustomerApiResponse;
 import com.ettdata.credit_service.domain.model.CustomerResponse;
+import com.ettdata.credit_service.infrastructure.utils.HedgedRetry;
+import com.ettdata.credit_service.infrastructure.utils.MicroBatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.codec.http.HttpMethod;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class CustomerWebClientAdapter implements CustomerOutputPort {
   private final WebClient webClient;
+  private final HttpClient httpClient;
+  private final String batchPath;
+  private final String warmupPath;
+  private final int fallbackConcurrency;
+  private final MicroBatcher<String, CustomerResponse> batcher;
+  private final HedgedRetry lookupPolicy;
+  private final AtomicBoolean batchEndpointAvailable = new AtomicBoolean(true);
 
   /**
    * Constructor con URL configurable desde properties.
-   * @param customerServiceUrl URL base del servicio de clientes
+   * @param webClientBuilder    builder de Spring, instrumentado para propagar la traza al servicio de clientes
+   * @param connectionProvider  pool de conexiones con el servicio de clientes
+   * @param customerServiceUrl  URL base del servicio de clientes
+   * @param batchPath           endpoint de consulta múltiple (POST con la lista de documentos)
+   * @param batchWindow         ventana de agrupación de consultas individuales; 0 la desactiva
+   * @param batchMaxSize        documentos máximos por llamada agrupada
+   * @param fallbackConcurrency consultas individuales en paralelo si el endpoint múltiple no existe
+   * @param warmupPath          endpoint ligero con el que se abren conexiones al arrancar
+   * @param lookupPolicy        hedging y reintentos de cada llamada HTTP
    */
-  public CustomerWebClientAdapter(@Value("${customer.service.url:http://localhost:8083}") String customerServiceUrl) {
-    this.webClient = WebClient.builder()
+  public CustomerWebClientAdapter(WebClient.Builder webClientBuilder,
+                                  ConnectionProvider customerConnectionProvider,
+                                  @Value("${customer.service.url:http://localhost:8083}") String customerServiceUrl,
+                                  @Value("${customer.service.batch.path:/api/customers/documents}") String batchPath,
+                                  @Value("${customer.service.batch.window:5ms}") Duration batchWindow,
+                                  @Value("${customer.service.batch.max-size:50}") int batchMaxSize,
+                                  @Value("${customer.service.batch.fallback-concurrency:8}") int fallbackConcurrency,
+                                  @Value("${customer.service.warmup.path:/actuator/health}") String warmupPath,
+                                  HedgedRetry lookupPolicy,
+                                  MeterRegistry meterRegistry) {
+    this.httpClient = HttpClient.create(customerConnectionProvider).baseUrl(customerServiceUrl);
+    this.webClient = webClientBuilder.clone()
           .baseUrl(customerServiceUrl)
+          .clientConnector(new ReactorClientHttpConnector(httpClient))
           .build();
+    this.batchPath = batchPath;
+    this.warmupPath = warmupPath;
+    this.fallbackConcurrency = fallbackConcurrency;
+    this.lookupPolicy = lookupPolicy;
+    this.batcher = batchWindow.isZero() ? null
+          : new MicroBatcher<>("customer.lookup", batchWindow, batchMaxSize,
+                this::getCustomersByDocuments, meterRegistry);
   }
 
   /**
    * Obtiene la información de un cliente por su número de documento.
-   * La API devuelve una estructura: { "data": [cliente], "error": null }
+   * Las consultas que llegan dentro de la misma ventana se resuelven con una sola llamada múltiple.
    *
    * @param documentNumber Número de documento del cliente
    * @return Mono con los datos del cliente o Mono.empty() si no existe
    */
   @Override
   public Mono<CustomerResponse> getCustomerByDocument(String documentNumber) {
+    return batcher != null ? batcher.load(documentNumber) : fetchCustomer(documentNumber);
+  }
+
+  /**
+   * Consulta varios clientes con el endpoint múltiple.
+   * La API devuelve la misma estructura que la consulta individual, con un cliente por documento encontrado.
+   * Si el servicio de clientes no expone ese endpoint, se recurre a consultas individuales en paralelo.
+   * Un fallo que persiste tras los reintentos se propaga: no equivale a que los clientes no existan.
+   */
+  @Override
+  public Mono<Map<String, CustomerResponse>> getCustomersByDocuments(Collection<String> documentNumbers) {
+    Set<String> documents = new LinkedHashSet<>(documentNumbers);
+    if (documents.isEmpty()) {
+      return Mono.just(Collections.emptyMap());
+    }
+    if (documents.size() == 1 || !batchEndpointAvailable.get()) {
+      return fetchEach(documents);
+    }
+    log.info("Consultando {} clientes en una sola llamada", documents.size());
+
+    return lookupPolicy.execute("batch", () -> webClient.post()
+                .uri(batchPath)
+                .bodyValue(documents)
+                .retrieve()
+                .bodyToMono(CustomerApiResponse.class)
+                .timeout(Duration.ofSeconds(2)), CustomerWebClientAdapter::isTransient)
+          .map(apiResponse -> {
+            if (apiResponse.hasError()) {
+              log.error("La API de clientes devolvió error: {}", apiResponse.getError());
+              return Collections.<String, CustomerResponse>emptyMap();
+            }
+            if (!apiResponse.hasData()) {
+              return Collections.<String, CustomerResponse>emptyMap();
+            }
+            return apiResponse.getData().stream()
+                  .filter(customer -> documents.contains(customer.getDocumentNumber()))
+                  .collect(Collectors.toMap(CustomerResponse::getDocumentNumber, Function.identity(),
+                        (first, second) -> first));
+          })
+          .onErrorResume(WebClientResponseException.class, ex -> {
+            if (!isMissingEndpoint(ex)) {
+              return Mono.error(ex);
+            }
+            if (batchEndpointAvailable.compareAndSet(true, false)) {
+              log.warn("Customer service has no batch endpoint ({}), falling back to single lookups",
+                    ex.getRawStatusCode());
+            }
+            return fetchEach(documents);
+          })
+          .doOnError(ex ->
+                log.error("Excepción al consumir servicio de clientes (consulta múltiple): {}", ex.getMessage()));
+  }
+
+  /**
+   * Abre connections conexiones con el servicio de clientes. Cada petición a warmupPath espera, ya con su
+   * conexión tomada del pool, a que las demás tengan la suya antes de enviarse: ninguna reutiliza la de otra.
+   * Va por el HttpClient del pool, sin los filtros (traza) del WebClient.
+   *
+   * @return conexiones que obtuvieron respuesta
+   */
+  public Mono<Long> warmUp(int connections) {
+    return Mono.defer(() -> {
+      Sinks.Empty<Void> allAcquired = Sinks.empty();
+      AtomicInteger pending = new AtomicInteger(connections);
+      return Flux.range(0, connections)
+            .flatMap(i -> {
+              AtomicBoolean acquired = new AtomicBoolean();
+              Runnable acquire = () -> {
+                if (acquired.compareAndSet(false, true) && pending.decrementAndGet() == 0) {
+                  allAcquired.tryEmitEmpty();
+                }
+              };
+              return httpClient.request(HttpMethod.GET)
+                    .uri(warmupPath)
+                    .send((request, outbound) -> {
+                      acquire.run();
+                      return allAcquired.asMono().thenEmpty(outbound);
+                    })
+                    .responseSingle((response, body) -> body.then().thenReturn(i))
+                    .doFinally(signal -> acquire.run())
+                    .onErrorResume(ex -> Mono.empty());
+            }, Math.max(connections, 1))
+            .count();
+    });
+  }
+
+  private Mono<Map<String, CustomerResponse>> fetchEach(Set<String> documents) {
+    return Flux.fromIterable(documents)
+          .flatMap(this::fetchCustomer, fallbackConcurrency)
+          .filter(customer -> Objects.nonNull(customer.getDocumentNumber()))
+          .collectMap(CustomerResponse::getDocumentNumber);
+  }
+
+  private static boolean isMissingEndpoint(WebClientResponseException ex) {
+    int status = ex.getRawStatusCode();
+    return status == HttpStatus.NOT_FOUND.value()
+          || status == HttpStatus.METHOD_NOT_ALLOWED.value()
+          || status == HttpStatus.NOT_IMPLEMENTED.value();
+  }
+
+  /**
+   * Errores que merecen otro intento: 5xx (salvo 501, que no cambia al reintentar), timeouts y fallos de conexión.
+   */
+  private static boolean isTransient(Throwable ex) {
+    if (ex instanceof WebClientResponseException) {
+      int status = ((WebClientResponseException) ex).getRawStatusCode();
+      return status >= 500 && status != HttpStatus.NOT_IMPLEMENTED.value();
+    }
+    return ex instanceof TimeoutException || ex instanceof WebClientRequestException;
+  }
+
+  /**
+   * Consulta individual de un cliente.
+   * La API devuelve una estructura: { "data": [cliente], "error": null }
+   * Un 404 es "no existe" (vacío); un fallo que persiste tras los reintentos se propaga.
+   */
+  private Mono<CustomerResponse> fetchCustomer(String documentNumber) {
     log.info("Consultando cliente con documento: {}", documentNumber);
 
-    return webClient.get()
-          .uri("/api/customers/document/{documentNumber}", documentNumber)
-          .retrieve()
-          .onStatus(
-                status -> status.value() == HttpStatus.NOT_FOUND.value(),
-                response -> {
-                  log.warn("Cliente no encontrado con documento: {}", documentNumber);
-                  return Mono.empty();
-                })
-          .onStatus(
-                HttpStatus::is4xxClientError,
-                response -> {
-                  log.error("Error del cliente (4xx) al consultar documento: {}", documentNumber);
-                  return Mono.error(new RuntimeException("Error en la solicitud al servicio de clientes"));
-                })
-          .onStatus(
-                HttpStatus::is5xxServerError,
-                response -> {
-                  log.error("Error del servidor en el servicio de clientes");
-                  return Mono.error(new RuntimeException("Servicio de clientes no disponible"));
-                })
-          .bodyToMono(CustomerApiResponse.class)
-          .timeout(Duration.ofSeconds(2)) // Circuit breaker timeout según requisitos Proyecto III
+    return lookupPolicy.execute("single", () -> webClient.get()
+                .uri("/api/customers/document/{documentNumber}", documentNumber)
+                .retrieve()
+                .onStatus(
+                      status -> status.value() == HttpStatus.NOT_FOUND.value(),
+                      response -> {
+                        log.warn("Cliente no encontrado con documento: {}", documentNumber);
+                        return Mono.empty();
+                      })
+                .onStatus(
+                      HttpStatus::is4xxClientError,
+                      response -> {
+                        log.error("Error del cliente (4xx) al consultar documento: {}", documentNumber);
+                        return Mono.error(new RuntimeException("Error en la solicitud al servicio de clientes"));
+                      })
+                .onStatus(
+                      HttpStatus::is5xxServerError,
+                      response -> {
+                        log.error("Error del servidor en el servicio de clientes");
+                        return response.createException();
+                      })
+                .bodyToMono(CustomerApiResponse.class)
+                .timeout(Duration.ofSeconds(2)), // Circuit breaker timeout según requisitos Proyecto III
+                CustomerWebClientAdapter::isTransient)
           .flatMap(apiResponse -> {
             if (apiResponse.hasError()) {
               log.error("La API de clientes devolvió error: {}", apiResponse.getError());
@@ -78,10 +251,6 @@ public class CustomerWebClientAdapter implements CustomerOutputPort {
           })
           .doOnError(error ->
                 log.error("Error al consultar cliente con documento {}: {}",
-                      documentNumber, error.getMessage()))
-          .onErrorResume(ex -> {
-            log.error("Excepción al consumir servicio de clientes: {}", ex.getMessage());
-            return Mono.empty();
-          });
+                      documentNumber, error.getMessage()));
   }
 }
@@ -0,0 +1,528 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.CreditVersion;
+import com.ettdata.credit_service.infrastructure.adapter.CreditWriteBehind.Op;
+import com.ettdata.credit_service.infrastructure.adapter.CreditWriteBehind.OpType;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Capa caliente en memoria delante de Mongo (credit.hot-tier.enabled=true).
+ * <p>
+ * Mantiene todos los créditos con saldo vivo (ACTIVE, OVERDUE o con deuda vencida) más los que tienen
+ * escrituras pendientes, con índices por cliente y por número de crédito. Las lecturas de esos créditos
+ * y las comprobaciones de elegibilidad se resuelven en memoria; el resto se lee de Mongo y se superpone
+ * con lo que haya en memoria, que siempre es igual o más reciente.
+ * <p>
+ * Las escrituras se validan por versión en memoria y se persisten con {@link CreditWriteBehind}. Un crédito
+ * que sale del conjunto vivo sigue en memoria hasta que su último cambio llega a Mongo. Escribir sobre un
+ * crédito que no está en memoria va directo a Mongo con el guardado condicional.
+ * <p>
+ * Supone una única instancia escribiendo: con varias, cada una tendría su propia copia y se pisarían.
+ * Sin Mongo detrás ({@link #standalone()}) sirve como repositorio en memoria para pruebas.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "credit.hot-tier.enabled", havingValue = "true")
+public class HotTierCreditAdapter implements CreditRepositoryOutputPort {
+
+  private static final int PERSIST_CONCURRENCY = 16;
+
+  /** Entrada en memoria: el crédito (null si está borrado y pendiente) y la última operación encolada. */
+  private static final class Entry {
+    final Credit credit;
+    final long lastSeq;
+
+    Entry(Credit credit, long lastSeq) {
+      this.credit = credit;
+      this.lastSeq = lastSeq;
+    }
+  }
+
+  private final CreditRepositoryOutputPort delegate;
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final CreditDocumentCodec codec;
+  private final CreditWriteBehind writeBehind;
+  private final Predicate<Credit> resident;
+  private final Duration warmTimeout;
+
+  private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> idsByCustomer = new ConcurrentHashMap<>();
+  private final Map<String, String> idByCreditNumber = new ConcurrentHashMap<>();
+
+  @Autowired
+  public HotTierCreditAdapter(CreditAdapter delegate, ReactiveMongoTemplate mongoTemplate, CreditDocumentCodec codec,
+                              @Value("${credit.hot-tier.journal-dir:./data/write-behind}") String journalDir,
+                              @Value("${credit.hot-tier.flush-interval:50ms}") Duration flushInterval,
+                              @Value("${credit.hot-tier.batch-size:500}") int batchSize,
+                              @Value("${credit.hot-tier.max-pending:10000}") int maxPending,
+                              @Value("${credit.hot-tier.warm-timeout:5m}") Duration warmTimeout,
+                              @Value("${credit.hot-tier.journal-compact-threshold:64MB}") DataSize compactThreshold,
+                              MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.mongoTemplate = mongoTemplate;
+    this.codec = codec;
+    this.resident = HotTierCreditAdapter::isOpen;
+    this.warmTimeout = warmTimeout;
+    this.writeBehind = new CreditWriteBehind(Paths.get(journalDir), this::persist, this::onPersisted,
+          flushInterval, batchSize, maxPending, compactThreshold.toBytes(), meterRegistry);
+    meterRegistry.gaugeMapSize("credit.hot-tier.size", Tags.empty(), byId);
+  }
+
+  private HotTierCreditAdapter(CreditRepositoryOutputPort delegate) {
+    this.delegate = delegate;
+    this.mongoTemplate = null;
+    this.codec = null;
+    this.writeBehind = null;
+    this.resident = credit -> true;
+    this.warmTimeout = Duration.ZERO;
+  }
+
+  /**
+   * Repositorio solo en memoria, sin Mongo ni write-behind; guarda todos los créditos.
+   */
+  public static HotTierCreditAdapter standalone() {
+    return new HotTierCreditAdapter(new EmptyStore());
+  }
+
+  /**
+   * Aplica en Mongo lo que quedó en el diario y carga los créditos vivos, un cursor por tipo en paralelo.
+   * El arranque espera a que termine: hasta entonces la memoria no está completa.
+   */
+  @PostConstruct
+  void warmUp() {
+    if (writeBehind == null) {
+      return;
+    }
+    long replayed = writeBehind.recover().block(warmTimeout);
+    long start = System.currentTimeMillis();
+    Long loaded = Flux.fromArray(CreditType.values())
+          .flatMap(type -> mongoTemplate.find(Query.query(new Criteria().andOperator(codec.typeIs(type), codec.open())),
+                      Document.class, collectionName()),
+                CreditType.values().length)
+          .map(codec::decode)
+          .doOnNext(credit -> byId.compute(credit.getId(), (id, current) -> {
+            reindex(current, credit);
+            return new Entry(credit, 0L);
+          }))
+          .count()
+          .block(warmTimeout);
+    log.info("Hot tier warmed with {} credits in {} ms ({} journal operations replayed)",
+          loaded, System.currentTimeMillis() - start, replayed);
+    writeBehind.start();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (writeBehind != null) {
+      writeBehind.stop();
+    }
+  }
+
+  @Override
+  public Flux<Credit> findAllCredit() {
+    return Flux.defer(() -> overlay(delegate.findAllCredit(), snapshot(), credit -> true));
+  }
+
+  @Override
+  public Mono<Credit> saveCredit(Credit credit) {
+    if (credit.getVersion() == null) {
+      return awaitCapacity().then(Mono.fromCallable(() -> insert(credit)));
+    }
+    if (!byId.containsKey(credit.getId())) {
+      return writeThrough(credit);
+    }
+    return awaitCapacity().then(Mono.fromCallable(() -> replace(credit)))
+          .switchIfEmpty(Mono.defer(() -> writeThrough(credit)));
+  }
+
+  @Override
+  public Mono<Void> deleteByIdCredit(String idCredit) {
+    if (!byId.containsKey(idCredit)) {
+      return delegate.deleteByIdCredit(idCredit);
+    }
+    return awaitCapacity().then(Mono.fromRunnable(() -> {
+      Op op = new Op(OpType.DELETE, idCredit, null);
+      byId.computeIfPresent(idCredit, (id, current) -> {
+        if (current.credit == null) {
+          return current;
+        }
+        reindex(current, null);
+        return writeBehind == null ? null : new Entry(null, enqueue(op));
+      });
+      journal(op);
+    }));
+  }
+
+  @Override
+  public Flux<Credit> findByDocumentNumber(String documentNumber) {
+    return Flux.defer(() -> {
+      Map<String, Entry> customer = snapshot(idsByCustomer.getOrDefault(documentNumber, Set.of()));
+      if (writeBehind == null) {
+        return live(customer);
+      }
+      return overlay(delegate.findByDocumentNumber(documentNumber), customer,
+            credit -> documentNumber.equals(credit.getCustomerDocument()));
+    });
+  }
+
+  @Override
+  public Flux<Credit> findOpenByDocumentNumber(String documentNumber) {
+    return Flux.defer(() -> live(snapshot(idsByCustomer.getOrDefault(documentNumber, Set.of()))))
+          .filter(HotTierCreditAdapter::isOpen);
+  }
+
+  @Override
+  public Mono<Credit> findById(String idCredit) {
+    Entry entry = byId.get(idCredit);
+    if (entry != null) {
+      return Mono.justOrEmpty(copy(entry.credit));
+    }
+    return delegate.findById(idCredit);
+  }
+
+  @Override
+  public Flux<CreditVersion> findVersionsByDocumentNumber(String documentNumber) {
+    return findByDocumentNumber(documentNumber)
+          .map(credit -> new CreditVersion(credit.getId(), credit.getUpdatedAt()));
+  }
+
+  @Override
+  public Mono<CreditVersion> findVersionById(String idCredit) {
+    Entry entry = byId.get(idCredit);
+    if (entry != null) {
+      return Mono.justOrEmpty(entry.credit).map(credit -> new CreditVersion(credit.getId(), credit.getUpdatedAt()));
+    }
+    return delegate.findVersionById(idCredit);
+  }
+
+  /**
+   * ACTIVE y OVERDUE están enteros en memoria; el resto se recorre en Mongo y se superpone.
+   */
+  @Override
+  public Flux<Credit> streamCredits(CreditStatus status, CreditType type) {
+    Predicate<Credit> matches = credit -> (status == null || credit.getStatus() == status)
+          && (type == null || credit.getType() == type);
+    if (writeBehind == null || status == CreditStatus.ACTIVE || status == CreditStatus.OVERDUE) {
+      return Flux.defer(() -> live(snapshot())).filter(matches);
+    }
+    return Flux.defer(() -> overlay(delegate.streamCredits(status, type), snapshot(), matches));
+  }
+
+  /**
+   * Los cambios llegan por el change stream de Mongo, es decir, cuando el write-behind los persiste.
+   */
+  @Override
+  public Flux<Credit> watchCredits() {
+    return delegate.watchCredits();
+  }
+
+  /**
+   * Créditos por número; los que no están en memoria se buscan en Mongo.
+   */
+  public Flux<Credit> findByCreditNumbers(Collection<String> creditNumbers) {
+    List<Credit> found = new ArrayList<>();
+    List<String> missing = new ArrayList<>();
+    for (String creditNumber : creditNumbers) {
+      String id = idByCreditNumber.get(creditNumber);
+      Entry entry = id != null ? byId.get(id) : null;
+      if (entry != null && entry.credit != null) {
+        found.add(copy(entry.credit));
+      } else {
+        missing.add(creditNumber);
+      }
+    }
+    if (missing.isEmpty() || writeBehind == null) {
+      return Flux.fromIterable(found);
+    }
+    return Flux.fromIterable(found)
+          .concatWith(mongoTemplate.find(Query.query(codec.creditNumberIn(missing)), Document.class, collectionName())
+                .map(codec::decode)
+                .filter(credit -> !byId.containsKey(credit.getId())));
+  }
+
+  /**
+   * Guarda cada crédito con su versión; devuelve los que se aplicaron (los conflictos no están).
+   */
+  public Mono<List<Credit>> saveAll(List<Credit> credits) {
+    return Flux.fromIterable(credits)
+          .concatMap(credit -> saveCredit(credit)
+                .onErrorResume(CreditVersionConflictException.class, ex -> Mono.empty()))
+          .collectList();
+  }
+
+  /**
+   * Vacía la cola write-behind; para pruebas y apagados ordenados.
+   */
+  public Mono<Void> flush() {
+    return writeBehind == null ? Mono.empty() : writeBehind.flush();
+  }
+
+  private Credit insert(Credit credit) {
+    Credit created = copy(credit);
+    if (created.getId() == null) {
+      created.setId(UUID.randomUUID().toString());
+    }
+    created.setVersion(0L);
+    Op op = new Op(OpType.SAVE, created.getId(), copy(created));
+    byId.compute(created.getId(), (id, current) -> {
+      if (current != null && current.credit != null) {
+        throw new CreditVersionConflictException("Credit " + id + " already exists");
+      }
+      reindex(current, created);
+      return new Entry(created, enqueue(op));
+    });
+    journal(op);
+    return copy(created);
+  }
+
+  /**
+   * Reemplazo condicional en memoria; null si el crédito dejó de estar en memoria entre tanto.
+   */
+  private Credit replace(Credit credit) {
+    long expectedVersion = credit.getVersion();
+    Credit updated = copy(credit);
+    updated.setVersion(expectedVersion + 1);
+    Op op = new Op(OpType.SAVE, credit.getId(), copy(updated));
+    Entry result = byId.computeIfPresent(credit.getId(), (id, current) -> {
+      long currentVersion = current.credit != null && current.credit.getVersion() != null
+            ? current.credit.getVersion() : -1L;
+      if (currentVersion != expectedVersion) {
+        throw new CreditVersionConflictException("Credit " + id + " was modified concurrently");
+      }
+      reindex(current, updated);
+      return new Entry(updated, enqueue(op));
+    });
+    journal(op);
+    return result == null ? null : copy(updated);
+  }
+
+  /**
+   * Crédito fuera de memoria: guardado condicional en Mongo; si queda vivo, entra en memoria.
+   */
+  private Mono<Credit> writeThrough(Credit credit) {
+    return delegate.saveCredit(credit)
+          .doOnNext(saved -> {
+            if (resident.test(saved)) {
+              byId.compute(saved.getId(), (id, current) -> {
+                if (current != null) {
+                  return current;
+                }
+                reindex(null, saved);
+                return new Entry(copy(saved), 0L);
+              });
+            }
+          });
+  }
+
+  /**
+   * Reserva la operación en la cola; se llama dentro de la actualización atómica del crédito y no hace E/S.
+   */
+  private long enqueue(Op op) {
+    return writeBehind == null ? 0L : writeBehind.reserve(op);
+  }
+
+  /**
+   * Escribe en el diario la operación reservada, ya fuera de la actualización atómica para no bloquear
+   * al resto de escritores del mismo tramo del mapa. No hace nada si la actualización no llegó a reservarla.
+   */
+  private void journal(Op op) {
+    if (writeBehind != null && op.seq > 0) {
+      writeBehind.journal(op);
+    }
+  }
+
+  private Mono<Void> awaitCapacity() {
+    return writeBehind == null ? Mono.empty() : writeBehind.awaitCapacity();
+  }
+
+  private String collectionName() {
+    return mongoTemplate.getCollectionName(CreditEntity.class);
+  }
+
+  private Mono<Void> persist(List<Op> ops) {
+    return Flux.fromIterable(ops)
+          .flatMap(op -> op.type == OpType.DELETE
+                ? mongoTemplate.remove(Query.query(Criteria.where("_id").is(op.id)), CreditEntity.class).then()
+                : mongoTemplate.findAndReplace(Query.query(Criteria.where("_id").is(op.id)), codec.encode(op.credit),
+                      FindAndReplaceOptions.options().upsert(), Document.class, collectionName(), Document.class).then(),
+                PERSIST_CONCURRENCY)
+          .then();
+  }
+
+  /**
+   * Libera los créditos persistidos que ya no están vivos, salvo que tengan un cambio posterior en cola.
+   */
+  private void onPersisted(List<Op> ops) {
+    for (Op op : ops) {
+      byId.computeIfPresent(op.id, (id, current) -> {
+        if (current.lastSeq != op.seq || (current.credit != null && resident.test(current.credit))) {
+          return current;
+        }
+        reindex(current, null);
+        return null;
+      });
+    }
+  }
+
+  /**
+   * Actualiza los índices secundarios; se llama dentro de la actualización atómica del crédito.
+   */
+  private void reindex(Entry previous, Credit next) {
+    Credit old = previous != null ? previous.credit : null;
+    if (old != null) {
+      if (next == null || !Objects.equals(old.getCustomerDocument(), next.getCustomerDocument())) {
+        idsByCustomer.computeIfPresent(old.getCustomerDocument(), (document, ids) -> {
+          ids.remove(old.getId());
+          return ids.isEmpty() ? null : ids;
+        });
+      }
+      if (old.getCreditNumber() != null
+            && (next == null || !Objects.equals(old.getCreditNumber(), next.getCreditNumber()))) {
+        idByCreditNumber.remove(old.getCreditNumber(), old.getId());
+      }
+    }
+    if (next != null) {
+      if (next.getCustomerDocument() != null) {
+        idsByCustomer.computeIfAbsent(next.getCustomerDocument(), document -> ConcurrentHashMap.newKeySet())
+              .add(next.getId());
+      }
+      if (next.getCreditNumber() != null) {
+        idByCreditNumber.put(next.getCreditNumber(), next.getId());
+      }
+    }
+  }
+
+  private Map<String, Entry> snapshot() {
+    return new HashMap<>(byId);
+  }
+
+  private Map<String, Entry> snapshot(Set<String> ids) {
+    Map<String, Entry> entries = new HashMap<>();
+    for (String id : ids) {
+      Entry entry = byId.get(id);
+      if (entry != null) {
+        entries.put(id, entry);
+      }
+    }
+    return entries;
+  }
+
+  private static Flux<Credit> live(Map<String, Entry> entries) {
+    return Flux.fromIterable(entries.values())
+          .filter(entry -> entry.credit != null)
+          .map(entry -> copy(entry.credit));
+  }
+
+  /**
+   * Lo leído de Mongo, sustituyendo por la versión en memoria los créditos que están en ella.
+   */
+  private static Flux<Credit> overlay(Flux<Credit> stored, Map<String, Entry> memory, Predicate<Credit> matches) {
+    return stored.filter(credit -> !memory.containsKey(credit.getId()))
+          .concatWith(live(memory).filter(matches));
+  }
+
+  private static boolean isOpen(Credit credit) {
+    return credit.getStatus() == CreditStatus.ACTIVE
+          || credit.getStatus() == CreditStatus.OVERDUE
+          || Boolean.TRUE.equals(credit.getHasOverdueDebt());
+  }
+
+  /**
+   * Copia superficial: los servicios modifican los créditos leídos antes de guardarlos.
+   */
+  private static Credit copy(Credit credit) {
+    return credit == null ? null : credit.toBuilder().build();
+  }
+
+  /**
+   * Almacén vacío detrás del modo standalone.
+   */
+  private static final class EmptyStore implements CreditRepositoryOutputPort {
+    @Override
+    public Flux<Credit> findAllCredit() {
+      return Flux.empty();
+    }
+
+    @Override
+    public Mono<Credit> saveCredit(Credit credit) {
+      return Mono.error(new CreditVersionConflictException("Credit " + credit.getId() + " was modified concurrently"));
+    }
+
+    @Override
+    public Mono<Void> deleteByIdCredit(String idCredit) {
+      return Mono.empty();
+    }
+
+    @Override
+    public Flux<Credit> findByDocumentNumber(String documentNumber) {
+      return Flux.empty();
+    }
+
+    @Override
+    public Flux<Credit> findOpenByDocumentNumber(String documentNumber) {
+      return Flux.empty();
+    }
+
+    @Override
+    public Mono<Credit> findById(String idCredit) {
+      return Mono.empty();
+    }
+
+    @Override
+    public Flux<CreditVersion> findVersionsByDocumentNumber(String documentNumber) {
+      return Flux.empty();
+    }
+
+    @Override
+    public Mono<CreditVersion> findVersionById(String idCredit) {
+      return Mono.empty();
+    }
+
+    @Override
+    public Flux<Credit> streamCredits(CreditStatus status, CreditType type) {
+      return Flux.empty();
+    }
+
+    @Override
+    public Flux<Credit> watchCredits() {
+      return Flux.empty();
+    }
+  }
+}
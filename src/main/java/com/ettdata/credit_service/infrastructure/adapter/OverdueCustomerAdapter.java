@@ -0,0 +1,50 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.OverdueCustomerOutputPort;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Clientes con deuda vencida leídos del índice parcial o_c (solo créditos con o = true), proyectando el cliente.
+ */
+@Component
+public class OverdueCustomerAdapter implements OverdueCustomerOutputPort {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ObjectProvider<HotTierCreditAdapter> hotTier;
+  private final CreditDocumentCodec codec;
+  private final int batchSize;
+
+  public OverdueCustomerAdapter(ReactiveMongoTemplate mongoTemplate, ObjectProvider<HotTierCreditAdapter> hotTier,
+                                CreditDocumentCodec codec,
+                                @Value("${credit.export.cursor-batch-size:1000}") int batchSize) {
+    this.mongoTemplate = mongoTemplate;
+    this.hotTier = hotTier;
+    this.codec = codec;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Con el hot tier activo se vacía antes su cola write-behind: la consulta lee de Mongo.
+   */
+  @Override
+  public Flux<String> streamOverdueCustomerDocuments() {
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    Mono<Void> persisted = tier != null ? tier.flush() : Mono.empty();
+    Query query = Query.query(codec.hasOverdueDebt()).cursorBatchSize(batchSize);
+    query.fields().include(CreditDocumentCodec.CUSTOMER, CreditDocumentCodec.LEGACY_CUSTOMER).exclude("_id");
+    return persisted.thenMany(Flux.defer(() ->
+                mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(CreditEntity.class))))
+          .mapNotNull(document -> document.containsKey(CreditDocumentCodec.CUSTOMER)
+                ? document.getString(CreditDocumentCodec.CUSTOMER)
+                : document.getString(CreditDocumentCodec.LEGACY_CUSTOMER));
+  }
+}
@@ -0,0 +1,278 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.PortfolioAnalyticsOutputPort;
+import com.ettdata.credit_service.domain.model.ExposureCell;
+import com.ettdata.credit_service.domain.model.ExposureSummary;
+import com.ettdata.credit_service.domain.model.PortfolioAnalytics;
+import com.ettdata.credit_service.domain.model.UtilizationBucket;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Analítica de cartera calculada dentro de Mongo.
+ * Un único pipeline con $facet recorre la colección una vez y devuelve todas las agregaciones.
+ */
+@Component
+public class PortfolioAnalyticsAdapter implements PortfolioAnalyticsOutputPort {
+
+  private static final List<Double> UTILIZATION_BOUNDARIES = Arrays.asList(0.0, 0.25, 0.5, 0.75, 0.9, 1.0);
+  private static final String OVER_LIMIT_BUCKET = "100%+";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ObjectProvider<HotTierCreditAdapter> hotTier;
+  private final CreditDocumentCodec codec;
+
+  public PortfolioAnalyticsAdapter(ReactiveMongoTemplate mongoTemplate, ObjectProvider<HotTierCreditAdapter> hotTier,
+                                   CreditDocumentCodec codec) {
+    this.mongoTemplate = mongoTemplate;
+    this.hotTier = hotTier;
+    this.codec = codec;
+  }
+
+  @Override
+  public Mono<PortfolioAnalytics> aggregatePortfolio() {
+    return mongoTemplate.getCollection(mongoTemplate.getCollectionName(CreditEntity.class))
+          .flatMapMany(collection -> Flux.from(collection.aggregate(pipeline()).allowDiskUse(true)))
+          .next()
+          .map(this::toAnalytics);
+  }
+
+  @Override
+  public Mono<Long> countCredits() {
+    return mongoTemplate.estimatedCount(CreditEntity.class);
+  }
+
+  @Override
+  public Mono<Boolean> hasChangesSince(LocalDateTime updatedAt) {
+    return mongoTemplate.exists(Query.query(codec.updatedAfter(updatedAt)), CreditEntity.class);
+  }
+
+  /**
+   * Con el hot tier activo, Mongo va por detrás de la memoria: se vacía la cola write-behind antes de agregar.
+   */
+  @Override
+  public Flux<ExposureCell> aggregateExposure() {
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    Mono<Void> persisted = tier != null ? tier.flush() : Mono.empty();
+    return persisted.thenMany(mongoTemplate.getCollection(mongoTemplate.getCollectionName(CreditEntity.class)))
+          .flatMap(collection -> Flux.from(collection.aggregate(exposurePipeline()).allowDiskUse(true)))
+          .map(this::toExposureCell);
+  }
+
+  // ==================== PIPELINE ====================
+
+  private List<Document> exposurePipeline() {
+    Document group = new Document("type", "$type").append("status", "$status");
+    List<Document> stages = new ArrayList<>(normalized(new Document()));
+    stages.add(exposureGroup(group));
+    return stages;
+  }
+
+  private List<Document> pipeline() {
+    Document extra = new Document("hasOverdueDebt",
+          field(CreditDocumentCodec.OVERDUE_DEBT, CreditDocumentCodec.LEGACY_OVERDUE_DEBT))
+          .append("updatedAt", field(CreditDocumentCodec.UPDATED, CreditDocumentCodec.LEGACY_UPDATED));
+
+    Document facets = new Document("byType", List.of(exposureGroup("$type")))
+          .append("byStatus", List.of(exposureGroup("$status")))
+          .append("utilization", List.of(
+                new Document("$match", new Document("limit", new Document("$gt", 0))),
+                new Document("$bucket", new Document("groupBy", new Document("$divide", List.of("$debt", "$limit")))
+                      .append("boundaries", UTILIZATION_BOUNDARIES)
+                      .append("default", OVER_LIMIT_BUCKET)
+                      .append("output", new Document("count", new Document("$sum", 1))
+                            .append("totalDebt", new Document("$sum", "$debt"))))))
+          .append("totals", List.of(new Document("$group", new Document("_id", null)
+                .append("count", new Document("$sum", 1))
+                .append("overdueCount", new Document("$sum", overdueOr(1, 0)))
+                .append("totalDebt", new Document("$sum", "$debt"))
+                .append("overdueDebt", new Document("$sum", overdueOr("$debt", 0)))
+                .append("maxUpdatedAt", new Document("$max", "$updatedAt")))));
+
+    List<Document> stages = new ArrayList<>(normalized(extra));
+    stages.add(new Document("$facet", facets));
+    return stages;
+  }
+
+  /**
+   * Tipo, estado e importes con los mismos nombres sea cual sea el formato del documento.
+   * En v2 el disponible solo está si no es límite - deuda; si falta, se calcula.
+   */
+  private List<Document> normalized(Document extra) {
+    Document fields = new Document("type", field(CreditDocumentCodec.TYPE, CreditDocumentCodec.LEGACY_TYPE))
+          .append("status", field(CreditDocumentCodec.STATUS, CreditDocumentCodec.LEGACY_STATUS))
+          .append("limit", toDecimal(field(CreditDocumentCodec.LIMIT, CreditDocumentCodec.LEGACY_LIMIT), 0))
+          .append("debt", toDecimal(field(CreditDocumentCodec.DEBT, CreditDocumentCodec.LEGACY_DEBT), 0))
+          .append("available", toDecimal(field(CreditDocumentCodec.AVAILABLE, CreditDocumentCodec.LEGACY_AVAILABLE), null));
+    fields.putAll(extra);
+    Document derived = new Document("available",
+          new Document("$ifNull", List.of("$available", new Document("$subtract", List.of("$limit", "$debt")))));
+    return List.of(new Document("$project", fields), new Document("$addFields", derived));
+  }
+
+  /**
+   * Campo v2, o el v1 si aún quedan documentos en el formato anterior.
+   */
+  private Object field(String current, String legacy) {
+    return codec.hasLegacyDocuments()
+          ? new Document("$ifNull", List.of("$" + current, "$" + legacy))
+          : "$" + current;
+  }
+
+  /**
+   * En v1 los BigDecimal se guardan como string; en v2 ya son Decimal128 y la conversión no cambia nada.
+   */
+  private Document toDecimal(Object field, Object onNull) {
+    return new Document("$convert", new Document("input", field)
+          .append("to", "decimal")
+          .append("onError", 0)
+          .append("onNull", onNull));
+  }
+
+  private Document exposureGroup(Object key) {
+    return new Document("$group", new Document("_id", key)
+          .append("count", new Document("$sum", 1))
+          .append("totalLimit", new Document("$sum", "$limit"))
+          .append("totalDebt", new Document("$sum", "$debt"))
+          .append("totalAvailable", new Document("$sum", "$available")));
+  }
+
+  private Document overdueOr(Object whenOverdue, Object otherwise) {
+    return new Document("$cond", List.of(new Document("$eq", List.of("$hasOverdueDebt", true)), whenOverdue, otherwise));
+  }
+
+  // ==================== MAPPING ====================
+
+  private PortfolioAnalytics toAnalytics(Document result) {
+    Document totals = result.getList("totals", Document.class).stream().findFirst().orElse(new Document());
+    long count = toLong(totals.get("count"));
+    long overdueCount = toLong(totals.get("overdueCount"));
+    BigDecimal totalDebt = toBigDecimal(totals.get("totalDebt"));
+    BigDecimal overdueDebt = toBigDecimal(totals.get("overdueDebt"));
+    Date maxUpdatedAt = totals.getDate("maxUpdatedAt");
+
+    return PortfolioAnalytics.builder()
+          .exposureByType(toExposure(result.getList("byType", Document.class), CreditDocumentCodec::typeOf))
+          .exposureByStatus(toExposure(result.getList("byStatus", Document.class), CreditDocumentCodec::statusOf))
+          .utilization(toUtilization(result.getList("utilization", Document.class)))
+          .totalCredits(count)
+          .overdueCredits(overdueCount)
+          .overdueRatio(ratio(BigDecimal.valueOf(overdueCount), BigDecimal.valueOf(count)))
+          .overdueDebtRatio(ratio(overdueDebt, totalDebt))
+          .sourceUpdatedAt(maxUpdatedAt != null
+                ? LocalDateTime.ofInstant(maxUpdatedAt.toInstant(), ZoneId.systemDefault())
+                : null)
+          .generatedAt(LocalDateTime.now())
+          .build();
+  }
+
+  /**
+   * Mientras convivan los dos formatos, un mismo tipo o estado llega en dos grupos (código y nombre): se suman.
+   */
+  private List<ExposureSummary> toExposure(List<Document> groups, Function<Object, ? extends Enum<?>> keyOf) {
+    if (groups == null) {
+      return Collections.emptyList();
+    }
+    Map<String, ExposureSummary> byKey = new LinkedHashMap<>();
+    for (Document group : groups) {
+      Enum<?> value = keyOf.apply(group.get("_id"));
+      ExposureSummary summary = ExposureSummary.builder()
+            .key(value != null ? value.name() : String.valueOf(group.get("_id")))
+            .count(toLong(group.get("count")))
+            .totalLimit(toBigDecimal(group.get("totalLimit")))
+            .totalDebt(toBigDecimal(group.get("totalDebt")))
+            .totalAvailable(toBigDecimal(group.get("totalAvailable")))
+            .build();
+      byKey.merge(summary.getKey(), summary, (a, b) -> ExposureSummary.builder()
+            .key(a.getKey())
+            .count(a.getCount() + b.getCount())
+            .totalLimit(a.getTotalLimit().add(b.getTotalLimit()))
+            .totalDebt(a.getTotalDebt().add(b.getTotalDebt()))
+            .totalAvailable(a.getTotalAvailable().add(b.getTotalAvailable()))
+            .build());
+    }
+    return new ArrayList<>(byKey.values());
+  }
+
+  private ExposureCell toExposureCell(Document group) {
+    Document key = group.get("_id", Document.class);
+    return ExposureCell.builder()
+          .type(CreditDocumentCodec.typeOf(key.get("type")))
+          .status(CreditDocumentCodec.statusOf(key.get("status")))
+          .count(toLong(group.get("count")))
+          .totalLimit(toBigDecimal(group.get("totalLimit")))
+          .totalDebt(toBigDecimal(group.get("totalDebt")))
+          .totalAvailable(toBigDecimal(group.get("totalAvailable")))
+          .build();
+  }
+
+  private List<UtilizationBucket> toUtilization(List<Document> buckets) {
+    if (buckets == null) {
+      return Collections.emptyList();
+    }
+    return buckets.stream()
+          .map(bucket -> UtilizationBucket.builder()
+                .range(bucketLabel(bucket.get("_id")))
+                .count(toLong(bucket.get("count")))
+                .totalDebt(toBigDecimal(bucket.get("totalDebt")))
+                .build())
+          .collect(Collectors.toList());
+  }
+
+  /**
+   * $bucket identifica cada tramo por su límite inferior: se traduce a "desde-hasta%".
+   */
+  private String bucketLabel(Object lowerBound) {
+    if (!(lowerBound instanceof Number)) {
+      return String.valueOf(lowerBound);
+    }
+    int index = UTILIZATION_BOUNDARIES.indexOf(((Number) lowerBound).doubleValue());
+    if (index < 0 || index + 1 >= UTILIZATION_BOUNDARIES.size()) {
+      return String.valueOf(lowerBound);
+    }
+    return Math.round(UTILIZATION_BOUNDARIES.get(index) * 100) + "-"
+          + Math.round(UTILIZATION_BOUNDARIES.get(index + 1) * 100) + "%";
+  }
+
+  private BigDecimal ratio(BigDecimal part, BigDecimal total) {
+    if (total.signum() == 0) {
+      return BigDecimal.ZERO;
+    }
+    return part.divide(total, 4, RoundingMode.HALF_UP);
+  }
+
+  private long toLong(Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : 0L;
+  }
+
+  private BigDecimal toBigDecimal(Object value) {
+    if (value instanceof Decimal128) {
+      return ((Decimal128) value).bigDecimalValue();
+    }
+    if (value instanceof Number) {
+      return new BigDecimal(value.toString());
+    }
+    return BigDecimal.ZERO;
+  }
+}
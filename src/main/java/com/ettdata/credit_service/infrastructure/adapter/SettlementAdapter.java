@@ -0,0 +1,236 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.application.port.out.SettlementOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementReport;
+import com.ettdata.credit_service.domain.model.SettlementStatus;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.entity.SettlementFileEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Persistencia de la ingesta de liquidaciones.
+ * Los pagos de un bloque se escriben con un único bulkWrite no ordenado; cada reemplazo es atómico
+ * sobre su documento y solo se aplica si el crédito sigue en la versión leída.
+ * Con la capa caliente activa, lecturas y pagos pasan por ella para no saltarse su write-behind.
+ * El informe del fichero hace de reserva: solo lo escribe la ingesta cuyo claimId está guardado.
+ * El turno de ingesta entre ficheros es un único documento en settlement_turn con el fichero que lo tiene.
+ */
+@Component
+public class SettlementAdapter implements SettlementOutputPort {
+
+  private static final String TURN_COLLECTION = "settlement_turn";
+  private static final String TURN_ID = "settlement";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ObjectProvider<HotTierCreditAdapter> hotTier;
+  private final CreditDocumentCodec codec;
+
+  public SettlementAdapter(ReactiveMongoTemplate mongoTemplate,
+                           ObjectProvider<HotTierCreditAdapter> hotTier, CreditDocumentCodec codec) {
+    this.mongoTemplate = mongoTemplate;
+    this.hotTier = hotTier;
+    this.codec = codec;
+  }
+
+  @Override
+  public Mono<SettlementReport> findReport(String fileId) {
+    return mongoTemplate.findById(fileId, SettlementFileEntity.class)
+          .map(this::toReport);
+  }
+
+  /**
+   * Un findAndModify con upsert: si el fichero existe pero no cumple el filtro, el upsert choca con su _id
+   * (clave duplicada) y la reserva se rechaza. Dos peticiones a la vez nunca reservan las dos.
+   */
+  @Override
+  public Mono<SettlementReport> claimReport(String fileId, SettlementFormat format, String claimId,
+                                            LocalDateTime staleBefore) {
+    LocalDateTime now = LocalDateTime.now();
+    Query claimable = Query.query(Criteria.where("_id").is(fileId)
+          .and("status").ne(SettlementStatus.COMPLETED)
+          .orOperator(Criteria.where("status").ne(SettlementStatus.RUNNING),
+                Criteria.where("heartbeatAt").lt(staleBefore),
+                Criteria.where("heartbeatAt").exists(false)));
+    Update claim = new Update()
+          .set("status", SettlementStatus.RUNNING)
+          .set("claimId", claimId)
+          .set("heartbeatAt", now)
+          .setOnInsert("format", format)
+          .setOnInsert("startedAt", now);
+    return mongoTemplate.findAndModify(claimable, claim, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                SettlementFileEntity.class)
+          .map(this::toReport)
+          .onErrorResume(DuplicateKeyException.class, ex -> Mono.empty());
+  }
+
+  /**
+   * Como la reserva del fichero: un findAndModify con upsert sobre el único documento del turno, que solo
+   * casa si está libre o ya es de fileId. Si lo tiene otro fichero, el upsert choca con el _id y se lee quién.
+   */
+  @Override
+  public Mono<String> acquireIngestionTurn(String fileId) {
+    Query available = Query.query(Criteria.where("_id").is(TURN_ID)
+          .orOperator(Criteria.where("fileId").is(fileId), Criteria.where("fileId").is(null)));
+    Update take = new Update().set("fileId", fileId).set("acquiredAt", LocalDateTime.now());
+    return mongoTemplate.findAndModify(available, take, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, TURN_COLLECTION)
+          .map(turn -> turn.getString("fileId"))
+          .onErrorResume(DuplicateKeyException.class, ex -> mongoTemplate.findById(TURN_ID, Document.class, TURN_COLLECTION)
+                .mapNotNull(turn -> turn.getString("fileId"))
+                // Liberado entre el intento y la lectura: se vuelve a intentar
+                .switchIfEmpty(Mono.defer(() -> acquireIngestionTurn(fileId))));
+  }
+
+  @Override
+  public Mono<Void> releaseIngestionTurn(String fileId) {
+    return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(TURN_ID).and("fileId").is(fileId)),
+                new Update().unset("fileId"), TURN_COLLECTION)
+          .then();
+  }
+
+  @Override
+  public Mono<SettlementReport> saveReport(SettlementReport report) {
+    SettlementFileEntity entity = toEntity(report);
+    entity.setHeartbeatAt(LocalDateTime.now());
+    Query claimed = Query.query(Criteria.where("_id").is(report.getFileId()).and("claimId").is(report.getClaimId()));
+    return mongoTemplate.findAndReplace(claimed, entity, FindAndReplaceOptions.options().returnNew())
+          .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                "Settlement file " + report.getFileId() + " was claimed by another ingestion")))
+          .map(this::toReport);
+  }
+
+  @Override
+  public Flux<Credit> findByCreditNumbers(Collection<String> creditNumbers) {
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    if (tier != null) {
+      return tier.findByCreditNumbers(creditNumbers);
+    }
+    return mongoTemplate.find(Query.query(codec.creditNumberIn(creditNumbers)), Document.class,
+                mongoTemplate.getCollectionName(CreditEntity.class))
+          .map(codec::decode);
+  }
+
+  @Override
+  public Mono<List<Credit>> applyPayments(List<Credit> credits) {
+    if (credits.isEmpty()) {
+      return Mono.just(List.of());
+    }
+    HotTierCreditAdapter tier = hotTier.getIfAvailable();
+    if (tier != null) {
+      return tier.saveAll(credits);
+    }
+    List<Credit> written = new ArrayList<>(credits.size());
+    List<WriteModel<Document>> updates = new ArrayList<>(credits.size());
+    for (Credit credit : credits) {
+      long expectedVersion = credit.getVersion() != null ? credit.getVersion() : 0L;
+      Credit next = credit.toBuilder().version(expectedVersion + 1).build();
+      updates.add(paymentReplace(next, expectedVersion));
+      written.add(next);
+    }
+
+    return mongoTemplate.getCollection(mongoTemplate.getCollectionName(CreditEntity.class))
+          .flatMap(collection -> Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false))))
+          .flatMap(result -> result.getMatchedCount() == written.size()
+                ? Mono.just(written)
+                : applied(written));
+  }
+
+  /**
+   * Reemplaza el crédito con la versión siguiente, solo si sigue en la versión leída, como el guardado condicional.
+   * Va el documento entero (en el esquema compacto apenas pesa más que los campos del pago): así un
+   * documento en el formato anterior queda migrado con la misma escritura.
+   */
+  private ReplaceOneModel<Document> paymentReplace(Credit next, long expectedVersion) {
+    Document replacement = codec.encode(next);
+    Document filter = new Document(CreditDocumentCodec.ID, replacement.get(CreditDocumentCodec.ID));
+    filter.putAll(codec.versionIs(expectedVersion).getCriteriaObject());
+    return new ReplaceOneModel<>(filter, replacement);
+  }
+
+  /**
+   * Entre los enviados, los que están en Mongo con la versión y la línea de liquidación que se escribieron.
+   */
+  private Mono<List<Credit>> applied(List<Credit> written) {
+    Map<String, Credit> byId = written.stream().collect(Collectors.toMap(Credit::getId, credit -> credit));
+    return mongoTemplate.find(Query.query(Criteria.where(CreditDocumentCodec.ID).in(byId.keySet())), Document.class,
+                mongoTemplate.getCollectionName(CreditEntity.class))
+          .map(codec::decode)
+          .filter(current -> {
+            Credit credit = byId.get(current.getId());
+            return credit != null
+                  && Objects.equals(current.getVersion(), credit.getVersion())
+                  && Objects.equals(current.getLastSettlementFile(), credit.getLastSettlementFile())
+                  && Objects.equals(current.getLastSettlementLine(), credit.getLastSettlementLine());
+          })
+          .map(current -> byId.get(current.getId()))
+          .collectList();
+  }
+
+  private SettlementReport toReport(SettlementFileEntity entity) {
+    return SettlementReport.builder()
+          .fileId(entity.getFileId())
+          .format(entity.getFormat())
+          .status(entity.getStatus())
+          .committedLine(entity.getCommittedLine())
+          .resumedFromLine(entity.getResumedFromLine())
+          .records(entity.getRecords())
+          .applied(entity.getApplied())
+          .rejected(entity.getRejected())
+          .appliedAmount(entity.getAppliedAmount())
+          .rejects(entity.getRejects())
+          .startedAt(entity.getStartedAt())
+          .finishedAt(entity.getFinishedAt())
+          .durationMs(entity.getDurationMs())
+          .recordsPerSecond(entity.getRecordsPerSecond())
+          .error(entity.getError())
+          .claimId(entity.getClaimId())
+          .heartbeatAt(entity.getHeartbeatAt())
+          .build();
+  }
+
+  private SettlementFileEntity toEntity(SettlementReport report) {
+    return SettlementFileEntity.builder()
+          .fileId(report.getFileId())
+          .format(report.getFormat())
+          .status(report.getStatus())
+          .committedLine(report.getCommittedLine())
+          .resumedFromLine(report.getResumedFromLine())
+          .records(report.getRecords())
+          .applied(report.getApplied())
+          .rejected(report.getRejected())
+          .appliedAmount(report.getAppliedAmount())
+          .rejects(report.getRejects())
+          .startedAt(report.getStartedAt())
+          .finishedAt(report.getFinishedAt())
+          .durationMs(report.getDurationMs())
+          .recordsPerSecond(report.getRecordsPerSecond())
+          .error(report.getError())
+          .claimId(report.getClaimId())
+          .heartbeatAt(report.getHeartbeatAt())
+          .build();
+  }
+}
@@ -0,0 +1,41 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Codecs binarios para llamadas internas entre servicios.
+ * Los controladores negocian application/cbor y application/x-jackson-smile además de JSON,
+ * con los mismos DTOs y la misma configuración de Jackson que la salida JSON.
+ * Spring registra los codecs custom antes que JSON: los controladores declaran produces con JSON
+ * en primer lugar para que siga siendo el formato por defecto cuando el cliente acepta cualquier tipo.
+ */
+@Configuration
+public class BinaryCodecConfig {
+
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+  public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+  @Bean
+  public CodecCustomizer binaryCodecCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+    ObjectMapper smileMapper = builders.getObject().factory(new SmileFactory()).build();
+    ObjectMapper cborMapper = builders.getObject().factory(new CBORFactory()).build();
+
+    return configurer -> {
+      configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+      configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+      configurer.customCodecs().register(new SingleValueCborEncoder(cborMapper));
+      configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+    };
+  }
+}
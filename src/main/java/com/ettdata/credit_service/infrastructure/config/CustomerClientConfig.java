@@ -0,0 +1,43 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import com.ettdata.credit_service.infrastructure.utils.HedgedRetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.resources.ConnectionProvider;
+import java.time.Duration;
+
+/**
+ * Política de las consultas al servicio de clientes: hedging tras el percentil de latencia y
+ * reintento de errores transitorios (5xx, timeouts, conexión) con presupuesto global.
+ * Las conexiones salen de un pool propio, que StartupWarmup llena antes de declarar lista la instancia.
+ */
+@Configuration
+public class CustomerClientConfig {
+
+  @Bean
+  public HedgedRetry customerLookupPolicy(@Value("${customer.service.hedge.enabled:true}") boolean hedging,
+                                          @Value("${customer.service.hedge.percentile:0.95}") double percentile,
+                                          @Value("${customer.service.hedge.min-delay:10ms}") Duration minDelay,
+                                          @Value("${customer.service.hedge.max-delay:500ms}") Duration maxDelay,
+                                          @Value("${customer.service.retry.max-retries:2}") int maxRetries,
+                                          @Value("${customer.service.retry.backoff:20ms}") Duration backoff,
+                                          @Value("${customer.service.retry.budget-ratio:0.1}") double budgetRatio,
+                                          @Value("${customer.service.retry.budget-min:10}") int budgetMin,
+                                          MeterRegistry meterRegistry) {
+    return new HedgedRetry("customer.lookup", hedging, percentile, minDelay, maxDelay,
+          maxRetries, backoff, budgetRatio, budgetMin, meterRegistry);
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider customerConnectionProvider(
+        @Value("${customer.service.pool.max-connections:64}") int maxConnections,
+        @Value("${customer.service.pool.max-idle-time:60s}") Duration maxIdleTime) {
+    return ConnectionProvider.builder("customer-service")
+          .maxConnections(maxConnections)
+          .maxIdleTime(maxIdleTime)
+          .metrics(true)
+          .build();
+  }
+}
@@ -0,0 +1,56 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import lombok.extern.slf4j.Slf4j;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exportador a fichero: un span terminado por línea, en el JSON v2 de Zipkin.
+ * Pensado para entornos sin colector; el fichero se puede subir luego a Zipkin tal cual.
+ */
+@Slf4j
+public class FileSpanHandler extends SpanHandler implements Closeable {
+
+  private final BufferedWriter writer;
+
+  public FileSpanHandler(Path path) throws IOException {
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  @Override
+  public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+    if (cause == Cause.ABANDONED) {
+      return true;
+    }
+    String json = span.toString();
+    synchronized (writer) {
+      try {
+        writer.write(json);
+        writer.newLine();
+        writer.flush();
+      } catch (IOException ex) {
+        log.warn("Cannot write span to file: {}", ex.getMessage());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (writer) {
+      writer.close();
+    }
+  }
+}
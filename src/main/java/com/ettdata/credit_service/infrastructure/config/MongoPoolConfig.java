@@ -0,0 +1,74 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import com.mongodb.event.ConnectionReadyEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool de conexiones con Mongo: el driver mantiene abiertas al menos credit.warmup.mongo-connections
+ * (sustituye a minPoolSize de la URI, sin pasar del máximo del pool) y StartupWarmup espera a que estén listas
+ * antes de declarar lista la instancia.
+ */
+@Configuration
+@Slf4j
+public class MongoPoolConfig {
+
+  @Bean
+  public MongoPoolMonitor mongoPoolMonitor() {
+    return new MongoPoolMonitor();
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(MongoPoolMonitor mongoPoolMonitor,
+                                                                  @Value("${credit.warmup.mongo-connections:10}") int minConnections) {
+    // Se aplica después de la URI (spring.data.mongodb.uri), así que ya ve su maxPoolSize; 0 es sin límite
+    return settings -> settings.applyToConnectionPoolSettings(pool -> {
+      int maxSize = pool.build().getMaxSize();
+      int minSize = maxSize > 0 ? Math.min(minConnections, maxSize) : minConnections;
+      if (minSize < minConnections) {
+        log.warn("credit.warmup.mongo-connections={} exceeds the Mongo pool max size {}, using {}",
+              minConnections, maxSize, minSize);
+      }
+      mongoPoolMonitor.minConnections = minSize;
+      pool.minSize(minSize).addConnectionPoolListener(mongoPoolMonitor);
+    });
+  }
+
+  /**
+   * Conexiones del pool abiertas y listas para usarse, sumando las de todos los servidores.
+   * Una conexión que falla antes de estar lista también se cierra: solo se descuentan las que se contaron.
+   */
+  public static class MongoPoolMonitor implements ConnectionPoolListener {
+    private final Set<ConnectionId> open = ConcurrentHashMap.newKeySet();
+    private volatile int minConnections;
+
+    @Override
+    public void connectionReady(ConnectionReadyEvent event) {
+      open.add(event.getConnectionId());
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+      open.remove(event.getConnectionId());
+    }
+
+    public int openConnections() {
+      return open.size();
+    }
+
+    /**
+     * Mínimo del pool que se configuró en el driver: credit.warmup.mongo-connections limitado al máximo.
+     */
+    public int minConnections() {
+      return minConnections;
+    }
+  }
+}
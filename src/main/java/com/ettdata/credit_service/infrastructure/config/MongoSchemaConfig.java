@@ -0,0 +1,59 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.ettdata.credit_service.infrastructure.utils.CreditMapper;
+import org.bson.Document;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import java.util.List;
+
+/**
+ * Los créditos se convierten con CreditDocumentCodec en lugar del mapeo por reflexión de Spring.
+ * Los adaptadores leen y escriben Document con el codec; estos conversores cubren lo que aún pase
+ * por CreditEntity (repositorio Spring), que se traduce al dominio con CreditMapper.
+ */
+@Configuration
+public class MongoSchemaConfig {
+
+  @Bean
+  public MongoCustomConversions mongoCustomConversions(CreditDocumentCodec codec, CreditMapper mapper) {
+    return new MongoCustomConversions(List.of(new CreditWriter(codec, mapper), new CreditReader(codec, mapper)));
+  }
+
+  @WritingConverter
+  static class CreditWriter implements Converter<CreditEntity, Document> {
+    private final CreditDocumentCodec codec;
+    private final CreditMapper mapper;
+
+    CreditWriter(CreditDocumentCodec codec, CreditMapper mapper) {
+      this.codec = codec;
+      this.mapper = mapper;
+    }
+
+    @Override
+    public Document convert(CreditEntity source) {
+      return codec.encode(mapper.toDomain(source));
+    }
+  }
+
+  @ReadingConverter
+  static class CreditReader implements Converter<Document, CreditEntity> {
+    private final CreditDocumentCodec codec;
+    private final CreditMapper mapper;
+
+    CreditReader(CreditDocumentCodec codec, CreditMapper mapper) {
+      this.codec = codec;
+      this.mapper = mapper;
+    }
+
+    @Override
+    public CreditEntity convert(Document source) {
+      return mapper.toEntity(codec.decode(source));
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.Map;
+
+/**
+ * Jackson2CborEncoder de Spring 5.3 rechaza cualquier Publisher, incluso un Mono.
+ * Los endpoints devuelven siempre un único valor, así que se codifica con encodeValue.
+ */
+class SingleValueCborEncoder extends Jackson2CborEncoder {
+
+  SingleValueCborEncoder(ObjectMapper mapper) {
+    super(mapper, MediaType.APPLICATION_CBOR);
+  }
+
+  @Override
+  public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                 ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+    if (inputStream instanceof Mono) {
+      return Mono.from(inputStream)
+            .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+            .flux();
+    }
+    return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+  }
+}
@@ -0,0 +1,86 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide el arranque: credit.startup.time-to-ready (desde el inicio de la JVM hasta ReadinessState.ACCEPTING_TRAFFIC)
+ * y credit.startup.first-window.latency, la latencia de las peticiones reales durante la primera ventana
+ * (credit.warmup.latency-window) tras estar lista. No cuenta las sintéticas de StartupWarmup ni /actuator.
+ * Al cerrar la ventana deja en el log sus percentiles, para comparar despliegues.
+ * Sin MeterRegistry (p. ej. en tests @WebFluxTest) mide sobre uno propio.
+ */
+@Component
+@Slf4j
+public class StartupLatencyFilter implements WebFilter {
+
+  private final Duration window;
+  private final Timer firstWindow;
+  private final AtomicLong timeToReadyMillis = new AtomicLong(-1);
+  private volatile long readyAtNanos = -1;
+
+  public StartupLatencyFilter(@Value("${credit.warmup.latency-window:1m}") Duration window,
+                              ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.window = window;
+    this.firstWindow = Timer.builder("credit.startup.first-window.latency")
+          .description("Latencia de las peticiones durante la primera ventana tras estar lista")
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .register(meterRegistry);
+    TimeGauge.builder("credit.startup.time-to-ready", timeToReadyMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+          .description("Tiempo desde el inicio de la JVM hasta aceptar tráfico")
+          .register(meterRegistry);
+  }
+
+  @EventListener
+  public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+    if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || readyAtNanos >= 0) {
+      return;
+    }
+    readyAtNanos = System.nanoTime();
+    timeToReadyMillis.set(ManagementFactory.getRuntimeMXBean().getUptime());
+    log.info("Instance ready {} ms after JVM start", timeToReadyMillis.get());
+    Mono.delay(window).subscribe(tick -> logFirstWindow());
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    long start = System.nanoTime();
+    long readyAt = readyAtNanos;
+    if (readyAt < 0 || start - readyAt > window.toNanos()
+          || exchange.getRequest().getHeaders().containsKey(StartupWarmup.WARMUP_HEADER)
+          || exchange.getRequest().getPath().value().startsWith("/actuator")) {
+      return chain.filter(exchange);
+    }
+    return chain.filter(exchange)
+          .doFinally(signal -> firstWindow.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+  }
+
+  private void logFirstWindow() {
+    StringBuilder percentiles = new StringBuilder();
+    for (ValueAtPercentile value : firstWindow.takeSnapshot().percentileValues()) {
+      percentiles.append(String.format(" p%.0f=%.1fms", value.percentile() * 100, value.value(TimeUnit.MILLISECONDS)));
+    }
+    log.info("First {} s after ready: {} requests, mean {} ms, max {} ms,{}", window.getSeconds(), firstWindow.count(),
+          String.format("%.1f", firstWindow.mean(TimeUnit.MILLISECONDS)),
+          String.format("%.1f", firstWindow.max(TimeUnit.MILLISECONDS)), percentiles);
+  }
+}
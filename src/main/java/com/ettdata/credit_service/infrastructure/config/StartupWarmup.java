@@ -0,0 +1,150 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import com.ettdata.credit_service.infrastructure.adapter.CustomerWebClientAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calentamiento de arranque, antes de que la instancia se declare lista:
+ * abre credit.warmup.customer-connections conexiones con el servicio de clientes, espera a que el pool de Mongo
+ * tenga abiertas las de su mínimo (credit.warmup.mongo-connections, ver MongoPoolConfig) y recorre los caminos
+ * críticos (consulta por id y por cliente, codecs y validación de la petición de alta) con credit.warmup.requests
+ * peticiones sintéticas contra la propia instancia.
+ * <p>
+ * Spring Boot no publica ReadinessState.ACCEPTING_TRAFFIC (/actuator/health/readiness en UP) hasta que terminan
+ * los ApplicationRunner, así que el tráfico llega con las conexiones abiertas y el código ya cargado y compilado.
+ * Es de mejor esfuerzo: si algo falla o se pasa de credit.warmup.timeout, se registra y la instancia queda lista.
+ * Con credit.warmup.enabled=false (los tests lo desactivan) no se crea.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "credit.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+  /** Cabecera de las peticiones sintéticas; StartupLatencyFilter no las mide. */
+  public static final String WARMUP_HEADER = "X-Warmup";
+
+  private final ObjectProvider<CustomerWebClientAdapter> customerAdapter;
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final MongoPoolConfig.MongoPoolMonitor mongoPool;
+  private final WebClient.Builder webClientBuilder;
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+  private final int customerConnections;
+  private final int requests;
+  private final int concurrency;
+  private final Duration timeout;
+
+  public StartupWarmup(ObjectProvider<CustomerWebClientAdapter> customerAdapter,
+                       ReactiveMongoTemplate mongoTemplate,
+                       MongoPoolConfig.MongoPoolMonitor mongoPool,
+                       WebClient.Builder webClientBuilder,
+                       Environment environment,
+                       MeterRegistry meterRegistry,
+                       @Value("${credit.warmup.customer-connections:16}") int customerConnections,
+                       @Value("${credit.warmup.requests:300}") int requests,
+                       @Value("${credit.warmup.concurrency:8}") int concurrency,
+                       @Value("${credit.warmup.timeout:20s}") Duration timeout) {
+    this.customerAdapter = customerAdapter;
+    this.mongoTemplate = mongoTemplate;
+    this.mongoPool = mongoPool;
+    this.webClientBuilder = webClientBuilder;
+    this.environment = environment;
+    this.meterRegistry = meterRegistry;
+    this.customerConnections = customerConnections;
+    this.requests = requests;
+    this.concurrency = concurrency;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    long start = System.nanoTime();
+    AtomicLong customers = new AtomicLong();
+    AtomicLong synthetic = new AtomicLong();
+    Mono.when(warmCustomerService().doOnNext(customers::set), warmMongo())
+          .then(warmCodePaths(synthetic))
+          .timeout(timeout)
+          .onErrorResume(ex -> {
+            log.warn("Startup warmup incomplete: {}", ex.toString());
+            return Mono.empty();
+          })
+          .block();
+    long elapsed = System.nanoTime() - start;
+    meterRegistry.timer("credit.startup.warmup").record(elapsed, TimeUnit.NANOSECONDS);
+    log.info("Startup warmup finished in {} ms: {}/{} customer service connections, {}/{} Mongo connections, "
+                + "{} synthetic requests", TimeUnit.NANOSECONDS.toMillis(elapsed), customers.get(), customerConnections,
+          mongoPool.openConnections(), mongoPool.minConnections(), synthetic.get());
+  }
+
+  private Mono<Long> warmCustomerService() {
+    CustomerWebClientAdapter adapter = customerAdapter.getIfAvailable();
+    return adapter == null || customerConnections <= 0 ? Mono.just(0L) : adapter.warmUp(customerConnections);
+  }
+
+  /**
+   * Un ping por conexión, a la vez, y después espera a que el driver complete el mínimo del pool.
+   */
+  private Mono<Void> warmMongo() {
+    int mongoConnections = mongoPool.minConnections();
+    if (mongoConnections <= 0) {
+      return Mono.empty();
+    }
+    return Flux.range(0, mongoConnections)
+          .flatMap(i -> mongoTemplate.executeCommand("{ ping: 1 }"), mongoConnections)
+          .then(Flux.interval(Duration.ofMillis(20))
+                .filter(tick -> mongoPool.openConnections() >= mongoConnections)
+                .next()
+                .then());
+  }
+
+  /**
+   * Peticiones HTTP a la propia instancia: recorren servidor, enrutado, codecs, validación, servicio y Mongo.
+   * Ninguna escribe: consultan ids y clientes inexistentes o envían un alta vacía. El alta vacía la rechaza
+   * la validación de la petición (@Valid, 400) antes de llegar a CreditValidator y al servicio: calienta el
+   * codec y el validador de beans, no las reglas de negocio del alta.
+   * Sin servidor web (p. ej. en tests con entorno simulado) no hay nada que calentar.
+   */
+  private Mono<Void> warmCodePaths(AtomicLong completed) {
+    String port = environment.getProperty("local.server.port");
+    if (port == null || requests <= 0) {
+      return Mono.empty();
+    }
+    WebClient client = webClientBuilder.clone()
+          .baseUrl("http://localhost:" + port + "/api/credits")
+          .defaultHeader(WARMUP_HEADER, "true")
+          .build();
+    return Flux.range(0, requests)
+          .flatMap(i -> syntheticRequest(client, i)
+                .exchangeToMono(response -> response.releaseBody())
+                .doOnSuccess(done -> completed.incrementAndGet())
+                .onErrorResume(ex -> Mono.empty()), concurrency)
+          .then();
+  }
+
+  private static WebClient.RequestHeadersSpec<?> syntheticRequest(WebClient client, int i) {
+    switch (i % 3) {
+      case 0:
+        return client.get().uri("/{id}", "warmup-" + i).accept(MediaType.APPLICATION_JSON);
+      case 1:
+        return client.get().uri("/customer/{document}", "warmup-" + i).accept(MediaType.APPLICATION_JSON);
+      default:
+        return client.post().uri("/all").contentType(MediaType.APPLICATION_JSON).bodyValue("{}");
+    }
+  }
+}
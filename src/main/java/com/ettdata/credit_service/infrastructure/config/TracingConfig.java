@@ -0,0 +1,24 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Exportación de trazas.
+ * Al colector Zipkin local la envía Sleuth (spring.zipkin.enabled / spring.zipkin.base-url); si se
+ * indica credit.tracing.file.path, los spans muestreados se escriben además en ese fichero.
+ * El muestreo se configura con spring.sleuth.sampler.probability.
+ */
+@Configuration
+public class TracingConfig {
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty("credit.tracing.file.path")
+  public FileSpanHandler fileSpanHandler(@Value("${credit.tracing.file.path}") String path) throws IOException {
+    return new FileSpanHandler(Paths.get(path));
+  }
+}
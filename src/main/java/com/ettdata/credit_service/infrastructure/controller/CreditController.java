@@ -1,27 +1,57 @@
 package com.ettdata.credit_service.infrastructure.controller;
 
 import com.ettdata.credit_service.application.port.in.CreditInputPort;
+import com.ettdata.credit_service.application.port.in.CreditTransitionInputPort;
 import com.ettdata.credit_service.domain.model.CreditListResponse;
 import com.ettdata.credit_service.domain.model.CreditResponse;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditTransitionResponse;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.infrastructure.config.BinaryCodecConfig;
 import com.ettdata.credit_service.infrastructure.model.CreditRequest;
+import com.ettdata.credit_service.infrastructure.model.CreditTransitionRequest;
 import com.ettdata.credit_service.infrastructure.model.DisbursementRequest;
+import com.ettdata.credit_service.infrastructure.utils.CreditCsvWriter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import javax.validation.Valid;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
-@RequestMapping("/api/credits")
+@RequestMapping(value = "/api/credits", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      BinaryCodecConfig.APPLICATION_SMILE_VALUE})
 @CrossOrigin
 public class CreditController {
 
+  private static final String TEXT_CSV_VALUE = "text/csv";
+  private static final List<MediaType> VERSIONED_TYPES = List.of(
+        MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, BinaryCodecConfig.APPLICATION_SMILE);
+
   private final CreditInputPort creditService;
+  private final CreditCsvWriter csvWriter;
+  private final CreditTransitionInputPort transitionService;
 
-    public CreditController(CreditInputPort creditService) {
+    public CreditController(CreditInputPort creditService, CreditCsvWriter csvWriter,
+                            CreditTransitionInputPort transitionService) {
         this.creditService = creditService;
+        this.csvWriter = csvWriter;
+        this.transitionService = transitionService;
     }
 
     @PostMapping("all")
-  public Mono<ResponseEntity<CreditResponse>> create(@RequestBody CreditRequest request) {
+  public Mono<ResponseEntity<CreditResponse>> create(@Valid @RequestBody CreditRequest request) {
     return creditService.createCredit(request).map(ResponseEntity::ok);
   }
 
@@ -30,18 +60,50 @@ public class CreditController {
     return creditService.getAllCredits().map(ResponseEntity::ok);
   }
 
+  /**
+   * Exportación CSV de la cartera en streaming, con filtros opcionales por estado y tipo.
+   * Con gzip=true la respuesta va comprimida (Content-Encoding: gzip).
+   */
+  @GetMapping(value = "/export", produces = TEXT_CSV_VALUE)
+  public Mono<Void> export(@RequestParam(required = false) CreditStatus status,
+                           @RequestParam(required = false) CreditType type,
+                           @RequestParam(defaultValue = "false") boolean gzip,
+                           ServerHttpResponse response) {
+    HttpHeaders headers = response.getHeaders();
+    headers.setContentType(MediaType.parseMediaType(TEXT_CSV_VALUE + ";charset=UTF-8"));
+    headers.setContentDisposition(ContentDisposition.attachment().filename("credits.csv").build());
+    if (gzip) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.writeWith(csvWriter.write(creditService.exportCredits(status, type),
+          response.bufferFactory(), gzip));
+  }
+
   @GetMapping("/{id}")
-  public Mono<ResponseEntity<CreditResponse>> getById(@PathVariable String id) {
-    return creditService.getCreditById(id).map(ResponseEntity::ok);
+  public Mono<ResponseEntity<CreditResponse>> getById(@PathVariable String id, ServerWebExchange exchange) {
+    return conditionalGet(exchange, creditService.getCreditVersionTag(id),
+          () -> creditService.getCreditById(id));
   }
 
   @GetMapping("/customer/{document}")
-  public Mono<ResponseEntity<CreditListResponse>> getByCustomer(@PathVariable String document) {
-    return creditService.getCreditsByDocumentNumber(document).map(ResponseEntity::ok);
+  public Mono<ResponseEntity<CreditListResponse>> getByCustomer(@PathVariable String document,
+                                                                ServerWebExchange exchange) {
+    return conditionalGet(exchange, creditService.getCreditsVersionTag(document),
+          () -> creditService.getCreditsByDocumentNumber(document));
+  }
+
+  @GetMapping("/archive/{id}")
+  public Mono<ResponseEntity<CreditListResponse>> getArchivedById(@PathVariable String id) {
+    return creditService.getArchivedCreditById(id).map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/archive/customer/{document}")
+  public Mono<ResponseEntity<CreditListResponse>> getArchivedByCustomer(@PathVariable String document) {
+    return creditService.getArchivedCreditsByDocumentNumber(document).map(ResponseEntity::ok);
   }
 
   @PutMapping("/{id}")
-  public Mono<ResponseEntity<CreditResponse>> update(@PathVariable String id, @RequestBody CreditRequest request) {
+  public Mono<ResponseEntity<CreditResponse>> update(@PathVariable String id, @Valid @RequestBody CreditRequest request) {
     return creditService.updateCredit(id, request).map(ResponseEntity::ok);
   }
 
@@ -60,8 +122,57 @@ public class CreditController {
     return creditService.deleteCredit(id).map(ResponseEntity::ok);
   }
 
+  /**
+   * Cancelación, mora o baja de una lista de créditos; el resultado trae un CreditResponse por id.
+   */
+  @PostMapping("/transitions")
+  public Mono<ResponseEntity<CreditTransitionResponse>> transition(@Valid @RequestBody CreditTransitionRequest request) {
+    return transitionService.applyTransition(request).map(ResponseEntity::ok);
+  }
+
   @PostMapping("/disbursements")
-  public Mono<ResponseEntity<CreditResponse>> disburse(@RequestBody DisbursementRequest request) {
+  public Mono<ResponseEntity<CreditResponse>> disburse(@Valid @RequestBody DisbursementRequest request) {
     return creditService.disburseCredit(request).map(ResponseEntity::ok);
   }
+
+  /**
+   * GET condicional: compara If-None-Match con la etiqueta de versión antes de cargar el recurso.
+   * Si coincide responde 304 sin leer los documentos; si no hay etiqueta, lectura normal sin ETag.
+   * La etiqueta lleva el formato negociado (JSON, CBOR o Smile) y la respuesta Vary: Accept, para que
+   * una caché no valide la copia de un formato con la de otro.
+   */
+  private <T> Mono<ResponseEntity<T>> conditionalGet(ServerWebExchange exchange,
+                                                     Mono<String> versionTag,
+                                                     Supplier<Mono<T>> body) {
+    return versionTag
+          .map(Optional::of)
+          .defaultIfEmpty(Optional.empty())
+          .flatMap(tag -> {
+            if (tag.isEmpty()) {
+              return body.get().map(ResponseEntity::ok);
+            }
+            String etag = tag.get() + "-" + negotiatedType(exchange).getSubtype();
+            if (exchange.checkNotModified(etag)) {
+              return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).varyBy(HttpHeaders.ACCEPT).<T>build());
+            }
+            return body.get().map(value -> ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(value));
+          });
+  }
+
+  /**
+   * El tipo que elegirá el codec de respuesta para el Accept de la petición; JSON si no pide ninguno concreto.
+   */
+  private static MediaType negotiatedType(ServerWebExchange exchange) {
+    List<MediaType> accepted = new ArrayList<>(exchange.getRequest().getHeaders().getAccept());
+    MediaType.sortBySpecificityAndQuality(accepted);
+    for (MediaType acceptable : accepted) {
+      for (MediaType type : VERSIONED_TYPES) {
+        if (acceptable.isCompatibleWith(type)) {
+          return type;
+        }
+      }
+    }
+    return MediaType.APPLICATION_JSON;
+  }
 }
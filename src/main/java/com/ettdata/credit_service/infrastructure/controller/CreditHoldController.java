@@ -0,0 +1,56 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.application.port.in.CreditHoldInputPort;
+import com.ettdata.credit_service.domain.model.CreditHoldResponse;
+import com.ettdata.credit_service.infrastructure.config.BinaryCodecConfig;
+import com.ettdata.credit_service.infrastructure.model.CreditHoldRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import javax.validation.Valid;
+
+/**
+ * Autorizaciones de tarjeta: retener, capturar y liberar importes del disponible.
+ */
+@RestController
+@RequestMapping(value = "/api/credits/holds", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      BinaryCodecConfig.APPLICATION_SMILE_VALUE})
+@CrossOrigin
+public class CreditHoldController {
+
+  private final CreditHoldInputPort holdService;
+
+  public CreditHoldController(CreditHoldInputPort holdService) {
+    this.holdService = holdService;
+  }
+
+  @PostMapping
+  public Mono<ResponseEntity<CreditHoldResponse>> authorize(@Valid @RequestBody CreditHoldRequest request) {
+    return holdService.authorize(request).map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/{holdId}")
+  public Mono<ResponseEntity<CreditHoldResponse>> getById(@PathVariable String holdId) {
+    return holdService.getHold(holdId).map(ResponseEntity::ok);
+  }
+
+  @PostMapping("/{holdId}/capture")
+  public Mono<ResponseEntity<CreditHoldResponse>> capture(@PathVariable String holdId) {
+    return holdService.capture(holdId).map(ResponseEntity::ok);
+  }
+
+  @DeleteMapping("/{holdId}")
+  public Mono<ResponseEntity<CreditHoldResponse>> release(@PathVariable String holdId) {
+    return holdService.release(holdId).map(ResponseEntity::ok);
+  }
+}
@@ -0,0 +1,67 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.application.port.in.CreditInputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditResponse;
+import com.ettdata.credit_service.domain.model.FieldViolation;
+import com.ettdata.credit_service.infrastructure.model.CreditStreamRequest;
+import com.ettdata.credit_service.infrastructure.model.DisbursementRequest;
+import com.ettdata.credit_service.infrastructure.utils.CreditMapperResponse;
+import com.ettdata.credit_service.infrastructure.utils.RequestValidator;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Interfaz RSocket para otros microservicios: una conexión TCP persistente y multiplexada.
+ * Request-response para lecturas puntuales y desembolsos; request-stream para listados,
+ * donde la demanda del consumidor (request(n)) llega hasta el cursor de Mongo.
+ */
+@Controller
+public class CreditRSocketController {
+
+  private final CreditInputPort creditService;
+  private final RequestValidator requestValidator;
+  private final CreditMapperResponse mapperResponse;
+
+  public CreditRSocketController(CreditInputPort creditService, RequestValidator requestValidator,
+                                 CreditMapperResponse mapperResponse) {
+    this.creditService = creditService;
+    this.requestValidator = requestValidator;
+    this.mapperResponse = mapperResponse;
+  }
+
+  @MessageMapping("credits.by-id")
+  public Mono<CreditResponse> getById(String id) {
+    return creditService.getCreditById(id);
+  }
+
+  @MessageMapping("credits.disburse")
+  public Mono<CreditResponse> disburse(DisbursementRequest request) {
+    List<FieldViolation> violations = requestValidator.violations(request);
+    if (!violations.isEmpty()) {
+      return Mono.just(mapperResponse.badRequest("Invalid request: " + violations.stream()
+            .map(violation -> violation.getField() + " " + violation.getMessage())
+            .collect(Collectors.joining(", "))));
+    }
+    return creditService.disburseCredit(request);
+  }
+
+  @MessageMapping("credits.by-customer")
+  public Flux<Credit> getByCustomer(String document) {
+    return creditService.streamCreditsByDocumentNumber(document);
+  }
+
+  @MessageMapping("credits.list")
+  public Flux<Credit> list(CreditStreamRequest request) {
+    return creditService.exportCredits(request.getStatus(), request.getType());
+  }
+
+  @MessageMapping("credits.changes")
+  public Flux<Credit> changes() {
+    return creditService.watchCreditChanges();
+  }
+}
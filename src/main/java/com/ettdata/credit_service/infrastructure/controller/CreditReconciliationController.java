@@ -0,0 +1,52 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.application.port.in.CreditReconciliationInputPort;
+import com.ettdata.credit_service.domain.model.ReconciliationReportResponse;
+import com.ettdata.credit_service.infrastructure.config.BinaryCodecConfig;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping(value = "/api/credits/reconciliations", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      BinaryCodecConfig.APPLICATION_SMILE_VALUE})
+@CrossOrigin
+public class CreditReconciliationController {
+
+  private final CreditReconciliationInputPort reconciliationService;
+
+  public CreditReconciliationController(CreditReconciliationInputPort reconciliationService) {
+    this.reconciliationService = reconciliationService;
+  }
+
+  /**
+   * Lanza una pasada en segundo plano (202); 409 con el informe de la que está en curso si ya hay una.
+   */
+  @PostMapping
+  public Mono<ResponseEntity<ReconciliationReportResponse>> start(
+        @RequestParam(defaultValue = "false") boolean repair) {
+    return reconciliationService.startReconciliation(repair)
+          .map(response -> ResponseEntity.status(response.getError() == null ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(response));
+  }
+
+  /**
+   * Informe de la última pasada, en curso o terminada; 404 si aún no hubo ninguna.
+   */
+  @GetMapping("/latest")
+  public Mono<ResponseEntity<ReconciliationReportResponse>> latest() {
+    return reconciliationService.getLatestReconciliation()
+          .map(response -> response.getData() != null
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).body(response));
+  }
+}
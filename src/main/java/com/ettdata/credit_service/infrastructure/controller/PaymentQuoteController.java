@@ -0,0 +1,38 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.application.port.in.PaymentQuoteInputPort;
+import com.ettdata.credit_service.domain.model.PaymentQuoteResponse;
+import com.ettdata.credit_service.infrastructure.config.BinaryCodecConfig;
+import com.ettdata.credit_service.infrastructure.model.PaymentQuoteRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping(value = "/api/credits/quotes", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      BinaryCodecConfig.APPLICATION_SMILE_VALUE})
+@CrossOrigin
+public class PaymentQuoteController {
+
+  private final PaymentQuoteInputPort quoteService;
+
+  public PaymentQuoteController(PaymentQuoteInputPort quoteService) {
+    this.quoteService = quoteService;
+  }
+
+  /**
+   * Rejilla de cuotas mensuales para todas las combinaciones de tasa, plazo e importe pedidas.
+   */
+  @PostMapping
+  public Mono<ResponseEntity<PaymentQuoteResponse>> quote(@Valid @RequestBody PaymentQuoteRequest request) {
+    return quoteService.quote(request).map(ResponseEntity::ok);
+  }
+}
@@ -0,0 +1,49 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.application.port.in.PortfolioAnalyticsInputPort;
+import com.ettdata.credit_service.application.port.in.PortfolioExposureInputPort;
+import com.ettdata.credit_service.domain.model.PortfolioAnalyticsResponse;
+import com.ettdata.credit_service.domain.model.PortfolioExposureResponse;
+import com.ettdata.credit_service.infrastructure.config.BinaryCodecConfig;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping(value = "/api/credits/analytics", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      BinaryCodecConfig.APPLICATION_SMILE_VALUE})
+@CrossOrigin
+public class PortfolioAnalyticsController {
+
+  private final PortfolioAnalyticsInputPort analyticsService;
+  private final PortfolioExposureInputPort exposureService;
+
+  public PortfolioAnalyticsController(PortfolioAnalyticsInputPort analyticsService,
+                                      PortfolioExposureInputPort exposureService) {
+    this.analyticsService = analyticsService;
+    this.exposureService = exposureService;
+  }
+
+  @GetMapping("/portfolio")
+  public Mono<ResponseEntity<PortfolioAnalyticsResponse>> portfolio() {
+    return analyticsService.getPortfolioAnalytics().map(ResponseEntity::ok);
+  }
+
+  /**
+   * Totales en vivo por tipo y estado; 503 mientras los contadores no se hayan inicializado.
+   */
+  @GetMapping("/exposure")
+  public Mono<ResponseEntity<PortfolioExposureResponse>> exposure() {
+    return exposureService.getPortfolioExposure()
+          .map(response -> response.getData() != null
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response));
+  }
+}
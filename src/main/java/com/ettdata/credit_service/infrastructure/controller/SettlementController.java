@@ -0,0 +1,56 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.application.port.in.SettlementInputPort;
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementReportResponse;
+import com.ettdata.credit_service.infrastructure.config.BinaryCodecConfig;
+import com.ettdata.credit_service.domain.model.SettlementStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping(value = "/api/credits/settlements", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      BinaryCodecConfig.APPLICATION_SMILE_VALUE})
+@CrossOrigin
+public class SettlementController {
+
+  private final SettlementInputPort settlementService;
+
+  public SettlementController(SettlementInputPort settlementService) {
+    this.settlementService = settlementService;
+  }
+
+  /**
+   * Ingesta de un fichero de liquidación enviado como cuerpo de texto; se lee línea a línea.
+   * Reenviar el mismo fileId reanuda una ingesta interrumpida; 409 si otra petición lo está ingiriendo
+   * o si otro fichero sin completar tiene el turno de ingesta (data es entonces el informe de ese otro fichero).
+   */
+  @PostMapping(value = "/{fileId}", consumes = {MediaType.TEXT_PLAIN_VALUE, "text/csv"})
+  public Mono<ResponseEntity<SettlementReportResponse>> ingest(@PathVariable String fileId,
+                                                               @RequestParam(defaultValue = "CSV") SettlementFormat format,
+                                                               @RequestBody Flux<String> lines) {
+    return settlementService.ingestSettlement(fileId, format, lines)
+          .map(response -> response.getData() != null && (response.getData().getStatus() == SettlementStatus.RUNNING
+                || !fileId.equals(response.getData().getFileId()))
+                ? ResponseEntity.status(HttpStatus.CONFLICT).body(response)
+                : ResponseEntity.ok(response));
+  }
+
+  @GetMapping("/{fileId}")
+  public Mono<ResponseEntity<SettlementReportResponse>> report(@PathVariable String fileId) {
+    return settlementService.getSettlementReport(fileId).map(ResponseEntity::ok);
+  }
+}
@@ -0,0 +1,41 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.domain.model.FieldViolation;
+import com.ettdata.credit_service.domain.model.ValidationErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Peticiones rechazadas al leer el cuerpo (@Valid o JSON ilegible): 400 con el detalle por campo.
+ * Se resuelven antes de entrar al controlador, sin llamadas a otros servicios ni al repositorio.
+ */
+@Slf4j
+@RestControllerAdvice
+public class ValidationExceptionHandler {
+
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<ValidationErrorResponse> invalidBody(WebExchangeBindException ex) {
+    List<FieldViolation> errors = ex.getFieldErrors().stream()
+          .map(error -> new FieldViolation(error.getField(), error.getDefaultMessage()))
+          .sorted(Comparator.comparing(FieldViolation::getField))
+          .collect(Collectors.toList());
+    log.debug("Request rejected by validation: {}", errors);
+    return ResponseEntity.badRequest()
+          .body(new ValidationErrorResponse(HttpStatus.BAD_REQUEST.value(), "Invalid request", errors));
+  }
+
+  @ExceptionHandler(ServerWebInputException.class)
+  public ResponseEntity<ValidationErrorResponse> unreadableBody(ServerWebInputException ex) {
+    log.debug("Unreadable request: {}", ex.getReason());
+    return ResponseEntity.badRequest()
+          .body(new ValidationErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getReason(), List.of()));
+  }
+}
@@ -7,13 +7,25 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * Crédito en Mongo. El documento lo escribe y lee CreditDocumentCodec (esquema v2, nombres cortos);
+ * los índices se declaran sobre esos nombres.
+ */
 @Data
 @Document(collection = "credits")
+@CompoundIndexes({
+      @CompoundIndex(name = "n", def = "{'n': 1}"),
+      @CompoundIndex(name = "ua", def = "{'ua': 1}"),
+      @CompoundIndex(name = "o_c", def = "{'o': 1, 'c': 1}", partialFilter = "{'o': true}")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -34,4 +46,9 @@ public class CreditEntity {
   private CreditStatus status;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
+  @Version
+  private Long version;
+  private String lastSettlementFile;
+  private Long lastSettlementLine;
+  private String lastCapturedHold;
 }
@@ -0,0 +1,33 @@
+package com.ettdata.credit_service.infrastructure.entity;
+
+import com.ettdata.credit_service.domain.model.CreditHoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "credit_holds")
+@CompoundIndexes({
+      @CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}"),
+      @CompoundIndex(name = "creditId", def = "{'creditId': 1}")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreditHoldEntity {
+  @Id
+  private String holdId;
+  private String creditId;
+  private BigDecimal amount;
+  private CreditHoldStatus status;
+  private LocalDateTime createdAt;
+  private LocalDateTime expiresAt;
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,40 @@
+package com.ettdata.credit_service.infrastructure.entity;
+
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementReject;
+import com.ettdata.credit_service.domain.model.SettlementStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Document(collection = "settlement_files")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementFileEntity {
+  @Id
+  private String fileId;
+  private SettlementFormat format;
+  private SettlementStatus status;
+  private long committedLine;
+  private long resumedFromLine;
+  private long records;
+  private long applied;
+  private long rejected;
+  private BigDecimal appliedAmount;
+  private List<SettlementReject> rejects;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+  private long durationMs;
+  private double recordsPerSecond;
+  private String error;
+  private String claimId;
+  private LocalDateTime heartbeatAt;
+}
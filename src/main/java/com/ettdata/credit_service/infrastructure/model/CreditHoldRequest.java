@@ -0,0 +1,30 @@
+package com.ettdata.credit_service.infrastructure.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditHoldRequest {
+  @NotBlank(message = "El crédito no puede estar vacío")
+  private String creditId;
+
+  @NotNull(message = "El monto no puede estar vacío")
+  @DecimalMin(value = "0.01", message = "El monto debe ser mayor que cero")
+  private BigDecimal amount;
+
+  /**
+   * Vigencia de la retención; sin valor se usa credit.hold.ttl.
+   */
+  @Min(value = 1, message = "La vigencia debe ser de al menos un segundo")
+  private Long ttlSeconds;
+}
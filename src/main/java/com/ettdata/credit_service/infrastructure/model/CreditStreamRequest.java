@@ -0,0 +1,18 @@
+package com.ettdata.credit_service.infrastructure.model;
+
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filtros opcionales del listado en streaming por RSocket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditStreamRequest {
+  private CreditStatus status;
+  private CreditType type;
+}
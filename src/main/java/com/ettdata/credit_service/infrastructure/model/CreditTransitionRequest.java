@@ -0,0 +1,25 @@
+package com.ettdata.credit_service.infrastructure.model;
+
+import com.ettdata.credit_service.domain.model.CreditTransition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditTransitionRequest {
+  @NotNull(message = "La transición no puede estar vacía")
+  private CreditTransition transition;
+
+  @NotEmpty(message = "La lista de créditos no puede estar vacía")
+  @Size(max = 5000, message = "No se pueden procesar más de 5000 créditos por petición")
+  private List<@NotBlank(message = "El crédito no puede estar vacío") String> creditIds;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
 
@@ -11,6 +12,7 @@ import java.math.BigDecimal;
 @Builder
 @AllArgsConstructor
 public class DisbursementRequest {
+  @NotBlank(message = "El crédito no puede estar vacío")
   private String creditId;
 
   @NotNull(message = "El monto no puede estar vacío")
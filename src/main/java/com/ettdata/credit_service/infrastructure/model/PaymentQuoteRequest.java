@@ -0,0 +1,41 @@
+package com.ettdata.credit_service.infrastructure.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Tasas, plazos e importes a combinar; mismos límites que CreditRequest.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentQuoteRequest {
+  @NotEmpty(message = "Interest rates are required")
+  @Size(max = 100, message = "No more than 100 interest rates per quote")
+  private List<@NotNull(message = "Interest rate is required")
+  @DecimalMin(value = "0.0", message = "Interest rate must be 0 or greater")
+  @DecimalMax(value = "1.0", message = "Interest rate must be between 0 and 1") BigDecimal> interestRates;
+
+  @NotEmpty(message = "Terms are required")
+  @Size(max = 60, message = "No more than 60 terms per quote")
+  private List<@NotNull(message = "Term in months is required")
+  @Min(value = 1, message = "Term must be at least 1 month")
+  @Max(value = 360, message = "Term cannot exceed 360 months") Integer> termsMonths;
+
+  @NotEmpty(message = "Amounts are required")
+  @Size(max = 20, message = "No more than 20 amounts per quote")
+  private List<@NotNull(message = "Amount is required")
+  @DecimalMin(value = "0.01", message = "Amount must be greater than zero") BigDecimal> amounts;
+}
@@ -2,8 +2,10 @@ package com.ettdata.credit_service.infrastructure.repository;
 
 import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
-import reactor.core.publisher.Flux;
 
+/**
+ * Acceso por id. Las consultas por campo van por ReactiveMongoTemplate con los filtros de
+ * CreditDocumentCodec, que conocen los dos formatos del documento.
+ */
 public interface CreditRepository extends ReactiveMongoRepository<CreditEntity, String> {
-    Flux<CreditEntity> findByCustomerDocument(String customerDocument);
 }
@@ -0,0 +1,198 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe créditos como CSV directamente en DataBuffers del servidor (pool de Netty).
+ * Agrupa las filas en bloques: cada bloque es un buffer que se envía en cuanto se llena,
+ * así la memoria usada no depende del tamaño de la colección.
+ */
+@Component
+public class CreditCsvWriter {
+
+  private static final String HEADER = "id,creditNumber,customerDocument,type,status,creditLimit,currentDebt,"
+        + "availableCredit,interestRate,termMonths,monthlyPayment,dueDate,hasOverdueDebt,createdAt,updatedAt\n";
+  private static final int ESTIMATED_ROW_BYTES = 256;
+
+  private final int rowsPerChunk;
+
+  public CreditCsvWriter(@Value("${credit.export.rows-per-chunk:500}") int rowsPerChunk) {
+    this.rowsPerChunk = rowsPerChunk;
+  }
+
+  /**
+   * @param gzip comprime el flujo (un único stream gzip repartido entre los buffers)
+   */
+  public Flux<DataBuffer> write(Flux<Credit> credits, DataBufferFactory bufferFactory, boolean gzip) {
+    return Flux.using(
+          () -> new ChunkEncoder(bufferFactory, gzip),
+          encoder -> Flux.concat(
+                Mono.fromCallable(encoder::header),
+                credits.buffer(rowsPerChunk).map(encoder::rows),
+                Mono.fromCallable(encoder::finish)),
+          ChunkEncoder::close);
+  }
+
+  /**
+   * Estado de codificación de una exportación. Lo usa una sola suscripción, en secuencia.
+   */
+  private static final class ChunkEncoder {
+    private final DataBufferFactory bufferFactory;
+    private final boolean compress;
+    private final BufferSink sink = new BufferSink();
+    private final StringBuilder row = new StringBuilder(ESTIMATED_ROW_BYTES);
+    private GZIPOutputStream gzip;
+    private Writer writer;
+
+    ChunkEncoder(DataBufferFactory bufferFactory, boolean compress) {
+      this.bufferFactory = bufferFactory;
+      this.compress = compress;
+    }
+
+    /**
+     * Primer bloque. Los streams se crean aquí para que la cabecera gzip caiga en este buffer.
+     */
+    DataBuffer header() {
+      return encode(HEADER.length() + 16, () -> {
+        gzip = compress ? new GZIPOutputStream(sink, true) : null;
+        writer = new OutputStreamWriter(gzip != null ? gzip : sink, StandardCharsets.UTF_8);
+        writer.write(HEADER);
+      });
+    }
+
+    DataBuffer rows(List<Credit> credits) {
+      return encode(credits.size() * ESTIMATED_ROW_BYTES, () -> {
+        for (Credit credit : credits) {
+          row.setLength(0);
+          appendRow(credit);
+          writer.append(row);
+        }
+      });
+    }
+
+    /**
+     * Cola del stream gzip; sin gzip no hay nada que enviar (Mono vacío).
+     */
+    DataBuffer finish() {
+      if (gzip == null) {
+        return null;
+      }
+      return encode(64, () -> gzip.finish());
+    }
+
+    void close() {
+      sink.release();
+      if (writer == null) {
+        return;
+      }
+      try {
+        writer.close();
+      } catch (IOException ex) {
+        // Exportación cancelada o fallida: solo se liberan recursos
+      }
+    }
+
+    private DataBuffer encode(int capacity, IoAction action) {
+      DataBuffer buffer = bufferFactory.allocateBuffer(capacity);
+      sink.target(buffer);
+      try {
+        action.run();
+        writer.flush();
+        sink.detach();
+        return buffer;
+      } catch (IOException ex) {
+        sink.release();
+        throw new UncheckedIOException(ex);
+      } catch (RuntimeException ex) {
+        sink.release();
+        throw ex;
+      }
+    }
+
+    private void appendRow(Credit credit) {
+      field(credit.getId()).append(',');
+      field(credit.getCreditNumber()).append(',');
+      field(credit.getCustomerDocument()).append(',');
+      field(credit.getType()).append(',');
+      field(credit.getStatus()).append(',');
+      field(credit.getCreditLimit()).append(',');
+      field(credit.getCurrentDebt()).append(',');
+      field(credit.getAvailableCredit()).append(',');
+      field(credit.getInterestRate()).append(',');
+      field(credit.getTermMonths()).append(',');
+      field(credit.getMonthlyPayment()).append(',');
+      field(credit.getDueDate()).append(',');
+      field(credit.getHasOverdueDebt()).append(',');
+      field(credit.getCreatedAt()).append(',');
+      field(credit.getUpdatedAt()).append('\n');
+    }
+
+    private StringBuilder field(Object value) {
+      if (value == null) {
+        return row;
+      }
+      String text = value.toString();
+      if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+        return row.append(text);
+      }
+      return row.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+  }
+
+  /**
+   * OutputStream que escribe en el DataBuffer del bloque en curso.
+   * Sin bloque en curso (cierre tras cancelar) descarta los bytes.
+   */
+  private static final class BufferSink extends OutputStream {
+    private DataBuffer current;
+
+    void target(DataBuffer buffer) {
+      this.current = buffer;
+    }
+
+    void detach() {
+      this.current = null;
+    }
+
+    void release() {
+      if (current != null) {
+        DataBufferUtils.release(current);
+        current = null;
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      if (current != null) {
+        current.write((byte) b);
+      }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      if (current != null) {
+        current.write(bytes, offset, length);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface IoAction {
+    void run() throws IOException;
+  }
+}
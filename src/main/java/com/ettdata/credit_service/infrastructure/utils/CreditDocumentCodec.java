@@ -0,0 +1,390 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.CreditVersion;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * Formato en Mongo de los créditos, con versión de esquema en el campo sv.
+ * <p>
+ * v2 (el que se escribe): nombres de campo cortos, importes y tasa en Decimal128, tipo y estado como
+ * códigos enteros fijos y sin el disponible cuando es límite - deuda, que es lo habitual. Sin _class.
+ * v1 (documentos sin sv): el mapeo por defecto de Spring, nombres largos, BigDecimal como string y enums
+ * por nombre. Se siguen leyendo; cualquier escritura los deja en v2 y {@code CreditSchemaUpgrader} migra
+ * el resto en segundo plano.
+ * <p>
+ * Mientras queden documentos v1, los filtros comprueban los dos formatos; cuando la migración termina
+ * solo el v2, que es el que tiene los índices nuevos.
+ * <p>
+ * Lee y escribe directamente el modelo de dominio: los adaptadores consultan Document y no pasan por
+ * CreditEntity ni por el mapeo por reflexión de Spring.
+ */
+@Component
+public class CreditDocumentCodec {
+
+  public static final int CURRENT_SCHEMA = 2;
+
+  public static final String ID = "_id";
+  public static final String SCHEMA = "sv";
+  public static final String NUMBER = "n";
+  public static final String CUSTOMER = "c";
+  public static final String TYPE = "t";
+  public static final String LIMIT = "l";
+  public static final String DEBT = "d";
+  public static final String AVAILABLE = "a";
+  public static final String RATE = "r";
+  public static final String TERM = "m";
+  public static final String PAYMENT = "p";
+  public static final String DUE_DATE = "dd";
+  public static final String OVERDUE_DEBT = "o";
+  public static final String STATUS = "s";
+  public static final String CREATED = "ca";
+  public static final String UPDATED = "ua";
+  public static final String VERSION = "v";
+  public static final String SETTLEMENT_FILE = "sf";
+  public static final String SETTLEMENT_LINE = "sl";
+  public static final String CAPTURED_HOLD = "ch";
+
+  /** Campos v1: los nombres de las propiedades de CreditEntity con el mapeo por defecto. */
+  public static final String LEGACY_NUMBER = "creditNumber";
+  public static final String LEGACY_CUSTOMER = "customerDocument";
+  public static final String LEGACY_TYPE = "type";
+  public static final String LEGACY_LIMIT = "creditLimit";
+  public static final String LEGACY_DEBT = "currentDebt";
+  public static final String LEGACY_AVAILABLE = "availableCredit";
+  public static final String LEGACY_OVERDUE_DEBT = "hasOverdueDebt";
+  public static final String LEGACY_STATUS = "status";
+  public static final String LEGACY_UPDATED = "updatedAt";
+  public static final String LEGACY_VERSION = "version";
+
+  /** Código en disco = posición en el array. Solo se añaden valores al final; nunca se reordena. */
+  private static final CreditType[] TYPE_CODES = {
+        null, CreditType.PERSONAL, CreditType.BUSINESS, CreditType.CREDIT_CARD};
+  private static final CreditStatus[] STATUS_CODES = {
+        null, CreditStatus.ACTIVE, CreditStatus.CANCELLED, CreditStatus.OVERDUE, CreditStatus.INACTIVE,
+        CreditStatus.APPROVED, CreditStatus.REJECTED};
+
+  private static final ZoneId ZONE = ZoneId.systemDefault();
+
+  private volatile boolean legacyDocuments = true;
+
+  // ==================== ESCRITURA ====================
+
+  public Document encode(Credit credit) {
+    // Sin id lo genera Mongo al insertar, como hacía Spring
+    Document document = new Document();
+    put(document, ID, id(credit.getId()));
+    document.append(SCHEMA, CURRENT_SCHEMA);
+    put(document, NUMBER, credit.getCreditNumber());
+    put(document, CUSTOMER, credit.getCustomerDocument());
+    put(document, TYPE, code(TYPE_CODES, credit.getType()));
+    put(document, LIMIT, decimal128(credit.getCreditLimit()));
+    put(document, DEBT, decimal128(credit.getCurrentDebt()));
+    if (!isDerivedAvailable(credit)) {
+      put(document, AVAILABLE, decimal128(credit.getAvailableCredit()));
+    }
+    put(document, RATE, decimal128(credit.getInterestRate()));
+    put(document, TERM, credit.getTermMonths());
+    put(document, PAYMENT, decimal128(credit.getMonthlyPayment()));
+    put(document, DUE_DATE, credit.getDueDate() != null
+          ? Date.from(credit.getDueDate().atStartOfDay(ZONE).toInstant())
+          : null);
+    put(document, OVERDUE_DEBT, credit.getHasOverdueDebt());
+    put(document, STATUS, code(STATUS_CODES, credit.getStatus()));
+    put(document, CREATED, date(credit.getCreatedAt()));
+    put(document, UPDATED, date(credit.getUpdatedAt()));
+    // Los v1 sin versión equivalen a la 0; en v2 siempre está
+    document.append(VERSION, credit.getVersion() != null ? credit.getVersion() : 0L);
+    put(document, SETTLEMENT_FILE, credit.getLastSettlementFile());
+    put(document, SETTLEMENT_LINE, credit.getLastSettlementLine());
+    put(document, CAPTURED_HOLD, credit.getLastCapturedHold());
+    return document;
+  }
+
+  /**
+   * El disponible solo se guarda si no es exactamente límite - deuda (mismo valor y escala).
+   */
+  private static boolean isDerivedAvailable(Credit credit) {
+    return credit.getAvailableCredit() == null
+          || (credit.getCreditLimit() != null && credit.getCurrentDebt() != null
+          && credit.getAvailableCredit().equals(credit.getCreditLimit().subtract(credit.getCurrentDebt())));
+  }
+
+  // ==================== LECTURA ====================
+
+  /**
+   * Lee un documento completo o una proyección, en cualquiera de los dos formatos.
+   */
+  public Credit decode(Document document) {
+    return isCurrent(document) ? decodeCurrent(document) : decodeLegacy(document);
+  }
+
+  /**
+   * Id y fecha de modificación de un documento completo o de la proyección sv + ua + updatedAt.
+   */
+  public CreditVersion decodeVersion(Document document) {
+    return new CreditVersion(id(document.get(ID)),
+          toLocalDateTime(document.get(isCurrent(document) ? UPDATED : LEGACY_UPDATED)));
+  }
+
+  public static boolean isCurrent(Document document) {
+    return document.get(SCHEMA) != null;
+  }
+
+  private Credit decodeCurrent(Document document) {
+    BigDecimal limit = toBigDecimal(document.get(LIMIT));
+    BigDecimal debt = toBigDecimal(document.get(DEBT));
+    BigDecimal available = toBigDecimal(document.get(AVAILABLE));
+    if (available == null && limit != null && debt != null) {
+      available = limit.subtract(debt);
+    }
+    return Credit.builder()
+          .id(id(document.get(ID)))
+          .creditNumber(document.getString(NUMBER))
+          .customerDocument(document.getString(CUSTOMER))
+          .type(fromCode(TYPE_CODES, document.get(TYPE)))
+          .creditLimit(limit)
+          .currentDebt(debt)
+          .availableCredit(available)
+          .interestRate(toBigDecimal(document.get(RATE)))
+          .termMonths(toInteger(document.get(TERM)))
+          .monthlyPayment(toBigDecimal(document.get(PAYMENT)))
+          .dueDate(toLocalDate(document.get(DUE_DATE)))
+          .hasOverdueDebt(document.getBoolean(OVERDUE_DEBT))
+          .status(fromCode(STATUS_CODES, document.get(STATUS)))
+          .createdAt(toLocalDateTime(document.get(CREATED)))
+          .updatedAt(toLocalDateTime(document.get(UPDATED)))
+          .version(toLong(document.get(VERSION)))
+          .lastSettlementFile(document.getString(SETTLEMENT_FILE))
+          .lastSettlementLine(toLong(document.get(SETTLEMENT_LINE)))
+          .lastCapturedHold(document.getString(CAPTURED_HOLD))
+          .build();
+  }
+
+  private Credit decodeLegacy(Document document) {
+    Long version = toLong(document.get(LEGACY_VERSION));
+    return Credit.builder()
+          .id(id(document.get(ID)))
+          .creditNumber(document.getString(LEGACY_NUMBER))
+          .customerDocument(document.getString(LEGACY_CUSTOMER))
+          .type(fromName(CreditType.class, document.get(LEGACY_TYPE)))
+          .creditLimit(toBigDecimal(document.get(LEGACY_LIMIT)))
+          .currentDebt(toBigDecimal(document.get(LEGACY_DEBT)))
+          .availableCredit(toBigDecimal(document.get(LEGACY_AVAILABLE)))
+          .interestRate(toBigDecimal(document.get("interestRate")))
+          .termMonths(toInteger(document.get("termMonths")))
+          .monthlyPayment(toBigDecimal(document.get("monthlyPayment")))
+          .dueDate(toLocalDate(document.get("dueDate")))
+          .hasOverdueDebt(document.getBoolean(LEGACY_OVERDUE_DEBT))
+          .status(fromName(CreditStatus.class, document.get(LEGACY_STATUS)))
+          .createdAt(toLocalDateTime(document.get("createdAt")))
+          .updatedAt(toLocalDateTime(document.get(LEGACY_UPDATED)))
+          // Documentos anteriores al control de versiones se tratan como versión 0
+          .version(version != null ? version : 0L)
+          .lastSettlementFile(document.getString("lastSettlementFile"))
+          .lastSettlementLine(toLong(document.get("lastSettlementLine")))
+          .lastCapturedHold(document.getString("lastCapturedHold"))
+          .build();
+  }
+
+  /**
+   * Tipo guardado en cualquiera de los dos formatos (código o nombre); null si no es válido.
+   */
+  public static CreditType typeOf(Object stored) {
+    return stored instanceof Number ? fromCode(TYPE_CODES, stored) : parseName(CreditType.class, stored);
+  }
+
+  /**
+   * Estado guardado en cualquiera de los dos formatos (código o nombre); null si no es válido.
+   */
+  public static CreditStatus statusOf(Object stored) {
+    return stored instanceof Number ? fromCode(STATUS_CODES, stored) : parseName(CreditStatus.class, stored);
+  }
+
+  // ==================== FILTROS ====================
+
+  public boolean hasLegacyDocuments() {
+    return legacyDocuments;
+  }
+
+  /**
+   * La migración no dejó documentos v1: los filtros dejan de comprobarlos.
+   */
+  public void legacyDocumentsUpgraded() {
+    legacyDocuments = false;
+  }
+
+  public Criteria legacy() {
+    return Criteria.where(SCHEMA).exists(false);
+  }
+
+  public Criteria customerIs(String customerDocument) {
+    return either(Criteria.where(CUSTOMER).is(customerDocument),
+          () -> Criteria.where(LEGACY_CUSTOMER).is(customerDocument));
+  }
+
+  public Criteria creditNumberIn(Collection<String> creditNumbers) {
+    return either(Criteria.where(NUMBER).in(creditNumbers),
+          () -> Criteria.where(LEGACY_NUMBER).in(creditNumbers));
+  }
+
+  public Criteria typeIs(CreditType type) {
+    return either(Criteria.where(TYPE).is(code(TYPE_CODES, type)),
+          () -> Criteria.where(LEGACY_TYPE).is(type.name()));
+  }
+
+  public Criteria statusIn(CreditStatus... statuses) {
+    Object[] codes = Arrays.stream(statuses).map(status -> code(STATUS_CODES, status)).toArray();
+    Object[] names = Arrays.stream(statuses).map(Enum::name).toArray();
+    return either(Criteria.where(STATUS).in(codes), () -> Criteria.where(LEGACY_STATUS).in(names));
+  }
+
+  public Criteria hasOverdueDebt() {
+    return either(Criteria.where(OVERDUE_DEBT).is(true), () -> Criteria.where(LEGACY_OVERDUE_DEBT).is(true));
+  }
+
+  /**
+   * Créditos con saldo vivo: activos, vencidos o con deuda vencida marcada.
+   */
+  public Criteria open() {
+    return new Criteria().orOperator(statusIn(CreditStatus.ACTIVE, CreditStatus.OVERDUE), hasOverdueDebt());
+  }
+
+  public Criteria updatedAfter(LocalDateTime updatedAt) {
+    Date date = date(updatedAt);
+    return either(Criteria.where(UPDATED).gt(date), () -> Criteria.where(LEGACY_UPDATED).gt(date));
+  }
+
+  public Criteria updatedBefore(LocalDateTime updatedAt) {
+    Date date = date(updatedAt);
+    return either(Criteria.where(UPDATED).lt(date), () -> Criteria.where(LEGACY_UPDATED).lt(date));
+  }
+
+  /**
+   * Documento en la versión indicada; la 0 incluye los v1 anteriores al control de versiones.
+   */
+  public Criteria versionIs(long version) {
+    return either(Criteria.where(VERSION).is(version), () -> version == 0
+          ? legacy().orOperator(Criteria.where(LEGACY_VERSION).is(0L), Criteria.where(LEGACY_VERSION).exists(false))
+          : Criteria.where(LEGACY_VERSION).is(version));
+  }
+
+  /**
+   * Mismo formato y misma versión que el documento leído: no ha cambiado desde entonces.
+   */
+  public Criteria unchangedSince(Document document) {
+    Criteria criteria = Criteria.where(ID).is(document.get(ID));
+    if (isCurrent(document)) {
+      return criteria.and(VERSION).is(document.get(VERSION));
+    }
+    Object version = document.get(LEGACY_VERSION);
+    Criteria legacyVersion = criteria.and(SCHEMA).exists(false).and(LEGACY_VERSION);
+    return version != null ? legacyVersion.is(version) : legacyVersion.exists(false);
+  }
+
+  private Criteria either(Criteria current, Supplier<Criteria> legacy) {
+    return legacyDocuments ? new Criteria().orOperator(current, legacy.get()) : current;
+  }
+
+  // ==================== CONVERSIONES ====================
+
+  /**
+   * Como Spring: un id String con forma de ObjectId se guarda como ObjectId.
+   */
+  private static Object id(String id) {
+    return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+  }
+
+  private static String id(Object value) {
+    return value != null ? value.toString() : null;
+  }
+
+  private static void put(Document document, String key, Object value) {
+    if (value != null) {
+      document.append(key, value);
+    }
+  }
+
+  private static <E extends Enum<E>> Integer code(E[] codes, E value) {
+    if (value == null) {
+      return null;
+    }
+    for (int code = 1; code < codes.length; code++) {
+      if (codes[code] == value) {
+        return code;
+      }
+    }
+    throw new IllegalArgumentException("No storage code for " + value.getDeclaringClass().getSimpleName() + "." + value);
+  }
+
+  private static <E extends Enum<E>> E fromCode(E[] codes, Object value) {
+    if (!(value instanceof Number)) {
+      return null;
+    }
+    int code = ((Number) value).intValue();
+    return code > 0 && code < codes.length ? codes[code] : null;
+  }
+
+  private static <E extends Enum<E>> E fromName(Class<E> type, Object value) {
+    return value != null ? Enum.valueOf(type, value.toString()) : null;
+  }
+
+  private static <E extends Enum<E>> E parseName(Class<E> type, Object value) {
+    try {
+      return fromName(type, value);
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  private static Decimal128 decimal128(BigDecimal value) {
+    return value != null ? new Decimal128(value) : null;
+  }
+
+  private static BigDecimal toBigDecimal(Object value) {
+    if (value instanceof Decimal128) {
+      return ((Decimal128) value).bigDecimalValue();
+    }
+    if (value instanceof String) {
+      return new BigDecimal((String) value);
+    }
+    if (value instanceof Number) {
+      return new BigDecimal(value.toString());
+    }
+    return null;
+  }
+
+  private static Integer toInteger(Object value) {
+    return value instanceof Number ? ((Number) value).intValue() : null;
+  }
+
+  private static Long toLong(Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : null;
+  }
+
+  private static Date date(LocalDateTime value) {
+    return value != null ? Date.from(value.atZone(ZONE).toInstant()) : null;
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    return value instanceof Date ? LocalDateTime.ofInstant(((Date) value).toInstant(), ZONE) : null;
+  }
+
+  private static LocalDate toLocalDate(Object value) {
+    return value instanceof Date ? LocalDateTime.ofInstant(((Date) value).toInstant(), ZONE).toLocalDate() : null;
+  }
+}
@@ -0,0 +1,236 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import com.ettdata.credit_service.domain.error.InsufficientCreditException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditHold;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Importes reservados por crédito: retenciones autorizadas y cargos que se están guardando.
+ * Un cargo o una retención nueva solo cabe si el disponible leído menos lo ya reservado alcanza; la
+ * comprobación y la reserva son atómicas por crédito (compute del mapa), sin bloquear a otros créditos.
+ * <p>
+ * Cada cargo guardado anota su versión: una lectura anterior a él ve un disponible que ya no existe, y
+ * se rechaza como conflicto de versión para que el flujo vuelva a leer. Supone, como la capa caliente,
+ * una sola instancia que escribe cargos.
+ * <p>
+ * Las retenciones vigentes se indexan también por vencimiento para barrerlas por orden. Al arrancar se
+ * recuperan del registro durable; reservas y cargos esperan a que termine esa carga.
+ */
+@Component
+@Slf4j
+public class CreditHoldLedger {
+  private static final Duration MAX_CACHE = Duration.ofMillis(Long.MAX_VALUE);
+
+  private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+  private final Map<String, CreditHold> holds = new ConcurrentHashMap<>();
+  private final NavigableSet<Expiry> expiries = new ConcurrentSkipListSet<>();
+  private volatile Mono<Void> restored = Mono.empty();
+
+  public CreditHoldLedger(MeterRegistry meterRegistry) {
+    meterRegistry.gaugeMapSize("credit.holds.active", Tags.empty(), holds);
+  }
+
+  /**
+   * Carga las retenciones autorizadas del registro durable. Si falla, se reintenta en la siguiente
+   * operación que la espere.
+   */
+  public void restoreFrom(Flux<CreditHold> authorized) {
+    restored = authorized
+          .doOnNext(this::restore)
+          .then()
+          .cache(value -> MAX_CACHE, error -> Duration.ZERO, () -> MAX_CACHE);
+    restored.subscribe(null, error -> log.warn("Credit holds not restored yet: {}", error.getMessage()));
+  }
+
+  public Mono<Void> whenRestored() {
+    return restored;
+  }
+
+  public BigDecimal held(String creditId) {
+    Account account = accounts.get(creditId);
+    return account == null ? BigDecimal.ZERO : account.held;
+  }
+
+  /**
+   * Reserva el importe sobre el crédito tal como se leyó.
+   *
+   * @throws CreditVersionConflictException si se leyó antes del último cargo guardado
+   * @throws InsufficientCreditException    si el disponible menos lo reservado no alcanza
+   */
+  public void reserve(Credit credit, BigDecimal amount) {
+    accounts.compute(credit.getId(), (id, current) -> {
+      Account account = current != null ? current : new Account();
+      checkFresh(credit, account);
+      if (credit.getAvailableCredit().subtract(account.held).compareTo(amount) < 0) {
+        throw new InsufficientCreditException("Insufficient available credit");
+      }
+      account.held = account.held.add(amount);
+      return account;
+    });
+  }
+
+  public void release(String creditId, BigDecimal amount) {
+    accounts.computeIfPresent(creditId, (id, account) -> {
+      account.held = account.held.subtract(amount);
+      return account;
+    });
+  }
+
+  /**
+   * El cargo quedó guardado: el importe deja de estar reservado porque ya está descontado del disponible.
+   */
+  public void booked(Credit saved, BigDecimal amount) {
+    accounts.compute(saved.getId(), (id, current) -> {
+      Account account = current != null ? current : new Account();
+      account.held = account.held.subtract(amount);
+      account.bookedVersion = Math.max(account.bookedVersion, version(saved));
+      return account;
+    });
+  }
+
+  /**
+   * Reserva el importe mientras se guarda el cargo; si el guardado falla o se cancela, lo devuelve.
+   */
+  public Mono<Credit> debit(Credit credit, BigDecimal amount, Mono<Credit> write) {
+    return restored.then(Mono.defer(() -> {
+      reserve(credit, amount);
+      AtomicBoolean settled = new AtomicBoolean();
+      return write
+            .doOnNext(saved -> {
+              if (settled.compareAndSet(false, true)) {
+                booked(saved, amount);
+              }
+            })
+            .doFinally(signal -> {
+              if (settled.compareAndSet(false, true)) {
+                release(credit.getId(), amount);
+              }
+            });
+    }));
+  }
+
+  /**
+   * Retención ya reservada con reserve (o recuperada al arrancar con restore) que pasa a estar vigente.
+   */
+  public void add(CreditHold hold) {
+    holds.put(hold.getHoldId(), hold);
+    expiries.add(new Expiry(hold));
+  }
+
+  /**
+   * Retención autorizada leída del registro durable: se reserva sin comprobar el disponible.
+   */
+  private void restore(CreditHold hold) {
+    if (holds.containsKey(hold.getHoldId())) {
+      return;
+    }
+    accounts.compute(hold.getCreditId(), (id, current) -> {
+      Account account = current != null ? current : new Account();
+      account.held = account.held.add(hold.getAmount());
+      return account;
+    });
+    add(hold);
+  }
+
+  /**
+   * Saca la retención de las vigentes para capturarla, liberarla o vencerla; su importe sigue reservado
+   * hasta release o booked. Solo un llamador la obtiene.
+   *
+   * @return la retención, o null si no está vigente
+   */
+  public CreditHold claim(String holdId) {
+    CreditHold hold = holds.remove(holdId);
+    if (hold != null) {
+      expiries.remove(new Expiry(hold));
+    }
+    return hold;
+  }
+
+  /**
+   * Devuelve a las vigentes una retención reclamada cuya operación no se completó.
+   */
+  public void unclaim(CreditHold hold) {
+    add(hold);
+  }
+
+  /**
+   * Reclama, por orden de vencimiento, hasta limit retenciones vencidas.
+   */
+  public List<CreditHold> claimExpired(LocalDateTime now, int limit) {
+    List<CreditHold> expired = new ArrayList<>();
+    Iterator<Expiry> iterator = expiries.iterator();
+    while (expired.size() < limit && iterator.hasNext()) {
+      Expiry next = iterator.next();
+      if (!next.expiresAt.isBefore(now)) {
+        break;
+      }
+      CreditHold hold = claim(next.holdId);
+      if (hold != null) {
+        expired.add(hold);
+      }
+    }
+    return expired;
+  }
+
+  private static void checkFresh(Credit credit, Account account) {
+    if (version(credit) < account.bookedVersion) {
+      throw new CreditVersionConflictException("Credit " + credit.getId() + " was debited after it was read");
+    }
+  }
+
+  private static long version(Credit credit) {
+    return credit.getVersion() != null ? credit.getVersion() : 0L;
+  }
+
+  /**
+   * Solo se modifica dentro de compute sobre su crédito.
+   */
+  private static final class Account {
+    private volatile BigDecimal held = BigDecimal.ZERO;
+    private volatile long bookedVersion = -1L;
+  }
+
+  private static final class Expiry implements Comparable<Expiry> {
+    private final LocalDateTime expiresAt;
+    private final String holdId;
+
+    private Expiry(CreditHold hold) {
+      this.expiresAt = hold.getExpiresAt();
+      this.holdId = hold.getHoldId();
+    }
+
+    @Override
+    public int compareTo(Expiry other) {
+      int byTime = expiresAt.compareTo(other.expiresAt);
+      return byTime != 0 ? byTime : holdId.compareTo(other.holdId);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Expiry && compareTo((Expiry) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return holdId.hashCode();
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditInvariant;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.InvariantViolation;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comprobación y corrección de las invariantes de {@link CreditInvariant} sobre un crédito.
+ * Solo usa importes, estado y marca de mora: sirve con la proyección del recorrido.
+ */
+@Component
+public class CreditInvariants {
+
+  public List<InvariantViolation> check(Credit credit) {
+    List<InvariantViolation> violations = new ArrayList<>(2);
+    if (!balanced(credit)) {
+      violations.add(new InvariantViolation(credit.getId(), CreditInvariant.BALANCE,
+            "available " + credit.getAvailableCredit() + " + debt " + credit.getCurrentDebt()
+                  + " != limit " + credit.getCreditLimit()));
+    }
+    if (!overdueFlagMatches(credit)) {
+      violations.add(new InvariantViolation(credit.getId(), CreditInvariant.OVERDUE_FLAG,
+            "status " + credit.getStatus() + " with hasOverdueDebt " + credit.getHasOverdueDebt()));
+    }
+    return violations;
+  }
+
+  /**
+   * Corrige el crédito en sitio. La deuda manda: el disponible pasa a ser límite - deuda, y con deuda
+   * pendiente el crédito queda marcado y OVERDUE; sin deuda se levanta la marca y vuelve a ACTIVE,
+   * como al saldarla en una liquidación.
+   *
+   * @return si cambió algo
+   */
+  public boolean repair(Credit credit) {
+    boolean changed = false;
+    if (!balanced(credit)) {
+      credit.setAvailableCredit(credit.getCreditLimit().subtract(credit.getCurrentDebt()));
+      changed = true;
+    }
+    if (!overdueFlagMatches(credit)) {
+      boolean hasDebt = credit.getCurrentDebt() != null && credit.getCurrentDebt().signum() > 0;
+      credit.setHasOverdueDebt(hasDebt);
+      credit.setStatus(hasDebt ? CreditStatus.OVERDUE : CreditStatus.ACTIVE);
+      changed = true;
+    }
+    return changed;
+  }
+
+  /**
+   * Sin límite o sin deuda no hay con qué comparar ni cómo corregir: no cuenta como violación.
+   */
+  private static boolean balanced(Credit credit) {
+    BigDecimal limit = credit.getCreditLimit();
+    BigDecimal debt = credit.getCurrentDebt();
+    if (limit == null || debt == null) {
+      return true;
+    }
+    return credit.getAvailableCredit() != null && credit.getAvailableCredit().add(debt).compareTo(limit) == 0;
+  }
+
+  private static boolean overdueFlagMatches(Credit credit) {
+    if (credit.getStatus() != CreditStatus.ACTIVE && credit.getStatus() != CreditStatus.OVERDUE) {
+      return true;
+    }
+    return Boolean.TRUE.equals(credit.getHasOverdueDebt()) == (credit.getStatus() == CreditStatus.OVERDUE);
+  }
+}
@@ -1,5 +1,6 @@
 package com.ettdata.credit_service.infrastructure.utils;
 
+import com.ettdata.credit_service.domain.error.InsufficientCreditException;
 import com.ettdata.credit_service.domain.model.Credit;
 import com.ettdata.credit_service.domain.model.CreditStatus;
 import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
@@ -14,6 +15,12 @@ import java.util.UUID;
 @Component
 public class CreditMapper {
 
+  private final PaymentCalculator paymentCalculator;
+
+  public CreditMapper(PaymentCalculator paymentCalculator) {
+    this.paymentCalculator = paymentCalculator;
+  }
+
   /**
    * Convierte CreditEntity (Infraestructura) a Credit (Dominio)
    */
@@ -38,6 +45,11 @@ public class CreditMapper {
           .status(entity.getStatus())
           .createdAt(entity.getCreatedAt())
           .updatedAt(entity.getUpdatedAt())
+          // Documentos anteriores al control de versiones se tratan como versión 0
+          .version(entity.getVersion() != null ? entity.getVersion() : 0L)
+          .lastSettlementFile(entity.getLastSettlementFile())
+          .lastSettlementLine(entity.getLastSettlementLine())
+          .lastCapturedHold(entity.getLastCapturedHold())
           .build();
   }
 
@@ -65,6 +77,10 @@ public class CreditMapper {
           .status(domain.getStatus())
           .createdAt(domain.getCreatedAt())
           .updatedAt(domain.getUpdatedAt())
+          .version(domain.getVersion())
+          .lastSettlementFile(domain.getLastSettlementFile())
+          .lastSettlementLine(domain.getLastSettlementLine())
+          .lastCapturedHold(domain.getLastCapturedHold())
           .build();
   }
 
@@ -78,7 +94,7 @@ public class CreditMapper {
     }
 
     LocalDate dueDate = calculateDueDate();
-    BigDecimal monthlyPayment = calculateMonthlyPayment(
+    BigDecimal monthlyPayment = paymentCalculator.monthlyPayment(
           request.getCreditLimit(),
           request.getInterestRate(),
           request.getTermMonths()
@@ -113,7 +129,7 @@ public class CreditMapper {
     BigDecimal newCurrentDebt = existingCredit.getCurrentDebt().add(disbursementAmount);
 
     if (newAvailableCredit.compareTo(BigDecimal.ZERO) < 0) {
-      throw new IllegalArgumentException("Insufficient available credit for this disbursement");
+      throw new InsufficientCreditException("Insufficient available credit for this disbursement");
     }
 
     return Credit.builder()
@@ -132,6 +148,10 @@ public class CreditMapper {
           .status(existingCredit.getStatus())
           .createdAt(existingCredit.getCreatedAt())
           .updatedAt(java.time.LocalDateTime.now())
+          .version(existingCredit.getVersion())
+          .lastSettlementFile(existingCredit.getLastSettlementFile())
+          .lastSettlementLine(existingCredit.getLastSettlementLine())
+          .lastCapturedHold(existingCredit.getLastCapturedHold())
           .build();
   }
 
@@ -171,35 +191,5 @@ public class CreditMapper {
     return LocalDate.now().plusMonths(1).withDayOfMonth(1);
   }
 
-  /**
-   * Calcula cuota mensual usando amortización francesa
-   * Fórmula: M = P * [r(1+r)^n] / [(1+r)^n - 1]
-   */
-  private BigDecimal calculateMonthlyPayment(
-        BigDecimal principal,
-        BigDecimal annualRate,
-        Integer months) {
-
-    if (principal == null || annualRate == null || months == null || months == 0) {
-      return BigDecimal.ZERO;
-    }
-
-    // Sin interés
-    if (annualRate.compareTo(BigDecimal.ZERO) == 0) {
-      return principal.divide(BigDecimal.valueOf(months), 2, BigDecimal.ROUND_HALF_UP);
-    }
-
-    // Tasa mensual
-    BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(12), 6, BigDecimal.ROUND_HALF_UP);
-
-    // Cálculo
-    double r = monthlyRate.doubleValue();
-    double p = principal.doubleValue();
-    double power = Math.pow(1 + r, months);
-    double payment = p * (r * power) / (power - 1);
-
-    return BigDecimal.valueOf(payment).setScale(2, BigDecimal.ROUND_HALF_UP);
-  }
-
 
 }
@@ -1,5 +1,6 @@
 package com.ettdata.credit_service.infrastructure.utils;
 
+import com.ettdata.credit_service.domain.error.BusinessRuleException;
 import com.ettdata.credit_service.domain.model.CreditResponse;
 import org.springframework.stereotype.Component;
 
@@ -37,4 +38,8 @@ public class CreditMapperResponse {
   public CreditResponse internalError(String message) {
     return error(500, message);
   }
+
+  public CreditResponse rejected(BusinessRuleException ex) {
+    return error(ex.getCode(), ex.getMessage());
+  }
 }
@@ -2,11 +2,13 @@ package com.ettdata.credit_service.infrastructure.utils;
 
 import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
 import com.ettdata.credit_service.application.port.out.CustomerOutputPort;
+import com.ettdata.credit_service.domain.error.BusinessRuleException;
 import com.ettdata.credit_service.domain.error.CreditHasDebtException;
 import com.ettdata.credit_service.domain.error.CreditNotFoundException;
 import com.ettdata.credit_service.domain.error.CustomerNotFoundException;
 import com.ettdata.credit_service.domain.error.CustomerServiceException;
 import com.ettdata.credit_service.domain.error.DuplicateCreditException;
+import com.ettdata.credit_service.domain.error.InsufficientCreditException;
 import com.ettdata.credit_service.domain.error.OverdueDebtException;
 import com.ettdata.credit_service.domain.model.Credit;
 import com.ettdata.credit_service.domain.model.CreditStatus;
@@ -21,11 +23,17 @@ import reactor.core.publisher.Mono;
 public class CreditValidator {
   private final CustomerOutputPort customerOutputPort;
   private final CreditRepositoryOutputPort creditRepositoryOutputPort;
+  private final TraceSpans traceSpans;
+  private final OverdueCustomerFilter overdueCustomerFilter;
 
   public CreditValidator(CustomerOutputPort customerOutputPort,
-                         CreditRepositoryOutputPort creditRepositoryOutputPort) {
+                         CreditRepositoryOutputPort creditRepositoryOutputPort,
+                         TraceSpans traceSpans,
+                         OverdueCustomerFilter overdueCustomerFilter) {
     this.customerOutputPort = customerOutputPort;
     this.creditRepositoryOutputPort = creditRepositoryOutputPort;
+    this.traceSpans = traceSpans;
+    this.overdueCustomerFilter = overdueCustomerFilter;
   }
 
   /**
@@ -39,7 +47,8 @@ public class CreditValidator {
           .flatMap(this::validateNoOverdueDebts)
           .flatMap(this::validateCreditTypeRestrictions)
           .doOnSuccess(r -> log.info("All business rules validated successfully"))
-          .doOnError(ex -> log.error("Business rules validation failed: {}", ex.getMessage()));
+          .doOnError(BusinessRuleException.class,
+                ex -> log.warn("Business rules validation failed: {}", ex.getMessage()));
   }
 
   /**
@@ -48,12 +57,13 @@ public class CreditValidator {
   public Mono<CreditRequest> validateCustomerExists(CreditRequest request) {
     log.debug("Validating customer exists: {}", request.getCustomerDocument());
 
-    return customerOutputPort.getCustomerByDocument(request.getCustomerDocument())
+    return traceSpans.mono("credit.validate.customer",
+                () -> customerOutputPort.getCustomerByDocument(request.getCustomerDocument()))
           .flatMap(customerResponse -> {
             log.info("Customer found. Document: {}", request.getCustomerDocument());
             return Mono.just(request);
           })
-          .switchIfEmpty(Mono.error(new CustomerNotFoundException(
+          .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(
                 "Customer not found with document: " + request.getCustomerDocument()
           )))
           .onErrorResume(CustomerNotFoundException.class, Mono::error)
@@ -66,14 +76,21 @@ public class CreditValidator {
   }
 
   /**
-   * Valida que el cliente no tiene deudas vencidas
+   * Valida que el cliente no tiene deudas vencidas.
+   * Si OverdueCustomerFilter descarta al cliente no se consulta Mongo; si no, decide la consulta.
    */
   public Mono<CreditRequest> validateNoOverdueDebts(CreditRequest request) {
     log.debug("Validating no overdue debts for customer: {}", request.getCustomerDocument());
 
-    return creditRepositoryOutputPort.findByDocumentNumber(request.getCustomerDocument())
-          .filter(Credit::getHasOverdueDebt)
-          .hasElements()
+    if (!overdueCustomerFilter.mightHaveOverdue(request.getCustomerDocument())) {
+      log.debug("Customer has no overdue debts");
+      return Mono.just(request);
+    }
+
+    return traceSpans.mono("credit.validate.overdue-debts",
+                () -> creditRepositoryOutputPort.findOpenByDocumentNumber(request.getCustomerDocument())
+                      .filter(Credit::getHasOverdueDebt)
+                      .hasElements())
           .flatMap(hasOverdue -> {
             if (hasOverdue) {
               log.warn("Customer {} has overdue debts", request.getCustomerDocument());
@@ -81,6 +98,9 @@ public class CreditValidator {
                     "Customer has overdue debts. Cannot acquire new credit."));
             }
             log.debug("Customer has no overdue debts");
+            if (overdueCustomerFilter.isInitialized()) {
+              overdueCustomerFilter.recordFalsePositive();
+            }
             return Mono.just(request);
           });
   }
@@ -115,10 +135,11 @@ public class CreditValidator {
     log.debug("Checking if customer {} has another personal credit",
           request.getCustomerDocument());
 
-    return creditRepositoryOutputPort.findByDocumentNumber(request.getCustomerDocument())
-          .filter(credit -> credit.getType() == CreditType.PERSONAL)
-          .filter(credit -> credit.getStatus() == CreditStatus.ACTIVE)
-          .hasElements()
+    return traceSpans.mono("credit.validate.personal-credit",
+                () -> creditRepositoryOutputPort.findOpenByDocumentNumber(request.getCustomerDocument())
+                      .filter(credit -> credit.getType() == CreditType.PERSONAL)
+                      .filter(credit -> credit.getStatus() == CreditStatus.ACTIVE)
+                      .hasElements())
           .flatMap(hasPersonalCredit -> {
             if (hasPersonalCredit) {
               log.warn("Customer {} already has an active personal credit",
@@ -137,10 +158,11 @@ public class CreditValidator {
     log.debug("Checking if customer {} has another credit card",
           request.getCustomerDocument());
 
-    return creditRepositoryOutputPort.findByDocumentNumber(request.getCustomerDocument())
-          .filter(credit -> credit.getType() == CreditType.CREDIT_CARD)
-          .filter(credit -> credit.getStatus() == CreditStatus.ACTIVE)
-          .hasElements()
+    return traceSpans.mono("credit.validate.credit-card",
+                () -> creditRepositoryOutputPort.findOpenByDocumentNumber(request.getCustomerDocument())
+                      .filter(credit -> credit.getType() == CreditType.CREDIT_CARD)
+                      .filter(credit -> credit.getStatus() == CreditStatus.ACTIVE)
+                      .hasElements())
           .flatMap(hasCreditCard -> {
             if (hasCreditCard) {
               log.warn("Customer {} already has an active credit card",
@@ -160,7 +182,7 @@ public class CreditValidator {
 
     return creditRepositoryOutputPort.findById(creditId)
           .map(Credit::getId)
-          .switchIfEmpty(Mono.error(new CreditNotFoundException(
+          .switchIfEmpty(Mono.error(() -> new CreditNotFoundException(
                 "Credit not found with ID: " + creditId
           )))
           .doOnSuccess(id -> log.debug("Credit {} exists and can be deleted", id));
@@ -190,12 +212,12 @@ public class CreditValidator {
 
     if (credit.getStatus() != CreditStatus.ACTIVE) {
       log.warn("Credit {} is not active (status: {})", credit.getId(), credit.getStatus());
-      return Mono.error(new IllegalStateException("Credit must be active to allow disbursements"));
+      return Mono.error(new BusinessRuleException("Credit must be active to allow disbursements"));
     }
 
     if (amount == null || amount.compareTo(java.math.BigDecimal.ZERO) <= 0) {
       log.warn("Invalid disbursement amount: {}", amount);
-      return Mono.error(new IllegalArgumentException("Disbursement amount must be greater than zero"));
+      return Mono.error(new BusinessRuleException("Disbursement amount must be greater than zero"));
     }
 
     if (credit.getAvailableCredit() == null) {
@@ -206,7 +228,7 @@ public class CreditValidator {
     if (credit.getAvailableCredit().compareTo(amount) < 0) {
       log.warn("Insufficient available credit for credit {}: available={}, requested={}",
             credit.getId(), credit.getAvailableCredit(), amount);
-      return Mono.error(new IllegalArgumentException("Insufficient available credit"));
+      return Mono.error(new InsufficientCreditException("Insufficient available credit"));
     }
 
     if (Boolean.TRUE.equals(credit.getHasOverdueDebt())) {
@@ -0,0 +1,213 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.error.BusinessRuleException;
+import com.ettdata.credit_service.domain.error.CreditNotFoundException;
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import com.ettdata.credit_service.domain.error.InsufficientCreditException;
+import com.ettdata.credit_service.domain.model.Credit;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Carriles de escritura por crédito.
+ * Cada id de crédito cae siempre en el mismo de N carriles; un carril ejecuta sus escrituras de una en una
+ * y en orden de llegada, así dos escrituras del mismo crédito en esta instancia no compiten por la versión.
+ * Créditos de carriles distintos avanzan en paralelo.
+ * <p>
+ * Las escrituras seguidas del mismo crédito en la cola se agrupan: se lee el crédito una vez, se aplica
+ * cada cambio en orden (uno rechazado no altera el estado que ven los siguientes) y se guarda una vez.
+ * El guardado sigue condicionado a la versión: si otra instancia o un proceso por lotes escribió entre
+ * medias, el grupo entero se vuelve a leer y aplicar con OptimisticWriteRetry.
+ */
+@Component
+@Slf4j
+public class CreditWriteLanes {
+
+  private final CreditRepositoryOutputPort repositoryOutputPort;
+  private final ExposureCounters exposure;
+  private final CreditHoldLedger holdLedger;
+  private final OptimisticWriteRetry writeRetry;
+  private final OverdueCustomerFilter overdueCustomerFilter;
+  private final boolean enabled;
+  private final int maxBatch;
+  private final Lane[] lanes;
+  private final DistributionSummary batchSizes;
+  private final Scheduler scheduler = Schedulers.parallel();
+
+  public CreditWriteLanes(CreditRepositoryOutputPort repositoryOutputPort,
+                          ExposureCounters exposure,
+                          CreditHoldLedger holdLedger,
+                          OptimisticWriteRetry writeRetry,
+                          OverdueCustomerFilter overdueCustomerFilter,
+                          MeterRegistry meterRegistry,
+                          @Value("${credit.write.lanes.enabled:true}") boolean enabled,
+                          @Value("${credit.write.lanes.count:16}") int laneCount,
+                          @Value("${credit.write.lanes.max-batch:64}") int maxBatch) {
+    this.repositoryOutputPort = repositoryOutputPort;
+    this.exposure = exposure;
+    this.holdLedger = holdLedger;
+    this.writeRetry = writeRetry;
+    this.overdueCustomerFilter = overdueCustomerFilter;
+    this.enabled = enabled;
+    this.maxBatch = maxBatch;
+    this.lanes = new Lane[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      Lane lane = new Lane();
+      lanes[i] = lane;
+      Gauge.builder("credit.write.lane.depth", lane.depth, AtomicInteger::get)
+            .description("Escrituras esperando en el carril")
+            .tag("lane", String.valueOf(i))
+            .register(meterRegistry);
+    }
+    this.batchSizes = DistributionSummary.builder("credit.write.lane.batch")
+          .description("Escrituras del mismo crédito guardadas en un solo update")
+          .register(meterRegistry);
+  }
+
+  /**
+   * Encola un cambio sobre el crédito y devuelve el crédito guardado con él.
+   * El cambio recibe una copia del crédito y la devuelve modificada, o falla con BusinessRuleException
+   * para rechazarse sin afectar al resto del grupo. No debe hacer E/S: se ejecuta dentro del carril.
+   *
+   * @param operation nombre de la operación para las métricas de reintento
+   */
+  public Mono<Credit> write(String creditId, String operation, Function<Credit, Mono<Credit>> change) {
+    return Mono.defer(() -> {
+      Write write = new Write(creditId, operation, change);
+      if (enabled) {
+        lanes[Math.floorMod(creditId.hashCode(), lanes.length)].submit(write);
+      } else {
+        execute(List.of(write)).subscribe();
+      }
+      return write.result.asMono();
+    });
+  }
+
+  /**
+   * Lee el crédito, aplica los cambios en orden sobre copias y guarda el resultado de una vez.
+   * El importe que el grupo dispone se reserva en CreditHoldLedger mientras se guarda.
+   */
+  private Mono<Void> execute(List<Write> batch) {
+    Write first = batch.get(0);
+    String operation = batch.size() == 1 ? first.operation : "credit-lane";
+    return writeRetry.withRetry(operation, repositoryOutputPort.findById(first.creditId)
+                .switchIfEmpty(Mono.error(() -> new CreditNotFoundException("Credit not found with ID: " + first.creditId)))
+                .flatMap(read -> {
+                  Credit[] state = {read};
+                  return Flux.fromIterable(batch)
+                        .concatMap(write -> write.change.apply(state[0].toBuilder().build())
+                              .doOnNext(changed -> {
+                                state[0] = changed;
+                                write.rejection = null;
+                              })
+                              .onErrorResume(BusinessRuleException.class, ex -> {
+                                write.rejection = ex;
+                                return Mono.empty();
+                              }))
+                        .then(Mono.defer(() -> state[0] == read ? Mono.just(read) : save(read, state[0])));
+                }))
+          .doOnNext(saved -> {
+            batchSizes.record(batch.size());
+            for (Write write : batch) {
+              if (write.rejection != null) {
+                write.result.tryEmitError(write.rejection);
+              } else {
+                write.result.tryEmitValue(saved);
+              }
+            }
+          })
+          .doOnError(ex -> batch.forEach(write -> write.result.tryEmitError(ex)))
+          .onErrorResume(ex -> Mono.empty())
+          .then();
+  }
+
+  private Mono<Credit> save(Credit read, Credit changed) {
+    overdueCustomerFilter.record(changed);
+    Mono<Credit> save = exposure.track(ExposureCounters.Position.of(read), repositoryOutputPort.saveCredit(changed));
+    BigDecimal debited = read.getAvailableCredit().subtract(changed.getAvailableCredit());
+    if (debited.signum() <= 0) {
+      return save;
+    }
+    // Una retención autorizada entre la comprobación y la reserva: se relee como un conflicto de versión
+    return holdLedger.debit(read, debited, save)
+          .onErrorMap(InsufficientCreditException.class, ex -> new CreditVersionConflictException(
+                "Credit " + read.getId() + " holds changed while writing"));
+  }
+
+  /**
+   * Cola de un carril; solo un grupo en curso a la vez.
+   */
+  private final class Lane {
+    private final Queue<Write> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private void submit(Write write) {
+      queue.add(write);
+      depth.incrementAndGet();
+      drain();
+    }
+
+    private void drain() {
+      if (!running.compareAndSet(false, true)) {
+        return;
+      }
+      Write head = queue.poll();
+      if (head == null) {
+        running.set(false);
+        // Una escritura encolada justo después de mirar la cola
+        if (!queue.isEmpty()) {
+          drain();
+        }
+        return;
+      }
+      List<Write> batch = new ArrayList<>();
+      batch.add(head);
+      Write next = queue.peek();
+      while (batch.size() < maxBatch && next != null && next.creditId.equals(head.creditId)) {
+        batch.add(queue.poll());
+        next = queue.peek();
+      }
+      depth.addAndGet(-batch.size());
+      // El siguiente grupo se lanza desde el planificador: un guardado síncrono (capa caliente) no anida llamadas
+      execute(batch)
+            .doFinally(signal -> scheduler.schedule(() -> {
+              running.set(false);
+              drain();
+            }))
+            .subscribe();
+    }
+  }
+
+  private static final class Write {
+    private final String creditId;
+    private final String operation;
+    private final Function<Credit, Mono<Credit>> change;
+    private final Sinks.One<Credit> result = Sinks.one();
+    private volatile BusinessRuleException rejection;
+
+    private Write(String creditId, String operation, Function<Credit, Mono<Credit>> change) {
+      this.creditId = creditId;
+      this.operation = operation;
+      this.change = change;
+    }
+  }
+}
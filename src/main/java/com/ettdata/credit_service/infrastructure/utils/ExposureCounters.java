@@ -0,0 +1,255 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditArchiveBatch;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.ExposureCell;
+import com.ettdata.credit_service.domain.model.ExposureSummary;
+import com.ettdata.credit_service.domain.model.PortfolioExposure;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Exposición de la cartera por tipo y estado, mantenida en memoria.
+ * Cada celda (tipo, estado) acumula número de créditos, límite, deuda y disponible en LongAdder, que
+ * reparte las sumas concurrentes en celdas por hilo: miles de desembolsos a la vez no compiten por una
+ * misma variable. Los importes se llevan en céntimos.
+ * Cada escritura aplica la diferencia entre el crédito leído y el guardado, solo si el guardado termina bien.
+ */
+@Component
+public class ExposureCounters {
+  private static final int SCALE = 2;
+  private static final CreditType[] TYPES = CreditType.values();
+  private static final CreditStatus[] STATUSES = CreditStatus.values();
+
+  private final Cell[] cells = new Cell[TYPES.length * STATUSES.length];
+  private final LongAdder inFlight = new LongAdder();
+  private final LongAdder applied = new LongAdder();
+  private volatile LocalDateTime reconciledAt;
+
+  public ExposureCounters() {
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = new Cell();
+    }
+  }
+
+  /**
+   * Aplica el guardado a los contadores cuando se confirma.
+   *
+   * @param before posición del crédito tomada antes de modificarlo; null si es nuevo
+   */
+  public Mono<Credit> track(Position before, Mono<Credit> save) {
+    return tracked(save, saved -> {
+      add(before, -1);
+      add(Position.of(saved), 1);
+    });
+  }
+
+  /**
+   * Como track, para una escritura por lotes que devuelve los créditos guardados.
+   *
+   * @param before posición de cada crédito antes de modificarlo, por id
+   */
+  public Mono<List<Credit>> trackAll(Map<String, Position> before, Mono<List<Credit>> save) {
+    return tracked(save, saved -> saved.forEach(credit -> {
+      add(before.get(credit.getId()), -1);
+      add(Position.of(credit), 1);
+    }));
+  }
+
+  /**
+   * Descuenta los créditos que salen de la colección viva (archivado) cuando la operación se confirma.
+   */
+  public Mono<CreditArchiveBatch> trackRemoval(Mono<CreditArchiveBatch> removal) {
+    return tracked(removal, batch -> batch.getMoved().forEach(credit -> add(Position.of(credit), -1)));
+  }
+
+  private <T> Mono<T> tracked(Mono<T> write, Consumer<T> apply) {
+    return Mono.defer(() -> {
+      inFlight.increment();
+      return write
+            .doOnNext(result -> {
+              apply.accept(result);
+              applied.increment();
+            })
+            .doFinally(signal -> inFlight.decrement());
+    });
+  }
+
+  /**
+   * Escrituras aplicadas desde el arranque; si no cambia durante una agregación, nada se cruzó con ella.
+   */
+  public long appliedWrites() {
+    return applied.sum();
+  }
+
+  public long writesInFlight() {
+    return inFlight.sum();
+  }
+
+  public boolean isInitialized() {
+    return reconciledAt != null;
+  }
+
+  /**
+   * Arranque: sustituye los contadores por el agregado de Mongo, como reconcile. Lo acumulado por escrituras
+   * anteriores ya está en el agregado. El llamador garantiza que ninguna escritura se cruzó con la agregación.
+   */
+  public synchronized void initialize(List<ExposureCell> aggregate) {
+    replace(aggregate);
+    reconciledAt = LocalDateTime.now();
+  }
+
+  /**
+   * Sustituye los contadores por el agregado de Mongo. El llamador garantiza que ninguna escritura
+   * se cruzó con la agregación.
+   *
+   * @return celdas que no cuadraban
+   */
+  public synchronized int reconcile(List<ExposureCell> aggregate) {
+    int drifted = replace(aggregate);
+    reconciledAt = LocalDateTime.now();
+    return drifted;
+  }
+
+  private int replace(List<ExposureCell> aggregate) {
+    long[][] expected = new long[cells.length][4];
+    for (ExposureCell source : aggregate) {
+      int index = index(source.getType(), source.getStatus());
+      if (index >= 0) {
+        expected[index][0] += source.getCount();
+        expected[index][1] += units(source.getTotalLimit());
+        expected[index][2] += units(source.getTotalDebt());
+        expected[index][3] += units(source.getTotalAvailable());
+      }
+    }
+    int drifted = 0;
+    for (int i = 0; i < cells.length; i++) {
+      long[] current = cells[i].values();
+      long[] target = expected[i];
+      if (current[0] != target[0] || current[1] != target[1] || current[2] != target[2] || current[3] != target[3]) {
+        drifted++;
+        cells[i].add(target[0] - current[0], target[1] - current[1], target[2] - current[2], target[3] - current[3]);
+      }
+    }
+    return drifted;
+  }
+
+  public PortfolioExposure snapshot() {
+    long[][] byType = new long[TYPES.length][4];
+    long[][] byStatus = new long[STATUSES.length][4];
+    long[] total = new long[4];
+    for (int t = 0; t < TYPES.length; t++) {
+      for (int s = 0; s < STATUSES.length; s++) {
+        long[] values = cells[t * STATUSES.length + s].values();
+        for (int v = 0; v < 4; v++) {
+          byType[t][v] += values[v];
+          byStatus[s][v] += values[v];
+          total[v] += values[v];
+        }
+      }
+    }
+    List<ExposureSummary> types = new ArrayList<>();
+    for (int t = 0; t < TYPES.length; t++) {
+      if (byType[t][0] != 0) {
+        types.add(summary(TYPES[t].name(), byType[t]));
+      }
+    }
+    List<ExposureSummary> statuses = new ArrayList<>();
+    for (int s = 0; s < STATUSES.length; s++) {
+      if (byStatus[s][0] != 0) {
+        statuses.add(summary(STATUSES[s].name(), byStatus[s]));
+      }
+    }
+    return PortfolioExposure.builder()
+          .exposureByType(types)
+          .exposureByStatus(statuses)
+          .total(summary("ALL", total))
+          .reconciledAt(reconciledAt)
+          .generatedAt(LocalDateTime.now())
+          .build();
+  }
+
+  private void add(Position position, int sign) {
+    if (position == null) {
+      return;
+    }
+    Cell cell = cell(position.type, position.status);
+    if (cell != null) {
+      cell.add(sign, sign * position.limit, sign * position.debt, sign * position.available);
+    }
+  }
+
+  private Cell cell(CreditType type, CreditStatus status) {
+    int index = index(type, status);
+    return index < 0 ? null : cells[index];
+  }
+
+  private static int index(CreditType type, CreditStatus status) {
+    return type == null || status == null ? -1 : type.ordinal() * STATUSES.length + status.ordinal();
+  }
+
+  private static ExposureSummary summary(String key, long[] values) {
+    return ExposureSummary.builder()
+          .key(key)
+          .count(values[0])
+          .totalLimit(BigDecimal.valueOf(values[1], SCALE))
+          .totalDebt(BigDecimal.valueOf(values[2], SCALE))
+          .totalAvailable(BigDecimal.valueOf(values[3], SCALE))
+          .build();
+  }
+
+  private static long units(BigDecimal amount) {
+    return amount == null ? 0L : amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+  }
+
+  /**
+   * Lo que un crédito aporta a los contadores en un momento dado.
+   */
+  public static final class Position {
+    private final CreditType type;
+    private final CreditStatus status;
+    private final long limit;
+    private final long debt;
+    private final long available;
+
+    private Position(Credit credit) {
+      this.type = credit.getType();
+      this.status = credit.getStatus();
+      this.limit = units(credit.getCreditLimit());
+      this.debt = units(credit.getCurrentDebt());
+      this.available = units(credit.getAvailableCredit());
+    }
+
+    public static Position of(Credit credit) {
+      return credit == null ? null : new Position(credit);
+    }
+  }
+
+  private static final class Cell {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder limit = new LongAdder();
+    private final LongAdder debt = new LongAdder();
+    private final LongAdder available = new LongAdder();
+
+    private void add(long count, long limit, long debt, long available) {
+      this.count.add(count);
+      this.limit.add(limit);
+      this.debt.add(debt);
+      this.available.add(available);
+    }
+
+    private long[] values() {
+      return new long[] {count.sum(), limit.sum(), debt.sum(), available.sum()};
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Peticiones de lectura idempotentes con hedging y reintento de fallos transitorios.
+ * Si el primer intento no responde dentro del percentil de latencia observado, se lanza un segundo
+ * intento en paralelo: gana la primera respuesta (vacía incluida) y el otro se cancela.
+ * Los fallos transitorios se reintentan con backoff. Hedges y reintentos consumen el mismo presupuesto
+ * global: con el servicio degradado dejan de multiplicar la carga.
+ */
+@Slf4j
+public class HedgedRetry {
+  private static final long MIN_SAMPLES = 20;
+  private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final String name;
+  private final boolean hedging;
+  private final double percentile;
+  private final Duration minDelay;
+  private final Duration maxDelay;
+  private final int maxRetries;
+  private final Duration backoff;
+  private final RetryBudget budget;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, CallStats> calls = new ConcurrentHashMap<>();
+
+  /**
+   * @param name       prefijo de las métricas
+   * @param percentile percentil de latencia tras el que se lanza el hedge (0.95)
+   * @param minDelay   espera mínima antes del hedge
+   * @param maxDelay   espera máxima, y la usada hasta tener muestras suficientes
+   */
+  public HedgedRetry(String name, boolean hedging, double percentile, Duration minDelay, Duration maxDelay,
+                     int maxRetries, Duration backoff, double budgetRatio, int budgetMin,
+                     MeterRegistry meterRegistry) {
+    this.name = name;
+    this.hedging = hedging;
+    this.percentile = percentile;
+    this.minDelay = minDelay;
+    this.maxDelay = maxDelay;
+    this.maxRetries = maxRetries;
+    this.backoff = backoff;
+    this.budget = new RetryBudget(budgetRatio, budgetMin);
+    this.meterRegistry = meterRegistry;
+    meterRegistry.gauge(name + ".retry.budget", Tags.empty(), budget, RetryBudget::available);
+  }
+
+  /**
+   * Ejecuta la llamada; cada invocación del supplier es un intento independiente.
+   *
+   * @param call           nombre de la llamada (etiqueta de métricas y latencia propia)
+   * @param transientError fallos que se reintentan
+   */
+  public <T> Mono<T> execute(String call, Supplier<Mono<T>> attempt, Predicate<Throwable> transientError) {
+    CallStats stats = calls.computeIfAbsent(call, CallStats::new);
+    return Mono.defer(() -> {
+      budget.onRequest();
+      stats.requests.increment();
+      return Mono.defer(() -> hedged(stats, attempt))
+            .retryWhen(Retry.backoff(maxRetries, backoff)
+                  .jitter(0.5)
+                  .filter(ex -> transientError.test(ex) && acquire(stats.retriesRejected))
+                  .doBeforeRetry(signal -> {
+                    stats.retries.increment();
+                    log.debug("Retrying {} {} after {} (attempt {})", name, call,
+                          signal.failure().toString(), signal.totalRetries() + 1);
+                  })
+                  .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    });
+  }
+
+  private <T> Mono<T> hedged(CallStats stats, Supplier<Mono<T>> attempt) {
+    Mono<T> primary = timed(stats, attempt.get());
+    if (!hedging) {
+      return primary;
+    }
+    // Un hedge fallido no decide el resultado: queda el primer intento, que tiene su propio timeout
+    Mono<T> hedge = Mono.delay(stats.hedgeDelay())
+          .flatMap(tick -> {
+            if (!acquire(stats.hedgesRejected)) {
+              return Mono.never();
+            }
+            stats.hedges.increment();
+            return timed(stats, attempt.get())
+                  .doOnSuccess(value -> stats.hedgesWon.increment())
+                  .onErrorResume(ex -> Mono.never());
+          });
+    return Mono.firstWithSignal(primary, hedge);
+  }
+
+  /**
+   * Registra la duración de cada intento al terminar, también si falla o se cancela. El intento que pierde
+   * contra el hedge se cancela: su muestra (lo que llevaba esperando) mantiene en el percentil la cola lenta.
+   * Solo con los ganadores el percentil iría bajando hacia minDelay y los hedges se dispararían cada vez más.
+   */
+  private static <T> Mono<T> timed(CallStats stats, Mono<T> attempt) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return attempt.doFinally(signal -> stats.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    });
+  }
+
+  private boolean acquire(Counter rejected) {
+    if (budget.tryAcquireRetry()) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  private final class CallStats {
+    private final Timer latency;
+    private final Counter requests;
+    private final Counter hedges;
+    private final Counter hedgesWon;
+    private final Counter hedgesRejected;
+    private final Counter retries;
+    private final Counter retriesRejected;
+    private volatile long delayNanos = maxDelay.toNanos();
+    private volatile long refreshedAt = System.nanoTime();
+
+    private CallStats(String call) {
+      this.latency = Timer.builder(name + ".latency")
+            .tag("call", call)
+            .publishPercentiles(percentile)
+            .distributionStatisticExpiry(Duration.ofMinutes(1))
+            .register(meterRegistry);
+      this.requests = counter(".requests", call);
+      this.hedges = counter(".hedges", call);
+      this.hedgesWon = counter(".hedges.won", call);
+      this.hedgesRejected = counter(".hedges.rejected", call);
+      this.retries = counter(".retries", call);
+      this.retriesRejected = counter(".retries.rejected", call);
+    }
+
+    private Counter counter(String suffix, String call) {
+      return Counter.builder(name + suffix).tag("call", call).register(meterRegistry);
+    }
+
+    /**
+     * Percentil de latencia reciente acotado a [minDelay, maxDelay]; se recalcula como mucho una vez por segundo.
+     */
+    private Duration hedgeDelay() {
+      long now = System.nanoTime();
+      if (now - refreshedAt > DELAY_REFRESH_NANOS) {
+        refreshedAt = now;
+        delayNanos = observedDelay();
+      }
+      return Duration.ofNanos(delayNanos);
+    }
+
+    private long observedDelay() {
+      if (latency.count() < MIN_SAMPLES) {
+        return maxDelay.toNanos();
+      }
+      ValueAtPercentile[] values = latency.takeSnapshot().percentileValues();
+      if (values.length == 0) {
+        return maxDelay.toNanos();
+      }
+      long observed = (long) values[0].value(TimeUnit.NANOSECONDS);
+      return Math.max(minDelay.toNanos(), Math.min(maxDelay.toNanos(), observed));
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa lecturas idénticas concurrentes (single-flight).
+ * Mientras una consulta está en curso, las demás peticiones con la misma clave
+ * se suscriben a ese mismo resultado. Al terminar, la clave se libera:
+ * no se cachea nada fuera de la ventana en vuelo.
+ */
+@Component
+@Slf4j
+public class InFlightRequestCoalescer {
+
+  private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+  private final MeterRegistry meterRegistry;
+
+  public InFlightRequestCoalescer(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    meterRegistry.gaugeMapSize("credit.reads.inflight", Tags.empty(), inFlight);
+  }
+
+  /**
+   * Ejecuta la consulta o se une a la que ya está en vuelo para la misma operación y clave.
+   *
+   * @param operation nombre lógico de la lectura (se usa como tag de métricas)
+   * @param key       clave de la lectura (id, documento...)
+   * @param call      consulta a ejecutar si no hay otra en curso
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Mono<T> execute(String operation, String key, Supplier<Mono<T>> call) {
+    return Mono.defer(() -> {
+      String flightKey = operation + ":" + key;
+      Mono<?> existing = inFlight.get(flightKey);
+      if (existing != null) {
+        counter(operation, "coalesced").increment();
+        return (Mono<T>) existing;
+      }
+
+      AtomicReference<Mono<T>> self = new AtomicReference<>();
+      Mono<T> shared = Mono.defer(call)
+            .doFinally(signal -> inFlight.remove(flightKey, self.get()))
+            .share();
+      self.set(shared);
+
+      Mono<?> winner = inFlight.putIfAbsent(flightKey, shared);
+      if (winner != null) {
+        counter(operation, "coalesced").increment();
+        return (Mono<T>) winner;
+      }
+
+      log.debug("Executing read {} for key {}", operation, key);
+      counter(operation, "executed").increment();
+      return shared;
+    });
+  }
+
+  private Counter counter(String operation, String result) {
+    return Counter.builder("credit.reads.coalescing")
+          .description("Lecturas ejecutadas contra Mongo vs. lecturas agrupadas en una consulta en vuelo")
+          .tag("operation", operation)
+          .tag("result", result)
+          .register(meterRegistry);
+  }
+}
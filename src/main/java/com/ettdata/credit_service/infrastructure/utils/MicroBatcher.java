@@ -0,0 +1,125 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micro-batching al estilo DataLoader.
+ * Las cargas individuales que llegan dentro de la misma ventana se agrupan en una sola llamada
+ * por lotes, y cada llamador recibe su valor (o vacío si el lote no lo trae).
+ * El lote sale al cumplirse la ventana o al alcanzar el tamaño máximo, lo que ocurra antes.
+ * La llamada por lotes se ejecuta con el contexto de Reactor del primer llamador (p. ej. su traza).
+ */
+public class MicroBatcher<K, V> {
+
+  private final Duration window;
+  private final int maxBatchSize;
+  private final Function<Set<K>, Mono<Map<K, V>>> batchLoader;
+  private final DistributionSummary batchSizes;
+  private final Scheduler scheduler = Schedulers.parallel();
+
+  private final Object lock = new Object();
+  private List<Pending<K, V>> pending = new ArrayList<>();
+  private Disposable scheduledFlush;
+
+  /**
+   * @param name        prefijo de la métrica de tamaño de lote
+   * @param batchLoader carga por lotes; las claves ausentes del mapa se resuelven como vacío
+   */
+  public MicroBatcher(String name, Duration window, int maxBatchSize,
+                      Function<Set<K>, Mono<Map<K, V>>> batchLoader, MeterRegistry meterRegistry) {
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.batchLoader = batchLoader;
+    this.batchSizes = DistributionSummary.builder(name + ".batch.size")
+          .description("Claves distintas por llamada agrupada")
+          .register(meterRegistry);
+  }
+
+  public Mono<V> load(K key) {
+    return Mono.deferContextual(context -> {
+      Sinks.One<V> sink = Sinks.one();
+      List<Pending<K, V>> ready = null;
+      synchronized (lock) {
+        pending.add(new Pending<>(key, sink, context));
+        if (pending.size() >= maxBatchSize) {
+          ready = drain();
+        } else if (pending.size() == 1) {
+          scheduledFlush = scheduler.schedule(this::flushWindow, window.toNanos(), TimeUnit.NANOSECONDS);
+        }
+      }
+      if (ready != null) {
+        dispatch(ready);
+      }
+      return sink.asMono();
+    });
+  }
+
+  private void flushWindow() {
+    List<Pending<K, V>> ready;
+    synchronized (lock) {
+      ready = drain();
+    }
+    dispatch(ready);
+  }
+
+  private List<Pending<K, V>> drain() {
+    if (scheduledFlush != null) {
+      scheduledFlush.dispose();
+      scheduledFlush = null;
+    }
+    List<Pending<K, V>> ready = pending;
+    pending = new ArrayList<>();
+    return ready;
+  }
+
+  private void dispatch(List<Pending<K, V>> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Set<K> keys = new LinkedHashSet<>();
+    batch.forEach(p -> keys.add(p.key));
+    batchSizes.record(keys.size());
+
+    Mono.defer(() -> batchLoader.apply(keys))
+          .contextWrite(Context.of(batch.get(0).context))
+          .subscribe(
+                results -> batch.forEach(p -> {
+                  V value = results.get(p.key);
+                  if (value != null) {
+                    p.sink.tryEmitValue(value);
+                  } else {
+                    p.sink.tryEmitEmpty();
+                  }
+                }),
+                error -> batch.forEach(p -> p.sink.tryEmitError(error)),
+                () -> batch.forEach(p -> p.sink.tryEmitEmpty()));
+  }
+
+  private static final class Pending<K, V> {
+    private final K key;
+    private final Sinks.One<V> sink;
+    private final ContextView context;
+
+    private Pending(K key, Sinks.One<V> sink, ContextView context) {
+      this.key = key;
+      this.sink = sink;
+      this.context = context;
+    }
+  }
+}
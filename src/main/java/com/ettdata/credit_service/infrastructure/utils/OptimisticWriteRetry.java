@@ -0,0 +1,86 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reintento de los flujos lectura-modificación-escritura cuando el guardado condicional
+ * detecta un conflicto de versión. Cada reintento vuelve a leer el crédito.
+ * Backoff exponencial con jitter, limitado por intentos y por un presupuesto global de reintentos.
+ */
+@Component
+@Slf4j
+public class OptimisticWriteRetry {
+  private final int maxRetries;
+  private final Duration minBackoff;
+  private final Duration maxBackoff;
+  private final RetryBudget budget;
+  private final MeterRegistry meterRegistry;
+
+  public OptimisticWriteRetry(@Value("${credit.write.retry.max-retries:3}") int maxRetries,
+                              @Value("${credit.write.retry.min-backoff:10ms}") Duration minBackoff,
+                              @Value("${credit.write.retry.max-backoff:200ms}") Duration maxBackoff,
+                              @Value("${credit.write.retry.budget-ratio:0.2}") double budgetRatio,
+                              @Value("${credit.write.retry.budget-min:20}") int budgetMin,
+                              MeterRegistry meterRegistry) {
+    this.maxRetries = maxRetries;
+    this.minBackoff = minBackoff;
+    this.maxBackoff = maxBackoff;
+    this.budget = new RetryBudget(budgetRatio, budgetMin);
+    this.meterRegistry = meterRegistry;
+    meterRegistry.gauge("credit.write.retry.budget", Tags.empty(), budget, RetryBudget::available);
+  }
+
+  /**
+   * Aplica el reintento a un flujo lectura-modificación-escritura.
+   * El flujo debe ser frío (la lectura se repite en cada suscripción).
+   *
+   * @param operation nombre de la operación para las métricas
+   */
+  public <T> Mono<T> withRetry(String operation, Mono<T> readModifyWrite) {
+    return Mono.defer(() -> {
+      budget.onRequest();
+      AtomicInteger retries = new AtomicInteger();
+      return readModifyWrite
+            .doOnError(CreditVersionConflictException.class,
+                  ex -> counter("credit.write.conflicts", operation).increment())
+            .retryWhen(Retry.backoff(maxRetries, minBackoff)
+                  .maxBackoff(maxBackoff)
+                  .jitter(0.5)
+                  .filter(ex -> ex instanceof CreditVersionConflictException
+                        && retries.get() < maxRetries
+                        && acquireRetry(operation))
+                  .doBeforeRetry(signal -> {
+                    retries.incrementAndGet();
+                    counter("credit.write.retries", operation).increment();
+                    log.debug("Retrying {} after version conflict (attempt {})",
+                          operation, signal.totalRetries() + 1);
+                  })
+                  .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    });
+  }
+
+  private boolean acquireRetry(String operation) {
+    if (budget.tryAcquireRetry()) {
+      return true;
+    }
+    counter("credit.write.retries.rejected", operation).increment();
+    log.warn("Retry budget exhausted, not retrying {}", operation);
+    return false;
+  }
+
+  private Counter counter(String name, String operation) {
+    return Counter.builder(name)
+          .tag("operation", operation)
+          .register(meterRegistry);
+  }
+}
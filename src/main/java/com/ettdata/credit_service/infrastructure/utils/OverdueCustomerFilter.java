@@ -0,0 +1,242 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom con los documentos de clientes que tienen algún crédito con deuda vencida.
+ * Un "no" es seguro y evita la consulta a Mongo al crear un crédito; un "quizá" se confirma con la consulta.
+ * <p>
+ * El tamaño sale de credit.overdue-filter.expected-customers y .false-positive-rate. Las marcas de mora se
+ * añaden antes de guardarse, así ninguna consulta de esta instancia ve en Mongo una marca que el filtro no tenga.
+ * Las que escribe otra instancia solo llegan con la reconstrucción, así que el filtro solo se usa con una sola
+ * instancia escritora (credit.overdue-filter.single-writer), como la capa caliente.
+ * Un Bloom no admite bajas: los clientes que saldan su deuda salen en la reconstrucción periódica, que carga
+ * un filtro nuevo desde Mongo y le suma las marcas añadidas desde la reconstrucción anterior.
+ * Hasta la primera carga, o desactivado, responde siempre "quizá".
+ */
+@Component
+public class OverdueCustomerFilter {
+
+  private final boolean enabled;
+  private final long bits;
+  private final int hashes;
+  private final Counter negatives;
+  private final Counter positives;
+  private final Counter falsePositives;
+  private final Set<String> addedSinceRebuild = new HashSet<>();
+  private volatile Bits current;
+  private Bits building;
+
+  public OverdueCustomerFilter(@Value("${credit.overdue-filter.enabled:true}") boolean enabled,
+                               @Value("${credit.overdue-filter.single-writer:false}") boolean singleWriter,
+                               @Value("${credit.overdue-filter.expected-customers:1000000}") long expectedCustomers,
+                               @Value("${credit.overdue-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                               MeterRegistry meterRegistry) {
+    // Con varias instancias escritoras un "no" puede ignorar una marca reciente de otra: siempre "quizá"
+    this.enabled = enabled && singleWriter;
+    // m = -n ln p / (ln 2)^2 bits y k = m/n ln 2 funciones hash, redondeado a palabras de 64 bits
+    double optimal = -Math.max(expectedCustomers, 1) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    this.bits = Math.max(64, (long) Math.ceil(optimal / 64) * 64);
+    this.hashes = Math.max(1, (int) Math.round((double) bits / Math.max(expectedCustomers, 1) * Math.log(2)));
+    this.negatives = meterRegistry.counter("credit.overdue-filter.checks", "result", "negative");
+    this.positives = meterRegistry.counter("credit.overdue-filter.checks", "result", "positive");
+    this.falsePositives = meterRegistry.counter("credit.overdue-filter.false-positives");
+    Gauge.builder("credit.overdue-filter.bytes", this, filter -> filter.bits / 8.0)
+          .description("Memoria del filtro")
+          .register(meterRegistry);
+    Gauge.builder("credit.overdue-filter.false-positive-rate", this, OverdueCustomerFilter::estimatedFalsePositiveRate)
+          .description("Tasa de falsos positivos estimada con la ocupación actual de bits")
+          .register(meterRegistry);
+  }
+
+  /**
+   * @return false solo si el cliente seguro que no tiene créditos con deuda vencida
+   */
+  public boolean mightHaveOverdue(String customerDocument) {
+    Bits filter = current;
+    if (!enabled || filter == null || customerDocument == null) {
+      return true;
+    }
+    boolean found = filter.mightContain(customerDocument, hashes);
+    (found ? positives : negatives).increment();
+    return found;
+  }
+
+  /**
+   * Un "quizá" que la consulta exacta desmintió.
+   */
+  public void recordFalsePositive() {
+    falsePositives.increment();
+  }
+
+  /**
+   * Añade al cliente del crédito si este va a guardarse con deuda vencida. Se llama antes del guardado.
+   */
+  public void record(Credit credit) {
+    if (enabled && Boolean.TRUE.equals(credit.getHasOverdueDebt()) && credit.getCustomerDocument() != null) {
+      add(credit.getCustomerDocument());
+    }
+  }
+
+  private synchronized void add(String customerDocument) {
+    addedSinceRebuild.add(customerDocument);
+    if (current != null) {
+      current.put(customerDocument, hashes);
+    }
+    if (building != null) {
+      building.put(customerDocument, hashes);
+    }
+  }
+
+  /**
+   * Empieza un filtro nuevo con las marcas añadidas desde la reconstrucción anterior (alguna puede no estar
+   * aún en Mongo cuando se lea). Mientras se carga, las marcas nuevas van a los dos filtros.
+   *
+   * @return null si ya hay una reconstrucción en curso
+   */
+  public synchronized Rebuild startRebuild() {
+    if (building != null) {
+      return null;
+    }
+    building = new Bits(bits);
+    addedSinceRebuild.forEach(customerDocument -> building.put(customerDocument, hashes));
+    return new Rebuild(building);
+  }
+
+  public synchronized void finishRebuild(Rebuild rebuild) {
+    if (building == rebuild.bits) {
+      current = building;
+      building = null;
+      addedSinceRebuild.clear();
+    }
+  }
+
+  /**
+   * Se descarta el filtro a medias; el actual sigue sirviendo y conserva sus marcas para la siguiente.
+   */
+  public synchronized void abortRebuild(Rebuild rebuild) {
+    if (building == rebuild.bits) {
+      building = null;
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isInitialized() {
+    return current != null;
+  }
+
+  public long sizeInBytes() {
+    return bits / 8;
+  }
+
+  public int hashFunctions() {
+    return hashes;
+  }
+
+  /**
+   * (bits a 1 / bits)^k: la probabilidad de que un cliente que no está encuentre todos sus bits a 1.
+   */
+  public double estimatedFalsePositiveRate() {
+    Bits filter = current;
+    return filter == null ? 1.0 : Math.pow((double) filter.cardinality() / bits, hashes);
+  }
+
+  /**
+   * Filtro en carga; los clientes leídos de Mongo se añaden con add.
+   */
+  public final class Rebuild {
+    private final Bits bits;
+    private final LongAdder added = new LongAdder();
+
+    private Rebuild(Bits bits) {
+      this.bits = bits;
+    }
+
+    public void add(String customerDocument) {
+      if (customerDocument != null) {
+        bits.put(customerDocument, hashes);
+        added.increment();
+      }
+    }
+
+    public long added() {
+      return added.sum();
+    }
+  }
+
+  /**
+   * Bits del filtro. Las posiciones salen de dos hashes de 64 bits del documento (h1 + i*h2).
+   */
+  private static final class Bits {
+    private final AtomicLongArray words;
+    private final long size;
+
+    private Bits(long size) {
+      this.size = size;
+      this.words = new AtomicLongArray((int) (size / 64));
+    }
+
+    private void put(String key, int hashes) {
+      long h1 = hash(key);
+      long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+      for (int i = 0; i < hashes; i++) {
+        long bit = Math.floorMod(h1 + i * h2, size);
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long value = words.get(word);
+        while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+          value = words.get(word);
+        }
+      }
+    }
+
+    private boolean mightContain(String key, int hashes) {
+      long h1 = hash(key);
+      long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+      for (int i = 0; i < hashes; i++) {
+        long bit = Math.floorMod(h1 + i * h2, size);
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private long cardinality() {
+      long count = 0;
+      for (int i = 0; i < words.length(); i++) {
+        count += Long.bitCount(words.get(i));
+      }
+      return count;
+    }
+
+    /**
+     * FNV-1a sobre los caracteres, mezclado con el finalizador de MurmurHash3 para repartir los bits.
+     */
+    private static long hash(String key) {
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < key.length(); i++) {
+        hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+      }
+      return mix(hash);
+    }
+
+    private static long mix(long value) {
+      value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+      value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+      return value ^ (value >>> 33);
+    }
+  }
+}
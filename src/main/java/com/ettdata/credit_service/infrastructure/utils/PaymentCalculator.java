@@ -0,0 +1,120 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cuota mensual con amortización francesa: M = P * [r(1+r)^n] / [(1+r)^n - 1], r = tasa anual / 12.
+ * La parte que solo depende de (tasa, plazo) se calcula una vez y se guarda; cada cuota es entonces un
+ * producto y una división, redondeada a céntimos sin construir el decimal intermedio.
+ * Se guardan como mucho credit.quote.factor-cache-size pares; los demás se calculan sin guardar.
+ * Los resultados son los mismos que con la fórmula directa.
+ */
+@Component
+public class PaymentCalculator {
+
+  private static final BigDecimal MONTHS_PER_YEAR = BigDecimal.valueOf(12);
+  private static final int RATE_SCALE = 6;
+  private static final int MAX_CACHED_TERM = 1024;
+
+  private final Map<Long, Factor> factors = new ConcurrentHashMap<>();
+  private final int maxFactors;
+
+  public PaymentCalculator(@Value("${credit.quote.factor-cache-size:20000}") int maxFactors) {
+    this.maxFactors = maxFactors;
+  }
+
+  public BigDecimal monthlyPayment(BigDecimal principal, BigDecimal annualRate, Integer months) {
+    if (principal == null || annualRate == null || months == null || months == 0) {
+      return BigDecimal.ZERO;
+    }
+    return payment(principal, principal.doubleValue(), monthlyRate(annualRate), months);
+  }
+
+  /**
+   * Cuotas de todas las combinaciones, recorridas por tasa, después plazo y después importe:
+   * la cuota de (tasas[i], plazos[j], importes[k]) está en [(i * plazos + j) * importes + k].
+   */
+  public BigDecimal[] grid(List<BigDecimal> annualRates, List<Integer> terms, List<BigDecimal> principals) {
+    double[] amounts = new double[principals.size()];
+    for (int k = 0; k < amounts.length; k++) {
+      amounts[k] = principals.get(k).doubleValue();
+    }
+    BigDecimal[] payments = new BigDecimal[annualRates.size() * terms.size() * amounts.length];
+    int cell = 0;
+    for (BigDecimal annualRate : annualRates) {
+      BigDecimal monthlyRate = monthlyRate(annualRate);
+      for (Integer months : terms) {
+        for (int k = 0; k < amounts.length; k++) {
+          payments[cell++] = payment(principals.get(k), amounts[k], monthlyRate, months);
+        }
+      }
+    }
+    return payments;
+  }
+
+  private BigDecimal payment(BigDecimal principal, double amount, BigDecimal monthlyRate, int months) {
+    if (monthlyRate.signum() == 0) {
+      return principal.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+    }
+    Factor factor = factor(monthlyRate, months);
+    // Mismo orden de operaciones que la fórmula directa, para no cambiar ningún redondeo
+    double payment = amount * factor.growth / factor.discount;
+    return cents(payment);
+  }
+
+  /**
+   * Igual que BigDecimal.valueOf(payment).setScale(2, HALF_UP) sin pasar por el texto del double.
+   * El redondeo solo puede cambiar en un medio céntimo; lejos de él, basta con mirar payment * 100.
+   * Cerca (o fuera del rango exacto de un long) se usa el camino de BigDecimal.
+   */
+  static BigDecimal cents(double payment) {
+    double scaled = payment * 100;
+    if (scaled > 0 && scaled < 1e15) {
+      double whole = Math.floor(scaled);
+      double fraction = scaled - whole;
+      if (Math.abs(fraction - 0.5) > 4 * Math.ulp(scaled)) {
+        return BigDecimal.valueOf((long) whole + (fraction > 0.5 ? 1 : 0), 2);
+      }
+    }
+    return BigDecimal.valueOf(payment).setScale(2, RoundingMode.HALF_UP);
+  }
+
+  private Factor factor(BigDecimal monthlyRate, int months) {
+    if (months <= 0 || months >= MAX_CACHED_TERM || monthlyRate.unscaledValue().bitLength() > 40) {
+      return new Factor(monthlyRate.doubleValue(), months);
+    }
+    Long key = monthlyRate.unscaledValue().longValue() * MAX_CACHED_TERM + months;
+    Factor factor = factors.get(key);
+    if (factor == null) {
+      factor = new Factor(monthlyRate.doubleValue(), months);
+      if (factors.size() < maxFactors) {
+        factors.putIfAbsent(key, factor);
+      }
+    }
+    return factor;
+  }
+
+  private static BigDecimal monthlyRate(BigDecimal annualRate) {
+    return annualRate.divide(MONTHS_PER_YEAR, RATE_SCALE, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * r(1+r)^n y (1+r)^n - 1 para una tasa mensual y un plazo.
+   */
+  private static final class Factor {
+    private final double growth;
+    private final double discount;
+
+    private Factor(double rate, int months) {
+      double power = Math.pow(1 + rate, months);
+      this.growth = rate * power;
+      this.discount = power - 1;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.FieldViolation;
+import com.ettdata.credit_service.infrastructure.model.CreditHoldRequest;
+import com.ettdata.credit_service.infrastructure.model.CreditRequest;
+import com.ettdata.credit_service.infrastructure.model.CreditTransitionRequest;
+import com.ettdata.credit_service.infrastructure.model.DisbursementRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import javax.validation.Validator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Validación de peticiones de escritura con el validador de la aplicación (el mismo que aplica @Valid).
+ * Los metadatos de restricciones de cada DTO se construyen una vez al arrancar, no en la primera petición.
+ */
+@Slf4j
+@Component
+public class RequestValidator {
+
+  private static final List<Class<?>> REQUEST_TYPES = List.of(CreditRequest.class, DisbursementRequest.class,
+        CreditTransitionRequest.class, CreditHoldRequest.class);
+
+  private final Validator validator;
+
+  public RequestValidator(Validator validator) {
+    this.validator = validator;
+    REQUEST_TYPES.forEach(validator::getConstraintsForClass);
+    log.debug("Validation metadata ready for {}", REQUEST_TYPES);
+  }
+
+  /**
+   * @return los campos que no cumplen sus restricciones, ordenados por nombre; vacío si la petición es válida
+   */
+  public List<FieldViolation> violations(Object request) {
+    return validator.validate(request).stream()
+          .map(violation -> new FieldViolation(violation.getPropertyPath().toString(), violation.getMessage()))
+          .sorted(Comparator.comparing(FieldViolation::getField))
+          .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,57 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto global de reintentos (token bucket).
+ * Cada petición deposita una fracción de token (ratio) y cada reintento consume uno entero,
+ * así los reintentos nunca superan ese porcentaje del tráfico y no amplifican una caída.
+ * La reserva mínima permite reintentar aunque el tráfico sea bajo.
+ */
+public class RetryBudget {
+  private static final long SCALE = 1000;
+
+  private final long depositPerRequest;
+  private final long capacity;
+  private final AtomicLong balance;
+
+  /**
+   * @param ratio      reintentos permitidos por petición (0.1 = 10 %)
+   * @param minReserve reintentos disponibles al arrancar y saldo máximo acumulable
+   */
+  public RetryBudget(double ratio, int minReserve) {
+    this.depositPerRequest = Math.round(ratio * SCALE);
+    this.capacity = Math.max(minReserve, 1) * SCALE;
+    this.balance = new AtomicLong(capacity);
+  }
+
+  /**
+   * Registra una petición original (no un reintento).
+   */
+  public void onRequest() {
+    balance.getAndUpdate(current -> Math.min(capacity, current + depositPerRequest));
+  }
+
+  /**
+   * Intenta reservar un reintento.
+   * @return false si el presupuesto está agotado
+   */
+  public boolean tryAcquireRetry() {
+    while (true) {
+      long current = balance.get();
+      if (current < SCALE) {
+        return false;
+      }
+      if (balance.compareAndSet(current, current - SCALE)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Reintentos disponibles ahora mismo.
+   */
+  public double available() {
+    return balance.get() / (double) SCALE;
+  }
+}
@@ -0,0 +1,89 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementPayment;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Interpreta las líneas de los ficheros de liquidación.
+ * <p>
+ * CSV: {@code reference,creditNumber,amount,paymentDate} con importe decimal y fecha yyyy-MM-dd;
+ * la cabecera (primera columna "reference") se ignora.
+ * <p>
+ * Ancho fijo: registro D de 64 posiciones. Tipo (1), referencia (20), número de crédito (20),
+ * importe en céntimos (15 dígitos) y fecha yyyyMMdd (8). Los registros H (cabecera) y T (cola) se ignoran.
+ */
+@Component
+public class SettlementLineParser {
+
+  private static final int FIXED_WIDTH_LENGTH = 64;
+
+  /**
+   * @return el pago de la línea, o null si la línea no contiene un pago (vacía, cabecera o cola)
+   * @throws IllegalArgumentException si la línea está mal formada
+   */
+  public SettlementPayment parse(long line, String text, SettlementFormat format) {
+    if (text == null || text.isBlank()) {
+      return null;
+    }
+    return format == SettlementFormat.FIXED_WIDTH ? parseFixedWidth(line, text) : parseCsv(line, text);
+  }
+
+  private SettlementPayment parseCsv(long line, String text) {
+    String[] fields = text.split(",", -1);
+    if (fields[0].trim().equalsIgnoreCase("reference")) {
+      return null;
+    }
+    if (fields.length != 4) {
+      throw new IllegalArgumentException("Expected 4 fields but found " + fields.length);
+    }
+    return new SettlementPayment(line, fields[0].trim(), required(fields[1].trim(), "creditNumber"),
+          amount(fields[2].trim()), date(fields[3].trim(), DateTimeFormatter.ISO_LOCAL_DATE));
+  }
+
+  private SettlementPayment parseFixedWidth(long line, String text) {
+    char recordType = text.charAt(0);
+    if (recordType == 'H' || recordType == 'T') {
+      return null;
+    }
+    if (recordType != 'D') {
+      throw new IllegalArgumentException("Unknown record type " + recordType);
+    }
+    if (text.length() < FIXED_WIDTH_LENGTH) {
+      throw new IllegalArgumentException("Record shorter than " + FIXED_WIDTH_LENGTH + " characters");
+    }
+    String cents = text.substring(41, 56).trim();
+    if (cents.isEmpty() || !cents.chars().allMatch(Character::isDigit)) {
+      throw new IllegalArgumentException("Invalid amount: " + cents);
+    }
+    return new SettlementPayment(line, text.substring(1, 21).trim(), required(text.substring(21, 41).trim(), "creditNumber"),
+          new BigDecimal(cents).movePointLeft(2), date(text.substring(56, 64), DateTimeFormatter.BASIC_ISO_DATE));
+  }
+
+  private static String required(String value, String field) {
+    if (value.isEmpty()) {
+      throw new IllegalArgumentException("Missing " + field);
+    }
+    return value;
+  }
+
+  private static BigDecimal amount(String value) {
+    try {
+      return new BigDecimal(value);
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid amount: " + value);
+    }
+  }
+
+  private static LocalDate date(String value, DateTimeFormatter formatter) {
+    try {
+      return LocalDate.parse(value, formatter);
+    } catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException("Invalid payment date: " + value);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.sleuth.CurrentTraceContext;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.reactor.ReactorSleuth;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.util.function.Supplier;
+
+/**
+ * Spans hijos de la traza en curso (tomada del contexto de Reactor) para los pasos que la
+ * instrumentación automática no distingue: validaciones y llamadas al repositorio.
+ * Con spring.sleuth.enabled=false no hay tracer y los pasos se ejecutan tal cual.
+ */
+@Component
+public class TraceSpans {
+
+  private final Tracer tracer;
+  private final CurrentTraceContext currentTraceContext;
+
+  public TraceSpans(ObjectProvider<Tracer> tracer, ObjectProvider<CurrentTraceContext> currentTraceContext) {
+    this.tracer = tracer.getIfAvailable();
+    this.currentTraceContext = currentTraceContext.getIfAvailable();
+  }
+
+  public <T> Mono<T> mono(String name, Supplier<Mono<T>> step) {
+    if (tracer == null || currentTraceContext == null) {
+      return Mono.defer(step);
+    }
+    return ReactorSleuth.tracedMono(tracer, currentTraceContext, name, step);
+  }
+}
@@ -0,0 +1,77 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.out.CreditArchiveOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditArchiveBatch;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CreditArchivalServiceTest {
+
+	@Test
+	void fullBatchWithCreditsKeptLiveDoesNotStopArchival() {
+		// Lote lleno con dos créditos que cambiaron y se quedaron vivos, otro lleno y uno final incompleto
+		BatchesPort port = new BatchesPort(new CreditArchiveBatch(3, credits(1)), new CreditArchiveBatch(3, credits(3)),
+				new CreditArchiveBatch(1, credits(1)), new CreditArchiveBatch(3, credits(3)));
+		CreditArchivalService service = new CreditArchivalService(port, new ExposureCounters(), true,
+				Duration.ofDays(180), 3, Duration.ofMillis(1), new SimpleMeterRegistry());
+
+		assertEquals(5L, service.archiveClosedCredits().block());
+		assertEquals(3, port.calls);
+	}
+
+	private static List<Credit> credits(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> Credit.builder()
+						.id("c-" + i)
+						.type(CreditType.PERSONAL)
+						.status(CreditStatus.CANCELLED)
+						.creditLimit(BigDecimal.TEN)
+						.currentDebt(BigDecimal.ZERO)
+						.availableCredit(BigDecimal.TEN)
+						.build())
+				.collect(Collectors.toList());
+	}
+
+	private static final class BatchesPort implements CreditArchiveOutputPort {
+		private final Deque<CreditArchiveBatch> batches;
+		private int calls;
+
+		private BatchesPort(CreditArchiveBatch... batches) {
+			this.batches = new ArrayDeque<>(List.of(batches));
+		}
+
+		@Override
+		public Mono<CreditArchiveBatch> archiveClosedBefore(LocalDateTime cutoff, int batchSize) {
+			return Mono.fromSupplier(() -> {
+				calls++;
+				return batches.poll();
+			});
+		}
+
+		@Override
+		public Mono<Credit> findArchivedById(String idCredit) {
+			return Mono.empty();
+		}
+
+		@Override
+		public Flux<Credit> findArchivedByDocumentNumber(String documentNumber) {
+			return Flux.empty();
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.out.CreditHoldOutputPort;
+import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditHold;
+import com.ettdata.credit_service.domain.model.CreditHoldStatus;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.infrastructure.utils.CreditHoldLedger;
+import com.ettdata.credit_service.infrastructure.utils.CreditValidator;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.OptimisticWriteRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CreditHoldServiceTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CreditRepositoryOutputPort repository = mock(CreditRepositoryOutputPort.class);
+	private final InMemoryHoldPort holds = new InMemoryHoldPort();
+	private final CreditHoldLedger ledger = new CreditHoldLedger(registry);
+	private final CreditHoldService service = new CreditHoldService(holds, repository, ledger,
+			mock(CreditValidator.class), new OptimisticWriteRetry(3, Duration.ofMillis(1), Duration.ofMillis(5), 1.0, 20, registry),
+			new ExposureCounters(), registry, Duration.ofMinutes(15), Duration.ofDays(7), 500);
+	private final AtomicReference<Credit> stored = new AtomicReference<>(Credit.builder()
+			.id("c-1")
+			.type(CreditType.CREDIT_CARD)
+			.status(CreditStatus.ACTIVE)
+			.creditLimit(new BigDecimal("1000.00"))
+			.currentDebt(new BigDecimal("0.00"))
+			.availableCredit(new BigDecimal("1000.00"))
+			.version(0L)
+			.build());
+	// El siguiente guardado se escribe pero responde con error, como una respuesta perdida
+	private final AtomicBoolean loseNextReply = new AtomicBoolean();
+
+	CreditHoldServiceTest() {
+		when(repository.findById("c-1")).thenAnswer(invocation -> Mono.fromSupplier(() -> stored.get().toBuilder().build()));
+		when(repository.saveCredit(any())).thenAnswer(invocation -> {
+			Credit credit = invocation.getArgument(0);
+			return Mono.fromSupplier(() -> {
+				if (!credit.getVersion().equals(stored.get().getVersion())) {
+					throw new CreditVersionConflictException("Credit c-1 was modified");
+				}
+				Credit saved = credit.toBuilder().version(credit.getVersion() + 1).build();
+				stored.set(saved);
+				if (loseNextReply.getAndSet(false)) {
+					throw new IllegalStateException("connection reset");
+				}
+				return saved.toBuilder().build();
+			});
+		});
+	}
+
+	@Test
+	void captureWithALostReplyIsConfirmedByTheRecoveryWithoutChargingTwice() {
+		CreditHold hold = hold("h-1", "40.00", CreditHoldStatus.AUTHORIZED);
+		ledger.reserve(stored.get(), hold.getAmount());
+		ledger.add(hold);
+
+		loseNextReply.set(true);
+		assertEquals(500, service.capture("h-1").block().getCodResponse());
+		assertEquals(CreditHoldStatus.CAPTURING, holds.byId.get("h-1").getStatus());
+		assertEquals(new BigDecimal("40.00"), stored.get().getCurrentDebt());
+
+		assertEquals(1L, service.recoverCaptures().block());
+		assertEquals(CreditHoldStatus.CAPTURED, holds.byId.get("h-1").getStatus());
+		assertEquals(new BigDecimal("40.00"), stored.get().getCurrentDebt());
+		assertEquals(BigDecimal.ZERO.setScale(2), ledger.held("c-1").setScale(2));
+	}
+
+	@Test
+	void captureInterruptedBeforeTheChargeIsBookedByTheRecovery() {
+		// h-1 se cargó y el crédito la tiene anotada; h-2 quedó capturada sin cargo
+		stored.set(stored.get().toBuilder().currentDebt(new BigDecimal("40.00"))
+				.availableCredit(new BigDecimal("960.00")).lastCapturedHold("h-1").build());
+		hold("h-1", "40.00", CreditHoldStatus.CAPTURING);
+		hold("h-2", "25.00", CreditHoldStatus.CAPTURING);
+
+		assertEquals(2L, service.recoverCaptures().block());
+		assertEquals(CreditHoldStatus.CAPTURED, holds.byId.get("h-1").getStatus());
+		assertEquals(CreditHoldStatus.CAPTURED, holds.byId.get("h-2").getStatus());
+		assertEquals(new BigDecimal("65.00"), stored.get().getCurrentDebt());
+		assertEquals("h-2", stored.get().getLastCapturedHold());
+
+		assertEquals(0L, service.recoverCaptures().block());
+		assertEquals(new BigDecimal("65.00"), stored.get().getCurrentDebt());
+	}
+
+	private CreditHold hold(String holdId, String amount, CreditHoldStatus status) {
+		LocalDateTime now = LocalDateTime.now();
+		CreditHold hold = CreditHold.builder()
+				.holdId(holdId)
+				.creditId("c-1")
+				.amount(new BigDecimal(amount))
+				.status(status)
+				.createdAt(now)
+				.expiresAt(now.plusMinutes(15))
+				.updatedAt(now)
+				.build();
+		holds.byId.put(holdId, hold);
+		return hold;
+	}
+
+	/**
+	 * Registro en memoria con los cambios de estado condicionados al estado anterior, como el adaptador.
+	 */
+	private static final class InMemoryHoldPort implements CreditHoldOutputPort {
+		private final Map<String, CreditHold> byId = new ConcurrentHashMap<>();
+
+		@Override
+		public Mono<CreditHold> insert(CreditHold hold) {
+			byId.put(hold.getHoldId(), hold);
+			return Mono.just(hold);
+		}
+
+		@Override
+		public Mono<CreditHold> findById(String holdId) {
+			return Mono.justOrEmpty(byId.get(holdId));
+		}
+
+		@Override
+		public Flux<CreditHold> findAuthorized() {
+			return findByStatus(CreditHoldStatus.AUTHORIZED);
+		}
+
+		@Override
+		public Flux<CreditHold> findCapturing() {
+			return findByStatus(CreditHoldStatus.CAPTURING);
+		}
+
+		private Flux<CreditHold> findByStatus(CreditHoldStatus status) {
+			return Flux.fromIterable(byId.values())
+					.filter(hold -> hold.getStatus() == status)
+					.sort((a, b) -> a.getHoldId().compareTo(b.getHoldId()));
+		}
+
+		@Override
+		public synchronized Mono<Boolean> updateStatus(String holdId, CreditHoldStatus expected, CreditHoldStatus status,
+		                                               LocalDateTime at) {
+			CreditHold hold = byId.get(holdId);
+			if (hold == null || hold.getStatus() != expected) {
+				return Mono.just(false);
+			}
+			byId.put(holdId, hold.toBuilder().status(status).updatedAt(at).build());
+			return Mono.just(true);
+		}
+
+		@Override
+		public Mono<Long> expire(Collection<String> holdIds, LocalDateTime at) {
+			return Mono.just(0L);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.out.CreditTransitionOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditResponse;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditTransition;
+import com.ettdata.credit_service.domain.model.CreditTransitionResponse;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.infrastructure.model.CreditTransitionRequest;
+import com.ettdata.credit_service.infrastructure.utils.CreditMapperResponse;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.OverdueCustomerFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CreditTransitionServiceTest {
+
+	private final InMemoryTransitionPort port = new InMemoryTransitionPort();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CreditTransitionService service = new CreditTransitionService(port, new CreditMapperResponse(),
+			new ExposureCounters(), new OverdueCustomerFilter(true, true, 1000, 0.01, registry), registry, 2, 2);
+
+	@Test
+	void statusGuardsRejectTheSameCreditsAsTheSingleOperations() {
+		port.credit("paid", CreditStatus.ACTIVE, "0.00");
+		port.credit("owing", CreditStatus.ACTIVE, "10.00");
+		port.credit("cancelled", CreditStatus.CANCELLED, "0.00");
+
+		CreditTransitionResponse cancel = apply(CreditTransition.CANCEL, "paid", "owing", "missing", "paid");
+		assertNull(cancel.getError());
+		assertEquals(3, cancel.getRequested());
+		assertEquals(List.of(200, 400, 404), codes(cancel));
+		assertEquals("Cannot cancel credit with pending debt", cancel.getResults().get(1).getMessageResponse());
+		assertEquals(CreditStatus.CANCELLED, port.credits.get("paid").getStatus());
+		assertEquals(CreditStatus.ACTIVE, port.credits.get("owing").getStatus());
+
+		CreditTransitionResponse overdue = apply(CreditTransition.OVERDUE, "cancelled", "owing");
+		assertEquals(List.of(400, 200), codes(overdue));
+		assertEquals("Cannot update cancelled credit", overdue.getResults().get(0).getMessageResponse());
+		assertEquals(CreditStatus.OVERDUE, port.credits.get("owing").getStatus());
+
+		CreditTransitionResponse delete = apply(CreditTransition.DELETE, "owing", "cancelled");
+		assertEquals(List.of(400, 200), codes(delete));
+		assertEquals(CreditStatus.INACTIVE, port.credits.get("cancelled").getStatus());
+		assertEquals(1, delete.getApplied());
+		assertEquals(1, delete.getRejected());
+	}
+
+	@Test
+	void idsAreReadAndSavedInChunksAndAnsweredInRequestOrder() {
+		for (int i = 1; i <= 5; i++) {
+			port.credit("c" + i, CreditStatus.ACTIVE, "0.00");
+		}
+
+		CreditTransitionResponse response = apply(CreditTransition.CANCEL, "c5", "c1", "c4", "c2", "c3");
+		assertEquals(List.of(List.of("c5", "c1"), List.of("c4", "c2"), List.of("c3")), port.reads);
+		assertEquals(3, port.saves);
+		assertEquals(List.of("c5", "c1", "c4", "c2", "c3"), response.getResults().stream()
+				.map(CreditResponse::getCodEntity)
+				.collect(Collectors.toList()));
+		assertEquals(5, response.getApplied());
+	}
+
+	@Test
+	void versionConflictsAreRetriedUntilTheLimitAndThenAnsweredWith409() {
+		port.credit("c1", CreditStatus.ACTIVE, "0.00");
+		port.credit("c2", CreditStatus.ACTIVE, "0.00");
+		port.credit("c3", CreditStatus.ACTIVE, "0.00");
+		// c1 cambia una vez entre lectura y guardado; c2 cambia siempre y agota los dos reintentos
+		port.concurrentWrites.put("c1", 1);
+		port.concurrentWrites.put("c2", Integer.MAX_VALUE);
+
+		CreditTransitionResponse response = apply(CreditTransition.CANCEL, "c1", "c2", "c3");
+		assertEquals(List.of(200, 409, 200), codes(response));
+		assertEquals(List.of(List.of("c1", "c2"), List.of("c1", "c2"), List.of("c2"), List.of("c3")), port.reads);
+		assertEquals(4.0, registry.counter("credit.transitions", "transition", "CANCEL", "result", "conflicts").count());
+	}
+
+	@Test
+	void failedChunkKeepsTheResultsAlreadyKnownAndMarksTheRestAsNotProcessed() {
+		for (int i = 1; i <= 5; i++) {
+			port.credit("c" + i, CreditStatus.ACTIVE, "0.00");
+		}
+		port.failOnRead = 1;
+
+		CreditTransitionResponse response = apply(CreditTransition.CANCEL, "c1", "c2", "c3", "c4", "c5");
+		assertEquals("Error applying credit transition: connection reset", response.getError());
+		assertEquals(List.of(200, 200, 500, 500, 500), codes(response));
+		assertEquals("Credit c3 was not processed: Error applying credit transition: connection reset",
+				response.getResults().get(2).getMessageResponse());
+		assertEquals(2, response.getApplied());
+		assertEquals(3, response.getRejected());
+	}
+
+	private CreditTransitionResponse apply(CreditTransition transition, String... creditIds) {
+		return service.applyTransition(new CreditTransitionRequest(transition, List.of(creditIds))).block();
+	}
+
+	private static List<Integer> codes(CreditTransitionResponse response) {
+		return response.getResults().stream().map(CreditResponse::getCodResponse).collect(Collectors.toList());
+	}
+
+	/**
+	 * Puerto en memoria con guardado condicionado a la versión; puede simular escrituras concurrentes y fallos de lectura.
+	 */
+	private static final class InMemoryTransitionPort implements CreditTransitionOutputPort {
+		private final Map<String, Credit> credits = new HashMap<>();
+		private final Map<String, Integer> concurrentWrites = new HashMap<>();
+		private final List<List<String>> reads = new ArrayList<>();
+		private int saves;
+		private int failOnRead = -1;
+
+		private void credit(String id, CreditStatus status, String debt) {
+			credits.put(id, Credit.builder()
+					.id(id)
+					.type(CreditType.PERSONAL)
+					.status(status)
+					.creditLimit(new BigDecimal("100.00"))
+					.currentDebt(new BigDecimal(debt))
+					.availableCredit(new BigDecimal("100.00").subtract(new BigDecimal(debt)))
+					.hasOverdueDebt(false)
+					.version(0L)
+					.build());
+		}
+
+		@Override
+		public Flux<Credit> findByIds(Collection<String> creditIds) {
+			if (reads.size() == failOnRead) {
+				return Flux.error(new IllegalStateException("connection reset"));
+			}
+			reads.add(new ArrayList<>(creditIds));
+			return Flux.fromIterable(creditIds)
+					.mapNotNull(credits::get)
+					.map(credit -> credit.toBuilder().build());
+		}
+
+		@Override
+		public Mono<List<Credit>> saveAll(List<Credit> modified) {
+			saves++;
+			List<Credit> saved = new ArrayList<>();
+			for (Credit credit : modified) {
+				Credit current = credits.get(credit.getId());
+				int pending = concurrentWrites.getOrDefault(credit.getId(), 0);
+				if (pending > 0) {
+					concurrentWrites.put(credit.getId(), pending - 1);
+					credits.put(credit.getId(), current.toBuilder().version(current.getVersion() + 1).build());
+					continue;
+				}
+				if (current.getVersion().equals(credit.getVersion())) {
+					Credit stored = credit.toBuilder().version(credit.getVersion() + 1).build();
+					credits.put(credit.getId(), stored);
+					saved.add(stored);
+				}
+			}
+			return Mono.just(saved);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.out.PortfolioAnalyticsOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.ExposureCell;
+import com.ettdata.credit_service.domain.model.PortfolioAnalytics;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioExposureServiceTest {
+
+	private final ExposureCounters counters = new ExposureCounters();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final OverlappingAnalyticsPort port = new OverlappingAnalyticsPort();
+	private final PortfolioExposureService service = new PortfolioExposureService(port, counters, registry,
+			3, Duration.ofMillis(10));
+
+	@Test
+	void initializationReplacesWritesAlreadyInTheAggregateAndRetriesOnOverlap() {
+		// Un desembolso de 10 guardado antes del arranque ya está en Mongo cuando corre la agregación
+		counters.track(ExposureCounters.Position.of(credit("0.00")), Mono.just(credit("10.00"))).block();
+		// La primera agregación se cruza con otro desembolso: no se inicializa con ella
+		port.overlapping.set(1);
+
+		assertTrue(service.reconcile().block());
+		assertEquals(2, port.aggregations.get());
+		assertEquals(new BigDecimal("20.00"), counters.snapshot().getTotal().getTotalDebt());
+		assertEquals(1, counters.snapshot().getTotal().getCount());
+	}
+
+	@Test
+	void consecutiveSkippedReconciliationsArePublished() {
+		assertTrue(service.reconcile().block());
+		port.overlapping.set(2);
+
+		assertFalse(service.reconcile().block());
+		assertFalse(service.reconcile().block());
+		assertEquals(2.0, skippedInARow());
+		assertTrue(service.reconcile().block());
+		assertEquals(0.0, skippedInARow());
+	}
+
+	private double skippedInARow() {
+		return registry.get("credit.exposure.reconciliations.skipped.consecutive").gauge().value();
+	}
+
+	private static Credit credit(String debt) {
+		BigDecimal limit = new BigDecimal("1000.00");
+		return Credit.builder()
+				.type(CreditType.PERSONAL)
+				.status(CreditStatus.ACTIVE)
+				.creditLimit(limit)
+				.currentDebt(new BigDecimal(debt))
+				.availableCredit(limit.subtract(new BigDecimal(debt)))
+				.build();
+	}
+
+	/**
+	 * Mongo tiene un crédito con la deuda acumulada; las primeras agregaciones marcadas coinciden con una
+	 * escritura registrada de otros 10.
+	 */
+	private final class OverlappingAnalyticsPort implements PortfolioAnalyticsOutputPort {
+		private final AtomicInteger overlapping = new AtomicInteger();
+		private final AtomicInteger aggregations = new AtomicInteger();
+		private BigDecimal debt = new BigDecimal("10.00");
+
+		@Override
+		public Flux<ExposureCell> aggregateExposure() {
+			return Flux.defer(() -> {
+				aggregations.incrementAndGet();
+				ExposureCell cell = new ExposureCell(CreditType.PERSONAL, CreditStatus.ACTIVE, 1,
+						new BigDecimal("1000.00"), debt, new BigDecimal("1000.00").subtract(debt));
+				if (overlapping.getAndDecrement() > 0) {
+					BigDecimal next = debt.add(BigDecimal.TEN);
+					counters.track(ExposureCounters.Position.of(credit(debt.toPlainString())),
+							Mono.just(credit(next.toPlainString()))).block();
+					debt = next;
+				}
+				return Flux.just(cell);
+			});
+		}
+
+		@Override
+		public Mono<PortfolioAnalytics> aggregatePortfolio() {
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Long> countCredits() {
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Boolean> hasChangesSince(LocalDateTime updatedAt) {
+			return Mono.empty();
+		}
+	}
+}
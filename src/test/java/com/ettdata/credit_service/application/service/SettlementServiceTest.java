@@ -0,0 +1,241 @@
+package com.ettdata.credit_service.application.service;
+
+import com.ettdata.credit_service.application.port.out.SettlementOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.ExposureCell;
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementReport;
+import com.ettdata.credit_service.domain.model.SettlementReportResponse;
+import com.ettdata.credit_service.domain.model.SettlementStatus;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.SettlementLineParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SettlementServiceTest {
+
+	private static final List<String> FILE = List.of(
+			"reference,creditNumber,amount,paymentDate",
+			"p-1,CR-1,10.00,2024-03-01",
+			"p-2,CR-2,20.00,2024-03-01",
+			"p-3,CR-1,5.00,2024-03-01",
+			"p-4,CR-2,not-an-amount,2024-03-01",
+			"p-5,CR-1,1.00,2024-03-01");
+
+	private final InMemorySettlementPort port = new InMemorySettlementPort();
+	private final ExposureCounters exposure = new ExposureCounters();
+	private final SettlementService service = new SettlementService(port, new SettlementLineParser(), exposure,
+			new SimpleMeterRegistry(), 2, 3, 100, Duration.ofMinutes(10));
+
+	@Test
+	void interruptedFileResumesFromItsCheckpointWithoutApplyingPaymentsTwice() {
+		port.credit("CR-1", "100.00");
+		port.credit("CR-2", "100.00");
+		exposure.initialize(List.of(new ExposureCell(CreditType.PERSONAL, CreditStatus.ACTIVE, 2,
+				new BigDecimal("400.00"), new BigDecimal("200.00"), new BigDecimal("200.00"))));
+
+		// La subida se corta tras la línea 4: el bloque de las líneas 2-3 se aplica y la 4, en un bloque a medias, no
+		SettlementReportResponse failed = service.ingestSettlement("file-1", SettlementFormat.CSV,
+				Flux.fromIterable(FILE.subList(0, 4)).concatWith(Mono.error(new IllegalStateException("upload cut"))))
+				.block();
+		assertEquals(SettlementStatus.FAILED, failed.getData().getStatus());
+		assertEquals(3, failed.getData().getCommittedLine());
+		assertEquals(new BigDecimal("90.00"), port.credits.get("CR-1").getCurrentDebt());
+		assertEquals(new BigDecimal("80.00"), port.credits.get("CR-2").getCurrentDebt());
+
+		SettlementReportResponse resumed = service.ingestSettlement("file-1", SettlementFormat.CSV,
+				Flux.fromIterable(FILE)).block();
+		SettlementReport report = resumed.getData();
+		assertNull(resumed.getError());
+		assertEquals(SettlementStatus.COMPLETED, report.getStatus());
+		assertEquals(3, report.getResumedFromLine());
+		assertEquals(6, report.getCommittedLine());
+		assertEquals(4, report.getApplied());
+		assertEquals(1, report.getRejected());
+		assertEquals(5, report.getRejects().get(0).getLine());
+		assertEquals(new BigDecimal("84.00"), port.credits.get("CR-1").getCurrentDebt());
+		assertEquals(new BigDecimal("80.00"), port.credits.get("CR-2").getCurrentDebt());
+		// Los pagos van a los contadores de exposición una sola vez, también los reconocidos al reanudar
+		assertEquals(new BigDecimal("164.00"), exposure.snapshot().getTotal().getTotalDebt());
+		assertEquals(new BigDecimal("236.00"), exposure.snapshot().getTotal().getTotalAvailable());
+
+		// Un fichero completado no se vuelve a aplicar
+		SettlementReportResponse again = service.ingestSettlement("file-1", SettlementFormat.CSV,
+				Flux.fromIterable(FILE)).block();
+		assertEquals(SettlementStatus.COMPLETED, again.getData().getStatus());
+		assertEquals(new BigDecimal("84.00"), port.credits.get("CR-1").getCurrentDebt());
+	}
+
+	@Test
+	void secondIngestionOfAFileInProgressIsRejected() {
+		port.credit("CR-1", "100.00");
+		port.credit("CR-2", "100.00");
+		Sinks.Many<String> upload = Sinks.many().unicast().onBackpressureBuffer();
+		Mono<SettlementReportResponse> first = service.ingestSettlement("file-1", SettlementFormat.CSV, upload.asFlux())
+				.cache();
+		first.subscribe();
+		upload.tryEmitNext(FILE.get(0));
+		upload.tryEmitNext(FILE.get(1));
+
+		AtomicInteger read = new AtomicInteger();
+		SettlementReportResponse second = service.ingestSettlement("file-1", SettlementFormat.CSV,
+				Flux.fromIterable(FILE).doOnNext(line -> read.incrementAndGet())).block();
+		assertEquals("Settlement file is already being ingested", second.getError());
+		assertEquals(SettlementStatus.RUNNING, second.getData().getStatus());
+		assertEquals(0, read.get());
+
+		FILE.subList(2, FILE.size()).forEach(upload::tryEmitNext);
+		upload.tryEmitComplete();
+		assertEquals(SettlementStatus.COMPLETED, first.block().getData().getStatus());
+		assertEquals(new BigDecimal("84.00"), port.credits.get("CR-1").getCurrentDebt());
+
+		// Una reserva abandonada caduca y el fichero puede reanudarse
+		port.reports.get("file-1").setStatus(SettlementStatus.RUNNING);
+		port.reports.get("file-1").setHeartbeatAt(LocalDateTime.now().minusHours(1));
+		port.reports.get("file-1").setCommittedLine(2);
+		assertEquals(SettlementStatus.COMPLETED, service.ingestSettlement("file-1", SettlementFormat.CSV,
+				Flux.fromIterable(FILE)).block().getData().getStatus());
+		assertEquals(new BigDecimal("84.00"), port.credits.get("CR-1").getCurrentDebt());
+	}
+
+	@Test
+	void anotherFileWaitsUntilTheInterruptedOneIsCompleted() {
+		port.credit("CR-1", "100.00");
+		port.credit("CR-2", "100.00");
+		service.ingestSettlement("file-a", SettlementFormat.CSV,
+				Flux.fromIterable(FILE.subList(0, 4)).concatWith(Mono.error(new IllegalStateException("upload cut"))))
+				.block();
+
+		// Otro fichero que paga CR-1 mientras file-a está a medias movería la última línea aplicada del crédito
+		AtomicInteger read = new AtomicInteger();
+		List<String> other = List.of(FILE.get(0), "q-1,CR-1,30.00,2024-03-02");
+		SettlementReportResponse rejected = service.ingestSettlement("file-b", SettlementFormat.CSV,
+				Flux.fromIterable(other).doOnNext(line -> read.incrementAndGet())).block();
+		assertEquals("Settlement file file-a must be completed before ingesting another", rejected.getError());
+		assertEquals("file-a", rejected.getData().getFileId());
+		assertEquals(SettlementStatus.FAILED, rejected.getData().getStatus());
+		assertEquals(0, read.get());
+		assertEquals(new BigDecimal("90.00"), port.credits.get("CR-1").getCurrentDebt());
+
+		assertEquals(SettlementStatus.COMPLETED, service.ingestSettlement("file-a", SettlementFormat.CSV,
+				Flux.fromIterable(FILE)).block().getData().getStatus());
+		SettlementReportResponse accepted = service.ingestSettlement("file-b", SettlementFormat.CSV,
+				Flux.fromIterable(other)).block();
+		assertNull(accepted.getError());
+		assertEquals(SettlementStatus.COMPLETED, accepted.getData().getStatus());
+		assertEquals(new BigDecimal("54.00"), port.credits.get("CR-1").getCurrentDebt());
+		assertNull(port.turn.get());
+	}
+
+	/**
+	 * Puerto en memoria con la misma semántica de turno, de reserva y de guardado condicionado a la versión
+	 * que el adaptador.
+	 */
+	private static final class InMemorySettlementPort implements SettlementOutputPort {
+		private final Map<String, SettlementReport> reports = new ConcurrentHashMap<>();
+		private final Map<String, Credit> credits = new ConcurrentHashMap<>();
+		private final AtomicReference<String> turn = new AtomicReference<>();
+
+		private void credit(String creditNumber, String debt) {
+			credits.put(creditNumber, Credit.builder()
+					.id(creditNumber)
+					.creditNumber(creditNumber)
+					.type(CreditType.PERSONAL)
+					.status(CreditStatus.ACTIVE)
+					.creditLimit(new BigDecimal("200.00"))
+					.currentDebt(new BigDecimal(debt))
+					.availableCredit(new BigDecimal("200.00").subtract(new BigDecimal(debt)))
+					.version(0L)
+					.build());
+		}
+
+		@Override
+		public Mono<SettlementReport> findReport(String fileId) {
+			return Mono.justOrEmpty(reports.get(fileId)).map(InMemorySettlementPort::copy);
+		}
+
+		@Override
+		public Mono<String> acquireIngestionTurn(String fileId) {
+			return Mono.fromSupplier(() -> turn.compareAndSet(null, fileId) ? fileId : turn.get());
+		}
+
+		@Override
+		public Mono<Void> releaseIngestionTurn(String fileId) {
+			return Mono.fromRunnable(() -> turn.compareAndSet(fileId, null));
+		}
+
+		@Override
+		public synchronized Mono<SettlementReport> claimReport(String fileId, SettlementFormat format, String claimId,
+		                                                       LocalDateTime staleBefore) {
+			SettlementReport report = reports.get(fileId);
+			if (report == null) {
+				report = SettlementReport.builder().fileId(fileId).format(format).startedAt(LocalDateTime.now()).build();
+			} else if (report.getStatus() == SettlementStatus.COMPLETED
+					|| report.getStatus() == SettlementStatus.RUNNING && report.getHeartbeatAt().isAfter(staleBefore)) {
+				return Mono.empty();
+			}
+			report.setStatus(SettlementStatus.RUNNING);
+			report.setClaimId(claimId);
+			report.setHeartbeatAt(LocalDateTime.now());
+			reports.put(fileId, report);
+			return findReport(fileId);
+		}
+
+		@Override
+		public synchronized Mono<SettlementReport> saveReport(SettlementReport report) {
+			SettlementReport stored = reports.get(report.getFileId());
+			if (stored == null || !stored.getClaimId().equals(report.getClaimId())) {
+				return Mono.error(new IllegalStateException("Settlement file was claimed by another ingestion"));
+			}
+			SettlementReport saved = copy(report);
+			saved.setHeartbeatAt(LocalDateTime.now());
+			reports.put(report.getFileId(), saved);
+			return findReport(report.getFileId());
+		}
+
+		private static SettlementReport copy(SettlementReport report) {
+			SettlementReport copy = report.toBuilder().build();
+			copy.setRejects(report.getRejects() != null ? new ArrayList<>(report.getRejects()) : null);
+			return copy;
+		}
+
+		@Override
+		public Flux<Credit> findByCreditNumbers(Collection<String> creditNumbers) {
+			return Flux.fromIterable(creditNumbers)
+					.mapNotNull(credits::get)
+					.map(credit -> credit.toBuilder().build());
+		}
+
+		@Override
+		public synchronized Mono<List<Credit>> applyPayments(List<Credit> modified) {
+			List<Credit> saved = new ArrayList<>();
+			for (Credit credit : modified) {
+				Credit current = credits.get(credit.getCreditNumber());
+				if (current.getVersion().equals(credit.getVersion())) {
+					Credit next = credit.toBuilder().version(credit.getVersion() + 1).build();
+					credits.put(credit.getCreditNumber(), next);
+					saved.add(next);
+				}
+			}
+			return Mono.just(saved);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.ettdata.credit_service.benchmark;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.ettdata.credit_service.infrastructure.utils.CreditMapper;
+import com.ettdata.credit_service.infrastructure.utils.PaymentCalculator;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tamaño en BSON y coste por documento de escribir/leer créditos desde y hacia el dominio:
+ * v1 con el esquema anterior (mapeo por reflexión de Spring sobre CreditEntity más CreditMapper) y
+ * v2 con el compacto, que CreditDocumentCodec codifica y decodifica directamente a Credit.
+ * Se ejecuta con JMH sobre el classpath de test; con -prof gc da también la asignación por documento:
+ * org.openjdk.jmh.Main CreditDocumentBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CreditDocumentBenchmark.CREDITS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditDocumentBenchmark {
+
+  static final int CREDITS = 10000;
+
+  @Param({"v1", "v2"})
+  public String schema;
+
+  private final DocumentCodec documentCodec = new DocumentCodec();
+  private final CreditDocumentCodec codec = new CreditDocumentCodec();
+  private final CreditMapper mapper = new CreditMapper(new PaymentCalculator(20000));
+  private MappingMongoConverter converter;
+  private List<Credit> credits;
+  private List<byte[]> encoded;
+
+  @Setup
+  public void setup() {
+    MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+    MongoMappingContext context = new MongoMappingContext();
+    context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    context.afterPropertiesSet();
+    converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+
+    credits = CreditListCodecBenchmark.sampleCredits(CREDITS);
+    credits.forEach(credit -> credit.setVersion(7L));
+    encoded = new ArrayList<>(CREDITS);
+    long bytes = 0;
+    for (Credit credit : credits) {
+      byte[] document = toBytes(credit);
+      encoded.add(document);
+      bytes += document.length;
+    }
+    System.out.printf("%n[%s] BSON size for %d credits: %d bytes (%d per document)%n",
+          schema, CREDITS, bytes, bytes / CREDITS);
+  }
+
+  @Benchmark
+  public void encode(Blackhole blackhole) {
+    for (Credit credit : credits) {
+      blackhole.consume(toBytes(credit));
+    }
+  }
+
+  @Benchmark
+  public void decode(Blackhole blackhole) {
+    for (byte[] bytes : encoded) {
+      Document document = documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)),
+            DecoderContext.builder().build());
+      blackhole.consume("v2".equals(schema)
+            ? codec.decode(document)
+            : mapper.toDomain(converter.read(CreditEntity.class, document)));
+    }
+  }
+
+  private byte[] toBytes(Credit credit) {
+    Document document;
+    if ("v2".equals(schema)) {
+      document = codec.encode(credit);
+    } else {
+      document = new Document();
+      converter.write(mapper.toEntity(credit), document);
+    }
+    ByteBuffer buffer = new RawBsonDocument(document, documentCodec).getByteBuffer().asNIO();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,117 @@
+package com.ettdata.credit_service.benchmark;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditListResponse;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de codificar/decodificar un CreditListResponse de 10k créditos en JSON, CBOR y Smile.
+ * Se ejecuta con JMH sobre el classpath de test: org.openjdk.jmh.Main CreditListCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditListCodecBenchmark {
+
+  @Param({"json", "cbor", "smile"})
+  public String format;
+
+  @Param({"10000"})
+  public int credits;
+
+  private ObjectMapper mapper;
+  private CreditListResponse payload;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws Exception {
+    mapper = mapperFor(format);
+    payload = new CreditListResponse(sampleCredits(credits), null);
+    encoded = mapper.writeValueAsBytes(payload);
+    System.out.printf("%n[%s] payload size for %d credits: %d bytes%n", format, credits, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() throws Exception {
+    return mapper.writeValueAsBytes(payload);
+  }
+
+  @Benchmark
+  public CreditListResponse decode() throws Exception {
+    return mapper.readValue(encoded, CreditListResponse.class);
+  }
+
+  private static ObjectMapper mapperFor(String format) {
+    JsonFactory factory;
+    switch (format) {
+      case "cbor":
+        factory = new CBORFactory();
+        break;
+      case "smile":
+        factory = new SmileFactory();
+        break;
+      default:
+        factory = new JsonFactory();
+    }
+    // Misma configuración que aplica Spring Boot al ObjectMapper de la aplicación
+    return Jackson2ObjectMapperBuilder.json()
+          .factory(factory)
+          .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+          .build();
+  }
+
+  static List<Credit> sampleCredits(int count) {
+    List<Credit> list = new ArrayList<>(count);
+    CreditType[] types = CreditType.values();
+    for (int i = 0; i < count; i++) {
+      BigDecimal limit = BigDecimal.valueOf(5_000 + (i % 97) * 250L, 0).setScale(2);
+      BigDecimal debt = BigDecimal.valueOf((i % 13) * 123_45L, 2);
+      list.add(Credit.builder()
+            .id(UUID.randomUUID().toString())
+            .creditNumber(String.format("CRP-%06d-%04d", i, i % 10000))
+            .customerDocument(String.valueOf(40_000_000 + i))
+            .type(types[i % types.length])
+            .creditLimit(limit)
+            .currentDebt(debt)
+            .availableCredit(limit.subtract(debt))
+            .interestRate(new BigDecimal("0.1850"))
+            .termMonths(12 + i % 48)
+            .monthlyPayment(new BigDecimal("456.78"))
+            .dueDate(LocalDate.of(2026, 1 + i % 12, 1))
+            .hasOverdueDebt(i % 50 == 0)
+            .status(i % 50 == 0 ? CreditStatus.OVERDUE : CreditStatus.ACTIVE)
+            .createdAt(LocalDateTime.of(2025, 6, 1, 10, 0).plusMinutes(i))
+            .updatedAt(LocalDateTime.of(2025, 9, 1, 10, 0).plusMinutes(i))
+            .build());
+    }
+    return list;
+  }
+}
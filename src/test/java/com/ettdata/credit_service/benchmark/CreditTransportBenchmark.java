@@ -0,0 +1,125 @@
+package com.ettdata.credit_service.benchmark;
+
+import com.ettdata.credit_service.CreditServiceApplication;
+import com.ettdata.credit_service.application.port.in.CreditInputPort;
+import com.ettdata.credit_service.domain.model.CreditResponse;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Lectura por id sobre HTTP/1.1 (conexión reutilizada o nueva en cada llamada) frente a RSocket (una
+ * conexión TCP multiplexada), en serie y con 100 llamadas concurrentes. El puerto de entrada es un stub
+ * para medir solo transporte y codificación; ambos lados usan JSON.
+ * Se ejecuta con JMH sobre el classpath de test: org.openjdk.jmh.Main CreditTransportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditTransportBenchmark {
+
+  @Param({"http", "http-new-connection", "rsocket"})
+  public String transport;
+
+  private ConfigurableApplicationContext context;
+  private WebClient webClient;
+  private RSocketRequester requester;
+
+  @Setup
+  public void setup() {
+    context = new SpringApplicationBuilder(CreditServiceApplication.class, StubPortConfig.class)
+          .properties("server.port=0", "spring.rsocket.server.port=0", "spring.main.banner-mode=off",
+                "logging.level.root=WARN", "credit.analytics.initial-delay-ms=3600000",
+                "credit.exposure.initial-delay-ms=3600000", "credit.archive.enabled=false",
+                "credit.schema.upgrade.enabled=false")
+          .run();
+    String httpPort = context.getEnvironment().getProperty("local.server.port");
+    int rsocketPort = Integer.parseInt(context.getEnvironment().getProperty("local.rsocket.server.port"));
+
+    HttpClient httpClient = "http-new-connection".equals(transport)
+          ? HttpClient.create(ConnectionProvider.newConnection())
+          : HttpClient.create();
+    webClient = WebClient.builder()
+          .baseUrl("http://localhost:" + httpPort)
+          .clientConnector(new ReactorClientHttpConnector(httpClient))
+          .build();
+    requester = context.getBean(RSocketRequester.Builder.class)
+          .dataMimeType(MediaType.APPLICATION_JSON)
+          .tcp("localhost", rsocketPort);
+  }
+
+  @TearDown
+  public void tearDown() {
+    requester.dispose();
+    context.close();
+  }
+
+  @Benchmark
+  public CreditResponse single() {
+    return getById("credit-1").block();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(100)
+  public CreditResponse concurrent100() {
+    return Flux.range(0, 100)
+          .flatMap(i -> getById("credit-" + i), 100)
+          .blockLast();
+  }
+
+  private Mono<CreditResponse> getById(String id) {
+    if ("rsocket".equals(transport)) {
+      return requester.route("credits.by-id").data(id).retrieveMono(CreditResponse.class);
+    }
+    return webClient.get()
+          .uri("/api/credits/{id}", id)
+          .accept(MediaType.APPLICATION_JSON)
+          .retrieve()
+          .bodyToMono(CreditResponse.class);
+  }
+
+  /**
+   * Sin @Configuration a propósito: solo se registra como fuente explícita del contexto del benchmark,
+   * el escaneo de componentes de la aplicación no la recoge.
+   */
+  static class StubPortConfig {
+    @Bean
+    @Primary
+    CreditInputPort stubCreditInputPort() {
+      CreditInputPort port = Mockito.mock(CreditInputPort.class);
+      Mockito.when(port.getCreditVersionTag(anyString())).thenReturn(Mono.empty());
+      Mockito.when(port.getCreditById(anyString())).thenAnswer(invocation ->
+            Mono.just(new CreditResponse(200, "Credit found", invocation.getArgument(0))));
+      return port;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.ettdata.credit_service.benchmark;
+
+import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.CreditVersion;
+import com.ettdata.credit_service.infrastructure.adapter.HotTierCreditAdapter;
+import com.ettdata.credit_service.infrastructure.utils.CreditHoldLedger;
+import com.ettdata.credit_service.infrastructure.utils.CreditWriteLanes;
+import com.ettdata.credit_service.infrastructure.utils.ExposureCounters;
+import com.ettdata.credit_service.infrastructure.utils.OptimisticWriteRetry;
+import com.ettdata.credit_service.infrastructure.utils.OverdueCustomerFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disposiciones concurrentes (8 hilos) sobre un único crédito caliente, con carriles y sin ellos
+ * (cada escritura lee, modifica y guarda por su cuenta con OptimisticWriteRetry).
+ * El repositorio es la capa en memoria con una latencia simulada por ida y vuelta a la base de datos.
+ * Las disposiciones que agotan los reintentos se cuentan como fallidas y se muestran al terminar.
+ * Se ejecuta con JMH sobre el classpath de test: org.openjdk.jmh.Main CreditWriteLanesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CreditWriteLanesBenchmark {
+
+  private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+  @Param({"true", "false"})
+  public boolean lanes;
+
+  @Param({"0", "500"})
+  public long roundTripMicros;
+
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private CreditWriteLanes writeLanes;
+  private String creditId;
+
+  @Setup
+  public void setup() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    HotTierCreditAdapter tier = HotTierCreditAdapter.standalone();
+    creditId = tier.saveCredit(Credit.builder()
+                .creditNumber("CC-HOT")
+                .customerDocument("40000001")
+                .type(CreditType.CREDIT_CARD)
+                .creditLimit(new BigDecimal("1000000000.00"))
+                .currentDebt(BigDecimal.ZERO)
+                .availableCredit(new BigDecimal("1000000000.00"))
+                .interestRate(new BigDecimal("0.1850"))
+                .termMonths(24)
+                .hasOverdueDebt(false)
+                .status(CreditStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build())
+          .block()
+          .getId();
+    writeLanes = new CreditWriteLanes(new RoundTrip(tier, Duration.ofNanos(roundTripMicros * 1000)),
+          new ExposureCounters(), new CreditHoldLedger(registry),
+          new OptimisticWriteRetry(3, Duration.ofMillis(10), Duration.ofMillis(200), 0.2, 20, registry),
+          new OverdueCustomerFilter(false, false, 1, 0.01, registry), registry, lanes, 16, 64);
+  }
+
+  @TearDown
+  public void tearDown() {
+    System.out.printf("%n[lanes=%s, roundTrip=%dus] completed=%d failed=%d%n",
+          lanes, roundTripMicros, completed.get(), failed.get());
+  }
+
+  @Benchmark
+  public Credit disburse() {
+    return writeLanes.write(creditId, "disburse-credit", credit -> {
+          credit.setAvailableCredit(credit.getAvailableCredit().subtract(AMOUNT));
+          credit.setCurrentDebt(credit.getCurrentDebt().add(AMOUNT));
+          return Mono.just(credit);
+        })
+        .doOnNext(saved -> completed.incrementAndGet())
+        .onErrorResume(ex -> {
+          failed.incrementAndGet();
+          return Mono.empty();
+        })
+        .block();
+  }
+
+  /**
+   * Añade a lecturas y guardados la latencia de una ida y vuelta a la base de datos.
+   */
+  private static final class RoundTrip implements CreditRepositoryOutputPort {
+    private final CreditRepositoryOutputPort delegate;
+    private final Duration latency;
+
+    private RoundTrip(CreditRepositoryOutputPort delegate, Duration latency) {
+      this.delegate = delegate;
+      this.latency = latency;
+    }
+
+    private <T> Mono<T> delayed(Mono<T> call) {
+      return latency.isZero() ? call : Mono.delay(latency).then(call);
+    }
+
+    @Override
+    public Flux<Credit> findAllCredit() {
+      return delegate.findAllCredit();
+    }
+
+    @Override
+    public Mono<Credit> saveCredit(Credit credit) {
+      return delayed(Mono.defer(() -> delegate.saveCredit(credit)));
+    }
+
+    @Override
+    public Mono<Void> deleteByIdCredit(String idCredit) {
+      return delegate.deleteByIdCredit(idCredit);
+    }
+
+    @Override
+    public Flux<Credit> findByDocumentNumber(String documentNumber) {
+      return delegate.findByDocumentNumber(documentNumber);
+    }
+
+    @Override
+    public Flux<Credit> findOpenByDocumentNumber(String documentNumber) {
+      return delegate.findOpenByDocumentNumber(documentNumber);
+    }
+
+    @Override
+    public Mono<Credit> findById(String idCredit) {
+      return delayed(Mono.defer(() -> delegate.findById(idCredit)));
+    }
+
+    @Override
+    public Flux<CreditVersion> findVersionsByDocumentNumber(String documentNumber) {
+      return delegate.findVersionsByDocumentNumber(documentNumber);
+    }
+
+    @Override
+    public Mono<CreditVersion> findVersionById(String idCredit) {
+      return delegate.findVersionById(idCredit);
+    }
+
+    @Override
+    public Flux<Credit> streamCredits(CreditStatus status, CreditType type) {
+      return delegate.streamCredits(status, type);
+    }
+
+    @Override
+    public Flux<Credit> watchCredits() {
+      return delegate.watchCredits();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.ettdata.credit_service.benchmark;
+
+import com.ettdata.credit_service.infrastructure.utils.PaymentCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por cuota de una rejilla de 50 tasas x 30 plazos x 5 importes: la fórmula directa cuota a cuota
+ * (como la calculaba CreditMapper) frente a PaymentCalculator.grid, que comparte los factores (tasa, plazo).
+ * Se ejecuta con JMH sobre el classpath de test: org.openjdk.jmh.Main PaymentQuoteBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentQuoteBenchmark {
+
+  private static final int CELLS = 50 * 30 * 5;
+
+  private final PaymentCalculator calculator = new PaymentCalculator(20000);
+  private List<BigDecimal> rates;
+  private List<Integer> terms;
+  private List<BigDecimal> amounts;
+
+  @Setup
+  public void setup() {
+    rates = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      rates.add(new BigDecimal("0.0800").add(new BigDecimal("0.0025").multiply(BigDecimal.valueOf(i))));
+    }
+    terms = new ArrayList<>();
+    for (int j = 1; j <= 30; j++) {
+      terms.add(j * 12);
+    }
+    amounts = List.of(new BigDecimal("5000.00"), new BigDecimal("10000.00"), new BigDecimal("25000.00"),
+          new BigDecimal("50000.00"), new BigDecimal("120000.00"));
+
+    BigDecimal[] grid = calculator.grid(rates, terms, amounts);
+    int cell = 0;
+    for (BigDecimal rate : rates) {
+      for (Integer months : terms) {
+        for (BigDecimal amount : amounts) {
+          if (grid[cell++].compareTo(direct(amount, rate, months)) != 0) {
+            throw new IllegalStateException("Grid differs from the direct formula at " + rate + "/" + months + "/" + amount);
+          }
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CELLS)
+  public void directPerCell(Blackhole blackhole) {
+    for (BigDecimal rate : rates) {
+      for (Integer months : terms) {
+        for (BigDecimal amount : amounts) {
+          blackhole.consume(direct(amount, rate, months));
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CELLS)
+  public void grid(Blackhole blackhole) {
+    blackhole.consume(calculator.grid(rates, terms, amounts));
+  }
+
+  /**
+   * La fórmula tal como estaba en CreditMapper.
+   */
+  private static BigDecimal direct(BigDecimal principal, BigDecimal annualRate, Integer months) {
+    if (annualRate.compareTo(BigDecimal.ZERO) == 0) {
+      return principal.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+    }
+    BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(12), 6, RoundingMode.HALF_UP);
+    double r = monthlyRate.doubleValue();
+    double p = principal.doubleValue();
+    double power = Math.pow(1 + r, months);
+    double payment = p * (r * power) / (power - 1);
+    return BigDecimal.valueOf(payment).setScale(2, RoundingMode.HALF_UP);
+  }
+}
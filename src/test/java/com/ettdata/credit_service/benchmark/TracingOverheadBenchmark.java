@@ -0,0 +1,115 @@
+package com.ettdata.credit_service.benchmark;
+
+import com.ettdata.credit_service.CreditServiceApplication;
+import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.model.CreditResponse;
+import com.ettdata.credit_service.infrastructure.adapter.HotTierCreditAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coste del trazado en POST /api/credits/all: sin Sleuth, con el muestreo por defecto (10 %) y
+ * muestreando todo, exportando los spans a fichero. El servicio de clientes es un stub HTTP local y
+ * el repositorio la capa en memoria, para que el tiempo medido sea el del propio servicio.
+ * Se ejecuta con JMH sobre el classpath de test: org.openjdk.jmh.Main TracingOverheadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+  @Param({"off", "0.1", "1.0"})
+  public String sampling;
+
+  private final AtomicLong documents = new AtomicLong(10_000_000);
+  private DisposableServer customerStub;
+  private ConfigurableApplicationContext context;
+  private WebClient webClient;
+  private Path spans;
+
+  @Setup
+  public void setup() throws IOException {
+    customerStub = HttpServer.create()
+          .port(0)
+          .route(routes -> routes.get("/api/customers/document/{documentNumber}", (request, response) ->
+                response.header("Content-Type", "application/json")
+                      .sendString(Mono.just("{\"data\":[{\"id\":\"c-1\",\"documentNumber\":\""
+                            + request.param("documentNumber") + "\",\"customerType\":\"PERSONAL\"}],\"error\":null}"))))
+          .bindNow();
+    spans = Files.createTempFile("spans", ".jsonl");
+
+    List<String> properties = new ArrayList<>(List.of("server.port=0", "spring.rsocket.server.port=0",
+          "spring.main.banner-mode=off", "logging.level.root=WARN", "credit.analytics.initial-delay-ms=3600000",
+          "credit.exposure.initial-delay-ms=3600000", "credit.archive.enabled=false", "credit.schema.upgrade.enabled=false",
+          "customer.service.url=http://localhost:" + customerStub.port(), "customer.service.batch.window=0ms"));
+    if ("off".equals(sampling)) {
+      properties.add("spring.sleuth.enabled=false");
+    } else {
+      properties.add("spring.sleuth.sampler.probability=" + sampling);
+      properties.add("credit.tracing.file.path=" + spans);
+    }
+    context = new SpringApplicationBuilder(CreditServiceApplication.class, InMemoryRepositoryConfig.class)
+          .properties(properties.toArray(new String[0]))
+          .run();
+    webClient = WebClient.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    context.close();
+    customerStub.disposeNow();
+    Files.deleteIfExists(spans);
+  }
+
+  @Benchmark
+  public CreditResponse createCredit() {
+    return webClient.post()
+          .uri("/api/credits/all")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{\"customerDocument\":\"" + documents.incrementAndGet() + "\",\"creditType\":\"PERSONAL\","
+                + "\"creditLimit\":1000,\"interestRate\":0.1,\"termMonths\":12}")
+          .retrieve()
+          .bodyToMono(CreditResponse.class)
+          .block();
+  }
+
+  /**
+   * Sin @Configuration a propósito (ver CreditTransportBenchmark): solo la usa el contexto del benchmark.
+   */
+  static class InMemoryRepositoryConfig {
+    @Bean
+    @Primary
+    CreditRepositoryOutputPort inMemoryCreditRepository() {
+      return HotTierCreditAdapter.standalone();
+    }
+  }
+}
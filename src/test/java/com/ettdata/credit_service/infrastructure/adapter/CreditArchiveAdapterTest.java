@@ -0,0 +1,123 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditArchiveBatch;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CreditArchiveAdapterTest {
+
+	private static final LocalDateTime CUTOFF = LocalDateTime.now().minusDays(180);
+
+	private MongoServer server;
+	private MongoClient client;
+	private MongoCollection<Document> live;
+	private MongoCollection<Document> archive;
+	private CreditArchiveAdapter adapter;
+	private final CreditDocumentCodec codec = new CreditDocumentCodec();
+
+	@BeforeEach
+	void start() {
+		server = new MongoServer(new MemoryBackend());
+		client = MongoClients.create(server.bindAndGetConnectionString());
+		ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "test");
+		live = template.getCollection("credits").block();
+		archive = template.getCollection(CreditArchiveAdapter.ARCHIVE_COLLECTION).block();
+		adapter = new CreditArchiveAdapter(template,
+				new DefaultListableBeanFactory().getBeanProvider(HotTierCreditAdapter.class), codec);
+	}
+
+	@AfterEach
+	void stop() {
+		client.close();
+		server.shutdown();
+	}
+
+	@Test
+	void movesClosedCreditsInBatchesAndRepeatsAfterAPartialFailure() {
+		for (int i = 0; i < 5; i++) {
+			insert(credit("old-" + i, CreditStatus.CANCELLED, CUTOFF.minusDays(10 - i)));
+		}
+		insert(credit("active", CreditStatus.ACTIVE, CUTOFF.minusDays(30)));
+		insert(credit("recent", CreditStatus.INACTIVE, LocalDateTime.now()));
+		// Una pasada anterior copió los dos primeros al archivo y cayó antes de borrarlos
+		Flux.just("old-0", "old-1")
+				.concatMap(id -> Mono.from(live.find(Filters.eq("_id", id)).first()))
+				.concatMap(document -> Mono.from(archive.insertOne(document)))
+				.blockLast();
+
+		CreditArchiveBatch first = adapter.archiveClosedBefore(CUTOFF, 3).block();
+		assertEquals(3, first.getRead());
+		assertEquals(List.of("old-0", "old-1", "old-2"), ids(first.getMoved()));
+		CreditArchiveBatch second = adapter.archiveClosedBefore(CUTOFF, 3).block();
+		assertEquals(2, second.getRead());
+		assertEquals(List.of("old-3", "old-4"), ids(second.getMoved()));
+		assertEquals(0, adapter.archiveClosedBefore(CUTOFF, 3).block().getRead());
+
+		assertEquals(5L, Mono.from(archive.countDocuments()).block());
+		assertEquals(List.of("active", "recent"), Flux.from(live.find().sort(new Document("_id", 1)))
+				.map(document -> document.getString("_id")).collectList().block());
+		assertEquals(CreditStatus.CANCELLED, adapter.findArchivedById("old-0").block().getStatus());
+	}
+
+	@Test
+	void creditChangedBetweenReadAndDeleteStaysLive() {
+		for (int i = 0; i < 3; i++) {
+			insert(credit("old-" + i, CreditStatus.CANCELLED, CUTOFF.minusDays(10 - i)));
+		}
+		List<Document> batch = Flux.from(live.find().sort(new Document("_id", 1))).collectList().block();
+		Mono.from(live.updateOne(Filters.eq("_id", "old-1"), Updates.inc(CreditDocumentCodec.VERSION, 1L))).block();
+
+		assertEquals(List.of("old-0", "old-2"), ids(adapter.move(live, batch).block()));
+		assertEquals(1L, Mono.from(live.countDocuments(Filters.eq("_id", "old-1"))).block());
+		assertEquals(0L, Mono.from(archive.countDocuments(Filters.eq("_id", "old-1"))).block());
+		assertEquals(2L, Mono.from(archive.countDocuments()).block());
+	}
+
+	private void insert(Credit credit) {
+		Mono.from(live.insertOne(codec.encode(credit))).block();
+	}
+
+	private static List<String> ids(List<Credit> credits) {
+		return credits.stream().map(Credit::getId).collect(Collectors.toList());
+	}
+
+	private static Credit credit(String id, CreditStatus status, LocalDateTime updatedAt) {
+		return Credit.builder()
+				.id(id)
+				.creditNumber("CR-" + id)
+				.customerDocument("12345678")
+				.type(CreditType.PERSONAL)
+				.status(status)
+				.creditLimit(BigDecimal.TEN)
+				.currentDebt(BigDecimal.ZERO)
+				.availableCredit(BigDecimal.TEN)
+				.hasOverdueDebt(false)
+				.createdAt(updatedAt)
+				.updatedAt(updatedAt)
+				.version(0L)
+				.build();
+	}
+}
@@ -0,0 +1,89 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.infrastructure.utils.CreditDocumentCodec;
+import com.mongodb.client.model.Filters;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreditSchemaUpgraderTest {
+
+	private MongoServer server;
+	private MongoClient client;
+	private MongoCollection<Document> live;
+	private CreditSchemaUpgrader upgrader;
+	private final CreditDocumentCodec codec = new CreditDocumentCodec();
+
+	@BeforeEach
+	void start() {
+		server = new MongoServer(new MemoryBackend());
+		client = MongoClients.create(server.bindAndGetConnectionString());
+		ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "test");
+		live = template.getCollection("credits").block();
+		upgrader = new CreditSchemaUpgrader(template, codec, true, 2, Duration.ofMillis(1), 1, new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void stop() {
+		client.close();
+		server.shutdown();
+	}
+
+	@Test
+	void batchesPageByIdPastUnreadableDocumentsAndAcrossIdTypes() {
+		// Los dos primeros en orden de _id no se pueden leer: llenan el primer lote sin migrar nada
+		insert(legacy("a-0", "UNKNOWN"));
+		insert(legacy("a-1", "UNKNOWN"));
+		for (int i = 2; i < 5; i++) {
+			insert(legacy("a-" + i, "ACTIVE"));
+		}
+		ObjectId first = new ObjectId();
+		ObjectId second = new ObjectId();
+		insert(legacy(first, "ACTIVE"));
+		insert(legacy(second, "CANCELLED"));
+
+		assertEquals(5L, upgrader.upgradeAll().block());
+
+		List<Document> remaining = Flux.from(live.find(Filters.exists(CreditDocumentCodec.SCHEMA, false)))
+				.collectList()
+				.block();
+		assertEquals(List.of("a-0", "a-1"), remaining.stream()
+				.map(document -> document.get("_id"))
+				.collect(Collectors.toList()));
+		for (Object id : List.of("a-2", "a-3", "a-4", first, second)) {
+			Document upgraded = Mono.from(live.find(Filters.eq("_id", id)).first()).block();
+			assertTrue(CreditDocumentCodec.isCurrent(upgraded), "upgraded " + id);
+		}
+		assertTrue(codec.hasLegacyDocuments());
+	}
+
+	private void insert(Document document) {
+		Mono.from(live.insertOne(document)).block();
+	}
+
+	private static Document legacy(Object id, String status) {
+		return new Document("_id", id)
+				.append(CreditDocumentCodec.LEGACY_NUMBER, "CR-" + id)
+				.append(CreditDocumentCodec.LEGACY_CUSTOMER, "40000001")
+				.append(CreditDocumentCodec.LEGACY_TYPE, "PERSONAL")
+				.append(CreditDocumentCodec.LEGACY_STATUS, status)
+				.append(CreditDocumentCodec.LEGACY_VERSION, 0L);
+	}
+}
@@ -0,0 +1,177 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.domain.model.CustomerResponse;
+import com.ettdata.credit_service.infrastructure.utils.HedgedRetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CustomerWebClientAdapterTest {
+
+	private final AtomicInteger singleCalls = new AtomicInteger();
+	private final AtomicInteger batchCalls = new AtomicInteger();
+	private final Map<String, AtomicInteger> callsByDocument = new ConcurrentHashMap<>();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final ConnectionProvider connectionProvider = ConnectionProvider.create("customer-service", 16);
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private DisposableServer server;
+
+	@AfterEach
+	void stopStub() {
+		server.disposeNow();
+		connectionProvider.dispose();
+	}
+
+	@Test
+	void concurrentLookupsAreGroupedIntoBatchCalls() {
+		startStub(true);
+		// Ventana amplia: las 100 consultas entran antes del primer cierre por tiempo y se agrupan en dos
+		// llamadas llenas (max-size 50); con 5 ms un cierre podía dejar un documento suelto, que va por la individual
+		CustomerWebClientAdapter adapter = adapter(Duration.ofMillis(200), false);
+
+		List<CustomerResponse> found = lookupAll(adapter, 100);
+
+		assertEquals(90, found.size());
+		assertEquals(0, singleCalls.get());
+		assertEquals(2, batchCalls.get());
+	}
+
+	@Test
+	void fallsBackToSingleLookupsWithoutBatchEndpoint() {
+		startStub(false);
+		// Ventana amplia: con el cliente en frío las 40 consultas podrían repartirse en dos ventanas de 5 ms,
+		// y la segunda saldría antes de conocerse el 404 de la primera
+		CustomerWebClientAdapter adapter = adapter(Duration.ofMillis(200), false);
+
+		List<CustomerResponse> found = lookupAll(adapter, 40);
+
+		assertEquals(36, found.size());
+		assertEquals(1, batchCalls.get());
+		assertEquals(40, singleCalls.get());
+	}
+
+	@Test
+	void slowAttemptsAreHedgedAndTransientErrorsRetried() {
+		startStub(true);
+		CustomerWebClientAdapter adapter = adapter(Duration.ZERO, true);
+
+		StepVerifier.create(adapter.getCustomerByDocument("slow-1").map(CustomerResponse::getId))
+				.expectNext("c-slow-1")
+				.verifyComplete();
+		StepVerifier.create(adapter.getCustomerByDocument("flaky-1").map(CustomerResponse::getId))
+				.expectNext("c-flaky-1")
+				.verifyComplete();
+		StepVerifier.create(adapter.getCustomerByDocument("down-1"))
+				.expectError(WebClientResponseException.class)
+				.verify(Duration.ofSeconds(5));
+
+		assertEquals(2, callsByDocument.get("slow-1").get());
+		assertEquals(1.0, meterRegistry.get("customer.lookup.hedges.won").counter().count());
+		assertEquals(2, callsByDocument.get("flaky-1").get());
+		assertEquals(3, callsByDocument.get("down-1").get());
+	}
+
+	@Test
+	void warmUpOpensConnectionsThatLookupsReuse() {
+		startStub(true);
+		CustomerWebClientAdapter adapter = adapter();
+
+		assertEquals(8L, adapter.warmUp(8).block(Duration.ofSeconds(5)));
+		assertEquals(8, connections.get());
+
+		assertEquals(8, lookupAll(adapter, 8).size());
+		assertEquals(8, connections.get());
+	}
+
+	private List<CustomerResponse> lookupAll(CustomerWebClientAdapter adapter, int count) {
+		return Flux.range(0, count)
+				.flatMap(i -> adapter.getCustomerByDocument(document(i)), count)
+				.collectList()
+				.block(Duration.ofSeconds(10));
+	}
+
+	private CustomerWebClientAdapter adapter() {
+		return adapter(Duration.ofMillis(5), false);
+	}
+
+	private CustomerWebClientAdapter adapter(Duration batchWindow, boolean hedging) {
+		HedgedRetry policy = new HedgedRetry("customer.lookup", hedging, 0.95, Duration.ofMillis(10),
+				Duration.ofMillis(100), 2, Duration.ofMillis(10), 0.1, 10, meterRegistry);
+		return new CustomerWebClientAdapter(WebClient.builder(), connectionProvider, "http://localhost:" + server.port(),
+				"/api/customers/documents", batchWindow, 50, 8, "/actuator/health", policy, meterRegistry);
+	}
+
+	/**
+	 * Stub del servicio de clientes: los documentos que terminan en 9 no existen.
+	 * slow-* tarda en la primera llamada, flaky-* responde 503 en la primera y down-* siempre.
+	 */
+	private void startStub(boolean withBatchEndpoint) {
+		server = HttpServer.create()
+				.port(0)
+				.doOnChannelInit((observer, channel, address) -> connections.incrementAndGet())
+				.route(routes -> {
+					routes.get("/actuator/health", (request, response) -> json(response, "{\"status\":\"UP\"}"));
+					routes.get("/api/customers/document/{documentNumber}", (request, response) -> {
+						singleCalls.incrementAndGet();
+						String document = request.param("documentNumber");
+						int call = callsByDocument.computeIfAbsent(document, key -> new AtomicInteger()).incrementAndGet();
+						if (document.startsWith("slow") && call == 1) {
+							return json(response, "{\"data\":[" + customer(document) + "],\"error\":null}")
+									.delaySubscription(Duration.ofSeconds(1));
+						}
+						if (document.startsWith("down") || document.startsWith("flaky") && call == 1) {
+							return response.status(503).send();
+						}
+						if (document.endsWith("9")) {
+							return response.status(404).send();
+						}
+						return json(response, "{\"data\":[" + customer(document) + "],\"error\":null}");
+					});
+					routes.post("/api/customers/documents", (request, response) -> {
+						batchCalls.incrementAndGet();
+						if (!withBatchEndpoint) {
+							return response.status(404).send();
+						}
+						return request.receive().aggregate().asString().flatMap(body -> {
+							String customers = List.of(body.replaceAll("[\\[\\]\"]", "").split(",")).stream()
+									.filter(document -> !document.endsWith("9"))
+									.map(CustomerWebClientAdapterTest::customer)
+									.collect(Collectors.joining(","));
+							return json(response, "{\"data\":[" + customers + "],\"error\":null}");
+						});
+					});
+				})
+				.bindNow();
+	}
+
+	private static Mono<Void> json(HttpServerResponse response, String body) {
+		return response.header("Content-Type", "application/json").sendString(Mono.just(body)).then();
+	}
+
+	private static String customer(String document) {
+		return "{\"id\":\"c-" + document + "\",\"documentType\":\"DNI\",\"documentNumber\":\"" + document
+				+ "\",\"fullName\":\"Cliente " + document + "\",\"customerType\":\"PERSONAL\"}";
+	}
+
+	private static String document(int i) {
+		return String.format("%08d", i);
+	}
+}
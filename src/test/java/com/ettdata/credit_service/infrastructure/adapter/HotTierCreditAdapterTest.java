@@ -0,0 +1,127 @@
+package com.ettdata.credit_service.infrastructure.adapter;
+
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.infrastructure.adapter.CreditWriteBehind.Op;
+import com.ettdata.credit_service.infrastructure.adapter.CreditWriteBehind.OpType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HotTierCreditAdapterTest {
+
+	private static final long JOURNAL_LIMIT = 64L * 1024 * 1024;
+
+	@Test
+	void standaloneTierChecksVersionsAndKeepsIndexesCurrent() {
+		HotTierCreditAdapter tier = HotTierCreditAdapter.standalone();
+		Credit saved = tier.saveCredit(credit("12345678", CreditType.PERSONAL)).block();
+		assertEquals(0L, saved.getVersion());
+
+		saved.setCurrentDebt(BigDecimal.TEN);
+		Credit updated = tier.saveCredit(saved).block();
+		assertEquals(1L, updated.getVersion());
+
+		StepVerifier.create(tier.saveCredit(saved))
+				.expectError(CreditVersionConflictException.class)
+				.verify();
+		StepVerifier.create(tier.findOpenByDocumentNumber("12345678").map(Credit::getCurrentDebt))
+				.expectNext(BigDecimal.TEN)
+				.verifyComplete();
+
+		updated.setStatus(CreditStatus.CANCELLED);
+		tier.saveCredit(updated).block();
+		StepVerifier.create(tier.findOpenByDocumentNumber("12345678")).verifyComplete();
+		StepVerifier.create(tier.findByCreditNumbers(List.of(saved.getCreditNumber())).map(Credit::getStatus))
+				.expectNext(CreditStatus.CANCELLED)
+				.verifyComplete();
+
+		tier.deleteByIdCredit(saved.getId()).block();
+		StepVerifier.create(tier.findByDocumentNumber("12345678")).verifyComplete();
+	}
+
+	@Test
+	void drainedJournalIsTruncatedAndLinesAreReplayedInSequenceOrder(@TempDir Path dir) throws IOException {
+		Credit credit = credit("87654321", CreditType.BUSINESS);
+		credit.setId("c-1");
+		CreditWriteBehind compacting = new CreditWriteBehind(dir, ops -> Mono.empty(),
+				ops -> { }, Duration.ofMillis(10), 100, 1000, 1, new SimpleMeterRegistry());
+		compacting.recover().block();
+		compacting.append(new Op(OpType.SAVE, "c-1", credit.toBuilder().version(0L).build()));
+		compacting.flush().block();
+		assertEquals(0L, Files.size(dir.resolve("credits.journal")));
+
+		// Dos escritores reservan en orden y escriben su línea al revés
+		CreditWriteBehind crashed = new CreditWriteBehind(dir, ops -> Mono.error(new IllegalStateException("down")),
+				ops -> { }, Duration.ofMillis(10), 100, 1000, JOURNAL_LIMIT, new SimpleMeterRegistry());
+		crashed.recover().block();
+		Op first = new Op(OpType.SAVE, "c-1", credit.toBuilder().version(1L).build());
+		Op second = new Op(OpType.SAVE, "c-1", credit.toBuilder().version(2L).build());
+		crashed.reserve(first);
+		crashed.reserve(second);
+		crashed.journal(second);
+		crashed.journal(first);
+
+		List<List<Op>> batches = new ArrayList<>();
+		CreditWriteBehind restarted = new CreditWriteBehind(dir, ops -> Mono.fromRunnable(() -> batches.add(ops)),
+				ops -> { }, Duration.ofMillis(10), 100, 1000, JOURNAL_LIMIT, new SimpleMeterRegistry());
+		assertEquals(2L, restarted.recover().block());
+		assertEquals(1, batches.get(0).size());
+		assertEquals(2L, batches.get(0).get(0).credit.getVersion());
+	}
+
+	@Test
+	void writeBehindCoalescesPerCreditAndReplaysUnpersistedJournal(@TempDir Path dir) {
+		List<List<Op>> batches = new ArrayList<>();
+		CreditWriteBehind crashed = new CreditWriteBehind(dir, ops -> Mono.error(new IllegalStateException("down")),
+				ops -> { }, Duration.ofMillis(10), 100, 1000, JOURNAL_LIMIT, new SimpleMeterRegistry());
+		crashed.recover().block();
+		Credit credit = credit("87654321", CreditType.BUSINESS);
+		credit.setId("c-1");
+		for (long version = 0; version < 3; version++) {
+			credit.setVersion(version);
+			crashed.append(new Op(OpType.SAVE, "c-1", credit.toBuilder().build()));
+		}
+		crashed.append(new Op(OpType.DELETE, "c-2", null));
+		StepVerifier.create(crashed.flush()).expectError(IllegalStateException.class).verify();
+
+		CreditWriteBehind restarted = new CreditWriteBehind(dir, ops -> Mono.fromRunnable(() -> batches.add(ops)),
+				ops -> { }, Duration.ofMillis(10), 100, 1000, JOURNAL_LIMIT, new SimpleMeterRegistry());
+		assertEquals(4L, restarted.recover().block());
+		assertEquals(1, batches.size());
+		assertEquals(List.of("c-1:2", "c-2:null"), batches.get(0).stream()
+				.map(op -> op.id + ":" + (op.credit != null ? op.credit.getVersion() : null))
+				.collect(Collectors.toList()));
+
+		CreditWriteBehind again = new CreditWriteBehind(dir, ops -> Mono.fromRunnable(() -> batches.add(ops)),
+				ops -> { }, Duration.ofMillis(10), 100, 1000, JOURNAL_LIMIT, new SimpleMeterRegistry());
+		assertEquals(0L, again.recover().block());
+	}
+
+	private static Credit credit(String document, CreditType type) {
+		return Credit.builder()
+				.creditNumber("CR-" + document)
+				.customerDocument(document)
+				.type(type)
+				.creditLimit(BigDecimal.valueOf(1000))
+				.currentDebt(BigDecimal.ZERO)
+				.availableCredit(BigDecimal.valueOf(1000))
+				.hasOverdueDebt(false)
+				.status(CreditStatus.ACTIVE)
+				.build();
+	}
+}
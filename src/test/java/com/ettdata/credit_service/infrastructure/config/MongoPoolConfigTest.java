@@ -0,0 +1,34 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MongoPoolConfigTest {
+
+	private final MongoPoolConfig config = new MongoPoolConfig();
+
+	@Test
+	void minimumPoolSizeIsCappedAtTheMaximumFromTheUri() {
+		MongoPoolConfig.MongoPoolMonitor monitor = config.mongoPoolMonitor();
+		MongoClientSettings.Builder settings = MongoClientSettings.builder()
+				.applyConnectionString(new ConnectionString("mongodb://localhost/bd-credits?maxPoolSize=4"));
+		config.mongoPoolCustomizer(monitor, 10).customize(settings);
+
+		assertEquals(4, settings.build().getConnectionPoolSettings().getMinSize());
+		assertEquals(4, monitor.minConnections());
+	}
+
+	@Test
+	void minimumPoolSizeIsKeptWhenItFits() {
+		MongoPoolConfig.MongoPoolMonitor monitor = config.mongoPoolMonitor();
+		MongoClientSettings.Builder settings = MongoClientSettings.builder()
+				.applyConnectionString(new ConnectionString("mongodb://localhost/bd-credits?minPoolSize=2"));
+		config.mongoPoolCustomizer(monitor, 10).customize(settings);
+
+		assertEquals(10, settings.build().getConnectionPoolSettings().getMinSize());
+		assertEquals(10, monitor.minConnections());
+	}
+}
@@ -0,0 +1,65 @@
+package com.ettdata.credit_service.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StartupLatencyFilterTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final StartupLatencyFilter filter = filter(Duration.ofMillis(500));
+	private final WebFilterChain chain = exchange -> Mono.empty();
+
+	@Test
+	void onlyRealRequestsAfterReadyAreRecorded() {
+		request(MockServerHttpRequest.get("/api/credits/c-1"));
+		assertEquals(0, firstWindow().count());
+
+		ready();
+		request(MockServerHttpRequest.get("/api/credits/c-1"));
+		request(MockServerHttpRequest.get("/api/credits/c-1").header(StartupWarmup.WARMUP_HEADER, "true"));
+		request(MockServerHttpRequest.get("/actuator/health/readiness"));
+		request(MockServerHttpRequest.post("/api/credits/all"));
+		assertEquals(2, firstWindow().count());
+	}
+
+	@Test
+	void recordingStopsWhenTheWindowCloses() throws InterruptedException {
+		// Antes de estar lista no cuenta; carga las clases para que la siguiente caiga dentro de la ventana
+		request(MockServerHttpRequest.get("/api/credits/c-1"));
+		ready();
+		request(MockServerHttpRequest.get("/api/credits/c-1"));
+		Thread.sleep(700);
+		request(MockServerHttpRequest.get("/api/credits/c-1"));
+		assertEquals(1, firstWindow().count());
+	}
+
+	private StartupLatencyFilter filter(Duration window) {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("meterRegistry", registry);
+		return new StartupLatencyFilter(window, beanFactory.getBeanProvider(MeterRegistry.class));
+	}
+
+	private void ready() {
+		filter.onReadiness(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+	}
+
+	private void request(MockServerHttpRequest.BaseBuilder<?> request) {
+		filter.filter(MockServerWebExchange.from(request), chain).block();
+	}
+
+	private Timer firstWindow() {
+		return registry.get("credit.startup.first-window.latency").timer();
+	}
+}
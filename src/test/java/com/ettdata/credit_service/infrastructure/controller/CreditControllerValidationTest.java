@@ -0,0 +1,116 @@
+package com.ettdata.credit_service.infrastructure.controller;
+
+import com.ettdata.credit_service.application.port.in.CreditInputPort;
+import com.ettdata.credit_service.application.port.in.CreditTransitionInputPort;
+import com.ettdata.credit_service.domain.model.CreditResponse;
+import com.ettdata.credit_service.infrastructure.config.BinaryCodecConfig;
+import com.ettdata.credit_service.infrastructure.utils.CreditCsvWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(CreditController.class)
+@Import(BinaryCodecConfig.class)
+class CreditControllerValidationTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@MockBean
+	private CreditInputPort creditService;
+
+	@MockBean
+	private CreditCsvWriter csvWriter;
+
+	@MockBean
+	private CreditTransitionInputPort transitionService;
+
+	@Test
+	void invalidCreditIsRejectedWithFieldErrorsBeforeReachingTheService() {
+		webTestClient.post()
+				.uri("/api/credits/all")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"customerDocument\":\"12345678\",\"creditType\":\"PERSONAL\","
+						+ "\"creditLimit\":-5,\"interestRate\":0.1,\"termMonths\":900}")
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.codResponse").isEqualTo(400)
+				.jsonPath("$.errors.length()").isEqualTo(2)
+				.jsonPath("$.errors[0].field").isEqualTo("creditLimit")
+				.jsonPath("$.errors[1].field").isEqualTo("termMonths");
+
+		webTestClient.post()
+				.uri("/api/credits/disbursements")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"creditId\":\"\",\"amount\":0}")
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.errors.length()").isEqualTo(2);
+
+		webTestClient.post()
+				.uri("/api/credits/transitions")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"transition\":\"CANCEL\",\"creditIds\":[\"c-1\",\"\"]}")
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.errors.length()").isEqualTo(1);
+
+		verifyNoInteractions(creditService, transitionService);
+	}
+
+	@Test
+	void versionTagDependsOnNegotiatedFormatAndVariesByAccept() {
+		when(creditService.getCreditVersionTag("c-1")).thenReturn(Mono.just("v1"));
+		when(creditService.getCreditById("c-1"))
+				.thenReturn(Mono.just(CreditResponse.builder().codResponse(200).build()));
+
+		String jsonTag = webTestClient.get()
+				.uri("/api/credits/c-1")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+				.returnResult(byte[].class).getResponseHeaders().getETag();
+		String cborTag = webTestClient.get()
+				.uri("/api/credits/c-1")
+				.accept(MediaType.APPLICATION_CBOR)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_CBOR)
+				.returnResult(byte[].class).getResponseHeaders().getETag();
+		assertNotNull(jsonTag);
+		assertNotEquals(jsonTag, cborTag);
+
+		webTestClient.get()
+				.uri("/api/credits/c-1")
+				.accept(MediaType.APPLICATION_CBOR)
+				.ifNoneMatch(jsonTag)
+				.exchange()
+				.expectStatus().isOk();
+		webTestClient.get()
+				.uri("/api/credits/c-1")
+				.accept(MediaType.APPLICATION_CBOR)
+				.ifNoneMatch(cborTag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+	}
+}
@@ -0,0 +1,87 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.infrastructure.entity.CreditEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CreditDocumentCodecTest {
+
+	private final CreditDocumentCodec codec = new CreditDocumentCodec();
+
+	@Test
+	void currentSchemaRoundTripsAndDropsDerivedAvailable() {
+		Credit credit = credit(new BigDecimal("989.995"));
+		Document document = codec.encode(credit);
+
+		assertEquals(2, document.get(CreditDocumentCodec.SCHEMA));
+		assertEquals(3, document.get(CreditDocumentCodec.TYPE));
+		assertEquals(3, document.get(CreditDocumentCodec.STATUS));
+		assertFalse(document.containsKey(CreditDocumentCodec.AVAILABLE));
+		assertEquals(credit, codec.decode(document));
+
+		// Un disponible que no cuadra con límite - deuda se conserva
+		Credit adjusted = credit(new BigDecimal("900.00"));
+		assertEquals(adjusted, codec.decode(codec.encode(adjusted)));
+	}
+
+	@Test
+	void legacyDocumentsAreStillRead() {
+		ZoneId zone = ZoneId.systemDefault();
+		Document legacy = new Document("_id", "c-1")
+				.append("creditNumber", "CC-1")
+				.append("customerDocument", "40000001")
+				.append("type", "CREDIT_CARD")
+				.append("creditLimit", "1000.00")
+				.append("currentDebt", "10.005")
+				.append("availableCredit", "989.995")
+				.append("interestRate", "0.1850")
+				.append("termMonths", 24)
+				.append("monthlyPayment", "50.42")
+				.append("dueDate", Date.from(LocalDate.of(2026, 1, 1).atStartOfDay(zone).toInstant()))
+				.append("hasOverdueDebt", true)
+				.append("status", "OVERDUE")
+				.append("createdAt", Date.from(LocalDateTime.of(2025, 6, 1, 10, 0).atZone(zone).toInstant()))
+				.append("updatedAt", Date.from(LocalDateTime.of(2025, 9, 1, 10, 0).atZone(zone).toInstant()))
+				.append("_class", CreditEntity.class.getName());
+
+		Credit credit = codec.decode(legacy);
+		Credit expected = credit(new BigDecimal("989.995"));
+		// Sin versión equivale a la 0
+		expected.setVersion(0L);
+		assertEquals(expected, credit);
+		assertNull(credit.getLastSettlementLine());
+	}
+
+	private static Credit credit(BigDecimal available) {
+		return Credit.builder()
+				.id("c-1")
+				.creditNumber("CC-1")
+				.customerDocument("40000001")
+				.type(CreditType.CREDIT_CARD)
+				.creditLimit(new BigDecimal("1000.00"))
+				.currentDebt(new BigDecimal("10.005"))
+				.availableCredit(available)
+				.interestRate(new BigDecimal("0.1850"))
+				.termMonths(24)
+				.monthlyPayment(new BigDecimal("50.42"))
+				.dueDate(LocalDate.of(2026, 1, 1))
+				.hasOverdueDebt(true)
+				.status(CreditStatus.OVERDUE)
+				.createdAt(LocalDateTime.of(2025, 6, 1, 10, 0))
+				.updatedAt(LocalDateTime.of(2025, 9, 1, 10, 0))
+				.version(4L)
+				.build();
+	}
+}
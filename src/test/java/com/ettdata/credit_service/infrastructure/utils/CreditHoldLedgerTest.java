@@ -0,0 +1,62 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.error.CreditVersionConflictException;
+import com.ettdata.credit_service.domain.error.InsufficientCreditException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditHold;
+import com.ettdata.credit_service.domain.model.CreditHoldStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CreditHoldLedgerTest {
+
+	private final CreditHoldLedger ledger = new CreditHoldLedger(new SimpleMeterRegistry());
+
+	@Test
+	void holdsAndDebitsShareTheAvailableAmount() {
+		Credit read = credit(3L, "100.00");
+		ledger.reserve(read, new BigDecimal("60.00"));
+		assertThrows(InsufficientCreditException.class, () -> ledger.reserve(read, new BigDecimal("50.00")));
+
+		// Cargo de 40 guardado en la versión 4: lo leído en la versión 3 ya no vale
+		ledger.debit(read, new BigDecimal("40.00"), Mono.just(credit(4L, "60.00"))).block();
+		assertEquals(new BigDecimal("60.00"), ledger.held("c-1"));
+		assertThrows(CreditVersionConflictException.class, () -> ledger.reserve(read, new BigDecimal("0.01")));
+		assertThrows(InsufficientCreditException.class, () -> ledger.reserve(credit(4L, "60.00"), new BigDecimal("0.01")));
+
+		// Un cargo que falla devuelve lo reservado
+		ledger.release("c-1", new BigDecimal("60.00"));
+		assertThrows(IllegalStateException.class, () -> ledger.debit(credit(4L, "60.00"), new BigDecimal("10.00"),
+				Mono.error(new IllegalStateException("write failed"))).block());
+		assertEquals(0, ledger.held("c-1").signum());
+	}
+
+	@Test
+	void expiredHoldsAreClaimedOnceInExpiryOrder() {
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < 5; i++) {
+			ledger.reserve(credit(1L, "100.00"), BigDecimal.ONE);
+			ledger.add(CreditHold.builder().holdId("h-" + i).creditId("c-1").amount(BigDecimal.ONE)
+					.status(CreditHoldStatus.AUTHORIZED).expiresAt(now.plusSeconds(i - 3)).build());
+		}
+
+		List<CreditHold> expired = ledger.claimExpired(now, 2);
+		assertEquals(List.of("h-0", "h-1"), List.of(expired.get(0).getHoldId(), expired.get(1).getHoldId()));
+		assertEquals("h-2", ledger.claimExpired(now, 10).get(0).getHoldId());
+		assertNull(ledger.claim("h-1"));
+		assertEquals(0, ledger.claimExpired(now, 10).size());
+		assertEquals(new BigDecimal("5"), ledger.held("c-1"));
+	}
+
+	private static Credit credit(long version, String available) {
+		return Credit.builder().id("c-1").version(version).availableCredit(new BigDecimal(available)).build();
+	}
+}
@@ -0,0 +1,60 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditInvariant;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.InvariantViolation;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreditInvariantsTest {
+
+	private final CreditInvariants invariants = new CreditInvariants();
+
+	@Test
+	void consistentCreditsHaveNoViolations() {
+		assertTrue(invariants.check(credit("900.00", CreditStatus.ACTIVE, false)).isEmpty());
+		assertTrue(invariants.check(credit("900.00", CreditStatus.OVERDUE, true)).isEmpty());
+		// Fuera de ACTIVE/OVERDUE la marca de mora no se compara
+		assertTrue(invariants.check(credit("900.00", CreditStatus.CANCELLED, true)).isEmpty());
+		assertFalse(invariants.repair(credit("900.00", CreditStatus.ACTIVE, false)));
+	}
+
+	@Test
+	void repairMakesDebtTheSourceOfTruth() {
+		Credit credit = credit("1.00", CreditStatus.ACTIVE, true);
+		List<InvariantViolation> violations = invariants.check(credit);
+
+		assertEquals(2, violations.size());
+		assertEquals(CreditInvariant.BALANCE, violations.get(0).getInvariant());
+		assertEquals(CreditInvariant.OVERDUE_FLAG, violations.get(1).getInvariant());
+
+		assertTrue(invariants.repair(credit));
+		assertEquals(new BigDecimal("900.00"), credit.getAvailableCredit());
+		assertEquals(CreditStatus.OVERDUE, credit.getStatus());
+		assertTrue(invariants.check(credit).isEmpty());
+
+		// Sin deuda, la marca se levanta y el crédito vuelve a ACTIVE
+		Credit settled = credit("1000.00", CreditStatus.OVERDUE, false);
+		settled.setCurrentDebt(BigDecimal.ZERO);
+		assertTrue(invariants.repair(settled));
+		assertEquals(CreditStatus.ACTIVE, settled.getStatus());
+		assertFalse(settled.getHasOverdueDebt());
+	}
+
+	private static Credit credit(String available, CreditStatus status, boolean overdue) {
+		return Credit.builder()
+				.id("c1")
+				.creditLimit(new BigDecimal("1000.00"))
+				.currentDebt(new BigDecimal("100.00"))
+				.availableCredit(new BigDecimal(available))
+				.status(status)
+				.hasOverdueDebt(overdue)
+				.build();
+	}
+}
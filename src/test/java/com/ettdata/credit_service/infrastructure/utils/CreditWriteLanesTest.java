@@ -0,0 +1,128 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.application.port.out.CreditRepositoryOutputPort;
+import com.ettdata.credit_service.domain.error.BusinessRuleException;
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CreditWriteLanesTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CreditRepositoryOutputPort repository = mock(CreditRepositoryOutputPort.class);
+	private final CreditWriteLanes lanes = new CreditWriteLanes(repository, new ExposureCounters(),
+			new CreditHoldLedger(registry),
+			new OptimisticWriteRetry(3, Duration.ofMillis(1), Duration.ofMillis(5), 1.0, 20, registry),
+			new OverdueCustomerFilter(false, false, 1, 0.01, registry), registry, true, 1, 64);
+	private final AtomicReference<Credit> stored = new AtomicReference<>(credit());
+	private final AtomicInteger reads = new AtomicInteger();
+	private final AtomicInteger saves = new AtomicInteger();
+	// El primer guardado espera hasta abrirla, para que las siguientes escrituras se acumulen en el carril
+	private final Sinks.Empty<Void> firstSave = Sinks.empty();
+
+	CreditWriteLanesTest() {
+		when(repository.findById("c-1")).thenAnswer(invocation -> Mono.fromSupplier(() -> {
+			reads.incrementAndGet();
+			return stored.get().toBuilder().build();
+		}));
+		when(repository.saveCredit(any())).thenAnswer(invocation -> {
+			Credit credit = invocation.getArgument(0);
+			Mono<Credit> save = Mono.fromSupplier(() -> {
+				Credit saved = credit.toBuilder().version(credit.getVersion() + 1).build();
+				stored.set(saved);
+				return saved.toBuilder().build();
+			});
+			return saves.getAndIncrement() == 0 ? firstSave.asMono().then(save) : save;
+		});
+	}
+
+	@Test
+	void adjacentWritesToOneCreditAreAppliedInOrderAndSavedOnce() throws Exception {
+		CompletableFuture<Credit> first = append(1);
+		List<CompletableFuture<Credit>> queued = new ArrayList<>();
+		for (int digit = 2; digit <= 5; digit++) {
+			queued.add(append(digit));
+		}
+		firstSave.tryEmitEmpty();
+
+		assertEquals(new BigDecimal("1"), get(first).getCurrentDebt());
+		for (CompletableFuture<Credit> write : queued) {
+			assertEquals(new BigDecimal("12345"), get(write).getCurrentDebt());
+		}
+		assertEquals(2, reads.get());
+		assertEquals(2, saves.get());
+		assertEquals(2L, stored.get().getVersion());
+		DistributionSummary batches = registry.get("credit.write.lane.batch").summary();
+		assertEquals(2, batches.count());
+		assertEquals(4.0, batches.max());
+	}
+
+	@Test
+	void rejectedWriteFailsAloneWithoutChangingWhatTheOthersSee() throws Exception {
+		CompletableFuture<Credit> first = append(1);
+		CompletableFuture<Credit> second = append(2);
+		CompletableFuture<Credit> rejected = lanes.write("c-1", "test", credit -> {
+			credit.setCurrentDebt(BigDecimal.ZERO);
+			return Mono.error(new BusinessRuleException("Rejected write"));
+		}).toFuture();
+		CompletableFuture<Credit> third = append(3);
+		firstSave.tryEmitEmpty();
+
+		assertEquals(new BigDecimal("1"), get(first).getCurrentDebt());
+		assertEquals(new BigDecimal("123"), get(second).getCurrentDebt());
+		assertEquals(new BigDecimal("123"), get(third).getCurrentDebt());
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> get(rejected));
+		assertSame(BusinessRuleException.class, failure.getCause().getClass());
+		assertEquals("Rejected write", failure.getCause().getMessage());
+		assertEquals(new BigDecimal("123"), stored.get().getCurrentDebt());
+		assertEquals(2, saves.get());
+	}
+
+	/**
+	 * Añade una cifra a la deuda: el resultado solo sale en el orden correcto si los cambios se aplican en orden.
+	 */
+	private CompletableFuture<Credit> append(int digit) {
+		return lanes.write("c-1", "test", credit -> {
+			credit.setCurrentDebt(credit.getCurrentDebt().multiply(BigDecimal.TEN).add(BigDecimal.valueOf(digit)));
+			return Mono.just(credit);
+		}).toFuture();
+	}
+
+	private static Credit get(CompletableFuture<Credit> write) throws Exception {
+		return write.get(5, TimeUnit.SECONDS);
+	}
+
+	private static Credit credit() {
+		return Credit.builder()
+				.id("c-1")
+				.type(CreditType.PERSONAL)
+				.status(CreditStatus.ACTIVE)
+				.creditLimit(new BigDecimal("100.00"))
+				.currentDebt(BigDecimal.ZERO)
+				.availableCredit(new BigDecimal("100.00"))
+				.hasOverdueDebt(false)
+				.version(0L)
+				.build();
+	}
+}
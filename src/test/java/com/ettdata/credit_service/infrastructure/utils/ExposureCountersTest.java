@@ -0,0 +1,81 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import com.ettdata.credit_service.domain.model.CreditStatus;
+import com.ettdata.credit_service.domain.model.CreditType;
+import com.ettdata.credit_service.domain.model.ExposureCell;
+import com.ettdata.credit_service.domain.model.ExposureSummary;
+import com.ettdata.credit_service.domain.model.PortfolioExposure;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExposureCountersTest {
+
+	@Test
+	void concurrentDisbursementsAndStatusChangesKeepExactTotals() {
+		ExposureCounters counters = new ExposureCounters();
+		counters.initialize(List.of(new ExposureCell(CreditType.PERSONAL, CreditStatus.ACTIVE, 4000,
+				new BigDecimal("4000000.00"), BigDecimal.ZERO, new BigDecimal("4000000.00"))));
+
+		// 4000 créditos de 1000 con dos desembolsos de 0.01 cada uno, 8 hilos a la vez
+		Flux.range(0, 8000)
+				.parallel(8)
+				.runOn(Schedulers.parallel())
+				.flatMap(i -> {
+					Credit credit = credit(CreditStatus.ACTIVE, "0.00");
+					ExposureCounters.Position before = ExposureCounters.Position.of(credit);
+					return counters.track(before, Mono.just(credit(CreditStatus.ACTIVE, "0.01")));
+				})
+				.sequential()
+				.blockLast();
+		// 100 pasan a vencidos con su deuda (0.02) y 50 fallan al guardar: no cuentan
+		Flux.range(0, 150)
+				.parallel(8)
+				.runOn(Schedulers.parallel())
+				.flatMap(i -> counters.track(ExposureCounters.Position.of(credit(CreditStatus.ACTIVE, "0.02")),
+						i < 100 ? Mono.just(credit(CreditStatus.OVERDUE, "0.02")) : Mono.<Credit>error(new IllegalStateException()))
+						.onErrorResume(ex -> Mono.empty()))
+				.sequential()
+				.blockLast();
+
+		PortfolioExposure exposure = counters.snapshot();
+		assertEquals(0, counters.writesInFlight());
+		assertEquals(8100, counters.appliedWrites());
+		ExposureSummary total = exposure.getTotal();
+		assertEquals(4000, total.getCount());
+		assertEquals(new BigDecimal("80.00"), total.getTotalDebt());
+		assertEquals(new BigDecimal("3999920.00"), total.getTotalAvailable());
+		assertEquals(List.of("ACTIVE:3900:78.00", "OVERDUE:100:2.00"), describe(exposure.getExposureByStatus()));
+
+		assertEquals(2, counters.reconcile(List.of(new ExposureCell(CreditType.PERSONAL, CreditStatus.ACTIVE, 4000,
+				new BigDecimal("4000000.00"), new BigDecimal("80.00"), new BigDecimal("3999920.00")))));
+		assertEquals(List.of("ACTIVE:4000:80.00"), describe(counters.snapshot().getExposureByStatus()));
+	}
+
+	private static List<String> describe(List<ExposureSummary> summaries) {
+		return Flux.fromIterable(summaries)
+				.map(s -> s.getKey() + ":" + s.getCount() + ":" + s.getTotalDebt())
+				.collectList()
+				.block();
+	}
+
+	/**
+	 * Crédito de 1000 con la deuda indicada: solo importan tipo, estado e importes.
+	 */
+	private static Credit credit(CreditStatus status, String debt) {
+		BigDecimal limit = new BigDecimal("1000.00");
+		return Credit.builder()
+				.type(CreditType.PERSONAL)
+				.status(status)
+				.creditLimit(limit)
+				.currentDebt(new BigDecimal(debt))
+				.availableCredit(limit.subtract(new BigDecimal(debt)))
+				.build();
+	}
+}
@@ -0,0 +1,41 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedRetryTest {
+
+	@Test
+	void attemptsCancelledByTheHedgeStillCountInTheLatency() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		HedgedRetry hedgedRetry = new HedgedRetry("test", true, 0.95, Duration.ofMillis(5), Duration.ofMillis(50),
+				0, Duration.ofMillis(1), 1.0, 1000, meterRegistry);
+		AtomicInteger attempts = new AtomicInteger();
+
+		// El primer intento de cada llamada tarda 500 ms y pierde contra el hedge, lanzado a los 50 ms
+		Flux.range(0, 10)
+				.concatMap(i -> hedgedRetry.execute("lookup",
+						() -> Mono.delay(Duration.ofMillis(attempts.getAndIncrement() % 2 == 0 ? 500 : 1)),
+						ex -> false))
+				.blockLast(Duration.ofSeconds(10));
+
+		// doFinally del último intento corre justo después de que blockLast reciba la señal de fin
+		Timer latency = meterRegistry.get("test.latency").tag("call", "lookup").timer();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+		while (latency.count() < 20 && System.nanoTime() < deadline) {
+			Thread.yield();
+		}
+		assertEquals(20, latency.count());
+		assertEquals(10.0, meterRegistry.get("test.hedges.won").counter().count());
+		assertTrue(latency.max(TimeUnit.MILLISECONDS) >= 50, "cancelled primaries are recorded");
+	}
+}
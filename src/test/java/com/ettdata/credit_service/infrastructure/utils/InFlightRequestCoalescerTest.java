@@ -0,0 +1,48 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InFlightRequestCoalescerTest {
+
+	@Test
+	void concurrentReadsShareOneQueryAndDoNotCacheAfterCompletion() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		InFlightRequestCoalescer coalescer = new InFlightRequestCoalescer(registry);
+		AtomicInteger calls = new AtomicInteger();
+		Sinks.One<String> result = Sinks.one();
+
+		Mono<String> first = coalescer.execute("op", "k", () -> {
+			calls.incrementAndGet();
+			return result.asMono();
+		});
+		Mono<String> second = coalescer.execute("op", "k", () -> {
+			calls.incrementAndGet();
+			return Mono.just("other");
+		});
+
+		StepVerifier.create(first.zipWith(second))
+				.then(() -> result.tryEmitValue("v1"))
+				.assertNext(t -> {
+					assertEquals("v1", t.getT1());
+					assertEquals("v1", t.getT2());
+				})
+				.verifyComplete();
+		assertEquals(1, calls.get());
+		assertEquals(1.0, registry.get("credit.reads.coalescing").tag("result", "coalesced").counter().count());
+
+		StepVerifier.create(coalescer.execute("op", "k", () -> {
+					calls.incrementAndGet();
+					return Mono.just("v2");
+				}))
+				.expectNext("v2")
+				.verifyComplete();
+		assertEquals(2, calls.get());
+	}
+}
@@ -0,0 +1,69 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.Credit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OverdueCustomerFilterTest {
+
+	private final OverdueCustomerFilter filter = new OverdueCustomerFilter(true, true, 10_000, 0.01,
+			new SimpleMeterRegistry());
+
+	@Test
+	void answersMaybeUntilLoadedAndNeverMissesAnOverdueCustomer() {
+		assertEquals(7, filter.hashFunctions());
+		assertTrue(filter.mightHaveOverdue("10000001"));
+
+		OverdueCustomerFilter.Rebuild rebuild = filter.startRebuild();
+		for (int i = 0; i < 10_000; i++) {
+			rebuild.add(String.valueOf(20_000_000 + i));
+		}
+		filter.finishRebuild(rebuild);
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightHaveOverdue(String.valueOf(20_000_000 + i)));
+			if (filter.mightHaveOverdue(String.valueOf(30_000_000 + i))) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+		assertTrue(filter.estimatedFalsePositiveRate() < 0.02);
+	}
+
+	@Test
+	void rebuildDropsSettledCustomersButKeepsRecentMarks() {
+		filter.finishRebuild(filter.startRebuild());
+		filter.record(overdue("40000001"));
+
+		// Mongo ya no tiene al cliente marcado antes de la reconstrucción, ni al marcado durante ella
+		OverdueCustomerFilter.Rebuild rebuild = filter.startRebuild();
+		assertNull(filter.startRebuild());
+		filter.record(overdue("40000002"));
+		filter.finishRebuild(rebuild);
+		assertTrue(filter.mightHaveOverdue("40000001"));
+		assertTrue(filter.mightHaveOverdue("40000002"));
+
+		filter.finishRebuild(filter.startRebuild());
+		assertFalse(filter.mightHaveOverdue("40000001"));
+		assertFalse(filter.mightHaveOverdue("40000002"));
+	}
+
+	@Test
+	void withSeveralWritersItAlwaysAnswersMaybe() {
+		// Una marca escrita por otra instancia no estaría en el filtro hasta la siguiente reconstrucción
+		OverdueCustomerFilter shared = new OverdueCustomerFilter(true, false, 10_000, 0.01, new SimpleMeterRegistry());
+		assertFalse(shared.isEnabled());
+		shared.finishRebuild(shared.startRebuild());
+		assertTrue(shared.mightHaveOverdue("50000001"));
+	}
+
+	private static Credit overdue(String customerDocument) {
+		return Credit.builder().customerDocument(customerDocument).hasOverdueDebt(true).build();
+	}
+}
@@ -0,0 +1,54 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentCalculatorTest {
+
+	private final PaymentCalculator calculator = new PaymentCalculator(100);
+
+	@Test
+	void gridMatchesTheDirectFormulaCellByCell() {
+		List<BigDecimal> rates = List.of(BigDecimal.ZERO, new BigDecimal("0.0001"), new BigDecimal("0.1850"),
+				new BigDecimal("0.35"), BigDecimal.ONE);
+		List<Integer> terms = List.of(1, 7, 12, 36, 360);
+		List<BigDecimal> amounts = List.of(new BigDecimal("0.01"), new BigDecimal("1000.00"), new BigDecimal("98765.43"));
+
+		BigDecimal[] grid = calculator.grid(rates, terms, amounts);
+		int cell = 0;
+		for (BigDecimal rate : rates) {
+			for (Integer months : terms) {
+				for (BigDecimal amount : amounts) {
+					assertEquals(direct(amount, rate, months), grid[cell++], rate + "/" + months + "/" + amount);
+				}
+			}
+		}
+	}
+
+	@Test
+	void centsRoundLikeBigDecimalIncludingHalfCents() {
+		assertEquals(new BigDecimal("0.13"), PaymentCalculator.cents(0.125));
+		assertEquals(new BigDecimal("1.01"), PaymentCalculator.cents(1.005));
+		assertEquals(new BigDecimal("2.68"), PaymentCalculator.cents(2.675));
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			double payment = random.nextDouble() * Math.pow(10, random.nextInt(9));
+			assertEquals(BigDecimal.valueOf(payment).setScale(2, RoundingMode.HALF_UP), PaymentCalculator.cents(payment));
+		}
+	}
+
+	private static BigDecimal direct(BigDecimal principal, BigDecimal annualRate, Integer months) {
+		if (annualRate.compareTo(BigDecimal.ZERO) == 0) {
+			return principal.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+		}
+		BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(12), 6, RoundingMode.HALF_UP);
+		double r = monthlyRate.doubleValue();
+		double power = Math.pow(1 + r, months);
+		return BigDecimal.valueOf(principal.doubleValue() * (r * power) / (power - 1)).setScale(2, RoundingMode.HALF_UP);
+	}
+}
@@ -0,0 +1,73 @@
+package com.ettdata.credit_service.infrastructure.utils;
+
+import com.ettdata.credit_service.domain.model.SettlementFormat;
+import com.ettdata.credit_service.domain.model.SettlementPayment;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SettlementLineParserTest {
+
+	private final SettlementLineParser parser = new SettlementLineParser();
+
+	@Test
+	void csvLinesAreParsedAndMalformedOnesRejected() {
+		SettlementPayment payment = parser.parse(2, "ref-1, CR-001 ,150.25,2024-03-01", SettlementFormat.CSV);
+		assertEquals(2, payment.getLine());
+		assertEquals("CR-001", payment.getCreditNumber());
+		assertEquals(new BigDecimal("150.25"), payment.getAmount());
+		assertEquals(LocalDate.of(2024, 3, 1), payment.getPaymentDate());
+
+		assertNull(parser.parse(1, "reference,creditNumber,amount,paymentDate", SettlementFormat.CSV));
+		assertNull(parser.parse(3, "  ", SettlementFormat.CSV));
+
+		assertEquals("Expected 4 fields but found 3",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(4, "ref-1,CR-001,150.25", SettlementFormat.CSV)).getMessage());
+		assertEquals("Missing creditNumber",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(5, "ref-1, ,150.25,2024-03-01", SettlementFormat.CSV)).getMessage());
+		assertEquals("Invalid amount: 15O.25",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(6, "ref-1,CR-001,15O.25,2024-03-01", SettlementFormat.CSV)).getMessage());
+		assertEquals("Invalid payment date: 01/03/2024",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(7, "ref-1,CR-001,150.25,01/03/2024", SettlementFormat.CSV)).getMessage());
+	}
+
+	@Test
+	void fixedWidthRecordsAreParsedAndMalformedOnesRejected() {
+		String record = fixedWidth('D', "ref-1", "CR-001", "000000000015025", "20240301");
+		SettlementPayment payment = parser.parse(2, record, SettlementFormat.FIXED_WIDTH);
+		assertEquals("ref-1", payment.getReference());
+		assertEquals("CR-001", payment.getCreditNumber());
+		assertEquals(new BigDecimal("150.25"), payment.getAmount());
+		assertEquals(LocalDate.of(2024, 3, 1), payment.getPaymentDate());
+
+		assertNull(parser.parse(1, "H20240301", SettlementFormat.FIXED_WIDTH));
+		assertNull(parser.parse(9, "T0000001", SettlementFormat.FIXED_WIDTH));
+
+		assertEquals("Unknown record type X",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(3, "X" + record.substring(1), SettlementFormat.FIXED_WIDTH)).getMessage());
+		assertEquals("Record shorter than 64 characters",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(4, record.substring(0, 60), SettlementFormat.FIXED_WIDTH)).getMessage());
+		assertEquals("Invalid amount: 00000000001502X",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(5, fixedWidth('D', "ref-1", "CR-001", "00000000001502X", "20240301"),
+								SettlementFormat.FIXED_WIDTH)).getMessage());
+		assertEquals("Invalid payment date: 20241301",
+				assertThrows(IllegalArgumentException.class,
+						() -> parser.parse(6, fixedWidth('D', "ref-1", "CR-001", "000000000015025", "20241301"),
+								SettlementFormat.FIXED_WIDTH)).getMessage());
+	}
+
+	private static String fixedWidth(char type, String reference, String creditNumber, String cents, String date) {
+		return type + String.format("%-20s%-20s", reference, creditNumber) + cents + date;
+	}
+}